@@ -0,0 +1,676 @@
+package qub;
+
+/**
+ * A local content-addressable cache of the class files and issues that were produced when source
+ * files were compiled. The cache can be shared by several project folders, such as separate
+ * checkouts or worktrees of the same repository.
+ *
+ * Each class file is stored once in the objects folder, named after the hash of its contents. Each
+ * cache entry is a manifest in the entries folder that maps a source file's cache key to the class
+ * files and issues that compiling the source file produced. The index file tracks when each entry
+ * was last used and how many bytes it references, so that the least recently used entries can be
+ * evicted once the cache grows past its maximum size.
+ */
+public class BuildCache
+{
+    private static final String objectsFolderName = "objects";
+    private static final String entriesFolderName = "entries";
+    private static final String indexFileName = "index.json";
+    private static final String nextUsePropertyName = "nextUse";
+    private static final String sizePropertyName = "size";
+    private static final String entriesPropertyName = "entries";
+    private static final String lastUsePropertyName = "lastUse";
+    private static final String objectsPropertyName = "objects";
+    private static final String classFilesPropertyName = "classFiles";
+    private static final String pathPropertyName = "path";
+    private static final String objectPropertyName = "object";
+    private static final String issuesPropertyName = "issues";
+
+    private final Folder cacheFolder;
+    private long maximumSizeBytes;
+    private JSONObject index;
+    private boolean indexChanged;
+
+    private BuildCache(Folder cacheFolder)
+    {
+        PreCondition.assertNotNull(cacheFolder, "cacheFolder");
+
+        this.cacheFolder = cacheFolder;
+        this.maximumSizeBytes = BuildCache.getMaximumSizeBytesDefault();
+    }
+
+    /**
+     * Create a new BuildCache that is stored in the provided folder.
+     * @param cacheFolder The folder that the cache is stored in.
+     * @return The new BuildCache.
+     */
+    public static BuildCache create(Folder cacheFolder)
+    {
+        return new BuildCache(cacheFolder);
+    }
+
+    /**
+     * Get the default number of bytes that the cache's entries can reference before the least
+     * recently used entries are evicted.
+     * @return The default maximum size of the cache in bytes.
+     */
+    static long getMaximumSizeBytesDefault()
+    {
+        return 1024L * 1024L * 1024L;
+    }
+
+    /**
+     * Get the folder that this cache is stored in.
+     * @return The folder that this cache is stored in.
+     */
+    public Folder getCacheFolder()
+    {
+        return this.cacheFolder;
+    }
+
+    /**
+     * Get the number of bytes that this cache's entries can reference before the least recently
+     * used entries are evicted.
+     * @return The maximum size of this cache in bytes.
+     */
+    public long getMaximumSizeBytes()
+    {
+        return this.maximumSizeBytes;
+    }
+
+    /**
+     * Set the number of bytes that this cache's entries can reference before the least recently
+     * used entries are evicted.
+     * @param maximumSizeBytes The maximum size of this cache in bytes.
+     * @return This object for method chaining.
+     */
+    public BuildCache setMaximumSizeBytes(long maximumSizeBytes)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumSizeBytes, 0L, "maximumSizeBytes");
+
+        this.maximumSizeBytes = maximumSizeBytes;
+        return this;
+    }
+
+    /**
+     * Get the number of bytes that this cache's entries reference. Class files that are shared by
+     * several entries are counted once for each entry.
+     * @return The number of bytes that this cache's entries reference.
+     */
+    public long getSizeBytes()
+    {
+        return this.getIndex().getNumber(BuildCache.sizePropertyName)
+            .catchError()
+            .await()
+            .longValue();
+    }
+
+    /**
+     * Get whether or not this cache contains an entry with the provided key.
+     * @param key The cache key of a source file.
+     * @return Whether or not this cache contains an entry with the provided key.
+     */
+    public boolean contains(String key)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+
+        return this.getIndexEntry(key) != null;
+    }
+
+    /**
+     * Copy the class files of the entry with the provided key into the provided outputs folder.
+     * @param key The cache key of a source file.
+     * @param outputsFolder The folder that the class files will be copied to.
+     * @return The issues that were reported when the source file was compiled, or null if this
+     * cache doesn't contain a complete entry with the provided key.
+     */
+    public Result<Iterable<JavaCompilerIssue>> restore(String key, Folder outputsFolder)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        return Result.create2(() ->
+        {
+            Iterable<JavaCompilerIssue> result = null;
+
+            final JSONObject indexEntry = this.getIndexEntry(key);
+            if (indexEntry != null)
+            {
+                final JSONObject manifest = JSON.parseObject(this.getManifestFile(key))
+                    .catchError()
+                    .await();
+                final JSONArray classFiles = manifest == null
+                    ? null
+                    : manifest.getArray(BuildCache.classFilesPropertyName).catchError().await();
+                final JSONArray issues = manifest == null
+                    ? null
+                    : manifest.getArray(BuildCache.issuesPropertyName).catchError().await();
+
+                boolean complete = classFiles != null && issues != null;
+                if (complete)
+                {
+                    for (final JSONObject classFile : classFiles.instanceOf(JSONObject.class))
+                    {
+                        if (!this.getObjectFile(classFile.getString(BuildCache.objectPropertyName).await()).exists().await())
+                        {
+                            complete = false;
+                            break;
+                        }
+                    }
+                }
+
+                if (!complete)
+                {
+                    this.removeEntry(key);
+                }
+                else
+                {
+                    for (final JSONObject classFile : classFiles.instanceOf(JSONObject.class))
+                    {
+                        final File objectFile = this.getObjectFile(classFile.getString(BuildCache.objectPropertyName).await());
+                        final File outputFile = outputsFolder.getFile(classFile.getString(BuildCache.pathPropertyName).await()).await();
+                        BuildCache.copyFile(objectFile, outputFile).await();
+                    }
+
+                    result = issues
+                        .instanceOf(JSONObject.class)
+                        .map((JSONObject issueJson) -> JavaCompilerIssue.parse(issueJson).await())
+                        .toList();
+
+                    indexEntry.setNumber(BuildCache.lastUsePropertyName, this.takeNextUse());
+                    this.indexChanged = true;
+                }
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Store the provided class files and issues in this cache with the provided key.
+     * @param key The cache key of the source file that was compiled.
+     * @param classFilePaths The paths (relative to the outputs folder) of the class files that were
+     *                       produced when the source file was compiled.
+     * @param outputsFolder The folder that the class files were written to.
+     * @param issues The issues that were reported when the source file was compiled.
+     * @return The result of storing the entry.
+     */
+    public Result<Void> store(String key, Iterable<Path> classFilePaths, Folder outputsFolder, Iterable<JavaCompilerIssue> issues)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+        PreCondition.assertNotNull(classFilePaths, "classFilePaths");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+        PreCondition.assertNotNull(issues, "issues");
+
+        return Result.create2(() ->
+        {
+            final JSONArray manifestClassFiles = JSONArray.create();
+            final Set<String> objectHashes = Set.create();
+            long entrySize = 0;
+            for (final Path classFilePath : classFilePaths)
+            {
+                final byte[] classFileContents = outputsFolder.getFile(classFilePath).await().getContents().await();
+                final String objectHash = ContentHash.create(classFileContents);
+                final File objectFile = this.getObjectFile(objectHash);
+                if (!objectFile.exists().await())
+                {
+                    objectFile.setContents(classFileContents).await();
+                }
+                manifestClassFiles.add(JSONObject.create()
+                    .setString(BuildCache.pathPropertyName, classFilePath.toString())
+                    .setString(BuildCache.objectPropertyName, objectHash));
+                if (!objectHashes.contains(objectHash))
+                {
+                    objectHashes.add(objectHash);
+                    entrySize += classFileContents.length;
+                }
+            }
+
+            final JSONObject manifest = JSONObject.create()
+                .setArray(BuildCache.classFilesPropertyName, manifestClassFiles)
+                .setArray(BuildCache.issuesPropertyName, JSONArray.create(issues.map(JavaCompilerIssue::toJson)));
+            this.writeEntry(key, manifest.toString(), objectHashes, entrySize);
+        });
+    }
+
+    /**
+     * Add an entry that was copied from another cache, such as a remote build cache.
+     * @param key The cache key of the entry.
+     * @param manifestContents The contents of the entry's manifest.
+     * @param objectContents The contents of the class files that the manifest references, keyed by
+     *                       their content hashes.
+     * @return Whether or not the entry was added. An entry isn't added if its manifest is invalid
+     * or if one of the class files it references is missing or doesn't match its content hash.
+     */
+    public Result<Boolean> addEntry(String key, String manifestContents, Map<String,byte[]> objectContents)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+        PreCondition.assertNotNull(manifestContents, "manifestContents");
+        PreCondition.assertNotNull(objectContents, "objectContents");
+
+        return Result.create2(() ->
+        {
+            final Iterable<String> manifestObjectHashes = BuildCache.getManifestObjectHashes(manifestContents);
+            boolean result = manifestObjectHashes != null;
+            if (result)
+            {
+                for (final String objectHash : manifestObjectHashes)
+                {
+                    final byte[] contents = objectContents.get(objectHash)
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (contents == null || !objectHash.equals(ContentHash.create(contents)))
+                    {
+                        result = false;
+                        break;
+                    }
+                }
+            }
+
+            if (result)
+            {
+                final Set<String> objectHashes = Set.create();
+                long entrySize = 0;
+                for (final String objectHash : manifestObjectHashes)
+                {
+                    if (!objectHashes.contains(objectHash))
+                    {
+                        objectHashes.add(objectHash);
+                        final byte[] contents = objectContents.get(objectHash).await();
+                        final File objectFile = this.getObjectFile(objectHash);
+                        if (!objectFile.exists().await())
+                        {
+                            objectFile.setContents(contents).await();
+                        }
+                        entrySize += contents.length;
+                    }
+                }
+                this.writeEntry(key, manifestContents, objectHashes, entrySize);
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the contents of the manifest of the entry with the provided key.
+     * @param key The cache key of the entry.
+     * @return The contents of the entry's manifest, or null if this cache doesn't contain an entry
+     * with the provided key.
+     */
+    public Result<String> getManifestContents(String key)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+
+        return Result.create2(() ->
+        {
+            return this.getIndexEntry(key) == null
+                ? null
+                : this.getManifestFile(key).getContentsAsString()
+                    .catchError(FileNotFoundException.class)
+                    .await();
+        });
+    }
+
+    /**
+     * Get the contents of the class file with the provided content hash.
+     * @param objectHash The content hash of the class file.
+     * @return The contents of the class file, or null if this cache doesn't contain it.
+     */
+    public Result<byte[]> getObjectContents(String objectHash)
+    {
+        PreCondition.assertNotNullAndNotEmpty(objectHash, "objectHash");
+
+        return Result.create2(() ->
+        {
+            return this.getObjectFile(objectHash).getContents()
+                .catchError(FileNotFoundException.class)
+                .await();
+        });
+    }
+
+    /**
+     * Get the content hashes of the class files that the provided manifest references.
+     * @param manifestContents The contents of an entry's manifest.
+     * @return The content hashes of the class files that the manifest references, or null if the
+     * manifest is invalid or if one of its class file paths would be outside of the outputs folder.
+     */
+    public static Iterable<String> getManifestObjectHashes(String manifestContents)
+    {
+        PreCondition.assertNotNull(manifestContents, "manifestContents");
+
+        Iterable<String> result = null;
+        final JSONObject manifest = JSON.parseObject(manifestContents)
+            .catchError()
+            .await();
+        final JSONArray classFiles = manifest == null
+            ? null
+            : manifest.getArray(BuildCache.classFilesPropertyName).catchError().await();
+        if (classFiles != null && manifest.getArray(BuildCache.issuesPropertyName).catchError().await() != null)
+        {
+            List<String> objectHashes = List.create();
+            for (final JSONObject classFile : classFiles.instanceOf(JSONObject.class))
+            {
+                final String objectHash = classFile.getString(BuildCache.objectPropertyName).catchError().await();
+                final String classFilePath = classFile.getString(BuildCache.pathPropertyName).catchError().await();
+                if (!BuildCache.isHash(objectHash) || !BuildCache.isRelativeClassFilePath(classFilePath))
+                {
+                    objectHashes = null;
+                    break;
+                }
+                objectHashes.add(objectHash);
+            }
+            result = objectHashes;
+        }
+        return result;
+    }
+
+    /**
+     * Get the path of the manifest of the entry with the provided key, relative to the root of a
+     * cache. Remote build caches use the same layout as local build caches.
+     * @param key The cache key of the entry.
+     * @return The relative path of the entry's manifest.
+     */
+    public static String getManifestPath(String key)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+
+        return BuildCache.entriesFolderName + "/" + key + ".json";
+    }
+
+    /**
+     * Get the path of the class file with the provided content hash, relative to the root of a
+     * cache. Remote build caches use the same layout as local build caches.
+     * @param objectHash The content hash of the class file.
+     * @return The relative path of the class file.
+     */
+    public static String getObjectPath(String objectHash)
+    {
+        PreCondition.assertTrue(BuildCache.isHash(objectHash), "BuildCache.isHash(objectHash)");
+
+        return BuildCache.objectsFolderName + "/" + objectHash.substring(0, 2) + "/" + objectHash;
+    }
+
+    /**
+     * Get whether or not the provided path is a manifest path or a class file path in a cache's
+     * layout. Anything else, such as a path that contains "..", is not a valid path.
+     * @param path The path relative to the root of a cache.
+     * @return Whether or not the provided path is a valid path in a cache's layout.
+     */
+    public static boolean isValidPath(String path)
+    {
+        boolean result = false;
+        if (!Strings.isNullOrEmpty(path))
+        {
+            final String[] segments = path.split("/", -1);
+            if (segments.length == 2 && BuildCache.entriesFolderName.equals(segments[0]) && segments[1].endsWith(".json"))
+            {
+                result = BuildCache.isHash(segments[1].substring(0, segments[1].length() - ".json".length()));
+            }
+            else if (segments.length == 3 && BuildCache.objectsFolderName.equals(segments[0]) && BuildCache.isHash(segments[2]))
+            {
+                result = segments[2].startsWith(segments[1]) && segments[1].length() == 2;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isRelativeClassFilePath(String value)
+    {
+        boolean result = !Strings.isNullOrEmpty(value) && !value.startsWith("/") && !value.startsWith("\\") && !value.contains(":");
+        if (result)
+        {
+            for (final String segment : value.split("[/\\\\]"))
+            {
+                if (segment.isEmpty() || segment.equals("..") || segment.equals("."))
+                {
+                    result = false;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isHash(String value)
+    {
+        boolean result = !Strings.isNullOrEmpty(value);
+        if (result)
+        {
+            for (int i = 0; i < value.length(); ++i)
+            {
+                final char c = value.charAt(i);
+                if (!(('0' <= c && c <= '9') || ('a' <= c && c <= 'f')))
+                {
+                    result = false;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void writeEntry(String key, String manifestContents, Iterable<String> objectHashes, long entrySize)
+    {
+        try (final CharacterWriteStream writeStream = CharacterWriteStream.create(ByteWriteStream.buffer(this.getManifestFile(key).getContentsByteWriteStream().await())))
+        {
+            writeStream.write(manifestContents).await();
+        }
+
+        this.removeEntry(key);
+        final JSONArray entryObjects = JSONArray.create();
+        for (final String objectHash : objectHashes)
+        {
+            entryObjects.add(JSONString.get(objectHash));
+        }
+        this.getIndexEntries().set(key, JSONObject.create()
+            .setNumber(BuildCache.lastUsePropertyName, this.takeNextUse())
+            .setNumber(BuildCache.sizePropertyName, entrySize)
+            .setArray(BuildCache.objectsPropertyName, entryObjects));
+        this.getIndex().setNumber(BuildCache.sizePropertyName, this.getSizeBytes() + entrySize);
+        this.indexChanged = true;
+    }
+
+    /**
+     * Evict the least recently used entries until this cache is within its maximum size, delete the
+     * class files that no entry references anymore, and write this cache's index file.
+     * @return The result of saving this cache.
+     */
+    public Result<Void> save()
+    {
+        return Result.create2(() ->
+        {
+            long sizeBytes = this.getSizeBytes();
+            if (sizeBytes > this.maximumSizeBytes)
+            {
+                final List<JSONProperty> indexEntriesByLastUse = List.create();
+                for (final JSONProperty indexEntry : this.getIndexEntries().getProperties())
+                {
+                    indexEntriesByLastUse.add(indexEntry);
+                }
+                indexEntriesByLastUse.sort((JSONProperty lhs, JSONProperty rhs) -> BuildCache.getLastUse(lhs) < BuildCache.getLastUse(rhs));
+
+                final Set<String> evictedObjectHashes = Set.create();
+                final JSONObject remainingIndexEntries = JSONObject.create();
+                for (final JSONProperty indexEntry : indexEntriesByLastUse)
+                {
+                    final JSONObject indexEntryValue = (JSONObject)indexEntry.getValue();
+                    if (sizeBytes > this.maximumSizeBytes)
+                    {
+                        sizeBytes -= indexEntryValue.getNumber(BuildCache.sizePropertyName).await().longValue();
+                        for (final String objectHash : BuildCache.getObjectHashes(indexEntryValue))
+                        {
+                            evictedObjectHashes.add(objectHash);
+                        }
+                        this.getManifestFile(indexEntry.getName()).delete()
+                            .catchError(FileNotFoundException.class)
+                            .await();
+                    }
+                    else
+                    {
+                        remainingIndexEntries.set(indexEntry);
+                    }
+                }
+
+                // Class files that are shared with an entry that wasn't evicted are kept.
+                final Set<String> remainingObjectHashes = Set.create();
+                for (final JSONProperty remainingIndexEntry : remainingIndexEntries.getProperties())
+                {
+                    remainingObjectHashes.addAll(BuildCache.getObjectHashes((JSONObject)remainingIndexEntry.getValue()));
+                }
+                for (final String evictedObjectHash : evictedObjectHashes.where((String objectHash) -> !remainingObjectHashes.contains(objectHash)))
+                {
+                    this.getObjectFile(evictedObjectHash).delete()
+                        .catchError(FileNotFoundException.class)
+                        .await();
+                }
+
+                this.getIndex()
+                    .setNumber(BuildCache.sizePropertyName, java.lang.Math.max(0, sizeBytes))
+                    .set(BuildCache.entriesPropertyName, remainingIndexEntries);
+                this.indexChanged = true;
+            }
+
+            if (this.indexChanged)
+            {
+                final File indexFile = this.cacheFolder.getFile(BuildCache.indexFileName).await();
+                try (final CharacterWriteStream writeStream = CharacterWriteStream.create(ByteWriteStream.buffer(indexFile.getContentsByteWriteStream().await())))
+                {
+                    writeStream.write(this.getIndex().toString()).await();
+                }
+                this.indexChanged = false;
+            }
+        });
+    }
+
+    /**
+     * Copy the contents of the provided source file to the provided destination file. Files on the
+     * local file system are copied with FileChannel.transferTo() so that the operating system can
+     * copy the bytes without bringing them into this process. The cached class files aren't hard
+     * linked into the outputs folder, because javac overwrites existing class files in place and
+     * would change the cached copy.
+     * @param source The file to copy.
+     * @param destination The file to copy to.
+     * @return The result of copying the file.
+     */
+    static Result<Void> copyFile(File source, File destination)
+    {
+        PreCondition.assertNotNull(source, "source");
+        PreCondition.assertNotNull(destination, "destination");
+
+        return Result.create2(() ->
+        {
+            if (source.getFileSystem() instanceof JavaFileSystem && destination.getFileSystem() instanceof JavaFileSystem)
+            {
+                final java.nio.file.Path sourcePath = java.nio.file.Paths.get(source.toString());
+                final java.nio.file.Path destinationPath = java.nio.file.Paths.get(destination.toString());
+                try
+                {
+                    java.nio.file.Files.createDirectories(destinationPath.getParent());
+                    try (final java.nio.channels.FileChannel sourceChannel = java.nio.channels.FileChannel.open(sourcePath, java.nio.file.StandardOpenOption.READ);
+                         final java.nio.channels.FileChannel destinationChannel = java.nio.channels.FileChannel.open(destinationPath, java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.WRITE, java.nio.file.StandardOpenOption.TRUNCATE_EXISTING))
+                    {
+                        final long size = sourceChannel.size();
+                        long position = 0;
+                        while (position < size)
+                        {
+                            position += sourceChannel.transferTo(position, size - position, destinationChannel);
+                        }
+                    }
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+            else
+            {
+                destination.setContents(source.getContents().await()).await();
+            }
+        });
+    }
+
+    private JSONObject getIndex()
+    {
+        if (this.index == null)
+        {
+            this.index = JSON.parseObject(this.cacheFolder.getFile(BuildCache.indexFileName).await())
+                .catchError()
+                .await();
+            if (this.index == null ||
+                this.index.getNumber(BuildCache.sizePropertyName).catchError().await() == null ||
+                this.index.getNumber(BuildCache.nextUsePropertyName).catchError().await() == null ||
+                this.index.getObject(BuildCache.entriesPropertyName).catchError().await() == null)
+            {
+                this.index = JSONObject.create()
+                    .setNumber(BuildCache.nextUsePropertyName, 0)
+                    .setNumber(BuildCache.sizePropertyName, 0)
+                    .set(BuildCache.entriesPropertyName, JSONObject.create());
+            }
+        }
+        return this.index;
+    }
+
+    private JSONObject getIndexEntries()
+    {
+        return this.getIndex().getObject(BuildCache.entriesPropertyName).await();
+    }
+
+    private JSONObject getIndexEntry(String key)
+    {
+        return this.getIndexEntries().getObject(key)
+            .catchError()
+            .await();
+    }
+
+    private long takeNextUse()
+    {
+        final JSONObject index = this.getIndex();
+        final long result = index.getNumber(BuildCache.nextUsePropertyName).await().longValue();
+        index.setNumber(BuildCache.nextUsePropertyName, result + 1);
+        return result;
+    }
+
+    private static long getLastUse(JSONProperty indexEntry)
+    {
+        return ((JSONObject)indexEntry.getValue()).getNumber(BuildCache.lastUsePropertyName).await().longValue();
+    }
+
+    private static Iterable<String> getObjectHashes(JSONObject indexEntry)
+    {
+        return indexEntry.getArray(BuildCache.objectsPropertyName).await()
+            .instanceOf(JSONString.class)
+            .map(JSONString::getValue)
+            .toList();
+    }
+
+    private void removeEntry(String key)
+    {
+        final JSONObject indexEntry = this.getIndexEntry(key);
+        if (indexEntry != null)
+        {
+            final long entrySize = indexEntry.getNumber(BuildCache.sizePropertyName).await().longValue();
+            final JSONObject remainingIndexEntries = JSONObject.create();
+            for (final JSONProperty remainingIndexEntry : this.getIndexEntries().getProperties())
+            {
+                if (!key.equals(remainingIndexEntry.getName()))
+                {
+                    remainingIndexEntries.set(remainingIndexEntry);
+                }
+            }
+            this.getIndex().set(BuildCache.entriesPropertyName, remainingIndexEntries);
+            this.getIndex().setNumber(BuildCache.sizePropertyName, java.lang.Math.max(0, this.getSizeBytes() - entrySize));
+            this.indexChanged = true;
+        }
+    }
+
+    private File getManifestFile(String key)
+    {
+        return this.cacheFolder.getFile(BuildCache.getManifestPath(key)).await();
+    }
+
+    private File getObjectFile(String objectHash)
+    {
+        return this.cacheFolder.getFile(BuildCache.getObjectPath(objectHash)).await();
+    }
+}
@@ -0,0 +1,24 @@
+package qub;
+
+/**
+ * A place that build cache entries can be shared through, such as a folder or an HTTP server. The
+ * paths that are read and written are relative paths in a BuildCache's layout (see
+ * BuildCache.getManifestPath() and BuildCache.getObjectPath()).
+ */
+public interface BuildCacheBackend
+{
+    /**
+     * Get the contents at the provided path.
+     * @param path The path relative to the root of the backend.
+     * @return The contents at the provided path, or null if nothing is stored there.
+     */
+    Result<byte[]> get(String path);
+
+    /**
+     * Store the provided contents at the provided path.
+     * @param path The path relative to the root of the backend.
+     * @param contents The contents to store.
+     * @return The result of storing the contents.
+     */
+    Result<Void> put(String path, byte[] contents);
+}
@@ -0,0 +1,173 @@
+package qub;
+
+/**
+ * Creates the BuildCache keys of a project's source files. A source file's key is a hash of
+ * everything that can change the class files that javac produces for it: the contents of the
+ * source file and of every project source file that it transitively depends on, and the
+ * compilation digest of the javac version, javac arguments, and classpath. The dependencies are
+ * found by scanning the source files instead of being read from build.json, so the same source
+ * tree produces the same keys in every project folder.
+ */
+public class BuildCacheKeys
+{
+    private final Folder rootFolder;
+    private final String compilationDigest;
+    private final SourceDependencyScanner dependencyScanner;
+    private final Map<String,String> contentHashes;
+    private final Map<String,Iterable<File>> dependencies;
+    private final Map<String,String> keys;
+
+    private BuildCacheKeys(Folder rootFolder, Iterable<File> javaSourceFiles, String compilationDigest)
+    {
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(javaSourceFiles, "javaSourceFiles");
+        PreCondition.assertNotNullAndNotEmpty(compilationDigest, "compilationDigest");
+
+        this.rootFolder = rootFolder;
+        this.compilationDigest = compilationDigest;
+        this.dependencyScanner = SourceDependencyScanner.create(javaSourceFiles);
+        this.contentHashes = Map.create();
+        this.dependencies = Map.create();
+        this.keys = Map.create();
+    }
+
+    /**
+     * Create a new BuildCacheKeys object for the provided project source files.
+     * @param rootFolder The root folder of the project.
+     * @param javaSourceFiles All of the source files in the project.
+     * @param compilationDigest The digest of the javac version, javac arguments, and classpath that
+     *                          the source files are compiled with.
+     * @return The new BuildCacheKeys object.
+     */
+    public static BuildCacheKeys create(Folder rootFolder, Iterable<File> javaSourceFiles, String compilationDigest)
+    {
+        return new BuildCacheKeys(rootFolder, javaSourceFiles, compilationDigest);
+    }
+
+    /**
+     * Get the digest of the settings that every source file in a compilation is compiled with.
+     * Paths inside of the project folder and the Qub folder are made relative so that the digest
+     * is the same for every project folder and Qub folder.
+     * @param javacVersion The version of javac.
+     * @param javacArguments The javac arguments, not including the source files to compile.
+     * @param dependencyClassPaths The paths to the project's resolved dependencies.
+     * @param rootFolder The root folder of the project.
+     * @param qubFolder The Qub folder that the dependencies are installed in.
+     * @return The digest of the settings that every source file is compiled with.
+     */
+    public static Result<String> getCompilationDigest(VersionNumber javacVersion, Iterable<String> javacArguments, Iterable<String> dependencyClassPaths, Folder rootFolder, QubFolder qubFolder)
+    {
+        PreCondition.assertNotNull(javacVersion, "javacVersion");
+        PreCondition.assertNotNull(javacArguments, "javacArguments");
+        PreCondition.assertNotNull(dependencyClassPaths, "dependencyClassPaths");
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
+        return Result.create2(() ->
+        {
+            final List<String> digestLines = List.create();
+            digestLines.add("javac:" + javacVersion);
+            for (final String javacArgument : javacArguments)
+            {
+                digestLines.add("argument:" + BuildCacheKeys.relativize(javacArgument, rootFolder, qubFolder));
+            }
+
+            // Installed dependencies are never modified in place, but a dependency that was
+            // reinstalled gets a new last modified time.
+            final FileSystem fileSystem = rootFolder.getFileSystem();
+            for (final String dependencyClassPath : dependencyClassPaths)
+            {
+                final DateTime lastModified = fileSystem.getFile(dependencyClassPath)
+                    .then((File dependencyFile) -> dependencyFile.getLastModified().await())
+                    .catchError()
+                    .await();
+                digestLines.add("classpath:" + BuildCacheKeys.relativize(dependencyClassPath, rootFolder, qubFolder) + ":" + lastModified);
+            }
+
+            return ContentHash.create(Strings.join('\n', digestLines));
+        });
+    }
+
+    private static String relativize(String text, Folder rootFolder, QubFolder qubFolder)
+    {
+        return text
+            .replace(BuildCacheKeys.withoutTrailingSlash(rootFolder.toString()), "<project>")
+            .replace(BuildCacheKeys.withoutTrailingSlash(qubFolder.toString()), "<qub>");
+    }
+
+    private static String withoutTrailingSlash(String folderPath)
+    {
+        return folderPath.endsWith("/") || folderPath.endsWith("\\")
+            ? folderPath.substring(0, folderPath.length() - 1)
+            : folderPath;
+    }
+
+    /**
+     * Get the cache key of the provided source file.
+     * @param javaSourceFile The source file to get the cache key of.
+     * @return The cache key of the provided source file.
+     */
+    public Result<String> getKey(File javaSourceFile)
+    {
+        PreCondition.assertNotNull(javaSourceFile, "javaSourceFile");
+
+        return Result.create2(() ->
+        {
+            final String javaSourceFilePath = javaSourceFile.toString();
+            String result = this.keys.get(javaSourceFilePath)
+                .catchError(NotFoundException.class)
+                .await();
+            if (result == null)
+            {
+                final Map<String,String> closureContentHashes = Map.create();
+                final List<File> filesToVisit = List.create(javaSourceFile);
+                while (filesToVisit.any())
+                {
+                    final File fileToVisit = filesToVisit.removeLast();
+                    final String relativePath = fileToVisit.relativeTo(this.rootFolder).toString();
+                    if (!closureContentHashes.containsKey(relativePath))
+                    {
+                        closureContentHashes.set(relativePath, this.getContentHash(fileToVisit));
+                        filesToVisit.addAll(this.dependencies.get(fileToVisit.toString()).await());
+                    }
+                }
+
+                final List<String> keyLines = List.create();
+                keyLines.add(this.compilationDigest);
+                keyLines.add("source:" + javaSourceFile.relativeTo(this.rootFolder));
+                final List<String> closureRelativePaths = closureContentHashes.getKeys().toList();
+                closureRelativePaths.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+                for (final String closureRelativePath : closureRelativePaths)
+                {
+                    keyLines.add(closureRelativePath + ":" + closureContentHashes.get(closureRelativePath).await());
+                }
+                result = ContentHash.create(Strings.join('\n', keyLines));
+                this.keys.set(javaSourceFilePath, result);
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the content hash of the provided source file, and scan the source file for its
+     * dependencies while its contents are in memory.
+     */
+    private String getContentHash(File javaSourceFile)
+    {
+        final String javaSourceFilePath = javaSourceFile.toString();
+        String result = this.contentHashes.get(javaSourceFilePath)
+            .catchError(NotFoundException.class)
+            .await();
+        if (result == null)
+        {
+            final String contents = javaSourceFile.getContentsAsString().await();
+            result = ContentHash.create(contents);
+            this.contentHashes.set(javaSourceFilePath, result);
+            this.dependencies.set(javaSourceFilePath, this.dependencyScanner.getDependencies(javaSourceFile, contents).toList());
+        }
+        return result;
+    }
+}
@@ -1,14 +1,67 @@
 package qub;
 
+/**
+ * The build.json file that records the state of a project's source files from its last build.
+ * The source files are parsed into typed records when the file is loaded, and they are only
+ * converted back to JSON when this object is converted to JSON.
+ */
 public class BuildJSON extends JSONObjectWrapperBase
 {
     private static final String projectJsonPropertyName = "project.json";
     private static final String javacVersionPropertyName = "javacVersion";
     private static final String sourceFilesPropertyName = "sourceFiles";
 
+    private final List<BuildJSONSourceFile> sourceFiles;
+    private final Iterable<BuildJSONSourceFile> readOnlySourceFiles;
+    private final Map<String,BuildJSONSourceFile> sourceFileMap;
+
     private BuildJSON(JSONObject json)
     {
         super(json);
+
+        this.sourceFiles = List.create();
+        // The mapped view can't be cast back to a List, so callers can't add or remove source
+        // files without also updating the source file lookup index.
+        this.readOnlySourceFiles = this.sourceFiles.map((BuildJSONSourceFile sourceFile) -> sourceFile);
+        this.sourceFileMap = Map.create();
+
+        final JSONObject sourceFilesJson = json.getObject(BuildJSON.sourceFilesPropertyName)
+            .catchError()
+            .await();
+        if (sourceFilesJson != null)
+        {
+            // Dependencies refer to other source files, so parsing each distinct path once lets
+            // the source files and their dependents share the same Path objects.
+            final Map<String,Path> paths = Map.create();
+            for (final JSONProperty property : sourceFilesJson.getProperties())
+            {
+                if (!property.getName().equals(BuildJSON.projectJsonPropertyName))
+                {
+                    this.addSourceFileToIndex(BuildJSONSourceFile.parse(property, paths).await());
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the provided BuildJSONSourceFile to the source file lookup index. If a source file with
+     * the same relative path already exists in the index, then it will be replaced.
+     * @param sourceFile The BuildJSONSourceFile to add.
+     */
+    private void addSourceFileToIndex(BuildJSONSourceFile sourceFile)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        final String relativePath = sourceFile.getRecord().getRelativePathString();
+        final BuildJSONSourceFile existingSourceFile = this.sourceFileMap.get(relativePath)
+            .catchError(NotFoundException.class)
+            .await();
+        if (existingSourceFile != null)
+        {
+            this.sourceFiles.remove(existingSourceFile);
+        }
+        this.sourceFileMap.set(relativePath, sourceFile);
+        this.sourceFiles.add(sourceFile);
     }
 
     public static BuildJSON create()
@@ -109,28 +162,30 @@ public class BuildJSON extends JSONObjectWrapperBase
     {
         PreCondition.assertNotNull(sourceFiles, "sourceFiles");
 
-        final JSONObject sourceFilesJson = JSONObject.create();
+        this.sourceFiles.clear();
+        this.sourceFileMap.clear();
+
         if (!Iterable.isNullOrEmpty(sourceFiles))
         {
             for (final BuildJSONSourceFile sourceFile : sourceFiles)
             {
-                sourceFilesJson.set(sourceFile.toJsonProperty());
+                this.addSourceFileToIndex(sourceFile);
             }
         }
-        this.json.setObject(BuildJSON.sourceFilesPropertyName, sourceFilesJson);
+        this.json.setObject(BuildJSON.sourceFilesPropertyName, JSONObject.create());
 
         return this;
     }
 
+    /**
+     * Get the source files that are referenced by this BuildJSON object. The returned Iterable is
+     * a read-only view that is maintained by this object, so it will not be re-created each time
+     * this method is called.
+     * @return The source files that are referenced by this BuildJSON object.
+     */
     public Iterable<BuildJSONSourceFile> getSourceFiles()
     {
-        final JSONObject sourceFilesJson = json.getObject(BuildJSON.sourceFilesPropertyName)
-            .catchError(() -> JSONObject.create())
-            .await();
-        return sourceFilesJson.getProperties()
-            .where(property -> !property.getName().equals(BuildJSON.projectJsonPropertyName))
-            .map((JSONProperty property) -> BuildJSONSourceFile.parse(property).await())
-            .toList();
+        return this.readOnlySourceFiles;
     }
 
     /**
@@ -161,12 +216,9 @@ public class BuildJSON extends JSONObjectWrapperBase
 
         return Result.create2(() ->
         {
-            BuildJSONSourceFile result = null;
-            final Iterable<BuildJSONSourceFile> sourceFiles = this.getSourceFiles();
-            if (!Iterable.isNullOrEmpty(sourceFiles))
-            {
-                result = sourceFiles.first((BuildJSONSourceFile sourceFile) -> sourceFile.getRelativePath().equals(relativePath));
-            }
+            final BuildJSONSourceFile result = this.sourceFileMap.get(relativePath.toString())
+                .catchError(NotFoundException.class)
+                .await();
             if (result == null)
             {
                 throw new NotFoundException("No source file found in the BuildJSON object with the path " + Strings.escapeAndQuote(relativePath.toString()) + ".");
@@ -174,4 +226,43 @@ public class BuildJSON extends JSONObjectWrapperBase
             return result;
         });
     }
+
+    /**
+     * Get the JSON representation of this object. The source files' records are written into the
+     * returned JSON each time this method is called.
+     * @return The JSON representation of this object.
+     */
+    @Override
+    public JSONObject toJson()
+    {
+        if (this.json.getObject(BuildJSON.sourceFilesPropertyName).catchError().await() != null)
+        {
+            final JSONObject sourceFilesJson = JSONObject.create();
+            for (final BuildJSONSourceFile sourceFile : this.sourceFiles)
+            {
+                sourceFilesJson.set(sourceFile.toJsonProperty());
+            }
+            this.json.setObject(BuildJSON.sourceFilesPropertyName, sourceFilesJson);
+        }
+        return super.toJson();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toJson().toString();
+    }
+
+    public String toString(JSONFormat format)
+    {
+        PreCondition.assertNotNull(format, "format");
+
+        return this.toJson().toString(format);
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof BuildJSON && this.toJson().equals(((BuildJSON)rhs).toJson());
+    }
 }
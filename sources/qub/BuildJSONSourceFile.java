@@ -5,18 +5,13 @@ package qub;
  */
 public class BuildJSONSourceFile
 {
-    private static final String lastModifiedPropertyName = "lastModified";
-    private static final String dependenciesPropertyName = "dependencies";
-    private static final String issuesPropertyName = "issues";
+    private SourceFileRecord record;
 
-    private final JSONProperty jsonProperty;
-
-    private BuildJSONSourceFile(JSONProperty jsonProperty)
+    private BuildJSONSourceFile(SourceFileRecord record)
     {
-        PreCondition.assertNotNull(jsonProperty, "jsonProperty");
-        PreCondition.assertInstanceOf(jsonProperty.getValue(), JSONObject.class, "jsonProperty.getValue()");
+        PreCondition.assertNotNull(record, "record");
 
-        this.jsonProperty = jsonProperty;
+        this.record = record;
     }
 
     public static BuildJSONSourceFile create(String sourceFileRelativePath)
@@ -31,8 +26,17 @@ public class BuildJSONSourceFile
         PreCondition.assertNotNull(sourceFileRelativePath, "sourceFileRelativePath");
         PreCondition.assertFalse(sourceFileRelativePath.isRooted(), "sourceFileRelativePath.isRooted()");
 
-        final JSONProperty json = JSONProperty.create(sourceFileRelativePath.toString(), JSONObject.create());
-        return new BuildJSONSourceFile(json);
+        return new BuildJSONSourceFile(SourceFileRecord.create(sourceFileRelativePath));
+    }
+
+    /**
+     * Create a new BuildJSONSourceFile from the provided SourceFileRecord.
+     * @param record The SourceFileRecord to create the BuildJSONSourceFile from.
+     * @return The new BuildJSONSourceFile.
+     */
+    public static BuildJSONSourceFile create(SourceFileRecord record)
+    {
+        return new BuildJSONSourceFile(record);
     }
 
     /**
@@ -41,27 +45,44 @@ public class BuildJSONSourceFile
      * @return The parsed BuildJSONSourceFile.
      */
     public static Result<BuildJSONSourceFile> parse(JSONProperty sourceFileProperty)
+    {
+        return BuildJSONSourceFile.parse(sourceFileProperty, null);
+    }
+
+    /**
+     * Parse a BuildJSONSourceFile from the provided JSONProperty.
+     * @param sourceFileProperty The JSONProperty to parse a JSONSourceFile from.
+     * @param paths The paths that have already been parsed, keyed by their string value. This can
+     *              be null.
+     * @return The parsed BuildJSONSourceFile.
+     */
+    public static Result<BuildJSONSourceFile> parse(JSONProperty sourceFileProperty, Map<String,Path> paths)
     {
         PreCondition.assertNotNull(sourceFileProperty, "sourceFileProperty");
+        PreCondition.assertInstanceOf(sourceFileProperty.getValue(), JSONObject.class, "sourceFileProperty.getValue()");
 
         return Result.create2(() ->
         {
-            return new BuildJSONSourceFile(sourceFileProperty);
+            return new BuildJSONSourceFile(SourceFileRecord.parse(sourceFileProperty, paths).await());
         });
     }
 
     /**
-     * Get the path to the source file from the project root folder.
-     * @return The path to the source file from the project root folder.
+     * Get the typed record that holds this source file's current state.
+     * @return The typed record that holds this source file's current state.
      */
-    public Path getRelativePath()
+    public SourceFileRecord getRecord()
     {
-        return Path.parse(this.jsonProperty.getName());
+        return this.record;
     }
 
-    private JSONObject getPropertyValue()
+    /**
+     * Get the path to the source file from the project root folder.
+     * @return The path to the source file from the project root folder.
+     */
+    public Path getRelativePath()
     {
-        return this.jsonProperty.getObjectValue().await();
+        return this.record.getRelativePath();
     }
 
     /**
@@ -70,12 +91,7 @@ public class BuildJSONSourceFile
      */
     public DateTime getLastModified()
     {
-        final String lastModifiedString = this.getPropertyValue().getString(BuildJSONSourceFile.lastModifiedPropertyName)
-            .catchError()
-            .await();
-        return Strings.isNullOrEmpty(lastModifiedString)
-            ? null
-            : DateTime.parse(lastModifiedString).catchError().await();
+        return this.record.getLastModified();
     }
 
     /**
@@ -86,7 +102,76 @@ public class BuildJSONSourceFile
     {
         PreCondition.assertNotNull(lastModified, "lastModified");
 
-        this.getPropertyValue().setString(BuildJSONSourceFile.lastModifiedPropertyName, lastModified.toString());
+        this.record = this.record.withLastModified(lastModified);
+        return this;
+    }
+
+    /**
+     * Get the size of the source file in bytes when it was last built. This will be null if the
+     * size wasn't known when the source file was built.
+     * @return The size of the source file in bytes when it was last built.
+     */
+    public Long getSize()
+    {
+        return this.record.getSize();
+    }
+
+    /**
+     * Set the size of the source file in bytes.
+     * @param size The size of the source file in bytes.
+     * @return This object for method chaining.
+     */
+    public BuildJSONSourceFile setSize(long size)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+
+        this.record = this.record.withSize(size);
+        return this;
+    }
+
+    /**
+     * Get the hash of the source file's contents when it was last built. This will be null if the
+     * source file was built without fingerprints.
+     * @return The hash of the source file's contents when it was last built.
+     */
+    public String getContentHash()
+    {
+        return this.record.getContentHash();
+    }
+
+    /**
+     * Set the hash of the source file's contents.
+     * @param contentHash The hash of the source file's contents.
+     * @return This object for method chaining.
+     */
+    public BuildJSONSourceFile setContentHash(String contentHash)
+    {
+        PreCondition.assertNotNullAndNotEmpty(contentHash, "contentHash");
+
+        this.record = this.record.withContentHash(contentHash);
+        return this;
+    }
+
+    /**
+     * Get the digest of the ABI of the class files that were produced when the source file was last
+     * successfully compiled. This will be null if the source file's class files couldn't be read.
+     * @return The digest of the ABI of the source file's class files.
+     */
+    public String getAbiDigest()
+    {
+        return this.record.getAbiDigest();
+    }
+
+    /**
+     * Set the digest of the ABI of the source file's class files.
+     * @param abiDigest The digest of the ABI of the source file's class files.
+     * @return This object for method chaining.
+     */
+    public BuildJSONSourceFile setAbiDigest(String abiDigest)
+    {
+        PreCondition.assertNotNullAndNotEmpty(abiDigest, "abiDigest");
+
+        this.record = this.record.withAbiDigest(abiDigest);
         return this;
     }
 
@@ -96,22 +181,7 @@ public class BuildJSONSourceFile
      */
     public Iterable<Path> getDependencies()
     {
-        final JSONArray dependenciesArray = this.getPropertyValue().getArray(BuildJSONSourceFile.dependenciesPropertyName)
-            .catchError()
-            .await();
-        List<Path> result = null;
-        if (dependenciesArray != null)
-        {
-            result = List.create();
-            for (final JSONSegment dependencySegment : dependenciesArray)
-            {
-                final JSONString dependency = (JSONString)dependencySegment;
-                final String dependencyPathString = dependency.getValue();
-                final Path dependencyPath = Path.parse(dependencyPathString);
-                result.add(dependencyPath);
-            }
-        }
-        return result;
+        return this.record.getDependencies();
     }
 
     /**
@@ -122,8 +192,34 @@ public class BuildJSONSourceFile
     {
         PreCondition.assertNotNull(dependencies, "dependencies");
 
-        this.getPropertyValue().setArray(BuildJSONSourceFile.dependenciesPropertyName,
-            JSONArray.create(dependencies.map(Path::toString).map(JSONString::get)));
+        this.record = this.record.withDependencies(dependencies);
+        return this;
+    }
+
+    /**
+     * Get the paths (relative to the outputs folder) to the class files that were produced when
+     * this source file was last compiled. This will be null if the source file only produced the
+     * class file that matches its own name.
+     * @return The paths to the class files that were produced when this source file was last
+     * compiled.
+     */
+    public Iterable<Path> getClassFiles()
+    {
+        return this.record.getClassFiles();
+    }
+
+    /**
+     * Set the paths (relative to the outputs folder) to the class files that were produced when
+     * this source file was compiled.
+     * @param classFiles The paths to the class files that were produced when this source file was
+     *                   compiled.
+     * @return This object for method chaining.
+     */
+    public BuildJSONSourceFile setClassFiles(Iterable<Path> classFiles)
+    {
+        PreCondition.assertNotNull(classFiles, "classFiles");
+
+        this.record = this.record.withClassFiles(classFiles);
         return this;
     }
 
@@ -136,17 +232,20 @@ public class BuildJSONSourceFile
     {
         PreCondition.assertNotNull(issue, "issue");
 
-        final JSONObject propertyValue = this.getPropertyValue();
-        JSONArray issuesArray = propertyValue.getArray(BuildJSONSourceFile.issuesPropertyName)
-            .catchError()
-            .await();
-        if (issuesArray == null)
-        {
-            issuesArray = JSONArray.create();
-            propertyValue.setArray(BuildJSONSourceFile.issuesPropertyName, issuesArray);
-        }
-        issuesArray.add(issue.toJson());
+        this.record = this.record.withIssue(issue);
+        return this;
+    }
+
+    /**
+     * Add the provided issues to the source file.
+     * @param issues The issues to add to the source file.
+     * @return This object for method chaining.
+     */
+    public BuildJSONSourceFile addIssues(Iterable<JavaCompilerIssue> issues)
+    {
+        PreCondition.assertNotNull(issues, "issues");
 
+        this.record = this.record.withAddedIssues(issues);
         return this;
     }
 
@@ -154,9 +253,7 @@ public class BuildJSONSourceFile
     {
         PreCondition.assertNotNull(issues, "issues");
 
-        final JSONObject propertyValue = this.getPropertyValue();
-        propertyValue.setArray(BuildJSONSourceFile.issuesPropertyName, JSONArray.create(issues.map(JavaCompilerIssue::toJson)));
-
+        this.record = this.record.withIssues(issues);
         return this;
     }
 
@@ -166,16 +263,7 @@ public class BuildJSONSourceFile
      */
     public Iterable<JavaCompilerIssue> getIssues()
     {
-        final JSONObject propertyValue = this.getPropertyValue();
-        final JSONArray issuesArray = propertyValue.getArray(BuildJSONSourceFile.issuesPropertyName)
-            .catchError()
-            .await();
-        final Iterable<JavaCompilerIssue> result = issuesArray == null
-            ? Iterable.create()
-            : issuesArray
-                .instanceOf(JSONObject.class)
-                .map((JSONObject issueJson) -> JavaCompilerIssue.parse(issueJson).await())
-                .toList();
+        final Iterable<JavaCompilerIssue> result = this.record.getIssues();
 
         PostCondition.assertNotNull(result, "result");
 
@@ -190,11 +278,7 @@ public class BuildJSONSourceFile
 
     public boolean equals(BuildJSONSourceFile rhs)
     {
-        return rhs != null &&
-            Comparer.equal(this.getRelativePath().toString(), rhs.getRelativePath().toString()) &&
-            Comparer.equal(this.getLastModified(), rhs.getLastModified()) &&
-            Comparer.equal(this.getDependencies(), rhs.getDependencies()) &&
-            Comparer.equal(this.getIssues(), rhs.getIssues());
+        return rhs != null && this.record.equals(rhs.record);
     }
 
     @Override
@@ -216,34 +300,17 @@ public class BuildJSONSourceFile
      */
     public JSONObject toJson()
     {
-        final JSONObject result = JSONObject.create();
-
-        final DateTime lastModified = this.getLastModified();
-        if (lastModified != null)
-        {
-            result.setString(BuildJSONSourceFile.lastModifiedPropertyName, lastModified.toString());
-        }
-
-        final Iterable<Path> dependencies = this.getDependencies();
-        if (!Iterable.isNullOrEmpty(dependencies))
-        {
-            result.set(BuildJSONSourceFile.dependenciesPropertyName, JSONArray.create(dependencies.map(Path::toString).map(JSONString::get)));
-        }
-
-        final Iterable<JavaCompilerIssue> issues = this.getIssues();
-        if (!Iterable.isNullOrEmpty(issues))
-        {
-            result.set(BuildJSONSourceFile.issuesPropertyName, JSONArray.create(issues.map(JavaCompilerIssue::toJson)));
-        }
-
-        PostCondition.assertNotNull(result, "result");
-
-        return result;
+        return this.record.toJson();
     }
 
+    /**
+     * Get the JSON property that this source file is stored as in a build.json file. The property
+     * is created from this source file's current state each time this method is called.
+     * @return The JSON property that this source file is stored as in a build.json file.
+     */
     public JSONProperty toJsonProperty()
     {
-        return this.jsonProperty;
+        return this.record.toJsonProperty();
     }
 
     /**
@@ -254,12 +321,42 @@ public class BuildJSONSourceFile
      * @return The created BuildJSONSourceFile objects.
      */
     public static Iterable<BuildJSONSourceFile> create(Iterable<File> sourceFiles, Folder rootFolder)
+    {
+        return BuildJSONSourceFile.create(sourceFiles, rootFolder, false);
+    }
+
+    /**
+     * Create a new Iterable of BuildJSONSourceFile based on the provided sourceFiles.
+     * @param sourceFiles The source files to create BuildJSONSourceFile objects from.
+     * @param rootFolder The folder that the BuildJSONSourceFile objects are being created relative
+     *                   to.
+     * @param includeContentHash Whether or not to store the hash of each source file's contents.
+     * @return The created BuildJSONSourceFile objects.
+     */
+    public static Iterable<BuildJSONSourceFile> create(Iterable<File> sourceFiles, Folder rootFolder, boolean includeContentHash)
+    {
+        return BuildJSONSourceFile.create(sourceFiles, rootFolder, includeContentHash, SourceFileAttributes.create());
+    }
+
+    /**
+     * Create a new Iterable of BuildJSONSourceFile based on the provided sourceFiles.
+     * @param sourceFiles The source files to create BuildJSONSourceFile objects from.
+     * @param rootFolder The folder that the BuildJSONSourceFile objects are being created relative
+     *                   to.
+     * @param includeContentHash Whether or not to store the hash of each source file's contents.
+     * @param sourceFileAttributes The attributes of the source files that were collected when they
+     *                             were discovered.
+     * @return The created BuildJSONSourceFile objects.
+     */
+    public static Iterable<BuildJSONSourceFile> create(Iterable<File> sourceFiles, Folder rootFolder, boolean includeContentHash, SourceFileAttributes sourceFileAttributes)
     {
         PreCondition.assertNotNull(sourceFiles, "sourceFiles");
         PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(sourceFileAttributes, "sourceFileAttributes");
 
+        final SourceDependencyScanner dependencyScanner = SourceDependencyScanner.create(sourceFiles);
         final Iterable<BuildJSONSourceFile> result = sourceFiles
-            .map((File sourceFile) -> BuildJSONSourceFile.create(sourceFile, rootFolder, sourceFiles))
+            .map((File sourceFile) -> BuildJSONSourceFile.create(sourceFile, rootFolder, dependencyScanner, includeContentHash, sourceFileAttributes.getLastModified(sourceFile).await(), sourceFileAttributes.getSize(sourceFile)))
             .toList();
 
         PostCondition.assertNotNull(result, "result");
@@ -275,30 +372,91 @@ public class BuildJSONSourceFile
      * @return The created BuildJSONSourceFile from the provided source file.
      */
     public static BuildJSONSourceFile create(File sourceFile, Folder rootFolder, Iterable<File> sourceFiles)
+    {
+        return BuildJSONSourceFile.create(sourceFile, rootFolder, sourceFiles, false);
+    }
+
+    /**
+     * Create a new BuildJSONSourceFile based on the provided sourceFile.
+     * @param sourceFile The source file to create a BuildJSONSourceFile from.
+     * @param rootFolder The folder that the BuildJSONSourceFile is being created relative to.
+     * @param sourceFiles The source files that the sourceFile may depend on.
+     * @param includeContentHash Whether or not to store the hash of the source file's contents.
+     * @return The created BuildJSONSourceFile from the provided source file.
+     */
+    public static BuildJSONSourceFile create(File sourceFile, Folder rootFolder, Iterable<File> sourceFiles, boolean includeContentHash)
+    {
+        PreCondition.assertNotNull(sourceFiles, "sourceFiles");
+
+        return BuildJSONSourceFile.create(sourceFile, rootFolder, SourceDependencyScanner.create(sourceFiles), includeContentHash);
+    }
+
+    /**
+     * Create a new BuildJSONSourceFile based on the provided sourceFile.
+     * @param sourceFile The source file to create a BuildJSONSourceFile from.
+     * @param rootFolder The folder that the BuildJSONSourceFile is being created relative to.
+     * @param dependencyScanner The scanner that finds the source files that the sourceFile depends
+     *                          on.
+     * @param includeContentHash Whether or not to store the hash of the source file's contents.
+     * @return The created BuildJSONSourceFile from the provided source file.
+     */
+    public static BuildJSONSourceFile create(File sourceFile, Folder rootFolder, SourceDependencyScanner dependencyScanner, boolean includeContentHash)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        return BuildJSONSourceFile.create(sourceFile, rootFolder, dependencyScanner, includeContentHash, sourceFile.getLastModified().await());
+    }
+
+    /**
+     * Create a new BuildJSONSourceFile based on the provided sourceFile.
+     * @param sourceFile The source file to create a BuildJSONSourceFile from.
+     * @param rootFolder The folder that the BuildJSONSourceFile is being created relative to.
+     * @param dependencyScanner The scanner that finds the source files that the sourceFile depends
+     *                          on.
+     * @param includeContentHash Whether or not to store the hash of the source file's contents.
+     * @param lastModified The last modified time of the source file.
+     * @return The created BuildJSONSourceFile from the provided source file.
+     */
+    public static BuildJSONSourceFile create(File sourceFile, Folder rootFolder, SourceDependencyScanner dependencyScanner, boolean includeContentHash, DateTime lastModified)
+    {
+        return BuildJSONSourceFile.create(sourceFile, rootFolder, dependencyScanner, includeContentHash, lastModified, null);
+    }
+
+    /**
+     * Create a new BuildJSONSourceFile based on the provided sourceFile.
+     * @param sourceFile The source file to create a BuildJSONSourceFile from.
+     * @param rootFolder The folder that the BuildJSONSourceFile is being created relative to.
+     * @param dependencyScanner The scanner that finds the source files that the sourceFile depends
+     *                          on.
+     * @param includeContentHash Whether or not to store the hash of the source file's contents.
+     * @param lastModified The last modified time of the source file.
+     * @param size The size of the source file in bytes, or null if it isn't known.
+     * @return The created BuildJSONSourceFile from the provided source file.
+     */
+    public static BuildJSONSourceFile create(File sourceFile, Folder rootFolder, SourceDependencyScanner dependencyScanner, boolean includeContentHash, DateTime lastModified, Long size)
     {
         PreCondition.assertNotNull(sourceFile, "sourceFile");
         PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(dependencyScanner, "dependencyScanner");
+        PreCondition.assertNotNull(lastModified, "lastModified");
 
         final Path sourceFileRelativePath = sourceFile.relativeTo(rootFolder);
         final BuildJSONSourceFile result = BuildJSONSourceFile.create(sourceFileRelativePath);
-        result.setLastModified(sourceFile.getLastModified().await());
+        result.setLastModified(lastModified);
+        if (size != null)
+        {
+            result.setSize(size);
+        }
 
         final String sourceFileContents = sourceFile.getContentsAsString().await();
-        final Iterable<String> sourceFileWords = Strings.getWords(sourceFileContents);
-
-        final List<Path> sourceFileDependencyPaths = List.create();
-        for (final File otherSourceFile : sourceFiles)
+        if (includeContentHash)
         {
-            if (sourceFile != otherSourceFile)
-            {
-                final String otherSourceFileClassName = otherSourceFile.getNameWithoutFileExtension();
-                if (sourceFileWords.contains(otherSourceFileClassName))
-                {
-                    final Path otherSourceFilePath = otherSourceFile.relativeTo(rootFolder);
-                    sourceFileDependencyPaths.add(otherSourceFilePath);
-                }
-            }
+            result.setContentHash(ContentHash.create(sourceFileContents));
         }
+
+        final List<Path> sourceFileDependencyPaths = dependencyScanner.getDependencies(sourceFile, sourceFileContents)
+            .map((File dependency) -> dependency.relativeTo(rootFolder))
+            .toList();
         if (sourceFileDependencyPaths.any())
         {
             result.setDependencies(sourceFileDependencyPaths);
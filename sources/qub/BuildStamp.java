@@ -0,0 +1,402 @@
+package qub;
+
+/**
+ * A stamp of all of the inputs of a build that finished without compiling anything. When the
+ * stamp of the current inputs matches the stamp of the previous build, the previous build's output
+ * can be replayed without resolving dependencies, querying javac, finding source files, or
+ * parsing build.json.
+ */
+public class BuildStamp extends JSONObjectWrapperBase
+{
+    /**
+     * The name of the folder in the qub-build data folder that build stamps are stored in.
+     */
+    public static final String buildStampsFolderName = "buildstamps";
+
+    private static final String digestPropertyName = "digest";
+    private static final String dependencyClassPathsPropertyName = "dependencyClassPaths";
+    private static final String outputLinesPropertyName = "outputLines";
+    private static final String exitCodePropertyName = "exitCode";
+    private static final String outputsFolderPropertyName = "outputsFolder";
+
+    private BuildStamp(JSONObject json)
+    {
+        super(json);
+    }
+
+    /**
+     * Create a new BuildStamp.
+     * @param digest The digest of the build's inputs.
+     * @param dependencyClassPaths The resolved class paths of the project's dependencies.
+     * @param outputLines The lines that the build wrote to its output.
+     * @param exitCode The exit code of the build.
+     * @return The new BuildStamp.
+     */
+    public static BuildStamp create(String digest, Iterable<String> dependencyClassPaths, Iterable<String> outputLines, int exitCode)
+    {
+        return BuildStamp.create(digest, dependencyClassPaths, outputLines, exitCode, null);
+    }
+
+    /**
+     * Create a new BuildStamp.
+     * @param digest The digest of the build's inputs.
+     * @param dependencyClassPaths The resolved class paths of the project's dependencies.
+     * @param outputLines The lines that the build wrote to its output.
+     * @param exitCode The exit code of the build.
+     * @param outputsFolder The relative path to the outputs folder of the build, or null if it is
+     *                      unknown.
+     * @return The new BuildStamp.
+     */
+    public static BuildStamp create(String digest, Iterable<String> dependencyClassPaths, Iterable<String> outputLines, int exitCode, String outputsFolder)
+    {
+        PreCondition.assertNotNullAndNotEmpty(digest, "digest");
+        PreCondition.assertNotNull(dependencyClassPaths, "dependencyClassPaths");
+        PreCondition.assertNotNull(outputLines, "outputLines");
+
+        final JSONArray dependencyClassPathsArray = JSONArray.create();
+        for (final String dependencyClassPath : dependencyClassPaths)
+        {
+            dependencyClassPathsArray.add(JSONString.get(dependencyClassPath));
+        }
+        final JSONArray outputLinesArray = JSONArray.create();
+        for (final String outputLine : outputLines)
+        {
+            outputLinesArray.add(JSONString.get(outputLine));
+        }
+        final JSONObject json = JSONObject.create()
+            .setString(BuildStamp.digestPropertyName, digest)
+            .setArray(BuildStamp.dependencyClassPathsPropertyName, dependencyClassPathsArray)
+            .setArray(BuildStamp.outputLinesPropertyName, outputLinesArray)
+            .setNumber(BuildStamp.exitCodePropertyName, exitCode);
+        if (!Strings.isNullOrEmpty(outputsFolder))
+        {
+            json.setString(BuildStamp.outputsFolderPropertyName, outputsFolder);
+        }
+        return new BuildStamp(json);
+    }
+
+    /**
+     * Parse a BuildStamp from the provided file.
+     * @param buildStampFile The file to parse.
+     * @return The parsed BuildStamp.
+     */
+    public static Result<BuildStamp> parse(File buildStampFile)
+    {
+        PreCondition.assertNotNull(buildStampFile, "buildStampFile");
+
+        return Result.create2(() ->
+        {
+            return BuildStamp.parse(JSON.parseObject(buildStampFile).await()).await();
+        });
+    }
+
+    /**
+     * Parse a BuildStamp from the provided JSONObject.
+     * @param json The JSONObject to parse.
+     * @return The parsed BuildStamp.
+     */
+    public static Result<BuildStamp> parse(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return Result.create2(() ->
+        {
+            return new BuildStamp(json);
+        });
+    }
+
+    /**
+     * Get the file that the build stamp of the provided project folder is stored in.
+     * @param qubBuildDataFolder The qub-build data folder.
+     * @param folderToBuild The project folder that is being built.
+     * @return The file that the build stamp of the provided project folder is stored in.
+     */
+    public static Result<File> getBuildStampFile(Folder qubBuildDataFolder, Folder folderToBuild)
+    {
+        PreCondition.assertNotNull(qubBuildDataFolder, "qubBuildDataFolder");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+
+        return qubBuildDataFolder.getFile(BuildStamp.buildStampsFolderName + "/" + ContentHash.create(folderToBuild.toString()) + ".json");
+    }
+
+    /**
+     * Get the file that the folder listings of the provided project folder's build stamp are
+     * stored in. The build stamp summarizes the whole project folder, so its listings are kept
+     * apart from the source folder index that source file discovery uses.
+     * @param qubBuildDataFolder The qub-build data folder.
+     * @param folderToBuild The project folder that is being built.
+     * @return The file that the folder listings of the provided project folder's build stamp are
+     * stored in.
+     */
+    public static Result<File> getBuildStampIndexFile(Folder qubBuildDataFolder, Folder folderToBuild)
+    {
+        PreCondition.assertNotNull(qubBuildDataFolder, "qubBuildDataFolder");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+
+        return qubBuildDataFolder.getFile(BuildStamp.buildStampsFolderName + "/" + ContentHash.create(folderToBuild.toString()) + ".index.json");
+    }
+
+    /**
+     * Get the digest of the inputs of a build with the provided parameters. The digest combines
+     * the options that affect the build's output, the contents of project.json, the last modified
+     * times of the dependency class paths, the identity of the javac toolchain, a summary of the
+     * files in the project folder, and a summary of the files in the outputs folder. The folders
+     * that source file discovery skips (version control folders, the outputs folder, and folders
+     * in the project's ignore file) aren't part of the project folder's summary.
+     * @param parameters The parameters of the build.
+     * @param dependencyClassPaths The resolved class paths of the project's dependencies.
+     * @param outputsFolder The outputs folder of the build. The outputs folder only changes when
+     *                      project.json changes, which the digest already covers, so it is
+     *                      recorded in the stamp instead of parsing project.json again.
+     * @param sourceFolderIndex The folder listings from the previous digest. Folders that haven't
+     *                          changed since then aren't listed again.
+     * @return The digest of the build's inputs.
+     */
+    public static Result<String> getDigest(QubBuildCompileParameters parameters, Iterable<String> dependencyClassPaths, Folder outputsFolder, SourceFolderIndex sourceFolderIndex)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(dependencyClassPaths, "dependencyClassPaths");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+        PreCondition.assertNotNull(sourceFolderIndex, "sourceFolderIndex");
+
+        return Result.create2(() ->
+        {
+            final Folder folderToBuild = parameters.getFolderToBuild();
+            final FileSystem fileSystem = folderToBuild.getFileSystem();
+            final EnvironmentVariables environmentVariables = parameters.getEnvironmentVariables();
+
+            final List<String> digestLines = List.create();
+            digestLines.add("folder:" + folderToBuild);
+            digestLines.add("warnings:" + parameters.getWarnings());
+            digestLines.add("buildjson:" + parameters.getBuildJson());
+            digestLines.add("fingerprints:" + parameters.getFingerprints());
+            digestLines.add("retryerrors:" + parameters.getRetryErrors());
+            digestLines.add("compiler:" + parameters.getCompiler());
+
+            final File projectJsonFile = folderToBuild.getFile("project.json").await();
+            final String projectJsonHash = ContentHash.create(projectJsonFile)
+                .catchError()
+                .await();
+            digestLines.add("project.json:" + projectJsonHash);
+
+            for (final String dependencyClassPath : dependencyClassPaths)
+            {
+                final DateTime lastModified = fileSystem.getFile(dependencyClassPath)
+                    .then((File dependencyFile) -> dependencyFile.getLastModified().await())
+                    .catchError()
+                    .await();
+                digestLines.add("classpath:" + dependencyClassPath + ":" + lastModified);
+            }
+
+            for (final String environmentVariableName : Iterable.create("PATH", "JAVA_HOME"))
+            {
+                final String environmentVariableValue = environmentVariables.get(environmentVariableName)
+                    .catchError(NotFoundException.class)
+                    .await();
+                digestLines.add(environmentVariableName + ":" + environmentVariableValue);
+            }
+            if (parameters.getCompiler() == JavaCompilerMode.InProcess)
+            {
+                digestLines.add("javac:" + java.lang.System.getProperty("java.home") + ":" + java.lang.System.getProperty("java.version"));
+            }
+            else
+            {
+                final File javacFile = QubBuildCompile.findJavacExecutable(environmentVariables, fileSystem).await();
+                final DateTime javacLastModified = javacFile == null
+                    ? null
+                    : javacFile.getLastModified().catchError().await();
+                digestLines.add("javac:" + javacFile + ":" + javacLastModified);
+            }
+
+            // A deleted or modified class file or build.json must make the next build run, so
+            // the files in the outputs folder are part of the digest.
+            final String outputsSummary = outputsFolder.exists().await()
+                ? BuildStamp.getFolderSummary(outputsFolder, (String relativeFolderPath) -> true, Iterable.create(), SourceFolderIndex.create()).await()
+                : "none";
+            digestLines.add("outputs:" + outputsFolder.relativeTo(folderToBuild) + ":" + outputsSummary);
+
+            // The qub folder holds the qub-build data folder, which changes during every build.
+            final Function1<String,Boolean> folderFilter = QubBuild.getInputFolderFilter(folderToBuild, outputsFolder).await();
+            digestLines.add("files:" + BuildStamp.getFolderSummary(folderToBuild, folderFilter, Iterable.create(parameters.getQubFolder()), sourceFolderIndex).await());
+
+            return ContentHash.create(Strings.join('\n', digestLines));
+        });
+    }
+
+    /**
+     * Get a summary of the files in the provided folder and in the subfolders that the provided
+     * filter accepts. The summary changes when a file is added, deleted, or modified. Files in
+     * the provided excluded folders aren't part of the summary.
+     * @param folder The folder to summarize.
+     * @param folderFilter A function that is given the path of each subfolder relative to the
+     *                     provided folder (without a trailing slash) and that returns whether or
+     *                     not the subfolder's files should be part of the summary.
+     * @param excludedFolders The folders whose files shouldn't be part of the summary.
+     * @return The summary of the files in the provided folder.
+     */
+    static Result<String> getFolderSummary(Folder folder, Function1<String,Boolean> folderFilter, Iterable<Folder> excludedFolders)
+    {
+        return BuildStamp.getFolderSummary(folder, folderFilter, excludedFolders, SourceFolderIndex.create());
+    }
+
+    /**
+     * Get a summary of the files in the provided folder and in the subfolders that the provided
+     * filter accepts. The summary changes when a file is added, deleted, or modified. Files in
+     * the provided excluded folders aren't part of the summary. Folders whose listings in the
+     * provided index are still valid aren't listed again, but the files in them are still read
+     * because modifying a file doesn't change its folder's last modified time.
+     * @param folder The folder to summarize.
+     * @param folderFilter A function that is given the path of each subfolder relative to the
+     *                     provided folder (without a trailing slash) and that returns whether or
+     *                     not the subfolder's files should be part of the summary.
+     * @param excludedFolders The folders whose files shouldn't be part of the summary.
+     * @param sourceFolderIndex The folder listings from the previous summary of the provided
+     *                          folder. The listings are updated with the folders that changed.
+     * @return The summary of the files in the provided folder.
+     */
+    static Result<String> getFolderSummary(Folder folder, Function1<String,Boolean> folderFilter, Iterable<Folder> excludedFolders, SourceFolderIndex sourceFolderIndex)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNull(folderFilter, "folderFilter");
+        PreCondition.assertNotNull(excludedFolders, "excludedFolders");
+        PreCondition.assertNotNull(sourceFolderIndex, "sourceFolderIndex");
+
+        return Result.create2(() ->
+        {
+            final String folderPathString = BuildStamp.withoutTrailingSlash(folder.toString()) + "/";
+            final Set<String> excludedRelativeFolderPaths = Set.create();
+            for (final Folder excludedFolder : excludedFolders)
+            {
+                final String excludedFolderPathString = BuildStamp.withoutTrailingSlash(excludedFolder.toString()) + "/";
+                if (folderPathString.startsWith(excludedFolderPathString))
+                {
+                    excludedRelativeFolderPaths.add("");
+                }
+                else if (excludedFolderPathString.startsWith(folderPathString))
+                {
+                    excludedRelativeFolderPaths.add(BuildStamp.withoutTrailingSlash(excludedFolderPathString.substring(folderPathString.length())));
+                }
+            }
+
+            final List<String> summaryLines = List.create();
+            if (!excludedRelativeFolderPaths.contains(""))
+            {
+                final SourceFileAttributes fileAttributes = SourceFileAttributes.create();
+                final Iterable<File> files = sourceFolderIndex.getFilesRecursively(
+                    folder,
+                    (String relativeFolderPath) -> !excludedRelativeFolderPaths.contains(relativeFolderPath) && folderFilter.run(relativeFolderPath),
+                    fileAttributes).await();
+                final boolean isJavaFileSystem = folder.getFileSystem() instanceof JavaFileSystem;
+                for (final File file : files)
+                {
+                    Long size = fileAttributes.getSize(file);
+                    DateTime lastModified = null;
+                    if (size == null && isJavaFileSystem)
+                    {
+                        // Files in folders whose listings were reused still need one attributes
+                        // query to find out whether they were modified.
+                        try
+                        {
+                            final java.nio.file.attribute.BasicFileAttributes attributes = java.nio.file.Files.readAttributes(java.nio.file.Paths.get(file.toString()), java.nio.file.attribute.BasicFileAttributes.class);
+                            size = attributes.size();
+                            lastModified = SourceFileAttributes.toDateTime(attributes.lastModifiedTime());
+                        }
+                        catch (java.io.IOException e)
+                        {
+                            summaryLines.add(file.relativeTo(folder) + ":unreadable");
+                            continue;
+                        }
+                    }
+                    else
+                    {
+                        lastModified = fileAttributes.getLastModified(file)
+                            .catchError(FileNotFoundException.class)
+                            .await();
+                    }
+                    summaryLines.add(file.relativeTo(folder) + ":" + size + ":" + lastModified);
+                }
+            }
+            summaryLines.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+
+            return summaryLines.getCount() + ":" + ContentHash.create(Strings.join('\n', summaryLines));
+        });
+    }
+
+    private static String withoutTrailingSlash(String folderPath)
+    {
+        return folderPath.endsWith("/") || folderPath.endsWith("\\")
+            ? folderPath.substring(0, folderPath.length() - 1)
+            : folderPath;
+    }
+
+    /**
+     * Get the relative path to the outputs folder of the build that this stamp was created for.
+     * @return The relative path to the outputs folder, or null if this stamp doesn't have one.
+     */
+    public String getOutputsFolder()
+    {
+        return this.json.getString(BuildStamp.outputsFolderPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Get the digest of the inputs of the build that this stamp was created for.
+     * @return The digest of the build's inputs.
+     */
+    public String getDigest()
+    {
+        return this.json.getString(BuildStamp.digestPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Get the resolved class paths of the project's dependencies.
+     * @return The resolved class paths of the project's dependencies.
+     */
+    public Iterable<String> getDependencyClassPaths()
+    {
+        return BuildStamp.getStrings(this.json, BuildStamp.dependencyClassPathsPropertyName);
+    }
+
+    /**
+     * Get the lines that the build wrote to its output.
+     * @return The lines that the build wrote to its output.
+     */
+    public Iterable<String> getOutputLines()
+    {
+        return BuildStamp.getStrings(this.json, BuildStamp.outputLinesPropertyName);
+    }
+
+    /**
+     * Get the exit code of the build.
+     * @return The exit code of the build.
+     */
+    public int getExitCode()
+    {
+        final Number exitCode = this.json.getNumber(BuildStamp.exitCodePropertyName)
+            .catchError()
+            .await();
+        return exitCode == null ? 0 : exitCode.intValue();
+    }
+
+    private static Iterable<String> getStrings(JSONObject json, String propertyName)
+    {
+        final List<String> result = List.create();
+        final JSONArray array = json.getArray(propertyName)
+            .catchError()
+            .await();
+        if (array != null)
+        {
+            for (final JSONSegment element : array)
+            {
+                if (element instanceof JSONString)
+                {
+                    result.add(((JSONString)element).getValue());
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,205 @@
+package qub;
+
+/**
+ * A plan for compiling a set of source files with several javac workers. The source files are
+ * split into the strongly connected components of their dependency graph, and each component is
+ * put in the stage that follows the longest chain of components that it depends on. The
+ * components of a stage don't depend on each other, so a stage is divided into batches that can be
+ * compiled at the same time after the stages before it have finished. Consecutive stages that are
+ * too small to divide are merged into a single batch.
+ */
+public class CompilationPlan
+{
+    private final List<Iterable<Iterable<Path>>> stages;
+    private int batchCount;
+    private int maximumStageBatchCount;
+
+    private CompilationPlan()
+    {
+        this.stages = List.create();
+    }
+
+    /**
+     * Create a new CompilationPlan for the provided source files.
+     * @param dependencyGraph The dependency graph of the project's source files.
+     * @param sourceFilePaths The relative paths to the source files to compile.
+     * @param maximumBatchCount The maximum number of batches that a stage can be divided into.
+     * @param minimumBatchSize The minimum number of source files that each batch of a divided stage
+     *                         should have.
+     * @return The new CompilationPlan.
+     */
+    public static CompilationPlan create(SourceDependencyGraph dependencyGraph, Iterable<Path> sourceFilePaths, int maximumBatchCount, int minimumBatchSize)
+    {
+        PreCondition.assertNotNull(dependencyGraph, "dependencyGraph");
+        PreCondition.assertNotNull(sourceFilePaths, "sourceFilePaths");
+        PreCondition.assertGreaterThanOrEqualTo(maximumBatchCount, 1, "maximumBatchCount");
+        PreCondition.assertGreaterThanOrEqualTo(minimumBatchSize, 1, "minimumBatchSize");
+
+        final CompilationPlan result = new CompilationPlan();
+
+        final List<Iterable<Path>> components = dependencyGraph.getStronglyConnectedComponents(sourceFilePaths).toList();
+        final int componentCount = components.getCount();
+        final int[] componentIndexes = new int[dependencyGraph.getSourceFileCount()];
+        java.util.Arrays.fill(componentIndexes, -1);
+        final java.util.HashMap<String,Integer> inputIndexes = new java.util.HashMap<>();
+        for (int componentIndex = 0; componentIndex < componentCount; ++componentIndex)
+        {
+            for (final Path sourceFilePath : components.get(componentIndex))
+            {
+                final int sourceFileId = dependencyGraph.getId(sourceFilePath);
+                if (sourceFileId >= 0)
+                {
+                    componentIndexes[sourceFileId] = componentIndex;
+                }
+            }
+        }
+        for (final Path sourceFilePath : sourceFilePaths)
+        {
+            inputIndexes.putIfAbsent(sourceFilePath.toString(), inputIndexes.size());
+        }
+
+        // The components are ordered with dependencies first, so each component's level is final
+        // before its dependents are visited.
+        final int[] levels = new int[componentCount];
+        int levelCount = 0;
+        for (int componentIndex = 0; componentIndex < componentCount; ++componentIndex)
+        {
+            levelCount = Math.max(levelCount, levels[componentIndex] + 1);
+            for (final Path sourceFilePath : components.get(componentIndex))
+            {
+                final int sourceFileId = dependencyGraph.getId(sourceFilePath);
+                final int dependentCount = sourceFileId < 0 ? 0 : dependencyGraph.getDependentCount(sourceFileId);
+                for (int dependentIndex = 0; dependentIndex < dependentCount; ++dependentIndex)
+                {
+                    final int dependentComponentIndex = componentIndexes[dependencyGraph.getDependentId(sourceFileId, dependentIndex)];
+                    if (dependentComponentIndex >= 0 && dependentComponentIndex != componentIndex)
+                    {
+                        levels[dependentComponentIndex] = Math.max(levels[dependentComponentIndex], levels[componentIndex] + 1);
+                    }
+                }
+            }
+        }
+
+        final List<List<Iterable<Path>>> levelComponents = List.create();
+        for (int level = 0; level < levelCount; ++level)
+        {
+            levelComponents.add(List.create());
+        }
+        for (int componentIndex = 0; componentIndex < componentCount; ++componentIndex)
+        {
+            levelComponents.get(levels[componentIndex]).add(components.get(componentIndex));
+        }
+
+        final List<Path> mergedBatch = List.create();
+        for (final List<Iterable<Path>> stageComponents : levelComponents)
+        {
+            int stageFileCount = 0;
+            for (final Iterable<Path> component : stageComponents)
+            {
+                stageFileCount += component.getCount();
+            }
+
+            final int stageBatchCount = Math.min(
+                Math.min(maximumBatchCount, stageFileCount / minimumBatchSize),
+                stageComponents.getCount());
+            if (stageBatchCount <= 1)
+            {
+                for (final Iterable<Path> component : stageComponents)
+                {
+                    mergedBatch.addAll(component);
+                }
+            }
+            else
+            {
+                result.addMergedStage(mergedBatch, inputIndexes);
+                mergedBatch.clear();
+
+                // The largest components are assigned first, each to the batch with the fewest
+                // source files.
+                final List<Iterable<Path>> sortedComponents = stageComponents
+                    .order((Iterable<Path> lhs, Iterable<Path> rhs) -> lhs.getCount() > rhs.getCount())
+                    .toList();
+                final List<List<Path>> batches = List.create();
+                for (int i = 0; i < stageBatchCount; ++i)
+                {
+                    batches.add(List.create());
+                }
+                for (final Iterable<Path> component : sortedComponents)
+                {
+                    List<Path> smallestBatch = batches.get(0);
+                    for (final List<Path> batch : batches)
+                    {
+                        if (batch.getCount() < smallestBatch.getCount())
+                        {
+                            smallestBatch = batch;
+                        }
+                    }
+                    smallestBatch.addAll(component);
+                }
+                result.addStage(batches, inputIndexes);
+            }
+        }
+        result.addMergedStage(mergedBatch, inputIndexes);
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    private void addMergedStage(List<Path> mergedBatch, java.util.Map<String,Integer> inputIndexes)
+    {
+        final List<List<Path>> batches = List.create();
+        batches.add(mergedBatch);
+        this.addStage(batches, inputIndexes);
+    }
+
+    private void addStage(List<List<Path>> batches, java.util.Map<String,Integer> inputIndexes)
+    {
+        final List<Iterable<Path>> stage = List.create();
+        for (final List<Path> batch : batches)
+        {
+            if (batch.any())
+            {
+                stage.add(batch
+                    .order((Path lhs, Path rhs) -> inputIndexes.get(lhs.toString()) < inputIndexes.get(rhs.toString()))
+                    .toList());
+            }
+        }
+
+        if (stage.any())
+        {
+            this.stages.add(stage);
+            this.batchCount += stage.getCount();
+            this.maximumStageBatchCount = Math.max(this.maximumStageBatchCount, stage.getCount());
+        }
+    }
+
+    /**
+     * Get the stages of this plan in the order that they must be compiled in. Each stage is made
+     * up of batches of relative source file paths that can be compiled at the same time.
+     * @return The stages of this plan.
+     */
+    public Iterable<Iterable<Iterable<Path>>> getStages()
+    {
+        return this.stages;
+    }
+
+    /**
+     * Get the total number of batches in this plan.
+     * @return The total number of batches in this plan.
+     */
+    public int getBatchCount()
+    {
+        return this.batchCount;
+    }
+
+    /**
+     * Get the largest number of batches that are in a single stage of this plan. This is the
+     * number of workers that are needed to compile every batch of a stage at the same time.
+     * @return The largest number of batches that are in a single stage of this plan.
+     */
+    public int getMaximumStageBatchCount()
+    {
+        return this.maximumStageBatchCount;
+    }
+}
@@ -0,0 +1,88 @@
+package qub;
+
+/**
+ * A collection of functions for creating fingerprints of source file contents.
+ */
+public interface ContentHash
+{
+    /**
+     * The name of the digest algorithm that is used to create content hashes.
+     */
+    String algorithm = "SHA-256";
+
+    /**
+     * Get the content hash of the provided text.
+     * @param contents The text to get the content hash of.
+     * @return The hexadecimal content hash of the provided text.
+     */
+    static String create(String contents)
+    {
+        PreCondition.assertNotNull(contents, "contents");
+
+        return ContentHash.create(contents.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the content hash of the provided bytes.
+     * @param contents The bytes to get the content hash of.
+     * @return The hexadecimal content hash of the provided bytes.
+     */
+    static String create(byte[] contents)
+    {
+        PreCondition.assertNotNull(contents, "contents");
+
+        final java.security.MessageDigest digest = ContentHash.createDigest();
+        return ContentHash.toHexString(digest.digest(contents));
+    }
+
+    /**
+     * Get the content hash of the contents of the provided file.
+     * @param file The file to get the content hash of.
+     * @return The hexadecimal content hash of the provided file's contents.
+     */
+    static Result<String> create(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return Result.create2(() ->
+        {
+            return ContentHash.create(file.getContentsAsString().await());
+        });
+    }
+
+    /**
+     * Create a new MessageDigest that uses this content hash's algorithm.
+     * @return A new MessageDigest.
+     */
+    static java.security.MessageDigest createDigest()
+    {
+        try
+        {
+            return java.security.MessageDigest.getInstance(ContentHash.algorithm);
+        }
+        catch (java.security.NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the lowercase hexadecimal representation of the provided bytes.
+     * @param bytes The bytes to convert.
+     * @return The lowercase hexadecimal representation of the provided bytes.
+     */
+    static String toHexString(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        final char[] hexCharacters = "0123456789abcdef".toCharArray();
+        final char[] result = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; ++i)
+        {
+            final int value = bytes[i] & 0xFF;
+            result[i * 2] = hexCharacters[value >>> 4];
+            result[i * 2 + 1] = hexCharacters[value & 0x0F];
+        }
+        return new String(result);
+    }
+}
@@ -0,0 +1,92 @@
+package qub;
+
+/**
+ * A BuildCacheBackend that stores its contents in a folder.
+ */
+public class FolderBuildCacheBackend implements BuildCacheBackend
+{
+    private final Folder folder;
+
+    private FolderBuildCacheBackend(Folder folder)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+
+        this.folder = folder;
+    }
+
+    /**
+     * Create a new FolderBuildCacheBackend that stores its contents in the provided folder.
+     * @param folder The folder that the contents will be stored in.
+     * @return The new FolderBuildCacheBackend.
+     */
+    public static FolderBuildCacheBackend create(Folder folder)
+    {
+        return new FolderBuildCacheBackend(folder);
+    }
+
+    /**
+     * Get the folder that this backend stores its contents in.
+     * @return The folder that this backend stores its contents in.
+     */
+    public Folder getFolder()
+    {
+        return this.folder;
+    }
+
+    @Override
+    public Result<byte[]> get(String path)
+    {
+        PreCondition.assertTrue(BuildCache.isValidPath(path), "BuildCache.isValidPath(path)");
+
+        return Result.create2(() ->
+        {
+            return this.folder.getFile(path).await().getContents()
+                .catchError(FileNotFoundException.class)
+                .await();
+        });
+    }
+
+    @Override
+    public Result<Void> put(String path, byte[] contents)
+    {
+        PreCondition.assertTrue(BuildCache.isValidPath(path), "BuildCache.isValidPath(path)");
+        PreCondition.assertNotNull(contents, "contents");
+
+        return Result.create2(() ->
+        {
+            final File file = this.folder.getFile(path).await();
+            if (file.getFileSystem() instanceof JavaFileSystem)
+            {
+                // Other processes must never read a partially written file, so the contents are
+                // written to a temporary file that is then moved over the real file.
+                final java.nio.file.Path filePath = java.nio.file.Paths.get(file.toString());
+                final java.nio.file.Path temporaryFilePath = filePath.resolveSibling(filePath.getFileName() + "." + java.util.UUID.randomUUID() + ".tmp");
+                try
+                {
+                    java.nio.file.Files.createDirectories(filePath.getParent());
+                    java.nio.file.Files.write(temporaryFilePath, contents);
+                    java.nio.file.Files.move(temporaryFilePath, filePath, java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+                finally
+                {
+                    try
+                    {
+                        java.nio.file.Files.deleteIfExists(temporaryFilePath);
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        // A leftover temporary file is never read, so it is harmless.
+                    }
+                }
+            }
+            else
+            {
+                file.setContents(contents).await();
+            }
+        });
+    }
+}
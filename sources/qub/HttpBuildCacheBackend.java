@@ -0,0 +1,217 @@
+package qub;
+
+/**
+ * A BuildCacheBackend that shares its contents with an HTTP server. Contents are read with GET
+ * requests and written with PUT requests to the server's base URL followed by the content's path.
+ * A GET request that returns 404 means that nothing is stored at the path. PUT requests carry the
+ * server's shared token in their Authorization header.
+ */
+public class HttpBuildCacheBackend implements BuildCacheBackend
+{
+    /**
+     * The name of the request header that contains the shared token.
+     */
+    static final String authorizationHeaderName = "Authorization";
+
+    private final String baseUrl;
+    private int timeoutMilliseconds;
+    private String token;
+
+    private HttpBuildCacheBackend(String baseUrl)
+    {
+        PreCondition.assertNotNullAndNotEmpty(baseUrl, "baseUrl");
+
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.timeoutMilliseconds = HttpBuildCacheBackend.getTimeoutMillisecondsDefault();
+    }
+
+    /**
+     * Create a new HttpBuildCacheBackend that shares its contents with the server at the provided
+     * base URL.
+     * @param baseUrl The base URL of the server, such as "http://build-cache:8787/".
+     * @return The new HttpBuildCacheBackend.
+     */
+    public static HttpBuildCacheBackend create(String baseUrl)
+    {
+        return new HttpBuildCacheBackend(baseUrl);
+    }
+
+    /**
+     * Get the default number of milliseconds that a request can take to connect and to read its
+     * response before it fails.
+     * @return The default request timeout in milliseconds.
+     */
+    static int getTimeoutMillisecondsDefault()
+    {
+        return 5000;
+    }
+
+    /**
+     * Get the base URL of the server that this backend shares its contents with.
+     * @return The base URL of the server.
+     */
+    public String getBaseUrl()
+    {
+        return this.baseUrl;
+    }
+
+    /**
+     * Get the number of milliseconds that a request can take to connect and to read its response
+     * before it fails.
+     * @return The request timeout in milliseconds.
+     */
+    public int getTimeoutMilliseconds()
+    {
+        return this.timeoutMilliseconds;
+    }
+
+    /**
+     * Set the number of milliseconds that a request can take to connect and to read its response
+     * before it fails.
+     * @param timeoutMilliseconds The request timeout in milliseconds.
+     * @return This object for method chaining.
+     */
+    public HttpBuildCacheBackend setTimeoutMilliseconds(int timeoutMilliseconds)
+    {
+        PreCondition.assertGreaterThan(timeoutMilliseconds, 0, "timeoutMilliseconds");
+
+        this.timeoutMilliseconds = timeoutMilliseconds;
+        return this;
+    }
+
+    /**
+     * Get the shared token that PUT requests are authorized with.
+     * @return The shared token, or null if PUT requests aren't authorized.
+     */
+    public String getToken()
+    {
+        return this.token;
+    }
+
+    /**
+     * Set the shared token that PUT requests are authorized with. The server rejects PUT requests
+     * that don't contain its token.
+     * @param token The shared token, or null to not authorize PUT requests.
+     * @return This object for method chaining.
+     */
+    public HttpBuildCacheBackend setToken(String token)
+    {
+        this.token = Strings.isNullOrEmpty(token) ? null : token;
+        return this;
+    }
+
+    /**
+     * Get the value of the Authorization header that contains the provided token.
+     * @param token The shared token.
+     * @return The value of the Authorization header.
+     */
+    static String getAuthorizationHeaderValue(String token)
+    {
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+
+        return "Bearer " + token;
+    }
+
+    @Override
+    public Result<byte[]> get(String path)
+    {
+        PreCondition.assertTrue(BuildCache.isValidPath(path), "BuildCache.isValidPath(path)");
+
+        return Result.create2(() ->
+        {
+            byte[] result = null;
+            try
+            {
+                final java.net.HttpURLConnection connection = this.openConnection(path, "GET");
+                try
+                {
+                    final int statusCode = connection.getResponseCode();
+                    if (statusCode == java.net.HttpURLConnection.HTTP_OK)
+                    {
+                        try (final java.io.InputStream responseStream = connection.getInputStream())
+                        {
+                            result = HttpBuildCacheBackend.readAllBytes(responseStream);
+                        }
+                    }
+                    else if (statusCode != java.net.HttpURLConnection.HTTP_NOT_FOUND)
+                    {
+                        throw new RuntimeException("GET " + connection.getURL() + " failed with status code " + statusCode + ".");
+                    }
+                }
+                finally
+                {
+                    connection.disconnect();
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Result<Void> put(String path, byte[] contents)
+    {
+        PreCondition.assertTrue(BuildCache.isValidPath(path), "BuildCache.isValidPath(path)");
+        PreCondition.assertNotNull(contents, "contents");
+
+        return Result.create2(() ->
+        {
+            try
+            {
+                final java.net.HttpURLConnection connection = this.openConnection(path, "PUT");
+                try
+                {
+                    if (this.token != null)
+                    {
+                        connection.setRequestProperty(HttpBuildCacheBackend.authorizationHeaderName, HttpBuildCacheBackend.getAuthorizationHeaderValue(this.token));
+                    }
+                    connection.setDoOutput(true);
+                    connection.setFixedLengthStreamingMode(contents.length);
+                    try (final java.io.OutputStream requestStream = connection.getOutputStream())
+                    {
+                        requestStream.write(contents);
+                    }
+
+                    final int statusCode = connection.getResponseCode();
+                    if (statusCode < 200 || 300 <= statusCode)
+                    {
+                        throw new RuntimeException("PUT " + connection.getURL() + " failed with status code " + statusCode + ".");
+                    }
+                }
+                finally
+                {
+                    connection.disconnect();
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private java.net.HttpURLConnection openConnection(String path, String method) throws java.io.IOException
+    {
+        final java.net.HttpURLConnection result = (java.net.HttpURLConnection)new java.net.URL(this.baseUrl + path).openConnection();
+        result.setRequestMethod(method);
+        result.setConnectTimeout(this.timeoutMilliseconds);
+        result.setReadTimeout(this.timeoutMilliseconds);
+        result.setUseCaches(false);
+        return result;
+    }
+
+    static byte[] readAllBytes(java.io.InputStream stream) throws java.io.IOException
+    {
+        final java.io.ByteArrayOutputStream result = new java.io.ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int bytesRead;
+        while ((bytesRead = stream.read(buffer)) != -1)
+        {
+            result.write(buffer, 0, bytesRead);
+        }
+        return result.toByteArray();
+    }
+}
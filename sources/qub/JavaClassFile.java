@@ -0,0 +1,570 @@
+package qub;
+
+/**
+ * The parts of a compiled Java class file that are needed to find the other classes that it
+ * references and to detect changes to its application binary interface (ABI).
+ */
+public class JavaClassFile
+{
+    private static final int magicNumber = 0xCAFEBABE;
+
+    private static final int utf8Tag = 1;
+    private static final int integerTag = 3;
+    private static final int floatTag = 4;
+    private static final int longTag = 5;
+    private static final int doubleTag = 6;
+    private static final int classTag = 7;
+    private static final int stringTag = 8;
+    private static final int fieldReferenceTag = 9;
+    private static final int methodReferenceTag = 10;
+    private static final int interfaceMethodReferenceTag = 11;
+    private static final int nameAndTypeTag = 12;
+    private static final int methodHandleTag = 15;
+    private static final int methodTypeTag = 16;
+    private static final int dynamicTag = 17;
+    private static final int invokeDynamicTag = 18;
+    private static final int moduleTag = 19;
+    private static final int packageTag = 20;
+
+    private static final int privateAccessFlag = 0x0002;
+    private static final int syntheticAccessFlag = 0x1000;
+    /**
+     * The class access flags that affect the classes that are compiled against a class: public,
+     * final, interface, abstract, annotation, and enum.
+     */
+    private static final int classAbiAccessFlags = 0x0001 | 0x0010 | 0x0200 | 0x0400 | 0x2000 | 0x4000;
+    /**
+     * The field access flags that affect the classes that are compiled against a field: public,
+     * protected, static, final, volatile, transient, and enum.
+     */
+    private static final int fieldAbiAccessFlags = 0x0001 | 0x0004 | 0x0008 | 0x0010 | 0x0040 | 0x0080 | 0x4000;
+    /**
+     * The method access flags that affect the classes that are compiled against a method: public,
+     * protected, static, final, varargs, and abstract.
+     */
+    private static final int methodAbiAccessFlags = 0x0001 | 0x0004 | 0x0008 | 0x0010 | 0x0080 | 0x0400;
+
+    private final String className;
+    private final Iterable<String> referencedClassNames;
+    private final String abiDigest;
+    private final String sourceFileName;
+
+    private JavaClassFile(String className, Iterable<String> referencedClassNames, String abiDigest, String sourceFileName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(className, "className");
+        PreCondition.assertNotNull(referencedClassNames, "referencedClassNames");
+        PreCondition.assertNotNullAndNotEmpty(abiDigest, "abiDigest");
+
+        this.className = className;
+        this.referencedClassNames = referencedClassNames;
+        this.abiDigest = abiDigest;
+        this.sourceFileName = sourceFileName;
+    }
+
+    /**
+     * Get the internal name of the class that this class file defines (such as "qub/Strings").
+     * @return The internal name of the class that this class file defines.
+     */
+    public String getClassName()
+    {
+        return this.className;
+    }
+
+    /**
+     * Get the internal names of the other classes that this class file references through its
+     * constant pool, field types, and method signatures.
+     * @return The internal names of the other classes that this class file references.
+     */
+    public Iterable<String> getReferencedClassNames()
+    {
+        return this.referencedClassNames;
+    }
+
+    /**
+     * Get the digest of the parts of this class file that other classes can be compiled against:
+     * the class's modifiers, supertypes, generic signature, and annotations, and the modifiers,
+     * descriptors, generic signatures, thrown exceptions, annotations, and constant values of its
+     * non-private fields and methods. Method bodies and private members don't affect the digest.
+     * @return The hexadecimal digest of this class file's ABI.
+     */
+    public String getAbiDigest()
+    {
+        return this.abiDigest;
+    }
+
+    /**
+     * Get the name of the source file (such as "Strings.java") that this class file was compiled
+     * from. This will be null if the class file was compiled without source file debug
+     * information.
+     * @return The name of the source file that this class file was compiled from.
+     */
+    public String getSourceFileName()
+    {
+        return this.sourceFileName;
+    }
+
+    /**
+     * Get the internal name of the top-level class that contains the class with the provided
+     * internal name. For example, "qub/Outer$Inner" returns "qub/Outer".
+     * @param className The internal name of the class.
+     * @return The internal name of the top-level class.
+     */
+    public static String getTopLevelClassName(String className)
+    {
+        PreCondition.assertNotNullAndNotEmpty(className, "className");
+
+        final int dollarSignIndex = className.indexOf('$', className.lastIndexOf('/') + 1);
+        return dollarSignIndex <= 0 ? className : className.substring(0, dollarSignIndex);
+    }
+
+    /**
+     * Get whether the class with the provided internal name is an anonymous or local class (such
+     * as "qub/Outer$1" or "qub/Outer$1Local"). Anonymous and local classes can't be referenced
+     * from other source files, so they are not part of their source file's ABI.
+     * @param className The internal name of the class.
+     * @return Whether the class is an anonymous or local class.
+     */
+    public static boolean isAnonymousOrLocalClassName(String className)
+    {
+        PreCondition.assertNotNullAndNotEmpty(className, "className");
+
+        boolean result = false;
+        int dollarSignIndex = className.indexOf('$', className.lastIndexOf('/') + 1);
+        while (!result && 0 < dollarSignIndex && dollarSignIndex + 1 < className.length())
+        {
+            result = Character.isDigit(className.charAt(dollarSignIndex + 1));
+            dollarSignIndex = className.indexOf('$', dollarSignIndex + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Parse the provided class file.
+     * @param classFile The class file to parse.
+     * @return The parsed class file.
+     */
+    public static Result<JavaClassFile> parse(File classFile)
+    {
+        PreCondition.assertNotNull(classFile, "classFile");
+
+        return Result.create2(() ->
+        {
+            return JavaClassFile.parse(classFile.getContents().await()).await();
+        });
+    }
+
+    /**
+     * Parse the provided class file bytes.
+     * @param bytes The bytes of the class file to parse.
+     * @return The parsed class file.
+     */
+    public static Result<JavaClassFile> parse(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return Result.create2(() ->
+        {
+            final java.io.DataInputStream input = new java.io.DataInputStream(new java.io.ByteArrayInputStream(bytes));
+            try
+            {
+                if (bytes.length < 4 || input.readInt() != JavaClassFile.magicNumber)
+                {
+                    throw new ParseException("Expected the class file to start with the magic number 0xCAFEBABE.");
+                }
+                input.readUnsignedShort(); // Minor version
+                input.readUnsignedShort(); // Major version
+
+                final ConstantPool constantPool = ConstantPool.parse(input);
+
+                final List<String> abi = List.create();
+                final List<Integer> descriptorIndexes = List.create(constantPool.descriptorIndexes);
+
+                final int classAccessFlags = input.readUnsignedShort();
+                final String className = constantPool.getClassName(input.readUnsignedShort());
+                final int superClassIndex = input.readUnsignedShort();
+                final String superClassName = superClassIndex == 0 ? "" : constantPool.getClassName(superClassIndex);
+                final int interfaceCount = input.readUnsignedShort();
+                final List<String> interfaceNames = List.create();
+                for (int i = 0; i < interfaceCount; ++i)
+                {
+                    interfaceNames.add(constantPool.getClassName(input.readUnsignedShort()));
+                }
+                interfaceNames.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+                abi.add("class " + (classAccessFlags & JavaClassFile.classAbiAccessFlags) + " " + className + " extends " + superClassName + " implements " + Strings.join(',', interfaceNames));
+
+                final List<String> memberAbi = List.create();
+                for (int memberTable = 0; memberTable < 2; ++memberTable)
+                {
+                    final boolean isField = (memberTable == 0);
+                    final int memberCount = input.readUnsignedShort();
+                    for (int i = 0; i < memberCount; ++i)
+                    {
+                        final int memberAccessFlags = input.readUnsignedShort();
+                        final String memberName = constantPool.getUtf8(input.readUnsignedShort());
+                        final int memberDescriptorIndex = input.readUnsignedShort();
+                        descriptorIndexes.add(memberDescriptorIndex);
+                        final String memberAttributesAbi = JavaClassFile.readAttributes(input, constantPool, descriptorIndexes, null);
+
+                        final boolean isAbiMember = (memberAccessFlags & (JavaClassFile.privateAccessFlag | JavaClassFile.syntheticAccessFlag)) == 0;
+                        if (isAbiMember)
+                        {
+                            final int abiAccessFlags = memberAccessFlags & (isField ? JavaClassFile.fieldAbiAccessFlags : JavaClassFile.methodAbiAccessFlags);
+                            memberAbi.add((isField ? "field " : "method ") + abiAccessFlags + " " + memberName + " " + constantPool.getUtf8(memberDescriptorIndex) + memberAttributesAbi);
+                        }
+                    }
+                }
+                memberAbi.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+
+                final java.util.HashMap<String,String> classNonAbiAttributes = new java.util.HashMap<>();
+                abi.add(JavaClassFile.readAttributes(input, constantPool, descriptorIndexes, classNonAbiAttributes));
+                abi.addAll(memberAbi);
+
+                final java.util.LinkedHashSet<String> referencedClassNames = new java.util.LinkedHashSet<>();
+                for (final String referencedClassName : constantPool.getClassNames())
+                {
+                    if (referencedClassName.startsWith("["))
+                    {
+                        JavaClassFile.addDescriptorClassNames(referencedClassName, referencedClassNames);
+                    }
+                    else
+                    {
+                        referencedClassNames.add(referencedClassName);
+                    }
+                }
+                for (final Integer descriptorIndex : descriptorIndexes)
+                {
+                    JavaClassFile.addDescriptorClassNames(constantPool.getUtf8(descriptorIndex), referencedClassNames);
+                }
+                referencedClassNames.remove(className);
+
+                return new JavaClassFile(className, List.create(referencedClassNames), ContentHash.create(Strings.join('\n', abi)), classNonAbiAttributes.get("SourceFile"));
+            }
+            catch (java.io.IOException e)
+            {
+                throw new ParseException("The class file ended before it could be fully parsed.");
+            }
+        });
+    }
+
+    /**
+     * Read an attributes table and return the canonical text of the attributes that are part of
+     * the ABI. The descriptor indexes of any annotation types are added to the provided list. If
+     * the provided nonAbiAttributes map is not null, then the value of a SourceFile attribute will
+     * be added to it.
+     */
+    private static String readAttributes(java.io.DataInputStream input, ConstantPool constantPool, List<Integer> descriptorIndexes, java.util.Map<String,String> nonAbiAttributes) throws java.io.IOException
+    {
+        final List<String> result = List.create();
+        final int attributeCount = input.readUnsignedShort();
+        for (int i = 0; i < attributeCount; ++i)
+        {
+            final String attributeName = constantPool.getUtf8(input.readUnsignedShort());
+            final int attributeLength = input.readInt();
+            if (attributeLength < 0)
+            {
+                throw new java.io.EOFException();
+            }
+
+            switch (attributeName)
+            {
+                case "ConstantValue":
+                    result.add("constant " + constantPool.getConstantValue(input.readUnsignedShort()));
+                    break;
+
+                case "Signature":
+                    result.add("signature " + constantPool.getUtf8(input.readUnsignedShort()));
+                    break;
+
+                case "Exceptions":
+                    final int exceptionCount = input.readUnsignedShort();
+                    final List<String> exceptionNames = List.create();
+                    for (int exceptionIndex = 0; exceptionIndex < exceptionCount; ++exceptionIndex)
+                    {
+                        exceptionNames.add(constantPool.getClassName(input.readUnsignedShort()));
+                    }
+                    exceptionNames.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+                    result.add("throws " + Strings.join(',', exceptionNames));
+                    break;
+
+                case "RuntimeVisibleAnnotations":
+                case "RuntimeInvisibleAnnotations":
+                    final int annotationCount = input.readUnsignedShort();
+                    final List<String> annotations = List.create();
+                    for (int annotationIndex = 0; annotationIndex < annotationCount; ++annotationIndex)
+                    {
+                        annotations.add(JavaClassFile.readAnnotation(input, constantPool, descriptorIndexes));
+                    }
+                    annotations.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+                    result.add(attributeName + " " + Strings.join(',', annotations));
+                    break;
+
+                case "SourceFile":
+                    final String sourceFileName = constantPool.getUtf8(input.readUnsignedShort());
+                    if (nonAbiAttributes != null)
+                    {
+                        nonAbiAttributes.put(attributeName, sourceFileName);
+                    }
+                    break;
+
+                case "AnnotationDefault":
+                    result.add("default " + JavaClassFile.readElementValue(input, constantPool, descriptorIndexes));
+                    break;
+
+                default:
+                    if (input.skipBytes(attributeLength) != attributeLength)
+                    {
+                        throw new java.io.EOFException();
+                    }
+                    break;
+            }
+        }
+        result.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+
+        return result.any()
+            ? " " + Strings.join(' ', result.map((String attribute) -> "[" + attribute + "]"))
+            : "";
+    }
+
+    private static String readAnnotation(java.io.DataInputStream input, ConstantPool constantPool, List<Integer> descriptorIndexes) throws java.io.IOException
+    {
+        final int typeIndex = input.readUnsignedShort();
+        descriptorIndexes.add(typeIndex);
+        final List<String> elements = List.create();
+        final int elementCount = input.readUnsignedShort();
+        for (int i = 0; i < elementCount; ++i)
+        {
+            final String elementName = constantPool.getUtf8(input.readUnsignedShort());
+            elements.add(elementName + "=" + JavaClassFile.readElementValue(input, constantPool, descriptorIndexes));
+        }
+        elements.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+        return "@" + constantPool.getUtf8(typeIndex) + "(" + Strings.join(',', elements) + ")";
+    }
+
+    private static String readElementValue(java.io.DataInputStream input, ConstantPool constantPool, List<Integer> descriptorIndexes) throws java.io.IOException
+    {
+        final char tag = (char)input.readUnsignedByte();
+        String result;
+        switch (tag)
+        {
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+            case 's':
+                result = tag + constantPool.getConstantValue(input.readUnsignedShort());
+                break;
+
+            case 'e':
+                final int enumTypeIndex = input.readUnsignedShort();
+                descriptorIndexes.add(enumTypeIndex);
+                result = "e" + constantPool.getUtf8(enumTypeIndex) + "." + constantPool.getUtf8(input.readUnsignedShort());
+                break;
+
+            case 'c':
+                final int classInfoIndex = input.readUnsignedShort();
+                descriptorIndexes.add(classInfoIndex);
+                result = "c" + constantPool.getUtf8(classInfoIndex);
+                break;
+
+            case '@':
+                result = JavaClassFile.readAnnotation(input, constantPool, descriptorIndexes);
+                break;
+
+            case '[':
+                final int valueCount = input.readUnsignedShort();
+                final List<String> values = List.create();
+                for (int i = 0; i < valueCount; ++i)
+                {
+                    values.add(JavaClassFile.readElementValue(input, constantPool, descriptorIndexes));
+                }
+                result = "[" + Strings.join(',', values) + "]";
+                break;
+
+            default:
+                throw new ParseException("Unrecognized annotation element value tag " + Strings.escapeAndQuote(String.valueOf(tag)) + ".");
+        }
+        return result;
+    }
+
+    /**
+     * Add the internal names of the classes that are referenced in the provided field or method
+     * descriptor (such as "(Lqub/Path;I)[Ljava/lang/String;").
+     * @param descriptor The field or method descriptor.
+     * @param classNames The set to add the referenced class names to.
+     */
+    private static void addDescriptorClassNames(String descriptor, java.util.Set<String> classNames)
+    {
+        int index = 0;
+        final int descriptorLength = descriptor.length();
+        while (index < descriptorLength)
+        {
+            if (descriptor.charAt(index) == 'L')
+            {
+                final int semicolonIndex = descriptor.indexOf(';', index);
+                if (semicolonIndex < 0)
+                {
+                    throw new ParseException("Missing ';' in descriptor " + Strings.escapeAndQuote(descriptor) + ".");
+                }
+                classNames.add(descriptor.substring(index + 1, semicolonIndex));
+                index = semicolonIndex + 1;
+            }
+            else
+            {
+                ++index;
+            }
+        }
+    }
+
+    /**
+     * The constant pool of a class file.
+     */
+    private static class ConstantPool
+    {
+        private final int[] tags;
+        private final String[] utf8Values;
+        private final String[] constantValues;
+        private final int[] referenceIndexes;
+        private final List<Integer> descriptorIndexes;
+
+        private ConstantPool(int constantPoolCount)
+        {
+            this.tags = new int[constantPoolCount];
+            this.utf8Values = new String[constantPoolCount];
+            this.constantValues = new String[constantPoolCount];
+            this.referenceIndexes = new int[constantPoolCount];
+            this.descriptorIndexes = List.create();
+        }
+
+        static ConstantPool parse(java.io.DataInputStream input) throws java.io.IOException
+        {
+            final int constantPoolCount = input.readUnsignedShort();
+            final ConstantPool result = new ConstantPool(constantPoolCount);
+            for (int index = 1; index < constantPoolCount; ++index)
+            {
+                final int tag = input.readUnsignedByte();
+                result.tags[index] = tag;
+                switch (tag)
+                {
+                    case JavaClassFile.utf8Tag:
+                        result.utf8Values[index] = input.readUTF();
+                        break;
+
+                    case JavaClassFile.classTag:
+                    case JavaClassFile.stringTag:
+                        result.referenceIndexes[index] = input.readUnsignedShort();
+                        break;
+
+                    case JavaClassFile.nameAndTypeTag:
+                        input.readUnsignedShort(); // Name index
+                        result.descriptorIndexes.add(input.readUnsignedShort());
+                        break;
+
+                    case JavaClassFile.methodTypeTag:
+                        result.descriptorIndexes.add(input.readUnsignedShort());
+                        break;
+
+                    case JavaClassFile.moduleTag:
+                    case JavaClassFile.packageTag:
+                        input.readUnsignedShort();
+                        break;
+
+                    case JavaClassFile.methodHandleTag:
+                        input.readUnsignedByte();
+                        input.readUnsignedShort();
+                        break;
+
+                    case JavaClassFile.integerTag:
+                        result.constantValues[index] = Integer.toString(input.readInt());
+                        break;
+
+                    case JavaClassFile.floatTag:
+                        result.constantValues[index] = Integer.toHexString(input.readInt());
+                        break;
+
+                    case JavaClassFile.fieldReferenceTag:
+                    case JavaClassFile.methodReferenceTag:
+                    case JavaClassFile.interfaceMethodReferenceTag:
+                    case JavaClassFile.dynamicTag:
+                    case JavaClassFile.invokeDynamicTag:
+                        input.readInt();
+                        break;
+
+                    case JavaClassFile.longTag:
+                        result.constantValues[index] = Long.toString(input.readLong());
+                        // Long and double constants take up two constant pool entries.
+                        ++index;
+                        break;
+
+                    case JavaClassFile.doubleTag:
+                        result.constantValues[index] = Long.toHexString(input.readLong());
+                        ++index;
+                        break;
+
+                    default:
+                        throw new ParseException("Unrecognized constant pool tag " + tag + " at index " + index + ".");
+                }
+            }
+            return result;
+        }
+
+        private void assertTag(int index, int expectedTag, String expectedDescription)
+        {
+            if (index <= 0 || this.tags.length <= index || this.tags[index] != expectedTag)
+            {
+                throw new ParseException("Expected " + expectedDescription + " constant at constant pool index " + index + ".");
+            }
+        }
+
+        String getUtf8(int index)
+        {
+            this.assertTag(index, JavaClassFile.utf8Tag, "a UTF8");
+            return this.utf8Values[index];
+        }
+
+        String getClassName(int index)
+        {
+            this.assertTag(index, JavaClassFile.classTag, "a class");
+            return this.getUtf8(this.referenceIndexes[index]);
+        }
+
+        Iterable<String> getClassNames()
+        {
+            final List<String> result = List.create();
+            for (int index = 1; index < this.tags.length; ++index)
+            {
+                if (this.tags[index] == JavaClassFile.classTag)
+                {
+                    result.add(this.getClassName(index));
+                }
+            }
+            return result;
+        }
+
+        String getConstantValue(int index)
+        {
+            String result;
+            if (0 < index && index < this.tags.length && this.tags[index] == JavaClassFile.stringTag)
+            {
+                result = Strings.escapeAndQuote(this.getUtf8(this.referenceIndexes[index]));
+            }
+            else if (0 < index && index < this.tags.length && this.tags[index] == JavaClassFile.utf8Tag)
+            {
+                // Annotation string element values refer directly to a UTF8 constant.
+                result = Strings.escapeAndQuote(this.utf8Values[index]);
+            }
+            else if (0 < index && index < this.tags.length && this.constantValues[index] != null)
+            {
+                result = this.tags[index] + ":" + this.constantValues[index];
+            }
+            else
+            {
+                throw new ParseException("Expected a constant value at constant pool index " + index + ".");
+            }
+            return result;
+        }
+    }
+}
@@ -10,11 +10,12 @@ public class JavaCompilationResult
      */
     public final int exitCode;
     /**
-     * The text that was written to the standard output stream.
+     * The text that was written to the standard output stream, or null if the text wasn't
+     * retained.
      */
     public final String output;
     /**
-     * The text that was written to the standard error stream.
+     * The text that was written to the standard error stream, or null if the text wasn't retained.
      */
     public final String error;
     /**
@@ -0,0 +1,8 @@
+package qub;
+
+public enum JavaCompilerMode
+{
+    Process,
+    Worker,
+    InProcess,
+}
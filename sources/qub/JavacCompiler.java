@@ -0,0 +1,55 @@
+package qub;
+
+/**
+ * A Java compiler that accepts javac arguments and compiles source code files.
+ * @param <T> The type that is returned from the argument methods for method chaining.
+ */
+public interface JavacCompiler<T> extends JavacArguments<T>
+{
+    /**
+     * Get the arguments that have been added to this compiler.
+     * @return The arguments that have been added to this compiler.
+     */
+    Iterable<String> getArguments();
+
+    /**
+     * Get the version of javac that this compiler runs.
+     * @param verbose The stream that verbose logs should be written to.
+     * @return The version of javac that this compiler runs.
+     */
+    Result<VersionNumber> getVersion(CharacterToByteWriteStream verbose);
+
+    /**
+     * Compile the source files that have been added to this compiler. The returned result contains
+     * the compiler's output text, error text, and issues.
+     * @param warnings How compilation warnings should be handled.
+     * @param verbose The stream that verbose logs should be written to.
+     * @return The result of the compilation.
+     */
+    default Result<JavaCompilationResult> compile(Warnings warnings, CharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(warnings, "warnings");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        return Result.create2(() ->
+        {
+            final List<JavaCompilerIssue> issues = List.create();
+            final JavaCompilationResult result = this.compile(warnings, verbose, issues::add, true).await();
+            return new JavaCompilationResult(result.exitCode, result.output, result.error, issues);
+        });
+    }
+
+    /**
+     * Compile the source files that have been added to this compiler. Each issue is passed to the
+     * provided action as soon as the compiler reports it, and the returned result won't contain
+     * any issues.
+     * @param warnings How compilation warnings should be handled.
+     * @param verbose The stream that verbose logs should be written to.
+     * @param issueAction The action that will be invoked with each issue as soon as it is reported.
+     * @param retainText Whether or not the returned result should contain the compiler's output
+     *                   and error text. If this is false, then the result's output and error will
+     *                   be null.
+     * @return The result of the compilation.
+     */
+    Result<JavaCompilationResult> compile(Warnings warnings, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> issueAction, boolean retainText);
+}
@@ -0,0 +1,275 @@
+package qub;
+
+/**
+ * A JavacCompiler that compiles source code files with the Java compiler that is loaded in the
+ * current JVM instead of starting a new javac process. Relative paths are resolved against the
+ * compiler's working folder.
+ */
+public class JavacInProcessCompiler implements JavacCompiler<JavacInProcessCompiler>
+{
+    private final javax.tools.JavaCompiler compiler;
+    private final Path workingFolderPath;
+    private final List<String> options;
+    private final List<String> sourceFilePaths;
+
+    private JavacInProcessCompiler(javax.tools.JavaCompiler compiler, Path workingFolderPath)
+    {
+        PreCondition.assertNotNull(compiler, "compiler");
+        PreCondition.assertNotNull(workingFolderPath, "workingFolderPath");
+
+        this.compiler = compiler;
+        this.workingFolderPath = workingFolderPath;
+        this.options = List.create();
+        this.sourceFilePaths = List.create();
+    }
+
+    /**
+     * Get a JavacInProcessCompiler that resolves relative paths against the provided folder.
+     * @param workingFolder The folder that relative paths will be resolved against.
+     * @return The JavacInProcessCompiler.
+     */
+    public static Result<JavacInProcessCompiler> create(Folder workingFolder)
+    {
+        PreCondition.assertNotNull(workingFolder, "workingFolder");
+
+        return Result.create2(() ->
+        {
+            final javax.tools.JavaCompiler compiler = javax.tools.ToolProvider.getSystemJavaCompiler();
+            if (compiler == null)
+            {
+                throw new NotFoundException("No in-process Java compiler was found. The in-process compiler can only be used when running on a JDK.");
+            }
+            return new JavacInProcessCompiler(compiler, workingFolder.getPath());
+        });
+    }
+
+    @Override
+    public Path getWorkingFolderPath()
+    {
+        return this.workingFolderPath;
+    }
+
+    @Override
+    public Iterable<String> getArguments()
+    {
+        final List<String> result = List.create();
+        result.addAll(this.options);
+        result.addAll(this.sourceFilePaths);
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    @Override
+    public JavacInProcessCompiler addArguments(String... arguments)
+    {
+        PreCondition.assertNotNull(arguments, "arguments");
+
+        for (final String argument : arguments)
+        {
+            this.options.add(argument);
+        }
+        return this;
+    }
+
+    @Override
+    public JavacInProcessCompiler addOutputFolder(Path outputFolderPath)
+    {
+        PreCondition.assertNotNull(outputFolderPath, "outputFolder");
+
+        return this.addArguments("-d", this.resolve(outputFolderPath));
+    }
+
+    @Override
+    public JavacInProcessCompiler addSourceFile(Path sourceFilePath)
+    {
+        PreCondition.assertNotNull(sourceFilePath, "sourceFilePath");
+
+        this.sourceFilePaths.add(this.resolve(sourceFilePath));
+        return this;
+    }
+
+    /**
+     * Get the version of the Java compiler that is loaded in the current JVM.
+     * @param verbose The stream that verbose logs should be written to.
+     * @return The version of the Java compiler that is loaded in the current JVM.
+     */
+    @Override
+    public Result<VersionNumber> getVersion(CharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        return Result.create2(() ->
+        {
+            final String versionString = System.getProperty("java.version");
+            verbose.writeLine("In-process javac version: " + versionString).await();
+            final VersionNumber result = VersionNumber.parse(versionString).await();
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Compile the source files that have been added to this compiler. Issues are taken from the
+     * compiler's diagnostics as they are reported instead of being parsed from its error text.
+     * @param warnings How compilation warnings should be handled.
+     * @param verbose The stream that verbose logs should be written to.
+     * @param issueAction The action that will be invoked with each issue as soon as it is reported.
+     * @param retainText Whether or not the returned result should contain the compiler's output and
+     *                   error text.
+     * @return The result of compiling the source files.
+     */
+    @Override
+    public Result<JavaCompilationResult> compile(Warnings warnings, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> issueAction, boolean retainText)
+    {
+        PreCondition.assertNotNull(warnings, "warnings");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(issueAction, "issueAction");
+
+        return Result.create2(() ->
+        {
+            verbose.writeLine("Running javac in-process " + Strings.join(' ', this.getArguments()) + "...").await();
+
+            final java.io.StringWriter errorText = new java.io.StringWriter();
+            final javax.tools.DiagnosticListener<javax.tools.JavaFileObject> diagnosticListener = (javax.tools.Diagnostic<? extends javax.tools.JavaFileObject> diagnostic) ->
+            {
+                final String diagnosticText = diagnostic.toString();
+                if (retainText)
+                {
+                    errorText.write(diagnosticText + System.lineSeparator());
+                }
+                verbose.writeLine(diagnosticText).await();
+
+                final JavaCompilerIssue issue = JavacInProcessCompiler.getIssue(diagnostic, this.workingFolderPath, warnings);
+                if (issue != null)
+                {
+                    issueAction.run(issue);
+                }
+            };
+
+            final java.util.List<String> options = new java.util.ArrayList<>();
+            for (final String option : this.options)
+            {
+                options.add(option);
+            }
+            final java.util.List<String> sourceFilePaths = new java.util.ArrayList<>();
+            for (final String sourceFilePath : this.sourceFilePaths)
+            {
+                sourceFilePaths.add(sourceFilePath);
+            }
+
+            final java.io.StringWriter outputText = new java.io.StringWriter();
+            int exitCode;
+            try (final javax.tools.StandardJavaFileManager fileManager = this.compiler.getStandardFileManager(diagnosticListener, null, java.nio.charset.StandardCharsets.UTF_8))
+            {
+                final javax.tools.JavaCompiler.CompilationTask task = this.compiler.getTask(
+                    outputText,
+                    fileManager,
+                    diagnosticListener,
+                    options,
+                    null,
+                    fileManager.getJavaFileObjectsFromStrings(sourceFilePaths));
+                exitCode = task.call() ? 0 : 1;
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Invalid options and source files are reported the same way that a javac process
+                // would report them.
+                exitCode = 2;
+                errorText.write(e.getMessage() + System.lineSeparator());
+                verbose.writeLine(e.getMessage()).await();
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+
+            final String output = outputText.toString();
+            if (!Strings.isNullOrEmpty(output))
+            {
+                verbose.write(output).await();
+            }
+
+            return new JavaCompilationResult(
+                exitCode,
+                retainText ? output : null,
+                retainText ? errorText.toString() : null,
+                Iterable.create());
+        });
+    }
+
+    /**
+     * Convert the provided compiler diagnostic to a JavaCompilerIssue.
+     * @param diagnostic The diagnostic that was reported by the compiler.
+     * @param workingFolderPath The folder that the issue's source file path will be relative to.
+     * @param warnings How warnings should be treated.
+     * @return The JavaCompilerIssue, or null if the diagnostic isn't an error or a warning in a
+     * source file.
+     */
+    static JavaCompilerIssue getIssue(javax.tools.Diagnostic<? extends javax.tools.JavaFileObject> diagnostic, Path workingFolderPath, Warnings warnings)
+    {
+        PreCondition.assertNotNull(diagnostic, "diagnostic");
+        PreCondition.assertNotNull(workingFolderPath, "workingFolderPath");
+        PreCondition.assertNotNull(warnings, "warnings");
+
+        JavaCompilerIssue result = null;
+
+        final javax.tools.JavaFileObject source = diagnostic.getSource();
+        if (source != null && diagnostic.getLineNumber() != javax.tools.Diagnostic.NOPOS)
+        {
+            Issue.Type issueType = null;
+            switch (diagnostic.getKind())
+            {
+                case ERROR:
+                    issueType = Issue.Type.Error;
+                    break;
+
+                case WARNING:
+                case MANDATORY_WARNING:
+                    issueType = (warnings == Warnings.Error ? Issue.Type.Error : Issue.Type.Warning);
+                    break;
+            }
+
+            if (issueType != null)
+            {
+                String sourceFilePath = source.getName();
+                final java.net.URI sourceUri = source.toUri();
+                if ("file".equalsIgnoreCase(sourceUri.getScheme()))
+                {
+                    sourceFilePath = java.nio.file.Paths.get(workingFolderPath.toString())
+                        .relativize(java.nio.file.Paths.get(sourceUri))
+                        .toString();
+                }
+
+                // Only keep the first line of the message, which is all that is parsed from the
+                // error text of a javac process.
+                String message = diagnostic.getMessage(null);
+                final int newLineIndex = message.indexOf('\n');
+                if (newLineIndex >= 0)
+                {
+                    message = message.substring(0, newLineIndex);
+                }
+
+                result = new JavaCompilerIssue(
+                    Path.parse(sourceFilePath).normalize().toString(),
+                    (int)diagnostic.getLineNumber(),
+                    (int)Math.max(diagnostic.getColumnNumber(), 0),
+                    issueType,
+                    message.trim());
+            }
+        }
+
+        return result;
+    }
+
+    private String resolve(Path path)
+    {
+        return java.nio.file.Paths.get(this.workingFolderPath.toString())
+            .resolve(path.toString())
+            .normalize()
+            .toString();
+    }
+}
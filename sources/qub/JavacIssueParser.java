@@ -0,0 +1,122 @@
+package qub;
+
+/**
+ * A line-driven parser that turns the error text of a javac process into JavaCompilerIssue objects
+ * as the lines arrive. Each issue is made up of a header line ("path:line: type: message"), the
+ * line of source code that contains the issue, and a caret line that points at the issue's column.
+ * Lines that aren't part of an issue are ignored.
+ */
+public class JavacIssueParser
+{
+    private enum State
+    {
+        Header,
+        SourceLine,
+        CaretLine,
+    }
+
+    private final Warnings warnings;
+    private final Action1<JavaCompilerIssue> issueAction;
+    private State state;
+    private String sourceFilePath;
+    private int lineNumber;
+    private Issue.Type issueType;
+    private String message;
+
+    private JavacIssueParser(Warnings warnings, Action1<JavaCompilerIssue> issueAction)
+    {
+        PreCondition.assertNotNull(warnings, "warnings");
+        PreCondition.assertNotNull(issueAction, "issueAction");
+
+        this.warnings = warnings;
+        this.issueAction = issueAction;
+        this.state = State.Header;
+    }
+
+    /**
+     * Create a new JavacIssueParser.
+     * @param warnings How warnings should be treated.
+     * @param issueAction The action that will be invoked with each issue as soon as it has been
+     *                    parsed.
+     * @return The new JavacIssueParser.
+     */
+    public static JavacIssueParser create(Warnings warnings, Action1<JavaCompilerIssue> issueAction)
+    {
+        return new JavacIssueParser(warnings, issueAction);
+    }
+
+    /**
+     * Add the provided line of javac error text to this parser.
+     * @param line The line of error text. Any trailing line terminator is ignored.
+     * @return This object for method chaining.
+     */
+    public JavacIssueParser addLine(String line)
+    {
+        PreCondition.assertNotNull(line, "line");
+
+        int lineLength = line.length();
+        while (lineLength > 0 && (line.charAt(lineLength - 1) == '\n' || line.charAt(lineLength - 1) == '\r'))
+        {
+            --lineLength;
+        }
+        line = line.substring(0, lineLength);
+
+        switch (this.state)
+        {
+            case Header:
+                if (this.parseHeader(line))
+                {
+                    this.state = State.SourceLine;
+                }
+                break;
+
+            case SourceLine:
+                this.state = State.CaretLine;
+                break;
+
+            case CaretLine:
+                final int columnNumber = line.indexOf('^') + 1;
+                this.issueAction.run(new JavaCompilerIssue(this.sourceFilePath, this.lineNumber, columnNumber, this.issueType, this.message));
+                this.state = State.Header;
+                break;
+        }
+
+        return this;
+    }
+
+    /**
+     * Parse the provided line as the header line of an issue.
+     * @param line The line to parse.
+     * @return Whether or not the line was the header line of an issue.
+     */
+    private boolean parseHeader(String line)
+    {
+        boolean result = false;
+
+        final int firstColon = line.indexOf(':');
+        if (firstColon >= 0)
+        {
+            final int secondColon = line.indexOf(':', firstColon + 1);
+            final int thirdColon = secondColon < 0 ? -1 : line.indexOf(':', secondColon + 1);
+            if (thirdColon >= 0)
+            {
+                final Integer lineNumber = Integers.parse(line.substring(firstColon + 1, secondColon))
+                    .catchError(NumberFormatException.class)
+                    .await();
+                if (lineNumber != null)
+                {
+                    final String issueTypeString = line.substring(secondColon + 1, thirdColon).trim();
+                    this.sourceFilePath = Path.parse(line.substring(0, firstColon)).normalize().toString();
+                    this.lineNumber = lineNumber;
+                    this.issueType = (this.warnings == Warnings.Error || issueTypeString.equalsIgnoreCase(Issue.Type.Error.toString()))
+                        ? Issue.Type.Error
+                        : Issue.Type.Warning;
+                    this.message = line.substring(thirdColon + 1).trim();
+                    result = true;
+                }
+            }
+        }
+
+        return result;
+    }
+}
@@ -3,11 +3,13 @@ package qub;
 /**
  * A ProcessBuilder that is specific to the javac application.
  */
-public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBuilder> implements JavacArguments<JavacProcessBuilder>
+public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBuilder> implements JavacCompiler<JavacProcessBuilder>
 {
     public static final String executablePathString = "javac";
     public static final Path executablePath = Path.parse(JavacProcessBuilder.executablePathString);
 
+    private JavacWorkerPool workerPool;
+
     private JavacProcessBuilder(ProcessBuilder processBuilder)
     {
         super(processBuilder);
@@ -40,6 +42,28 @@ public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBui
         });
     }
 
+    /**
+     * Set the pool of javac workers that compilations will be sent to. If the pool is null, then
+     * each compilation runs a new javac process.
+     * @param workerPool The pool of javac workers that compilations will be sent to.
+     * @return This object for method chaining.
+     */
+    public JavacProcessBuilder setWorkerPool(JavacWorkerPool workerPool)
+    {
+        this.workerPool = workerPool;
+        return this;
+    }
+
+    /**
+     * Get the pool of javac workers that compilations will be sent to.
+     * @return The pool of javac workers that compilations will be sent to, or null if each
+     * compilation runs a new javac process.
+     */
+    public JavacWorkerPool getWorkerPool()
+    {
+        return this.workerPool;
+    }
+
     /**
      * Get the version of javac that this process builder runs.
      * @return The version of javac that this process builder runs.
@@ -89,44 +113,69 @@ public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBui
     }
 
     /**
-     * Run the javac process that this builder has constructed.
+     * Run the javac process that this builder has constructed, or send its arguments to a warm
+     * worker if this builder has a worker pool. Issues are parsed from the error lines as they are
+     * written and passed to the provided action instead of being collected in the returned result.
      * @param warnings How compilation warnings should be handled.
      * @param verbose The stream that verbose logs should be written to.
-     * @return The parsed result of running the javac process.
+     * @param issueAction The action that will be invoked with each issue as soon as it is parsed.
+     * @param retainText Whether or not the returned result should contain the process's output and
+     *                   error text.
+     * @return The result of running the javac process.
      */
-    public Result<JavaCompilationResult> compile(Warnings warnings, CharacterToByteWriteStream verbose)
+    @Override
+    public Result<JavaCompilationResult> compile(Warnings warnings, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> issueAction, boolean retainText)
     {
         PreCondition.assertNotNull(warnings, "warnings");
         PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(issueAction, "issueAction");
 
         return Result.create2(() ->
         {
+            if (this.workerPool != null)
+            {
+                final JavacWorkerProcess worker = this.workerPool.acquire().await();
+                try
+                {
+                    return worker.compile(this.getWorkingFolderPath(), this.getArguments(), warnings, verbose, issueAction, retainText).await();
+                }
+                finally
+                {
+                    this.workerPool.release(worker);
+                }
+            }
+
             final SpinMutex verboseMutex = SpinMutex.create();
-            final InMemoryCharacterToByteStream stdout = InMemoryCharacterToByteStream.create();
+            final InMemoryCharacterToByteStream stdout = retainText ? InMemoryCharacterToByteStream.create() : null;
             this.redirectOutputLines((String outputLine) ->
             {
-                stdout.write(outputLine).await();
+                if (stdout != null)
+                {
+                    stdout.write(outputLine).await();
+                }
                 verboseMutex.criticalSection(() -> verbose.write(outputLine).await()).await();
             });
 
-            final InMemoryCharacterToByteStream stderr = InMemoryCharacterToByteStream.create();
+            final InMemoryCharacterToByteStream stderr = retainText ? InMemoryCharacterToByteStream.create() : null;
+            final JavacIssueParser issueParser = JavacIssueParser.create(warnings, issueAction);
             this.redirectErrorLines((String errorLine) ->
             {
-                stderr.write(errorLine).await();
+                if (stderr != null)
+                {
+                    stderr.write(errorLine).await();
+                }
                 verboseMutex.criticalSection(() -> verbose.write(errorLine).await()).await();
+                issueParser.addLine(errorLine);
             });
 
             verbose.writeLine("Running " + this.getCommand() + "...").await();
             final Integer exitCode = this.run().await();
-            final String outputText = stdout.getText().await();
-            final String errorText = stderr.getText().await();
-            final Iterable<JavaCompilerIssue> issues = JavacProcessBuilder.parseIssues(errorText, warnings);
 
             return new JavaCompilationResult(
                 exitCode,
-                outputText,
-                errorText,
-                issues);
+                stdout == null ? null : stdout.getText().await(),
+                stderr == null ? null : stderr.getText().await(),
+                Iterable.create());
         });
     }
 
@@ -145,49 +194,10 @@ public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBui
 
         if (!Strings.isNullOrEmpty(errorText))
         {
-            final Iterator<String> errorLines = Strings.getLines(errorText).iterate();
-            errorLines.next();
-            while (errorLines.hasCurrent())
+            final JavacIssueParser issueParser = JavacIssueParser.create(warnings, result::add);
+            for (final String errorLine : Strings.getLines(errorText))
             {
-                final String errorLine = errorLines.takeCurrent();
-                final int firstColon = errorLine.indexOf(':');
-                if (firstColon >= 0)
-                {
-                    final String sourceFilePath = errorLine.substring(0, firstColon);
-                    final int secondColon = errorLine.indexOf(':', firstColon + 1);
-                    if (secondColon >= 0)
-                    {
-                        final String lineNumberString = errorLine.substring(firstColon + 1, secondColon);
-                        final Integer lineNumber = Integers.parse(lineNumberString)
-                            .catchError(NumberFormatException.class)
-                            .await();
-                        if (lineNumber != null)
-                        {
-                            final int thirdColon = errorLine.indexOf(':', secondColon + 1);
-                            final String issueTypeString = errorLine.substring(secondColon + 1, thirdColon).trim();
-                            final Issue.Type issueType = (warnings == Warnings.Error || issueTypeString.equalsIgnoreCase(Issue.Type.Error.toString()))
-                                ? Issue.Type.Error
-                                : Issue.Type.Warning;
-                            final String message = errorLine.substring(thirdColon + 1).trim();
-
-                            if (errorLines.hasCurrent())
-                            {
-                                // Take source code line.
-                                errorLines.takeCurrent();
-
-                                if (errorLines.hasCurrent())
-                                {
-                                    final String caretLine = errorLines.takeCurrent();
-                                    final int caretIndex = caretLine.indexOf('^');
-                                    final int columnNumber = caretIndex + 1;
-
-                                    final String normalizedSourceFilePath = Path.parse(sourceFilePath).normalize().toString();
-                                    result.add(new JavaCompilerIssue(normalizedSourceFilePath, lineNumber, columnNumber, issueType, message));
-                                }
-                            }
-                        }
-                    }
-                }
+                issueParser.addLine(errorLine);
             }
         }
 
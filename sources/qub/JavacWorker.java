@@ -0,0 +1,241 @@
+package qub;
+
+/**
+ * The entry point of a long-lived javac worker process. A worker reads compile requests from its
+ * standard input stream, compiles each request with the Java compiler that is loaded in its own
+ * JVM, and writes the response to its standard output stream. A request is a single line that
+ * contains a JSON object with the javac arguments and the folder that relative paths in those
+ * arguments are resolved against, since a worker can be shared by builds of different projects and
+ * keeps the working folder that it was started in. A response is made up of the compiler's text,
+ * with each line written after the output line prefix, followed by a line that starts with the
+ * done line prefix and contains the compiler's exit code and the number of megabytes of heap that
+ * the worker is using. The worker exits when its standard input stream is closed.
+ */
+public interface JavacWorker
+{
+    String argumentsPropertyName = "arguments";
+    String workingFolderPropertyName = "workingFolder";
+    String outputLinePrefix = "output:";
+    String doneLinePrefix = "done:";
+
+    /**
+     * The javac options whose value is a folder path that is resolved against a request's working
+     * folder.
+     */
+    Iterable<String> pathOptions = Iterable.create("-d", "-s", "-h", "-sourcepath", "--source-path");
+
+    /**
+     * The javac options whose value isn't a folder path, but still must not be mistaken for a
+     * source file.
+     */
+    Iterable<String> valueOptions = Iterable.create(
+        "-classpath", "-cp", "--class-path", "-bootclasspath", "-processorpath", "--processor-path",
+        "--module-path", "-p", "-source", "--source", "-target", "--target", "--release",
+        "-encoding", "-Xmaxerrs", "-Xmaxwarns");
+
+    static void main(String[] args)
+    {
+        // Anything else that writes to the standard output stream (such as an annotation
+        // processor) would corrupt the responses, so it is sent to the standard error stream.
+        final java.io.PrintStream responseStream = System.out;
+        System.setOut(System.err);
+
+        final java.io.BufferedReader requestReader = new java.io.BufferedReader(new java.io.InputStreamReader(System.in, java.nio.charset.StandardCharsets.UTF_8));
+        try
+        {
+            String requestLine = requestReader.readLine();
+            while (requestLine != null)
+            {
+                if (!Strings.isNullOrEmpty(requestLine))
+                {
+                    JavacWorker.handleRequest(requestLine, responseStream::println);
+                    responseStream.flush();
+                }
+                requestLine = requestReader.readLine();
+            }
+        }
+        catch (java.io.IOException e)
+        {
+            // The process that started this worker has gone away, so there is nobody left to
+            // respond to.
+        }
+    }
+
+    /**
+     * Compile the provided request and write the response lines to the provided action.
+     * @param requestLine The line that contains the compile request.
+     * @param responseLineAction The action that will be invoked with each line of the response.
+     */
+    static void handleRequest(String requestLine, Action1<String> responseLineAction)
+    {
+        PreCondition.assertNotNullAndNotEmpty(requestLine, "requestLine");
+        PreCondition.assertNotNull(responseLineAction, "responseLineAction");
+
+        int exitCode;
+
+        // The compiler's text is sent one line at a time as javac writes it, so the process that
+        // sent the request can parse issues before the compilation has finished.
+        final java.io.ByteArrayOutputStream compilerLine = new java.io.ByteArrayOutputStream();
+        final Action0 writeCompilerLine = () ->
+        {
+            String line = new String(compilerLine.toByteArray(), java.nio.charset.StandardCharsets.UTF_8);
+            if (line.endsWith("\r"))
+            {
+                line = line.substring(0, line.length() - 1);
+            }
+            compilerLine.reset();
+            responseLineAction.run(JavacWorker.outputLinePrefix + line);
+        };
+        final java.io.OutputStream compilerText = new java.io.OutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+                if (b == '\n')
+                {
+                    writeCompilerLine.run();
+                }
+                else
+                {
+                    compilerLine.write(b);
+                }
+            }
+        };
+        final javax.tools.JavaCompiler compiler = javax.tools.ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+        {
+            exitCode = 2;
+            responseLineAction.run(JavacWorker.outputLinePrefix + "error: No Java compiler was found in the javac worker. The javac worker can only be run on a JDK.");
+        }
+        else
+        {
+            final List<String> arguments = JavacWorker.parseRequest(requestLine)
+                .catchError(ParseException.class)
+                .await();
+            if (arguments == null)
+            {
+                exitCode = 2;
+                responseLineAction.run(JavacWorker.outputLinePrefix + "error: Invalid javac worker request: " + Strings.escapeAndQuote(requestLine));
+            }
+            else
+            {
+                final String[] argumentArray = new String[arguments.getCount()];
+                for (int i = 0; i < argumentArray.length; ++i)
+                {
+                    argumentArray[i] = arguments.get(i);
+                }
+                exitCode = compiler.run(null, compilerText, compilerText, argumentArray);
+            }
+        }
+
+        if (compilerLine.size() > 0)
+        {
+            writeCompilerLine.run();
+        }
+
+        final java.lang.Runtime runtime = java.lang.Runtime.getRuntime();
+        final long heapUsedMegabytes = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        responseLineAction.run(JavacWorker.doneLinePrefix + exitCode + ":" + heapUsedMegabytes);
+    }
+
+    /**
+     * Create the request line that asks a javac worker to compile with the provided arguments.
+     * @param arguments The javac arguments.
+     * @return The request line.
+     */
+    static String createRequest(Iterable<String> arguments)
+    {
+        return JavacWorker.createRequest(null, arguments);
+    }
+
+    /**
+     * Create the request line that asks a javac worker to compile with the provided arguments.
+     * @param workingFolderPath The folder that relative paths in the arguments are resolved
+     *                          against, or null if they are resolved against the worker's own
+     *                          working folder.
+     * @param arguments The javac arguments.
+     * @return The request line.
+     */
+    static String createRequest(Path workingFolderPath, Iterable<String> arguments)
+    {
+        PreCondition.assertNotNull(arguments, "arguments");
+
+        final JSONObject request = JSONObject.create();
+        if (workingFolderPath != null)
+        {
+            request.setString(JavacWorker.workingFolderPropertyName, workingFolderPath.toString());
+        }
+        request.set(JavacWorker.argumentsPropertyName, JSONArray.create(arguments.map(JSONString::get)));
+        final String result = request.toString();
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Parse the javac arguments from the provided request line. If the request has a working
+     * folder, then the relative paths in the arguments are resolved against it.
+     * @param requestLine The request line to parse.
+     * @return The javac arguments.
+     */
+    static Result<List<String>> parseRequest(String requestLine)
+    {
+        PreCondition.assertNotNullAndNotEmpty(requestLine, "requestLine");
+
+        return Result.create2(() ->
+        {
+            final JSONObject request = JSON.parseObject(requestLine).await();
+            final JSONArray argumentsArray = request
+                .getArray(JavacWorker.argumentsPropertyName)
+                .catchError(NotFoundException.class)
+                .await();
+            if (argumentsArray == null)
+            {
+                throw new ParseException("Expected the javac worker request to have an " + Strings.escapeAndQuote(JavacWorker.argumentsPropertyName) + " array.");
+            }
+
+            final String workingFolderPath = request.getString(JavacWorker.workingFolderPropertyName)
+                .catchError(NotFoundException.class)
+                .await();
+            final java.nio.file.Path workingFolder = Strings.isNullOrEmpty(workingFolderPath)
+                ? null
+                : java.nio.file.Paths.get(workingFolderPath);
+
+            final List<String> result = List.create();
+            boolean isOptionValue = false;
+            boolean isPathOptionValue = false;
+            for (final JSONSegment argumentSegment : argumentsArray)
+            {
+                if (!(argumentSegment instanceof JSONString))
+                {
+                    throw new ParseException("Expected each javac worker argument to be a string.");
+                }
+
+                String argument = ((JSONString)argumentSegment).getValue();
+                if (isOptionValue)
+                {
+                    if (isPathOptionValue && workingFolder != null)
+                    {
+                        argument = workingFolder.resolve(argument).toString();
+                    }
+                    isOptionValue = false;
+                    isPathOptionValue = false;
+                }
+                else if (argument.startsWith("-"))
+                {
+                    isPathOptionValue = JavacWorker.pathOptions.contains(argument);
+                    isOptionValue = isPathOptionValue || JavacWorker.valueOptions.contains(argument);
+                }
+                else if (workingFolder != null)
+                {
+                    // Arguments that aren't options or option values are source files.
+                    argument = workingFolder.resolve(argument).toString();
+                }
+                result.add(argument);
+            }
+
+            return result;
+        });
+    }
+}
@@ -0,0 +1,254 @@
+package qub;
+
+/**
+ * A pool of warm javac worker processes. A worker is taken from the pool for each compilation and
+ * returned to the pool afterwards so that later compilations don't pay for a new JVM. Workers are
+ * recycled after they have handled a maximum number of requests or once their heap grows past a
+ * maximum size.
+ */
+public class JavacWorkerPool implements Disposable
+{
+    private final ProcessFactory processFactory;
+    private final List<JavacWorkerProcess> idleWorkers;
+    private String javaExecutablePath;
+    private int maximumRequestsPerWorker;
+    private int maximumHeapUsedMegabytes;
+    private boolean disposed;
+
+    private JavacWorkerPool(ProcessFactory processFactory)
+    {
+        PreCondition.assertNotNull(processFactory, "processFactory");
+
+        this.processFactory = processFactory;
+        this.idleWorkers = List.create();
+        this.javaExecutablePath = JavacWorkerProcess.executablePathString;
+        this.maximumRequestsPerWorker = JavacWorkerPool.getMaximumRequestsPerWorkerDefault();
+        this.maximumHeapUsedMegabytes = JavacWorkerPool.getMaximumHeapUsedMegabytesDefault();
+    }
+
+    /**
+     * Create a new JavacWorkerPool that starts its workers with the provided ProcessFactory.
+     * @param processFactory The ProcessFactory that will start the pool's workers.
+     * @return The new JavacWorkerPool.
+     */
+    public static JavacWorkerPool create(ProcessFactory processFactory)
+    {
+        return new JavacWorkerPool(processFactory);
+    }
+
+    /**
+     * Get the default number of requests that a worker can handle before it is recycled.
+     * @return The default number of requests that a worker can handle before it is recycled.
+     */
+    static int getMaximumRequestsPerWorkerDefault()
+    {
+        return 100;
+    }
+
+    /**
+     * Get the default number of megabytes of heap that a worker can use before it is recycled.
+     * @return The default number of megabytes of heap that a worker can use before it is recycled.
+     */
+    static int getMaximumHeapUsedMegabytesDefault()
+    {
+        return 1024;
+    }
+
+    /**
+     * Get the path to the java executable that this pool's workers are started with.
+     * @return The path to the java executable that this pool's workers are started with.
+     */
+    public String getJavaExecutablePath()
+    {
+        return this.javaExecutablePath;
+    }
+
+    /**
+     * Set the path to the java executable that this pool's workers are started with. Workers
+     * that are already running keep the java executable that they were started with.
+     * @param javaExecutablePath The path to the java executable that this pool's workers are
+     *                           started with.
+     * @return This object for method chaining.
+     */
+    public JavacWorkerPool setJavaExecutablePath(String javaExecutablePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(javaExecutablePath, "javaExecutablePath");
+
+        this.javaExecutablePath = javaExecutablePath;
+        return this;
+    }
+
+    /**
+     * Get the number of requests that a worker can handle before it is recycled.
+     * @return The number of requests that a worker can handle before it is recycled.
+     */
+    public int getMaximumRequestsPerWorker()
+    {
+        return this.maximumRequestsPerWorker;
+    }
+
+    /**
+     * Set the number of requests that a worker can handle before it is recycled.
+     * @param maximumRequestsPerWorker The number of requests that a worker can handle before it is
+     *                                 recycled.
+     * @return This object for method chaining.
+     */
+    public JavacWorkerPool setMaximumRequestsPerWorker(int maximumRequestsPerWorker)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumRequestsPerWorker, 1, "maximumRequestsPerWorker");
+
+        this.maximumRequestsPerWorker = maximumRequestsPerWorker;
+        return this;
+    }
+
+    /**
+     * Get the number of megabytes of heap that a worker can use before it is recycled.
+     * @return The number of megabytes of heap that a worker can use before it is recycled.
+     */
+    public int getMaximumHeapUsedMegabytes()
+    {
+        return this.maximumHeapUsedMegabytes;
+    }
+
+    /**
+     * Set the number of megabytes of heap that a worker can use before it is recycled.
+     * @param maximumHeapUsedMegabytes The number of megabytes of heap that a worker can use before
+     *                                 it is recycled.
+     * @return This object for method chaining.
+     */
+    public JavacWorkerPool setMaximumHeapUsedMegabytes(int maximumHeapUsedMegabytes)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumHeapUsedMegabytes, 1, "maximumHeapUsedMegabytes");
+
+        this.maximumHeapUsedMegabytes = maximumHeapUsedMegabytes;
+        return this;
+    }
+
+    /**
+     * Get the number of idle workers that are waiting in this pool.
+     * @return The number of idle workers that are waiting in this pool.
+     */
+    public int getIdleWorkerCount()
+    {
+        synchronized (this.idleWorkers)
+        {
+            return this.idleWorkers.getCount();
+        }
+    }
+
+    /**
+     * Take a warm worker from this pool, or start a new worker if there are no idle workers. The
+     * worker must be given back to the pool with release() when the caller is done with it.
+     * @return A worker that isn't being used by anybody else.
+     */
+    public Result<JavacWorkerProcess> acquire()
+    {
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create2(() ->
+        {
+            JavacWorkerProcess result = null;
+            synchronized (this.idleWorkers)
+            {
+                while (result == null && this.idleWorkers.any())
+                {
+                    final JavacWorkerProcess idleWorker = this.idleWorkers.removeLast();
+                    if (!idleWorker.isDisposed())
+                    {
+                        result = idleWorker;
+                    }
+                }
+            }
+
+            if (result == null)
+            {
+                result = JavacWorkerProcess.start(this.processFactory, this.javaExecutablePath).await();
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Give the provided worker back to this pool. The worker is disposed instead if it should be
+     * recycled or if this pool has been disposed.
+     * @param worker The worker to give back to this pool.
+     * @return This object for method chaining.
+     */
+    public JavacWorkerPool release(JavacWorkerProcess worker)
+    {
+        PreCondition.assertNotNull(worker, "worker");
+
+        boolean keepWorker = false;
+        if (!worker.isDisposed() && !this.shouldRecycle(worker.getRequestCount(), worker.getHeapUsedMegabytes()))
+        {
+            synchronized (this.idleWorkers)
+            {
+                if (!this.disposed)
+                {
+                    this.idleWorkers.add(worker);
+                    keepWorker = true;
+                }
+            }
+        }
+
+        if (!keepWorker)
+        {
+            worker.dispose().await();
+        }
+
+        return this;
+    }
+
+    /**
+     * Get whether or not a worker that has handled the provided number of requests and that is
+     * using the provided amount of heap should be recycled.
+     * @param requestCount The number of requests that the worker has handled.
+     * @param heapUsedMegabytes The number of megabytes of heap that the worker is using.
+     * @return Whether or not the worker should be recycled.
+     */
+    public boolean shouldRecycle(int requestCount, int heapUsedMegabytes)
+    {
+        return requestCount >= this.maximumRequestsPerWorker ||
+            heapUsedMegabytes >= this.maximumHeapUsedMegabytes;
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    /**
+     * Dispose of this pool and all of its idle workers.
+     * @return Whether or not this call disposed of this pool.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create2(() ->
+        {
+            final List<JavacWorkerProcess> workersToDispose = List.create();
+            boolean result;
+            synchronized (this.idleWorkers)
+            {
+                result = !this.disposed;
+                if (result)
+                {
+                    this.disposed = true;
+                    workersToDispose.addAll(this.idleWorkers);
+                    this.idleWorkers.clear();
+                }
+            }
+
+            for (final JavacWorkerProcess worker : workersToDispose)
+            {
+                worker.dispose().await();
+            }
+
+            return result;
+        });
+    }
+}
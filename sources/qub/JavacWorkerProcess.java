@@ -0,0 +1,215 @@
+package qub;
+
+/**
+ * A connection to a running javac worker process. Compile requests are written to the worker's
+ * standard input stream, and the worker's responses are read from its standard output stream. A
+ * JavacWorkerProcess can only handle one request at a time.
+ */
+public class JavacWorkerProcess implements Disposable
+{
+    public static final String executablePathString = "java";
+
+    private final InMemoryCharacterToByteStream requestStream;
+    private final java.util.concurrent.LinkedBlockingQueue<String> responseLines;
+    private final java.util.concurrent.atomic.AtomicBoolean exited;
+    private int requestCount;
+    private int heapUsedMegabytes;
+    private boolean disposed;
+
+    private JavacWorkerProcess()
+    {
+        this.requestStream = InMemoryCharacterToByteStream.create();
+        this.responseLines = new java.util.concurrent.LinkedBlockingQueue<>();
+        this.exited = new java.util.concurrent.atomic.AtomicBoolean();
+    }
+
+    /**
+     * Start a new javac worker process with the provided ProcessFactory. The worker is run with the
+     * same classpath as the current process.
+     * @param processFactory The ProcessFactory that will start the worker process.
+     * @return The connection to the new javac worker process.
+     */
+    public static Result<JavacWorkerProcess> start(ProcessFactory processFactory)
+    {
+        return JavacWorkerProcess.start(processFactory, JavacWorkerProcess.executablePathString);
+    }
+
+    /**
+     * Start a new javac worker process with the provided ProcessFactory and java executable. The
+     * worker is run with the same classpath as the current process.
+     * @param processFactory The ProcessFactory that will start the worker process.
+     * @param javaExecutablePath The path to the java executable that will run the worker. This
+     *                           should be the java executable of the same JDK as javac.
+     * @return The connection to the new javac worker process.
+     */
+    public static Result<JavacWorkerProcess> start(ProcessFactory processFactory, String javaExecutablePath)
+    {
+        PreCondition.assertNotNull(processFactory, "processFactory");
+        PreCondition.assertNotNullAndNotEmpty(javaExecutablePath, "javaExecutablePath");
+
+        return Result.create2(() ->
+        {
+            final JavacWorkerProcess result = new JavacWorkerProcess();
+
+            final ProcessBuilder processBuilder = processFactory.getProcessBuilder(javaExecutablePath).await();
+            processBuilder.addArguments("-cp", System.getProperty("java.class.path"), JavacWorker.class.getName());
+            processBuilder.redirectInput(result.requestStream);
+            processBuilder.redirectOutputLines((String responseLine) ->
+            {
+                int responseLineLength = responseLine.length();
+                while (responseLineLength > 0 && (responseLine.charAt(responseLineLength - 1) == '\n' || responseLine.charAt(responseLineLength - 1) == '\r'))
+                {
+                    --responseLineLength;
+                }
+                result.responseLines.add(responseLine.substring(0, responseLineLength));
+            });
+            processBuilder.redirectErrorLines((String errorLine) -> {});
+
+            final java.lang.Thread processThread = new java.lang.Thread(() ->
+            {
+                try
+                {
+                    processBuilder.run().await();
+                }
+                finally
+                {
+                    result.exited.set(true);
+                }
+            });
+            processThread.setDaemon(true);
+            processThread.start();
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the number of compile requests that this worker has handled.
+     * @return The number of compile requests that this worker has handled.
+     */
+    public int getRequestCount()
+    {
+        return this.requestCount;
+    }
+
+    /**
+     * Get the number of megabytes of heap that the worker reported after its most recent request.
+     * @return The number of megabytes of heap that the worker is using.
+     */
+    public int getHeapUsedMegabytes()
+    {
+        return this.heapUsedMegabytes;
+    }
+
+    /**
+     * Ask the worker to compile with the provided arguments. Issues are parsed from the compiler
+     * text as it is read and passed to the provided action instead of being collected in the
+     * returned result.
+     * @param workingFolderPath The folder that relative paths in the arguments are resolved
+     *                          against, or null if they are resolved against the worker's own
+     *                          working folder.
+     * @param arguments The javac arguments to compile with.
+     * @param warnings How compilation warnings should be handled.
+     * @param verbose The stream that verbose logs should be written to.
+     * @param issueAction The action that will be invoked with each issue as soon as it is parsed.
+     * @param retainText Whether or not the returned result should contain the compiler's error
+     *                   text.
+     * @return The result of the compilation.
+     */
+    public Result<JavaCompilationResult> compile(Path workingFolderPath, Iterable<String> arguments, Warnings warnings, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> issueAction, boolean retainText)
+    {
+        PreCondition.assertNotNull(arguments, "arguments");
+        PreCondition.assertNotNull(warnings, "warnings");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(issueAction, "issueAction");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create2(() ->
+        {
+            verbose.writeLine("Running javac worker " + Strings.join(' ', arguments) + "...").await();
+            this.requestStream.writeLine(JavacWorker.createRequest(workingFolderPath, arguments)).await();
+            ++this.requestCount;
+
+            final StringBuilder errorText = retainText ? new StringBuilder() : null;
+            final JavacIssueParser issueParser = JavacIssueParser.create(warnings, issueAction);
+            Integer exitCode = null;
+            while (exitCode == null)
+            {
+                final String responseLine = this.readResponseLine();
+                if (responseLine.startsWith(JavacWorker.outputLinePrefix))
+                {
+                    final String compilerLine = responseLine.substring(JavacWorker.outputLinePrefix.length());
+                    if (errorText != null)
+                    {
+                        errorText.append(compilerLine).append('\n');
+                    }
+                    verbose.writeLine(compilerLine).await();
+                    issueParser.addLine(compilerLine);
+                }
+                else if (responseLine.startsWith(JavacWorker.doneLinePrefix))
+                {
+                    final String[] doneParts = responseLine.substring(JavacWorker.doneLinePrefix.length()).split(":");
+                    exitCode = Integers.parse(doneParts[0]).await();
+                    final Integer heapUsedMegabytes = doneParts.length < 2
+                        ? null
+                        : Integers.parse(doneParts[1]).catchError(NumberFormatException.class).await();
+                    this.heapUsedMegabytes = heapUsedMegabytes == null ? 0 : heapUsedMegabytes;
+                }
+            }
+
+            return new JavaCompilationResult(
+                exitCode,
+                retainText ? "" : null,
+                errorText == null ? null : errorText.toString(),
+                Iterable.create());
+        });
+    }
+
+    private String readResponseLine()
+    {
+        String result = null;
+        while (result == null)
+        {
+            try
+            {
+                result = this.responseLines.poll(100, java.util.concurrent.TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                throw new RuntimeException(e);
+            }
+
+            if (result == null && this.exited.get() && this.responseLines.isEmpty())
+            {
+                this.dispose().await();
+                throw new RuntimeException("The javac worker process exited before it finished its compile request.");
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed || this.exited.get();
+    }
+
+    /**
+     * Close the worker's standard input stream, which causes the worker process to exit.
+     * @return Whether or not this call disposed of the worker.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create2(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                this.requestStream.endOfStream();
+            }
+            return result;
+        });
+    }
+}
@@ -2,6 +2,18 @@ package qub;
 
 public interface QubBuild
 {
+    /**
+     * The names of the version control folders that never contain source files.
+     */
+    Iterable<String> versionControlFolderNames = Iterable.create(".git", ".hg", ".svn");
+
+    /**
+     * The name of the file in a project folder that lists the folders that shouldn't be searched
+     * for source files. Each line of the file is a path pattern that is relative to the project
+     * folder. Empty lines and lines that start with '#' are ignored.
+     */
+    String ignoreFileName = ".qubbuildignore";
+
     static void main(String[] args)
     {
         DesktopProcess.run(args, QubBuild::run);
@@ -15,6 +27,8 @@ public interface QubBuild
             .setApplicationName("qub-build")
             .setApplicationDescription("Used to compile source code projects.")
             .addAction(QubBuildCompile::addAction)
+            .addAction(QubBuildDaemon::addAction)
+            .addAction(QubBuildCacheServer::addAction)
             .addAction(CommandLineLogsAction::addAction)
             .run();
     }
@@ -27,27 +41,265 @@ public interface QubBuild
      * @return The matching Java source files.
      */
     static Result<Iterable<File>> getJavaSourceFiles(Folder projectFolder, ProjectJSONJava projectJsonJava)
+    {
+        return QubBuild.getJavaSourceFiles(projectFolder, projectJsonJava, null, null);
+    }
+
+    /**
+     * Get all of the Java source files in the provided projectFolder that match the conditions
+     * specified in the provided ProjectJSONJava configuration object.
+     * @param projectFolder The root folder of the project.
+     * @param projectJsonJava The ProjectJSON Java configuration object.
+     * @param sourceFolderIndex The folder listings from the previous build, or null if every
+     *                          folder should be listed. The index is updated with the listings
+     *                          of the folders that changed.
+     * @param sourceFileAttributes The object that the sizes and last modified times of the files
+     *                             that are read while the folders are listed will be added to, or
+     *                             null if the attributes aren't needed.
+     * @return The matching Java source files.
+     */
+    static Result<Iterable<File>> getJavaSourceFiles(Folder projectFolder, ProjectJSONJava projectJsonJava, SourceFolderIndex sourceFolderIndex, SourceFileAttributes sourceFileAttributes)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(projectJsonJava, "projectJsonJava");
+
+        return Result.create2(() ->
+        {
+            final Function1<String,Boolean> folderFilter = QubBuild.getJavaSourceFolderFilter(projectFolder, projectJsonJava).await();
+            final Iterable<File> files = sourceFolderIndex == null
+                ? QubBuild.getFilesRecursively(projectFolder, folderFilter).await()
+                : sourceFolderIndex.getFilesRecursively(projectFolder, folderFilter, sourceFileAttributes).await();
+            return files
+                .where(QubBuild.getJavaSourceFileMatcher(projectFolder, projectJsonJava))
+                .toList();
+        });
+    }
+
+    /**
+     * Get all of the files in the provided folder and in the subfolders that the provided filter
+     * accepts. Subfolders that the filter rejects aren't visited at all.
+     * @param rootFolder The folder to get the files of.
+     * @param folderFilter A function that is given the path of each subfolder relative to the
+     *                     root folder (without a trailing slash) and that returns whether or not
+     *                     the subfolder should be visited.
+     * @return The files in the provided folder and in the accepted subfolders.
+     */
+    static Result<Iterable<File>> getFilesRecursively(Folder rootFolder, Function1<String,Boolean> folderFilter)
+    {
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(folderFilter, "folderFilter");
+
+        return Result.create2(() ->
+        {
+            // The folders are visited breadth-first so that the files are returned in the same
+            // order as Folder.getFilesRecursively().
+            final List<File> result = List.create();
+            final java.util.ArrayDeque<Folder> foldersToVisit = new java.util.ArrayDeque<>();
+            foldersToVisit.add(rootFolder);
+            while (!foldersToVisit.isEmpty())
+            {
+                final Folder folder = foldersToVisit.removeFirst();
+                for (final FileSystemEntry entry : folder.getFilesAndFolders().await())
+                {
+                    if (entry instanceof File)
+                    {
+                        result.add((File)entry);
+                    }
+                    else if (entry instanceof Folder && folderFilter.run(QubBuild.getRelativeFolderPath((Folder)entry, rootFolder)))
+                    {
+                        foldersToVisit.add((Folder)entry);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    private static String getRelativeFolderPath(Folder folder, Folder rootFolder)
+    {
+        String result = folder.relativeTo(rootFolder).toString();
+        while (result.endsWith("/") || result.endsWith("\\"))
+        {
+            result = result.substring(0, result.length() - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Get a function that returns whether or not a subfolder of the provided projectFolder could
+     * contain Java source files and should be visited while the source files are discovered. The
+     * function rejects:
+     * - version control folders, such as .git,
+     * - the folder that compiled class files are output to,
+     * - folders that match a pattern in the project's ignore file, and
+     * - folders that can't contain a file that matches one of the project's source file patterns.
+     * @param projectFolder The root folder of the project.
+     * @param projectJsonJava The ProjectJSON Java configuration object.
+     * @return A function that is given the path of a subfolder relative to the project folder
+     * (without a trailing slash) and that returns whether or not the subfolder should be visited.
+     */
+    static Result<Function1<String,Boolean>> getJavaSourceFolderFilter(Folder projectFolder, ProjectJSONJava projectJsonJava)
     {
         PreCondition.assertNotNull(projectFolder, "projectFolder");
         PreCondition.assertNotNull(projectJsonJava, "projectJsonJava");
 
         return Result.create2(() ->
         {
-            Function1<File,Boolean> sourceFileMatcher;
+            final Function1<String,Boolean> inputFolderFilter = QubBuild.getInputFolderFilter(projectFolder, QubBuild.getJavaOutputsFolder(projectFolder, projectJsonJava).await()).await();
+
             final Iterable<PathPattern> sourceFilePatterns = projectJsonJava.getSourceFiles();
-            if (!Iterable.isNullOrEmpty(sourceFilePatterns))
+            final SourceFilePatternMatcher sourceFileMatcher = Iterable.isNullOrEmpty(sourceFilePatterns)
+                ? null
+                : SourceFilePatternMatcher.create(sourceFilePatterns);
+
+            return (String relativeFolderPath) ->
+            {
+                return inputFolderFilter.run(relativeFolderPath) &&
+                    (sourceFileMatcher == null || sourceFileMatcher.canContainMatches(relativeFolderPath));
+            };
+        });
+    }
+
+    /**
+     * Get a function that returns whether or not a subfolder of the provided projectFolder could
+     * contain inputs of a build. The function rejects:
+     * - version control folders, such as .git,
+     * - the provided outputs folder, and
+     * - folders that match a pattern in the project's ignore file.
+     * @param projectFolder The root folder of the project.
+     * @param outputsFolder The folder that compiled class files are output to.
+     * @return A function that is given the path of a subfolder relative to the project folder
+     * (without a trailing slash) and that returns whether or not the subfolder should be visited.
+     */
+    static Result<Function1<String,Boolean>> getInputFolderFilter(Folder projectFolder, Folder outputsFolder)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        return Result.create2(() ->
+        {
+            final String outputsFolderPath = QubBuild.getRelativeFolderPath(outputsFolder, projectFolder);
+            final Iterable<PathPattern> ignoredFolderPatterns = QubBuild.getIgnoredFolderPatterns(projectFolder).await();
+
+            return (String relativeFolderPath) ->
+            {
+                final String folderName = relativeFolderPath.substring(relativeFolderPath.lastIndexOf('/') + 1);
+                return !QubBuild.versionControlFolderNames.contains(folderName) &&
+                    !relativeFolderPath.equals(outputsFolderPath) &&
+                    !ignoredFolderPatterns.contains((PathPattern pattern) -> pattern.isMatch(Path.parse(relativeFolderPath)));
+            };
+        });
+    }
+
+    /**
+     * Get the folder patterns in the provided project folder's ignore file.
+     * @param projectFolder The root folder of the project.
+     * @return The folder patterns in the ignore file, or an empty Iterable if the project folder
+     * doesn't have an ignore file.
+     */
+    static Result<Iterable<PathPattern>> getIgnoredFolderPatterns(Folder projectFolder)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        return Result.create2(() ->
+        {
+            final List<PathPattern> result = List.create();
+            final String ignoreFileContents = projectFolder.getFile(QubBuild.ignoreFileName).await()
+                .getContentsAsString()
+                .catchError(FileNotFoundException.class)
+                .await();
+            if (!Strings.isNullOrEmpty(ignoreFileContents))
+            {
+                for (String line : Strings.getLines(ignoreFileContents))
+                {
+                    line = line.trim();
+                    while (line.startsWith("/"))
+                    {
+                        line = line.substring(1);
+                    }
+                    while (line.endsWith("/"))
+                    {
+                        line = line.substring(0, line.length() - 1);
+                    }
+                    if (!line.isEmpty() && !line.startsWith("#"))
+                    {
+                        result.add(PathPattern.parse(line));
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get the leading folders of the provided path pattern that don't contain any wildcards. Only
+     * folders within this prefix (or folders that contain this prefix) can contain a file that
+     * matches the pattern.
+     * @param pattern The path pattern.
+     * @return The fixed prefix of the pattern, such as "sources/qub" for "sources/qub/*.java", or an
+     * empty string if the pattern starts with a wildcard.
+     */
+    static String getFixedPrefix(PathPattern pattern)
+    {
+        PreCondition.assertNotNull(pattern, "pattern");
+
+        final List<String> prefixSegments = List.create();
+        final String[] segments = pattern.toString().replace('\\', '/').split("/");
+        // The last segment is the file name, which is never a folder.
+        for (int i = 0; i < segments.length - 1; ++i)
+        {
+            final String segment = segments[i];
+            if (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('[') != -1 || segment.indexOf('{') != -1)
             {
-                sourceFileMatcher = (File file) -> sourceFilePatterns.contains((PathPattern pattern) -> pattern.isMatch(file.getPath().relativeTo(projectFolder)));
+                break;
             }
-            else
+            if (!segment.isEmpty() && !segment.equals("."))
             {
-                sourceFileMatcher = (File file) -> ".java".equalsIgnoreCase(file.getFileExtension());
+                prefixSegments.add(segment);
             }
+        }
+        return Strings.join('/', prefixSegments);
+    }
 
-            return projectFolder.getFilesRecursively().await()
-                .where(sourceFileMatcher)
-                .toList();
-        });
+    /**
+     * Get a function that returns whether or not a file in the provided projectFolder is a Java
+     * source file according to the provided ProjectJSON Java configuration object.
+     * @param projectFolder The root folder of the project.
+     * @param projectJsonJava The ProjectJSON Java configuration object.
+     * @return A function that returns whether or not a file is a Java source file.
+     */
+    static Function1<File,Boolean> getJavaSourceFileMatcher(Folder projectFolder, ProjectJSONJava projectJsonJava)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(projectJsonJava, "projectJsonJava");
+
+        Function1<File,Boolean> result;
+        final Iterable<PathPattern> sourceFilePatterns = projectJsonJava.getSourceFiles();
+        if (!Iterable.isNullOrEmpty(sourceFilePatterns))
+        {
+            final SourceFilePatternMatcher sourceFileMatcher = SourceFilePatternMatcher.create(sourceFilePatterns);
+            final String projectFolderPathString = QubBuild.withTrailingSlash(projectFolder.toString());
+            result = (File file) ->
+            {
+                final String filePathString = file.toString();
+                final String relativeFilePathString = filePathString.startsWith(projectFolderPathString)
+                    ? filePathString.substring(projectFolderPathString.length())
+                    : file.getPath().relativeTo(projectFolder).toString();
+                return sourceFileMatcher.isMatch(relativeFilePathString);
+            };
+        }
+        else
+        {
+            result = (File file) -> ".java".equalsIgnoreCase(file.getFileExtension());
+        }
+        return result;
+    }
+
+    private static String withTrailingSlash(String folderPathString)
+    {
+        return folderPathString.endsWith("/") || folderPathString.endsWith("\\")
+            ? folderPathString
+            : folderPathString + "/";
     }
 
     /**
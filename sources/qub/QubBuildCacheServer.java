@@ -0,0 +1,294 @@
+package qub;
+
+/**
+ * A small HTTP server that shares build cache entries between build agents. Entries are stored in
+ * a folder with the same layout as a local BuildCache, and are read with GET requests and written
+ * with PUT requests. The server only listens on the loopback interface unless it is told to listen
+ * on all interfaces. PUT requests must contain the server's shared token, which is read from the
+ * same environment variable that the clients read it from. GET requests aren't authenticated, so
+ * the server is still meant for trusted networks.
+ */
+public interface QubBuildCacheServer
+{
+    /**
+     * The environment variable that can be set to listen on a port other than the default port.
+     */
+    String portEnvironmentVariableName = "QUB_BUILD_CACHE_SERVER_PORT";
+
+    /**
+     * The maximum number of requests that the server will handle at the same time.
+     */
+    int maximumConcurrentRequests = 16;
+
+    static void addAction(CommandLineActions actions)
+    {
+        PreCondition.assertNotNull(actions, "actions");
+
+        actions.addAction("httpcache", QubBuildCacheServer::getParameters, QubBuildCacheServer::run)
+            .setDescription("Serve a build cache that is shared between build agents over HTTP.");
+    }
+
+    static CommandLineParameterBoolean addAllInterfacesParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("allinterfaces", QubBuildCacheServerParameters.getAllInterfacesDefault())
+            .setDescription("Whether or not to listen on all network interfaces instead of only the loopback interface. Defaults to false.");
+    }
+
+    static CommandLineParameter<Folder> addCacheFolderParameter(CommandLineParameters parameters, DesktopProcess process)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(process, "process");
+
+        return parameters.addPositionalFolder("folder", process)
+            .setValueName("<cache-folder-path>")
+            .setDescription("The folder that the shared build cache is stored in. The current folder will be used if this isn't defined.");
+    }
+
+    static QubBuildCacheServerParameters getParameters(DesktopProcess process, CommandLineAction action)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(action, "action");
+
+        final CommandLineParameters parameters = action.createCommandLineParameters(process);
+        final CommandLineParameter<Folder> cacheFolderParameter = QubBuildCacheServer.addCacheFolderParameter(parameters, process);
+        final CommandLineParameterBoolean allInterfacesParameter = QubBuildCacheServer.addAllInterfacesParameter(parameters);
+        final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
+        final CommandLineParameterProfiler profiler = parameters.addProfiler(process, QubBuild.class);
+        final CommandLineParameterHelp help = parameters.addHelp();
+
+        QubBuildCacheServerParameters result = null;
+        if (!help.showApplicationHelpLines(process).await())
+        {
+            profiler.await();
+
+            final CharacterToByteWriteStream output = process.getOutputWriteStream();
+            final Folder cacheFolder = cacheFolderParameter.getValue().await();
+            final Boolean allInterfaces = allInterfacesParameter.getValue().await();
+            final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
+            result = new QubBuildCacheServerParameters(output, cacheFolder)
+                .setAllInterfaces(allInterfaces)
+                .setVerbose(verbose);
+
+            final String token = process.getEnvironmentVariables().get(QubBuildCompile.remoteBuildCacheTokenEnvironmentVariableName)
+                .catchError(NotFoundException.class)
+                .await();
+            if (!Strings.isNullOrEmpty(token))
+            {
+                result.setToken(token);
+            }
+
+            final String portString = process.getEnvironmentVariables().get(QubBuildCacheServer.portEnvironmentVariableName)
+                .catchError(NotFoundException.class)
+                .await();
+            if (!Strings.isNullOrEmpty(portString))
+            {
+                result.setPort(java.lang.Integer.parseInt(portString.trim()));
+            }
+        }
+
+        return result;
+    }
+
+    static int run(QubBuildCacheServerParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final CharacterToByteWriteStream output = parameters.getOutputWriteStream();
+        final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
+        final FolderBuildCacheBackend backend = FolderBuildCacheBackend.create(parameters.getCacheFolder());
+
+        int exitCode = 0;
+        final java.util.concurrent.ExecutorService requestHandlers = java.util.concurrent.Executors.newFixedThreadPool(QubBuildCacheServer.maximumConcurrentRequests);
+        try
+        {
+            final String token = parameters.getToken();
+            final com.sun.net.httpserver.HttpServer server = com.sun.net.httpserver.HttpServer.create(QubBuildCacheServer.getAddress(parameters), 0);
+            server.setExecutor(requestHandlers);
+            server.createContext("/", (com.sun.net.httpserver.HttpExchange exchange) -> QubBuildCacheServer.handleExchange(backend, token, exchange, verbose));
+            server.start();
+            try
+            {
+                output.writeLine("Serving the build cache in " + parameters.getCacheFolder() + " on " + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort() + "...").await();
+                if (parameters.isTokenGenerated())
+                {
+                    output.writeLine("Set " + QubBuildCompile.remoteBuildCacheTokenEnvironmentVariableName + " to " + token + " on the build agents that upload to this build cache.").await();
+                }
+
+                // The server runs until this process is stopped.
+                new java.util.concurrent.CountDownLatch(1).await();
+            }
+            finally
+            {
+                server.stop(0);
+            }
+        }
+        catch (java.io.IOException | InterruptedException e)
+        {
+            output.writeLine("ERROR: " + e.getMessage()).await();
+            ++exitCode;
+        }
+        finally
+        {
+            requestHandlers.shutdown();
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Get the address that the server will listen on.
+     * @param parameters The parameters of the server.
+     * @return The loopback address, or the wildcard address if the server listens on all
+     * interfaces.
+     */
+    static java.net.InetSocketAddress getAddress(QubBuildCacheServerParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.getAllInterfaces()
+            ? new java.net.InetSocketAddress(parameters.getPort())
+            : new java.net.InetSocketAddress(java.net.InetAddress.getLoopbackAddress(), parameters.getPort());
+    }
+
+    /**
+     * Get whether or not the provided Authorization header value contains the provided token.
+     * @param token The server's shared token.
+     * @param authorizationHeaderValue The value of the request's Authorization header, or null if
+     *                                 the request doesn't have one.
+     * @return Whether or not the request is authorized.
+     */
+    static boolean isAuthorized(String token, String authorizationHeaderValue)
+    {
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+
+        // The comparison takes the same time wherever the values differ so that the token can't
+        // be guessed one character at a time.
+        return authorizationHeaderValue != null && java.security.MessageDigest.isEqual(
+            HttpBuildCacheBackend.getAuthorizationHeaderValue(token).getBytes(java.nio.charset.StandardCharsets.UTF_8),
+            authorizationHeaderValue.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    static void handleExchange(FolderBuildCacheBackend backend, String token, com.sun.net.httpserver.HttpExchange exchange, CharacterWriteStream verbose) throws java.io.IOException
+    {
+        try
+        {
+            final String method = exchange.getRequestMethod();
+            final String path = QubBuildCacheServer.getCachePath(exchange.getRequestURI().getPath());
+            if ("GET".equals(method))
+            {
+                final byte[] contents = QubBuildCacheServer.get(backend, path).await();
+                if (contents == null)
+                {
+                    exchange.sendResponseHeaders(java.net.HttpURLConnection.HTTP_NOT_FOUND, -1);
+                }
+                else
+                {
+                    exchange.sendResponseHeaders(java.net.HttpURLConnection.HTTP_OK, contents.length);
+                    try (final java.io.OutputStream responseStream = exchange.getResponseBody())
+                    {
+                        responseStream.write(contents);
+                    }
+                }
+                verbose.writeLine("GET " + path + ": " + (contents == null ? "miss" : "hit")).await();
+            }
+            else if ("PUT".equals(method) && !QubBuildCacheServer.isAuthorized(token, exchange.getRequestHeaders().getFirst(HttpBuildCacheBackend.authorizationHeaderName)))
+            {
+                exchange.sendResponseHeaders(java.net.HttpURLConnection.HTTP_UNAUTHORIZED, -1);
+                verbose.writeLine("PUT " + path + ": " + java.net.HttpURLConnection.HTTP_UNAUTHORIZED).await();
+            }
+            else if ("PUT".equals(method))
+            {
+                final byte[] contents;
+                try (final java.io.InputStream requestStream = exchange.getRequestBody())
+                {
+                    contents = HttpBuildCacheBackend.readAllBytes(requestStream);
+                }
+                final int statusCode = QubBuildCacheServer.put(backend, path, contents).await();
+                exchange.sendResponseHeaders(statusCode, -1);
+                verbose.writeLine("PUT " + path + ": " + statusCode).await();
+            }
+            else
+            {
+                exchange.sendResponseHeaders(java.net.HttpURLConnection.HTTP_BAD_METHOD, -1);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            verbose.writeLine("Failed to handle a request: " + Exceptions.unwrap(e).getMessage()).await();
+            exchange.sendResponseHeaders(java.net.HttpURLConnection.HTTP_INTERNAL_ERROR, -1);
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Get the build cache path from the provided request URI path.
+     * @param requestPath The path of a request URI, such as "/entries/abc.json".
+     * @return The build cache path of the request, such as "entries/abc.json".
+     */
+    static String getCachePath(String requestPath)
+    {
+        String result = requestPath == null ? "" : requestPath;
+        while (result.startsWith("/"))
+        {
+            result = result.substring(1);
+        }
+        return result;
+    }
+
+    /**
+     * Get the contents at the provided build cache path.
+     * @param backend The backend that the build cache is stored in.
+     * @param path The build cache path.
+     * @return The contents at the provided path, or null if the path isn't a valid build cache path
+     * or nothing is stored there.
+     */
+    static Result<byte[]> get(FolderBuildCacheBackend backend, String path)
+    {
+        PreCondition.assertNotNull(backend, "backend");
+
+        return Result.create2(() ->
+        {
+            return BuildCache.isValidPath(path)
+                ? backend.get(path).await()
+                : null;
+        });
+    }
+
+    /**
+     * Store the provided contents at the provided build cache path. Class files must match the
+     * content hash in their path, and manifests must be valid, so that a broken client can't put
+     * contents into the cache that would fail every other client's builds.
+     * @param backend The backend that the build cache is stored in.
+     * @param path The build cache path.
+     * @param contents The contents to store.
+     * @return The HTTP status code of the response.
+     */
+    static Result<Integer> put(FolderBuildCacheBackend backend, String path, byte[] contents)
+    {
+        PreCondition.assertNotNull(backend, "backend");
+        PreCondition.assertNotNull(contents, "contents");
+
+        return Result.create2(() ->
+        {
+            int result = java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+            if (BuildCache.isValidPath(path))
+            {
+                final boolean isManifest = path.endsWith(".json");
+                final boolean isValidContents = isManifest
+                    ? BuildCache.getManifestObjectHashes(new String(contents, java.nio.charset.StandardCharsets.UTF_8)) != null
+                    : path.endsWith("/" + ContentHash.create(contents));
+                if (isValidContents)
+                {
+                    backend.put(path, contents).await();
+                    result = java.net.HttpURLConnection.HTTP_CREATED;
+                }
+            }
+            return result;
+        });
+    }
+}
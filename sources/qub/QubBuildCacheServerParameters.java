@@ -0,0 +1,160 @@
+package qub;
+
+public class QubBuildCacheServerParameters
+{
+    private final CharacterToByteWriteStream outputWriteStream;
+    private final Folder cacheFolder;
+    private int port;
+    private boolean allInterfaces;
+    private String token;
+    private boolean tokenGenerated;
+    private VerboseCharacterToByteWriteStream verbose;
+
+    public QubBuildCacheServerParameters(CharacterToByteWriteStream outputWriteStream, Folder cacheFolder)
+    {
+        PreCondition.assertNotNull(outputWriteStream, "outputWriteStream");
+        PreCondition.assertNotNull(cacheFolder, "cacheFolder");
+
+        this.outputWriteStream = outputWriteStream;
+        this.cacheFolder = cacheFolder;
+        this.port = QubBuildCacheServerParameters.getPortDefault();
+        this.allInterfaces = QubBuildCacheServerParameters.getAllInterfacesDefault();
+        this.token = java.util.UUID.randomUUID().toString();
+        this.tokenGenerated = true;
+        this.verbose = QubBuildCompileParameters.getVerboseDefault();
+    }
+
+    /**
+     * Get the CharacterWriteStream that output will be written to.
+     * @return The CharacterWriteStream that output will be written to.
+     */
+    public CharacterToByteWriteStream getOutputWriteStream()
+    {
+        return this.outputWriteStream;
+    }
+
+    /**
+     * Get the folder that the shared build cache entries are stored in.
+     * @return The folder that the shared build cache entries are stored in.
+     */
+    public Folder getCacheFolder()
+    {
+        return this.cacheFolder;
+    }
+
+    /**
+     * Get the port that the server will listen on.
+     * @return The port that the server will listen on.
+     */
+    public int getPort()
+    {
+        return this.port;
+    }
+
+    /**
+     * Set the port that the server will listen on.
+     * @param port The port that the server will listen on, or 0 to use any free port.
+     * @return This object for method chaining.
+     */
+    public QubBuildCacheServerParameters setPort(int port)
+    {
+        PreCondition.assertTrue(0 <= port && port <= 65535, "0 <= port && port <= 65535");
+
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Get whether or not the server will listen on all network interfaces instead of only the
+     * loopback interface.
+     * @return Whether or not the server will listen on all network interfaces.
+     */
+    public boolean getAllInterfaces()
+    {
+        return this.allInterfaces;
+    }
+
+    /**
+     * Set whether or not the server will listen on all network interfaces instead of only the
+     * loopback interface.
+     * @param allInterfaces Whether or not the server will listen on all network interfaces.
+     * @return This object for method chaining.
+     */
+    public QubBuildCacheServerParameters setAllInterfaces(boolean allInterfaces)
+    {
+        this.allInterfaces = allInterfaces;
+        return this;
+    }
+
+    /**
+     * Get the token that PUT requests must contain.
+     * @return The token that PUT requests must contain.
+     */
+    public String getToken()
+    {
+        return this.token;
+    }
+
+    /**
+     * Set the token that PUT requests must contain.
+     * @param token The token that PUT requests must contain.
+     * @return This object for method chaining.
+     */
+    public QubBuildCacheServerParameters setToken(String token)
+    {
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+
+        this.token = token;
+        this.tokenGenerated = false;
+        return this;
+    }
+
+    /**
+     * Get whether or not the token was generated because no token was set.
+     * @return Whether or not the token was generated.
+     */
+    public boolean isTokenGenerated()
+    {
+        return this.tokenGenerated;
+    }
+
+    /**
+     * Get the VerboseCharacterWriteStream where verbose logs will be written to.
+     * @return The VerboseCharacterWriteStream where verbose logs will be written to.
+     */
+    public VerboseCharacterToByteWriteStream getVerbose()
+    {
+        return this.verbose;
+    }
+
+    /**
+     * Set the VerboseCharacterWriteStream where verbose logs will be written to.
+     * @param verbose The VerboseCharacterWriteStream where verbose logs will be written to.
+     * @return This object for method chaining.
+     */
+    public QubBuildCacheServerParameters setVerbose(VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        this.verbose = verbose;
+        return this;
+    }
+
+    /**
+     * Get the port that the server listens on when no port has been set.
+     * @return The default port.
+     */
+    static int getPortDefault()
+    {
+        return 8787;
+    }
+
+    /**
+     * Get whether or not the server listens on all network interfaces when it hasn't been set.
+     * @return The default value.
+     */
+    static boolean getAllInterfacesDefault()
+    {
+        return false;
+    }
+}
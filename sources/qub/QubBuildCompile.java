@@ -2,6 +2,41 @@ package qub;
 
 public interface QubBuildCompile
 {
+    /**
+     * The name of the file in the qub-build data folder that caches facts about the toolchain.
+     */
+    String toolchainCacheFileName = "toolchains.json";
+
+    /**
+     * The smallest number of source files that a batch should have before a stage of a parallel
+     * compilation is divided between several javac workers.
+     */
+    int parallelMinimumBatchSize = 16;
+
+    /**
+     * The number of milliseconds without any file system events that ends a burst of changes when
+     * the source folders are being watched.
+     */
+    int watchDebounceMilliseconds = 200;
+
+    /**
+     * The environment variable that can be set to store the build cache in a folder other than
+     * the buildcache folder in the qub-build data folder.
+     */
+    String buildCacheFolderEnvironmentVariableName = "QUB_BUILD_CACHE_FOLDER";
+
+    /**
+     * The environment variable that can be set to the base URL of a remote build cache that
+     * build cache entries will be downloaded from and uploaded to.
+     */
+    String remoteBuildCacheUrlEnvironmentVariableName = "QUB_BUILD_REMOTE_CACHE_URL";
+
+    /**
+     * The environment variable that contains the token that the remote build cache server shares
+     * with its clients. Build cache entries are only uploaded with the server's token.
+     */
+    String remoteBuildCacheTokenEnvironmentVariableName = "QUB_BUILD_REMOTE_CACHE_TOKEN";
+
     static void addAction(CommandLineActions actions)
     {
         PreCondition.assertNotNull(actions, "actions");
@@ -38,6 +73,55 @@ public interface QubBuildCompile
             .setDescription("Whether or not to read and write a build.json file. Defaults to true.");
     }
 
+    static CommandLineParameterBoolean addFingerprintsParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("fingerprints", QubBuildCompileParameters.getFingerprintsDefault())
+            .setDescription("Whether or not to compare file contents when a source file's last modified time changes. Defaults to false.");
+    }
+
+    static CommandLineParameter<JavaCompilerMode> addCompilerParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addEnum("compiler", QubBuildCompileParameters.getCompilerDefault())
+            .setValueName("<process|worker|inprocess>")
+            .setDescription("Which Java compiler to use. Can be either \"process\" to run a separate javac process, \"worker\" to reuse warm javac worker processes, or \"inprocess\" to run the JDK's compiler inside of this process. Defaults to \"process\".");
+    }
+
+    static CommandLineParameterBoolean addParallelParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("parallel", QubBuildCompileParameters.getParallelDefault())
+            .setDescription("Whether or not to compile independent groups of source files with several javac workers at the same time. Defaults to false.");
+    }
+
+    static CommandLineParameterBoolean addWatchParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("watch", QubBuildCompileParameters.getWatchDefault())
+            .setDescription("Whether or not to keep watching the source folders and compile again each time a source file changes. Defaults to false.");
+    }
+
+    static CommandLineParameterBoolean addRetryErrorsParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("retryerrors", QubBuildCompileParameters.getRetryErrorsDefault())
+            .setDescription("Whether or not to compile source files that failed to compile before even if they and their dependencies haven't changed. Defaults to false.");
+    }
+
+    static CommandLineParameterBoolean addBuildCacheParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("buildcache", QubBuildCompileParameters.getBuildCacheDefault())
+            .setDescription("Whether or not to restore and store compiled class files in a build cache that is shared between project folders. Defaults to false.");
+    }
+
     static QubBuildCompileParameters getParameters(DesktopProcess process, CommandLineAction action)
     {
         PreCondition.assertNotNull(process, "process");
@@ -47,6 +131,12 @@ public interface QubBuildCompile
         final CommandLineParameter<Folder> folderToBuildParameter = QubBuildCompile.addFolderToBuildParameter(parameters, process);
         final CommandLineParameter<Warnings> warningsParameter = QubBuildCompile.addWarningsParameter(parameters);
         final CommandLineParameterBoolean buildJsonParameter = QubBuildCompile.addBuildJsonParameter(parameters);
+        final CommandLineParameterBoolean fingerprintsParameter = QubBuildCompile.addFingerprintsParameter(parameters);
+        final CommandLineParameter<JavaCompilerMode> compilerParameter = QubBuildCompile.addCompilerParameter(parameters);
+        final CommandLineParameterBoolean parallelParameter = QubBuildCompile.addParallelParameter(parameters);
+        final CommandLineParameterBoolean watchParameter = QubBuildCompile.addWatchParameter(parameters);
+        final CommandLineParameterBoolean retryErrorsParameter = QubBuildCompile.addRetryErrorsParameter(parameters);
+        final CommandLineParameterBoolean buildCacheParameter = QubBuildCompile.addBuildCacheParameter(parameters);
         final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
         final CommandLineParameterProfiler profiler = parameters.addProfiler(process, QubBuild.class);
         final CommandLineParameterHelp help = parameters.addHelp();
@@ -62,12 +152,40 @@ public interface QubBuildCompile
             final ProcessFactory processFactory = process.getProcessFactory();
             final Warnings warnings = warningsParameter.getValue().await();
             final Boolean buildJson = buildJsonParameter.getValue().await();
+            final Boolean fingerprints = fingerprintsParameter.getValue().await();
+            final JavaCompilerMode compiler = compilerParameter.getValue().await();
+            final Boolean parallel = parallelParameter.getValue().await();
+            final Boolean watch = watchParameter.getValue().await();
+            final Boolean retryErrors = retryErrorsParameter.getValue().await();
+            final Boolean buildCache = buildCacheParameter.getValue().await();
+            final String buildCacheFolderPathString = environmentVariables.get(QubBuildCompile.buildCacheFolderEnvironmentVariableName)
+                .catchError(NotFoundException.class)
+                .await();
+            final Folder buildCacheFolder = Strings.isNullOrEmpty(buildCacheFolderPathString)
+                ? null
+                : process.getFileSystem().getFolder(buildCacheFolderPathString).await();
+            final String remoteBuildCacheUrl = environmentVariables.get(QubBuildCompile.remoteBuildCacheUrlEnvironmentVariableName)
+                .catchError(NotFoundException.class)
+                .await();
+            final String remoteBuildCacheToken = environmentVariables.get(QubBuildCompile.remoteBuildCacheTokenEnvironmentVariableName)
+                .catchError(NotFoundException.class)
+                .await();
             final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
             final QubFolder qubFolder = process.getQubFolder().await();
             final Folder projectDataFolder = process.getQubProjectDataFolder().await();
             result = new QubBuildCompileParameters(output, folderToBuild, environmentVariables, processFactory, qubFolder, projectDataFolder)
                 .setWarnings(warnings)
                 .setBuildJson(buildJson)
+                .setFingerprints(fingerprints)
+                .setCompiler(compiler)
+                .setParallel(parallel)
+                .setWatch(watch)
+                .setRetryErrors(retryErrors)
+                .setBuildCache(buildCache)
+                .setBuildCacheFolder(buildCacheFolder)
+                .setRemoteBuildCacheUrl(remoteBuildCacheUrl)
+                .setRemoteBuildCacheToken(remoteBuildCacheToken)
+                .setUseDaemon(true)
                 .setVerbose(verbose);
         }
 
@@ -82,8 +200,24 @@ public interface QubBuildCompile
         final EnvironmentVariables environmentVariables = parameters.getEnvironmentVariables();
         final Warnings warnings = parameters.getWarnings();
         final boolean useBuildJson = parameters.getBuildJson();
+        final boolean useFingerprints = parameters.getFingerprints();
         final QubFolder qubFolder = parameters.getQubFolder();
         final Folder qubBuildDataFolder = parameters.getQubBuildDataFolder();
+        final QubBuildProjectState projectState = parameters.getProjectState();
+
+        if (parameters.getWatch())
+        {
+            return QubBuildCompile.watch(parameters);
+        }
+
+        if (parameters.getUseDaemon())
+        {
+            final Integer daemonExitCode = QubBuildDaemon.compile(parameters).await();
+            if (daemonExitCode != null)
+            {
+                return daemonExitCode;
+            }
+        }
 
         int exitCode = 0;
         try (final LogStreams logStreams = CommandLineLogsAction.getLogStreamsFromDataFolder(qubBuildDataFolder, parameters.getOutputWriteStream(), parameters.getVerbose()))
@@ -91,15 +225,58 @@ public interface QubBuildCompile
             final CharacterWriteStream output = logStreams.getOutput();
             final VerboseCharacterToByteWriteStream verbose = logStreams.getVerbose();
 
+            // Watched projects keep their own state between builds, so only standalone builds
+            // check the stamp of the previous build.
+            final File buildStampFile = useBuildJson && projectState == null
+                ? BuildStamp.getBuildStampFile(qubBuildDataFolder, folderToBuild).await()
+                : null;
+            final BuildStamp previousBuildStamp = QubBuildCompile.getMatchingBuildStamp(parameters, buildStampFile).await();
+            if (previousBuildStamp != null)
+            {
+                verbose.writeLine("The build inputs haven't changed since the previous build.").await();
+                for (final String outputLine : previousBuildStamp.getOutputLines())
+                {
+                    output.writeLine(outputLine).await();
+                }
+                return previousBuildStamp.getExitCode();
+            }
+
+            // A worker pool that wasn't provided by the caller only lives as long as this build.
+            final JavacWorkerPool ownedJavacWorkerPool = parameters.getCompiler() == JavaCompilerMode.Worker && parameters.getJavacWorkerPool() == null
+                ? JavacWorkerPool.create(parameters.getProcessFactory())
+                : null;
+            if (ownedJavacWorkerPool != null)
+            {
+                ownedJavacWorkerPool.setJavaExecutablePath(QubBuildCompile.getJavacWorkerJavaExecutablePath(parameters.getEnvironmentVariables(), folderToBuild.getFileSystem()).await());
+                parameters.setJavacWorkerPool(ownedJavacWorkerPool);
+            }
+
             try
             {
-                final JavacProcessBuilder javac = JavacProcessBuilder.get(parameters.getProcessFactory()).await();
+                final JavacCompiler<?> javac = QubBuildCompile.createJavacCompiler(parameters).await();
 
                 final File projectJsonFile = folderToBuild.getFile("project.json").await();
                 final FileSystem fileSystem = folderToBuild.getFileSystem();
 
-                verbose.writeLine("Parsing " + projectJsonFile.relativeTo(folderToBuild).toString() + "...").await();
-                final ProjectJSON projectJson = ProjectJSON.parse(projectJsonFile).await();
+                final DateTime projectJsonLastModified = projectState == null
+                    ? null
+                    : projectJsonFile.getLastModified().catchError(FileNotFoundException.class).await();
+                final ProjectJSON cachedProjectJson = projectState == null ? null : projectState.getProjectJson(projectJsonLastModified);
+                final ProjectJSON projectJson;
+                if (cachedProjectJson != null)
+                {
+                    verbose.writeLine("Using the cached " + projectJsonFile.relativeTo(folderToBuild).toString() + "...").await();
+                    projectJson = cachedProjectJson;
+                }
+                else
+                {
+                    verbose.writeLine("Parsing " + projectJsonFile.relativeTo(folderToBuild).toString() + "...").await();
+                    projectJson = ProjectJSON.parse(projectJsonFile).await();
+                    if (projectState != null)
+                    {
+                        projectState.setProjectJson(projectJsonLastModified, projectJson);
+                    }
+                }
 
                 final ProjectJSONJava projectJsonJava = projectJson.getJava();
                 if (projectJsonJava == null)
@@ -146,85 +323,44 @@ public interface QubBuildCompile
 
                 final List<String> classPaths = List.create();
                 classPaths.add(outputsFolder.toString());
-                Iterable<ProjectSignature> dependencies = projectJsonJava.getDependencies();
-                if (!Iterable.isNullOrEmpty(dependencies))
+                Iterable<String> dependencyClassPaths = projectState == null ? null : projectState.getDependencyClassPaths(projectJsonLastModified);
+                if (dependencyClassPaths == null)
                 {
-                    final Map<ProjectSignature, Iterable<ProjectSignature>> dependencyMap = projectJsonJava.getTransitiveDependencyPaths(qubFolder);
-                    dependencies = dependencyMap.getKeys();
-
-                    final Set<ProjectSignature> errorDependencies = Set.create();
-                    for (final ProjectSignature dependency : dependencies)
+                    dependencyClassPaths = QubBuildCompile.getDependencyClassPaths(projectJsonJava, qubFolder).await();
+                    if (projectState != null)
                     {
-                        if (!errorDependencies.contains(dependency))
-                        {
-                            final Iterable<ProjectSignature> matchingDependencies = dependencies.where(dependency::equalsIgnoreVersion).toList();
-                            if (matchingDependencies.getCount() > 1)
-                            {
-                                errorDependencies.addAll(matchingDependencies);
-                                final InMemoryCharacterToByteStream errorMessage = InMemoryCharacterToByteStream.create();
-                                final IndentedCharacterWriteStream indentedErrorMessage = IndentedCharacterWriteStream.create(errorMessage)
-                                    .setSingleIndent(" ");
-                                indentedErrorMessage.writeLine("Found more than one required version for package " + dependency.toStringIgnoreVersion() + ":").await();
-                                int number = 0;
-                                for (final ProjectSignature matchingProjectSignature : matchingDependencies)
-                                {
-                                    ++number;
-                                    final String numberString = number + ". ";
-                                    indentedErrorMessage.setCurrentIndent("");
-                                    errorMessage.writeLine(numberString + matchingProjectSignature).await();
-                                    indentedErrorMessage.setCurrentIndent(Strings.repeat(' ', numberString.length()));
-                                    final Iterable<ProjectSignature> path = dependencyMap.get(matchingProjectSignature).await();
-                                    for (final ProjectSignature pathProjectSignature : path)
-                                    {
-                                        indentedErrorMessage.increaseIndent();
-                                        indentedErrorMessage.writeLine("from " + pathProjectSignature).await();
-                                    }
-                                }
-                                throw new RuntimeException(errorMessage.getText().await());
-                            }
-                        }
+                        projectState.setDependencyClassPaths(projectJsonLastModified, dependencyClassPaths);
                     }
+                }
+                classPaths.addAll(dependencyClassPaths);
+                javac.addClasspath(classPaths);
 
-                    for (final ProjectSignature dependency : dependencies)
+                final SourceFileAttributes javaSourceFileAttributes = SourceFileAttributes.create();
+                Iterable<File> javaSourceFiles = projectState == null ? null : projectState.getJavaSourceFiles();
+                if (javaSourceFiles != null)
+                {
+                    verbose.writeLine("Using the watched source files...").await();
+                }
+                else
+                {
+                    // Watched projects already know which files exist, so only standalone builds
+                    // use the folder listings from the previous build.
+                    final File sourceFolderIndexFile = projectState == null
+                        ? SourceFolderIndex.getSourceFolderIndexFile(qubBuildDataFolder, folderToBuild).await()
+                        : null;
+                    final SourceFolderIndex sourceFolderIndex = sourceFolderIndexFile == null
+                        ? null
+                        : QubBuildCompile.parseSourceFolderIndex(sourceFolderIndexFile).await();
+                    javaSourceFiles = QubBuild.getJavaSourceFiles(folderToBuild, projectJsonJava, sourceFolderIndex, javaSourceFileAttributes).await();
+                    if (sourceFolderIndex != null && sourceFolderIndex.hasChanged())
                     {
-                        final QubPublisherFolder publisherFolder = qubFolder.getPublisherFolder(dependency.getPublisher()).await();
-                        if (!publisherFolder.exists().await())
-                        {
-                            throw new NotFoundException("No publisher folder named " + Strings.escapeAndQuote(dependency.getPublisher()) + " found in the Qub folder (" + qubFolder + ").");
-                        }
-                        else
-                        {
-                            final QubProjectFolder projectFolder = publisherFolder.getProjectFolder(dependency.getProject()).await();
-                            if (!projectFolder.exists().await())
-                            {
-                                throw new NotFoundException("No project folder named " + Strings.escapeAndQuote(dependency.getProject()) + " found in the " + Strings.escapeAndQuote(dependency.getPublisher()) + " publisher folder (" + publisherFolder + ").");
-                            }
-                            else
-                            {
-                                QubProjectVersionFolder versionFolder = projectFolder.getProjectVersionFolder(dependency.getVersion()).await();
-                                if (!versionFolder.exists().await())
-                                {
-                                    throw new NotFoundException("No version folder named " + Strings.escapeAndQuote(dependency.getVersion()) + " found in the " + Strings.escapeAndQuote(dependency.getProject()) + " project folder (" + projectFolder + ").");
-                                }
-                                else
-                                {
-                                    final File dependencyFile = versionFolder.getCompiledSourcesFile().await();
-                                    if (!dependencyFile.exists().await())
-                                    {
-                                        throw new NotFoundException("No dependency file named " + Strings.escapeAndQuote(dependencyFile.getName()) + " found in the " + Strings.escapeAndQuote(dependency.getVersion()) + " version folder (" + versionFolder + ").");
-                                    }
-                                    else
-                                    {
-                                        classPaths.add(dependencyFile.toString());
-                                    }
-                                }
-                            }
-                        }
+                        QubBuildCompile.writeSourceFolderIndex(sourceFolderIndexFile, sourceFolderIndex).await();
+                    }
+                    if (projectState != null)
+                    {
+                        projectState.setJavaSourceFiles(javaSourceFiles);
                     }
                 }
-                javac.addClasspath(classPaths);
-
-                final Iterable<File> javaSourceFiles = QubBuild.getJavaSourceFiles(folderToBuild, projectJsonJava).await();
                 if (!javaSourceFiles.any())
                 {
                     throw new NotFoundException("No java source files found in " + folderToBuild + ".");
@@ -232,12 +368,16 @@ public interface QubBuildCompile
 
                 final File buildJsonFile = outputsFolder.getFile("build.json").await();
                 final List<File> newJavaSourceFiles = List.create();
-                final List<File> deletedJavaSourceFiles = List.create();
+                final SourceFileSet deletedJavaSourceFiles = SourceFileSet.create(folderToBuild);
                 final List<File> modifiedJavaSourceFiles = List.create();
                 final List<File> nonModifiedJavaSourceFiles = List.create();
                 final List<File> javaSourceFilesWithErrors = List.create();
                 final List<JavaCompilerIssue> nonModifiedJavaSourceFileWarnings = List.create();
+                final SourceFileSet javaSourceFilesWithUnmodifiedErrors = SourceFileSet.create(folderToBuild);
+                final List<JavaCompilerIssue> nonModifiedJavaSourceFileErrors = List.create();
                 final List<BuildJSONSourceFile> buildJsonSourceFiles = List.create();
+                final Map<String,String> previousAbiDigests = Map.create();
+                final Map<String,Iterable<Path>> previousClassFiles = Map.create();
                 boolean compileEverything;
                 final BuildJSON updatedBuildJson = BuildJSON.create();
                 boolean updateBuildJsonFile = false;
@@ -253,29 +393,40 @@ public interface QubBuildCompile
                 {
                     verbose.writeLine("Getting javac version...").await();
 
-                    final JavacProcessBuilder javacVersionProcessBuilder = JavacProcessBuilder.get(parameters.getProcessFactory()).await();
-                    final VersionNumber javacVersion = javacVersionProcessBuilder.getVersion(verbose).await();
+                    final VersionNumber javacVersion = QubBuildCompile.getJavacVersion(parameters, verbose).await();
                     updatedBuildJson.setJavacVersion(javacVersion);
 
                     if (!outputsFolder.exists().await())
                     {
                         compileEverything = true;
                         newJavaSourceFiles.addAll(javaSourceFiles);
-                        buildJsonSourceFiles.addAll(BuildJSONSourceFile.create(javaSourceFiles, folderToBuild));
+                        buildJsonSourceFiles.addAll(BuildJSONSourceFile.create(javaSourceFiles, folderToBuild, useFingerprints, javaSourceFileAttributes));
                     }
                     else
                     {
-                        verbose.writeLine("Parsing " + buildJsonFile.relativeTo(folderToBuild).toString() + "...").await();
-
-                        final BuildJSON buildJson = BuildJSON.parse(buildJsonFile)
-                            .catchError(FileNotFoundException.class)
-                            .await();
+                        // The cached build.json is taken out of the project state because this
+                        // build modifies its source files. It is only put back after the updated
+                        // build.json has been written.
+                        BuildJSON buildJson = projectState == null
+                            ? null
+                            : projectState.takeBuildJson(buildJsonFile.getLastModified().catchError(FileNotFoundException.class).await());
+                        if (buildJson != null)
+                        {
+                            verbose.writeLine("Using the cached " + buildJsonFile.relativeTo(folderToBuild).toString() + "...").await();
+                        }
+                        else
+                        {
+                            verbose.writeLine("Parsing " + buildJsonFile.relativeTo(folderToBuild).toString() + "...").await();
+                            buildJson = BuildJSON.parse(buildJsonFile)
+                                .catchError(FileNotFoundException.class)
+                                .await();
+                        }
 
                         if (buildJson == null || !javacVersion.equals(buildJson.getJavacVersion()))
                         {
                             compileEverything = true;
                             newJavaSourceFiles.addAll(javaSourceFiles);
-                            buildJsonSourceFiles.addAll(BuildJSONSourceFile.create(javaSourceFiles, folderToBuild));
+                            buildJsonSourceFiles.addAll(BuildJSONSourceFile.create(javaSourceFiles, folderToBuild, useFingerprints, javaSourceFileAttributes));
                         }
                         else
                         {
@@ -283,6 +434,7 @@ public interface QubBuildCompile
                             updateBuildJsonFile = !Comparer.equal(buildJsonProjectJson, projectJson);
                             compileEverything = QubBuildCompile.shouldCompileEverything(buildJson.getProjectJson(), projectJson);
 
+                            final SourceDependencyScanner dependencyScanner = SourceDependencyScanner.create(javaSourceFiles);
                             for (final File javaSourceFile : javaSourceFiles)
                             {
                                 final Path javaSourceFileRelativePath = javaSourceFile.relativeTo(folderToBuild);
@@ -290,27 +442,76 @@ public interface QubBuildCompile
                                 final BuildJSONSourceFile buildJsonSource = buildJson.getSourceFile(javaSourceFileRelativePath)
                                     .catchError(NotFoundException.class)
                                     .await();
+                                // A watched source file that wasn't reported as changed since a
+                                // build recorded it still has the last modified time and size
+                                // that were recorded in build.json. The first build and every
+                                // build after the source files are found again check every file.
+                                final boolean useRecordedStat = buildJsonSource != null &&
+                                    buildJsonSource.getLastModified() != null &&
+                                    projectState != null &&
+                                    !projectState.isJavaSourceFileChanged(javaSourceFile);
+                                final DateTime javaSourceFileLastModified = useRecordedStat
+                                    ? buildJsonSource.getLastModified()
+                                    : javaSourceFileAttributes.getLastModified(javaSourceFile).await();
+                                final Long javaSourceFileSize = useRecordedStat
+                                    ? buildJsonSource.getSize()
+                                    : javaSourceFileAttributes.getSize(javaSourceFile);
+                                // A different size proves that the contents changed, so the
+                                // contents are only hashed when the sizes match.
+                                if (useFingerprints &&
+                                    buildJsonSource != null &&
+                                    buildJsonSource.getLastModified() != null &&
+                                    QubBuildCompile.hasStatChanged(buildJsonSource, javaSourceFileLastModified, javaSourceFileSize) &&
+                                    !QubBuildCompile.hasSizeChanged(buildJsonSource, javaSourceFileSize))
+                                {
+                                    final String buildJsonSourceContentHash = buildJsonSource.getContentHash();
+                                    if (!Strings.isNullOrEmpty(buildJsonSourceContentHash) &&
+                                        buildJsonSourceContentHash.equals(ContentHash.create(javaSourceFile).await()))
+                                    {
+                                        verbose.writeLine(javaSourceFile + " - Last modified changed, but contents are unchanged").await();
+                                        buildJsonSource.setLastModified(javaSourceFileLastModified);
+                                        updateBuildJsonFile = true;
+                                    }
+                                }
+
                                 if (buildJsonSource == null || buildJsonSource.getLastModified() == null)
                                 {
                                     verbose.writeLine(javaSourceFile + " - New file").await();
                                     newJavaSourceFiles.add(javaSourceFile);
-                                    buildJsonSourceFiles.add(BuildJSONSourceFile.create(javaSourceFile, folderToBuild, javaSourceFiles));
+                                    buildJsonSourceFiles.add(BuildJSONSourceFile.create(javaSourceFile, folderToBuild, dependencyScanner, useFingerprints, javaSourceFileLastModified, javaSourceFileSize));
                                 }
-                                else if (!javaSourceFile.getLastModified().await().equals(buildJsonSource.getLastModified()))
+                                else if (QubBuildCompile.hasStatChanged(buildJsonSource, javaSourceFileLastModified, javaSourceFileSize))
                                 {
-                                    verbose.writeLine(javaSourceFile + " - Last modified: " + javaSourceFile.getLastModified().await()).await();
+                                    verbose.writeLine(javaSourceFile + " - Last modified: " + javaSourceFileLastModified).await();
                                     verbose.writeLine(Strings.repeat(' ', javaSourceFile.toString().length()) + " - Last built:    " + buildJsonSource.getLastModified()).await();
+                                    if (QubBuildCompile.hasSizeChanged(buildJsonSource, javaSourceFileSize))
+                                    {
+                                        verbose.writeLine(Strings.repeat(' ', javaSourceFile.toString().length()) + " - Size:          " + javaSourceFileSize + " (was " + buildJsonSource.getSize() + ")").await();
+                                    }
 
                                     modifiedJavaSourceFiles.add(javaSourceFile);
-                                    buildJsonSourceFiles.add(BuildJSONSourceFile.create(javaSourceFile, folderToBuild, javaSourceFiles));
+                                    buildJsonSourceFiles.add(BuildJSONSourceFile.create(javaSourceFile, folderToBuild, dependencyScanner, useFingerprints, javaSourceFileLastModified, javaSourceFileSize));
                                 }
                                 else if (!Iterable.isNullOrEmpty(buildJsonSource.getIssues()))
                                 {
                                     final Iterable<JavaCompilerIssue> sourceErrors = buildJsonSource.getIssues().where((JavaCompilerIssue issue) -> issue.type == Issue.Type.Error).toList();
                                     if (!Iterable.isNullOrEmpty(sourceErrors))
                                     {
-                                        verbose.writeLine(javaSourceFile + " - Has errors").await();
-                                        javaSourceFilesWithErrors.add(javaSourceFile);
+                                        if (parameters.getRetryErrors())
+                                        {
+                                            verbose.writeLine(javaSourceFile + " - Has errors").await();
+                                            javaSourceFilesWithErrors.add(javaSourceFile);
+                                        }
+                                        else
+                                        {
+                                            // Compiling an unchanged source file again would only
+                                            // produce the same errors, so the errors are replayed
+                                            // unless one of its dependencies has changed.
+                                            verbose.writeLine(javaSourceFile + " - Has unmodified errors").await();
+                                            javaSourceFilesWithUnmodifiedErrors.add(javaSourceFile);
+                                            nonModifiedJavaSourceFiles.add(javaSourceFile);
+                                            nonModifiedJavaSourceFileErrors.addAll(sourceErrors);
+                                        }
                                     }
 
                                     final Iterable<JavaCompilerIssue> sourceWarnings = buildJsonSource.getIssues().where((JavaCompilerIssue issue) -> issue.type == Issue.Type.Warning).toList();
@@ -320,12 +521,32 @@ public interface QubBuildCompile
                                         nonModifiedJavaSourceFileWarnings.addAll(sourceWarnings);
                                     }
 
-                                    buildJsonSourceFiles.add(BuildJSONSourceFile.create(javaSourceFile, folderToBuild, javaSourceFiles));
+                                    final BuildJSONSourceFile sourceFileWithIssues = BuildJSONSourceFile.create(javaSourceFile, folderToBuild, dependencyScanner, useFingerprints, javaSourceFileLastModified, javaSourceFileSize);
+                                    if (buildJsonSource.getAbiDigest() != null)
+                                    {
+                                        sourceFileWithIssues.setAbiDigest(buildJsonSource.getAbiDigest());
+                                    }
+                                    if (buildJsonSource.getClassFiles() != null)
+                                    {
+                                        sourceFileWithIssues.setClassFiles(buildJsonSource.getClassFiles());
+                                    }
+                                    buildJsonSourceFiles.add(sourceFileWithIssues);
                                 }
                                 else
                                 {
                                     verbose.writeLine(javaSourceFile + " - No changes or issues").await();
 
+                                    if (useFingerprints && Strings.isNullOrEmpty(buildJsonSource.getContentHash()))
+                                    {
+                                        buildJsonSource.setContentHash(ContentHash.create(javaSourceFile).await());
+                                        updateBuildJsonFile = true;
+                                    }
+                                    if (javaSourceFileSize != null && buildJsonSource.getSize() == null)
+                                    {
+                                        buildJsonSource.setSize(javaSourceFileSize);
+                                        updateBuildJsonFile = true;
+                                    }
+
                                     nonModifiedJavaSourceFiles.add(javaSourceFile);
                                     buildJsonSourceFiles.add(buildJsonSource);
                                 }
@@ -334,22 +555,42 @@ public interface QubBuildCompile
                             for (final BuildJSONSourceFile buildJsonSource : buildJson.getSourceFiles())
                             {
                                 final Path buildJsonSourceFilePath = buildJsonSource.getRelativePath();
-                                final File buildJsonSourceFile = folderToBuild.getFile(buildJsonSourceFilePath).await();
-                                if (!javaSourceFiles.contains(buildJsonSourceFile))
+                                final String buildJsonSourceAbiDigest = buildJsonSource.getAbiDigest();
+                                if (!Strings.isNullOrEmpty(buildJsonSourceAbiDigest))
                                 {
-                                    deletedJavaSourceFiles.add(buildJsonSourceFile);
+                                    previousAbiDigests.set(buildJsonSourceFilePath.toString(), buildJsonSourceAbiDigest);
+                                }
+                                final Iterable<Path> buildJsonSourceClassFiles = buildJsonSource.getClassFiles();
+                                if (buildJsonSourceClassFiles != null)
+                                {
+                                    previousClassFiles.set(buildJsonSourceFilePath.toString(), buildJsonSourceClassFiles);
                                 }
                             }
-
-                            writeFileList(verbose, deletedJavaSourceFiles, "Deleted source files").await();
-                            for (final File deletedSourceFile : deletedJavaSourceFiles)
+                            deletedJavaSourceFiles.addAll(QubBuildCompile.getDeletedJavaSourceFiles(
+                                buildJson.getSourceFiles().map(BuildJSONSourceFile::getRelativePath),
+                                javaSourceFiles,
+                                folderToBuild).toList());
+
+                            writeFileList(verbose, deletedJavaSourceFiles.toList(), "Deleted source files").await();
+                            final List<File> deletedSourceFilesWithoutClassFiles = List.create();
+                            for (final File deletedSourceFile : deletedJavaSourceFiles.toList())
                             {
-                                final Iterable<File> classFilesToDelete = QubBuildCompile.getExistingClassFiles(deletedSourceFile, folderToBuild, outputsFolder);
-                                for (final File classFileToDelete : classFilesToDelete)
+                                final Iterable<Path> deletedSourceClassFiles = previousClassFiles.get(deletedSourceFile.relativeTo(folderToBuild).toString())
+                                    .catchError(NotFoundException.class)
+                                    .await();
+                                if (deletedSourceClassFiles == null)
+                                {
+                                    deletedSourceFilesWithoutClassFiles.add(deletedSourceFile);
+                                }
+                                else
                                 {
-                                    classFileToDelete.delete().await();
+                                    QubBuildCompile.deleteClassFiles(deletedSourceClassFiles, outputsFolder).await();
                                 }
                             }
+                            for (final File classFileToDelete : QubBuildCompile.getExistingClassFiles(deletedSourceFilesWithoutClassFiles, folderToBuild, outputsFolder))
+                            {
+                                classFileToDelete.delete().await();
+                            }
                         }
                     }
 
@@ -361,7 +602,9 @@ public interface QubBuildCompile
                 }
 
                 verbose.writeLine("Detecting java source files to compile...").await();
-                final Set<File> javaSourceFilesToCompile = Set.create();
+                final SourceFileSet javaSourceFilesToCompile = SourceFileSet.create(folderToBuild);
+                SourceDependencyGraph dependencyGraph = null;
+                SourceDependencyGraph.SourceFileIds nonModifiedJavaSourceFileIds = null;
                 if (compileEverything)
                 {
                     verbose.writeLine("Compiling all source files.").await();
@@ -378,108 +621,321 @@ public interface QubBuildCompile
                     QubBuildCompile.writeFileList(verbose, javaSourceFilesWithErrors, "Source files that previously contained errors").await();
                     javaSourceFilesToCompile.addAll(javaSourceFilesWithErrors);
 
-                    final List<File> javaSourceFilesWithDeletedDependencies = List.create();
-                    for (final File nonModifiedJavaSourceFile : nonModifiedJavaSourceFiles)
+                    // An error can be caused by a reference to a type that doesn't exist yet. That
+                    // type isn't one of the source file's dependencies, so any added source file
+                    // could fix the error.
+                    if (newJavaSourceFiles.any())
                     {
-                        final Path relativePath = nonModifiedJavaSourceFile.relativeTo(folderToBuild);
-                        final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(relativePath).await();
-                        final Iterable<Path> sourceFileProjectSignaturePaths = sourceFile.getDependencies();
-                        if (!Iterable.isNullOrEmpty(sourceFileProjectSignaturePaths))
-                        {
-                            final Iterable<File> sourceFileProjectSignatureFiles = sourceFileProjectSignaturePaths
-                                .map((Path sourceFileProjectSignaturePath) -> folderToBuild.getFile(sourceFileProjectSignaturePath).await());
-                            for (final File sourceFileProjectSignatureFile : sourceFileProjectSignatureFiles)
-                            {
-                                if (deletedJavaSourceFiles.contains(sourceFileProjectSignatureFile))
-                                {
-                                    javaSourceFilesWithDeletedDependencies.add(nonModifiedJavaSourceFile);
-                                    javaSourceFilesToCompile.add(nonModifiedJavaSourceFile);
-                                    break;
-                                }
-                            }
-                        }
+                        QubBuildCompile.writeFileList(verbose, javaSourceFilesWithUnmodifiedErrors.toList(), "Source files with errors that may be fixed by added source files").await();
+                        javaSourceFilesToCompile.addAll(javaSourceFilesWithUnmodifiedErrors.toList());
                     }
+
+                    final List<File> javaSourceFilesWithDeletedDependencies = QubBuildCompile.getJavaSourceFilesWithDeletedDependencies(nonModifiedJavaSourceFiles, deletedJavaSourceFiles, updatedBuildJson, folderToBuild);
+                    javaSourceFilesToCompile.addAll(javaSourceFilesWithDeletedDependencies);
                     writeFileList(verbose, javaSourceFilesWithDeletedDependencies, "Source files with deleted dependencies").await();
 
-                    final List<File> javaSourceFilesWithModifiedDependencies = List.create();
-                    final List<File> filesToNotCompile = List.create(nonModifiedJavaSourceFiles);
-                    boolean filesToNotCompileChanged = true;
-                    while (filesToNotCompileChanged && filesToNotCompile.any())
+                    // Source files that have an ABI digest from their last build only invalidate their
+                    // dependents after they are compiled and their ABI is known to have changed.
+                    dependencyGraph = SourceDependencyGraph.create(updatedBuildJson.getSourceFiles());
+                    nonModifiedJavaSourceFileIds = dependencyGraph.getIds(nonModifiedJavaSourceFiles.map((File javaSourceFile) -> javaSourceFile.relativeTo(folderToBuild)));
+                    final Iterable<SourceInvalidation> javaSourceFilesWithModifiedDependencies = dependencyGraph.getInvalidatedSourceFiles(
+                        dependencyGraph.getIds(javaSourceFilesToCompile.toList()
+                            .map((File javaSourceFile) -> javaSourceFile.relativeTo(folderToBuild))
+                            .where((Path javaSourceFilePath) -> !previousAbiDigests.containsKey(javaSourceFilePath.toString()))),
+                        nonModifiedJavaSourceFileIds);
+                    if (javaSourceFilesWithModifiedDependencies.any())
                     {
-                        filesToNotCompileChanged = false;
-                        for (final File fileToNotCompile : List.create(filesToNotCompile))
+                        verbose.writeLine("Source files with modified dependencies:").await();
+                        for (final SourceInvalidation invalidation : javaSourceFilesWithModifiedDependencies)
                         {
-                            final Path relativePath = fileToNotCompile.relativeTo(folderToBuild);
-                            final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(relativePath).await();
-                            final Iterable<Path> sourceFileProjectSignaturePaths = sourceFile.getDependencies();
-                            if (!Iterable.isNullOrEmpty(sourceFileProjectSignaturePaths))
-                            {
-                                final Iterable<File> sourceFileProjectSignatureFiles = sourceFileProjectSignaturePaths
-                                    .map((Path sourceFileProjectSignaturePath) -> folderToBuild.getFile(sourceFileProjectSignaturePath).await());
-                                for (final File dependencyFile : sourceFileProjectSignatureFiles)
-                                {
-                                    if (javaSourceFilesToCompile.contains(dependencyFile))
-                                    {
-                                        filesToNotCompileChanged = true;
-                                        javaSourceFilesWithModifiedDependencies.add(fileToNotCompile);
-                                        javaSourceFilesToCompile.add(fileToNotCompile);
-                                        filesToNotCompile.remove(fileToNotCompile);
-                                        break;
-                                    }
-                                }
-                            }
+                            verbose.writeLine(Strings.join(" -> ", invalidation.getChain().map((Path chainPath) -> folderToBuild.getFile(chainPath).await().toString()))).await();
+                            javaSourceFilesToCompile.add(folderToBuild.getFile(invalidation.getSourceFilePath()).await());
                         }
                     }
-                    writeFileList(verbose, javaSourceFilesWithDeletedDependencies, "Source files with modified dependencies").await();
 
                     final List<File> javaSourceFilesWithMissingClassFiles = List.create();
-                    for (final File nonModifiedJavaSourceFile : nonModifiedJavaSourceFiles)
+                    final Iterable<File> javaSourceFilesToCheckForClassFiles = nonModifiedJavaSourceFiles
+                        .where((File javaSourceFile) -> !javaSourceFilesToCompile.contains(javaSourceFile) && !javaSourceFilesWithUnmodifiedErrors.contains(javaSourceFile))
+                        .toList();
+                    if (javaSourceFilesToCheckForClassFiles.any())
                     {
-                        final File classFile = QubBuildCompile.getClassFile(nonModifiedJavaSourceFile, folderToBuild, outputsFolder);
-                        if (!classFile.exists().await() && !javaSourceFilesToCompile.contains(nonModifiedJavaSourceFile))
+                        final Set<String> existingClassFilePaths = Set.create();
+                        for (final File existingClassFile : QubBuild.getJavaClassFiles(outputsFolder).await())
+                        {
+                            existingClassFilePaths.add(existingClassFile.relativeTo(outputsFolder).toString());
+                        }
+
+                        for (final File nonModifiedJavaSourceFile : javaSourceFilesToCheckForClassFiles)
                         {
-                            javaSourceFilesWithMissingClassFiles.add(nonModifiedJavaSourceFile);
-                            javaSourceFilesToCompile.add(nonModifiedJavaSourceFile);
+                            Iterable<Path> expectedClassFilePaths = updatedBuildJson.getSourceFile(nonModifiedJavaSourceFile.relativeTo(folderToBuild)).await().getClassFiles();
+                            if (Iterable.isNullOrEmpty(expectedClassFilePaths))
+                            {
+                                expectedClassFilePaths = Iterable.create(QubBuildCompile.getClassFile(nonModifiedJavaSourceFile, folderToBuild, outputsFolder).relativeTo(outputsFolder));
+                            }
+                            if (expectedClassFilePaths.any((Path expectedClassFilePath) -> !existingClassFilePaths.contains(expectedClassFilePath.toString())))
+                            {
+                                javaSourceFilesWithMissingClassFiles.add(nonModifiedJavaSourceFile);
+                                javaSourceFilesToCompile.add(nonModifiedJavaSourceFile);
+                            }
                         }
                     }
                     writeFileList(verbose, javaSourceFilesWithMissingClassFiles, "Source files with missing class files").await();
                 }
 
+                InMemoryCharacterToByteStream noCompileOutput = null;
                 if (!javaSourceFilesToCompile.any())
                 {
-                    output.writeLine("No files need to be compiled.").await();
+                    // The output is collected so that it can be replayed by the next build if none
+                    // of the build inputs change.
+                    noCompileOutput = InMemoryCharacterToByteStream.create();
+                    noCompileOutput.writeLine("No files need to be compiled.").await();
 
                     if (nonModifiedJavaSourceFileWarnings.any())
                     {
                         nonModifiedJavaSourceFileWarnings.sort((JavaCompilerIssue lhs, JavaCompilerIssue rhs) -> lhs.sourceFilePath.compareTo(rhs.sourceFilePath) < 0);
 
                         final int unmodifiedWarningCount = nonModifiedJavaSourceFileWarnings.getCount();
-                        output.writeLine(unmodifiedWarningCount + " Unmodified Warning" + (unmodifiedWarningCount == 1 ? "" : "s") + ":").await();
+                        noCompileOutput.writeLine(unmodifiedWarningCount + " Unmodified Warning" + (unmodifiedWarningCount == 1 ? "" : "s") + ":").await();
                         for (final JavaCompilerIssue warning : nonModifiedJavaSourceFileWarnings)
                         {
-                            output.writeLine(warning.sourceFilePath + " (Line " + warning.lineNumber + "): " + warning.message).await();
-                            final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(Path.parse(warning.sourceFilePath)).await();
-                            sourceFile.addIssue(warning);
+                            noCompileOutput.writeLine(warning.sourceFilePath + " (Line " + warning.lineNumber + "): " + warning.message).await();
                         }
+                        QubBuildCompile.addIssues(updatedBuildJson, nonModifiedJavaSourceFileWarnings).await();
+                    }
+
+                    if (QubBuildCompile.replayUnmodifiedErrors(noCompileOutput, nonModifiedJavaSourceFileErrors, updatedBuildJson).await() && exitCode == 0)
+                    {
+                        exitCode = 1;
                     }
+
+                    output.write(noCompileOutput.getText().await()).await();
                 }
                 else
                 {
                     updateBuildJsonFile = true;
 
-                    javac.addSourceFilePaths(javaSourceFilesToCompile
-                        .map((File javaSourceFile) -> javaSourceFile.getPath().relativeTo(folderToBuild)));
+                    final Iterable<String> javacBaseArguments = javac.getArguments().toList();
+                    final List<JavaCompilerIssue> compilationIssues = List.create();
+                    BuildCache buildCache = null;
+                    BuildCacheKeys buildCacheKeys = null;
+                    if (useBuildJson && parameters.getBuildCache())
+                    {
+                        verbose.writeLine("Using the build cache in " + parameters.getBuildCacheFolder() + "...").await();
+                        buildCache = BuildCache.create(parameters.getBuildCacheFolder());
+                        final String compilationDigest = BuildCacheKeys.getCompilationDigest(updatedBuildJson.getJavacVersion(), javacBaseArguments, dependencyClassPaths, folderToBuild, qubFolder).await();
+                        buildCacheKeys = BuildCacheKeys.create(folderToBuild, javaSourceFiles, compilationDigest);
+                    }
+                    RemoteBuildCache remoteBuildCache = null;
+                    if (buildCache != null && parameters.getRemoteBuildCacheUrl() != null)
+                    {
+                        verbose.writeLine("Using the remote build cache at " + parameters.getRemoteBuildCacheUrl() + "...").await();
+                        remoteBuildCache = RemoteBuildCache.create(HttpBuildCacheBackend.create(parameters.getRemoteBuildCacheUrl())
+                            .setToken(parameters.getRemoteBuildCacheToken()));
+                    }
+                    JavacCompiler<?> waveJavac = javac;
+                    Iterable<File> waveJavaSourceFiles = javaSourceFilesToCompile.toList();
+                    SourceDependencyGraph parallelDependencyGraph = dependencyGraph;
+                    while (waveJavaSourceFiles.any())
+                    {
+                        // Source files whose class files are in the build cache are restored
+                        // instead of compiled. They still go through the rest of the wave so that
+                        // build.json and the ABI invalidation see their restored class files.
+                        Iterable<File> waveJavaSourceFilesToCompile = waveJavaSourceFiles;
+                        final Map<String,String> waveBuildCacheKeys = Map.create();
+                        if (remoteBuildCache != null)
+                        {
+                            final List<String> localMissBuildCacheKeys = List.create();
+                            for (final File waveJavaSourceFile : waveJavaSourceFiles)
+                            {
+                                final String buildCacheKey = buildCacheKeys.getKey(waveJavaSourceFile).await();
+                                if (!buildCache.contains(buildCacheKey))
+                                {
+                                    localMissBuildCacheKeys.add(buildCacheKey);
+                                }
+                            }
+                            if (localMissBuildCacheKeys.any())
+                            {
+                                final int downloadedCount = remoteBuildCache.download(localMissBuildCacheKeys, buildCache).await();
+                                verbose.writeLine("Downloaded " + downloadedCount + " of " + localMissBuildCacheKeys.getCount() + " missing build cache entries from the remote build cache.").await();
+                            }
+                        }
+                        if (buildCache != null)
+                        {
+                            final List<File> restoredJavaSourceFiles = List.create();
+                            final List<File> missedJavaSourceFiles = List.create();
+                            for (final File waveJavaSourceFile : waveJavaSourceFiles)
+                            {
+                                final String buildCacheKey = buildCacheKeys.getKey(waveJavaSourceFile).await();
+                                final Iterable<JavaCompilerIssue> restoredIssues = buildCache.restore(buildCacheKey, outputsFolder).await();
+                                if (restoredIssues != null)
+                                {
+                                    restoredJavaSourceFiles.add(waveJavaSourceFile);
+                                    compilationIssues.addAll(restoredIssues);
+                                }
+                                else
+                                {
+                                    missedJavaSourceFiles.add(waveJavaSourceFile);
+                                    waveBuildCacheKeys.set(waveJavaSourceFile.toString(), buildCacheKey);
+                                }
+                            }
+                            if (restoredJavaSourceFiles.any())
+                            {
+                                final int restoredCount = restoredJavaSourceFiles.getCount();
+                                output.writeLine("Restored " + restoredCount + " file" + (restoredCount == 1 ? "" : "s") + " from the build cache.").await();
+                                writeFileList(verbose, restoredJavaSourceFiles, "Source files restored from the build cache").await();
+                            }
+                            waveJavaSourceFilesToCompile = missedJavaSourceFiles;
+                        }
+
+                        final Iterable<Path> waveJavaSourceFilePaths = waveJavaSourceFilesToCompile
+                            .map((File javaSourceFile) -> javaSourceFile.getPath().relativeTo(folderToBuild))
+                            .toList();
 
-                    final int filesToCompileCount = javaSourceFilesToCompile.getCount();
-                    output.writeLine("Compiling " + filesToCompileCount + " file" + (filesToCompileCount == 1 ? "" : "s") + "...").await();
-                    final JavaCompilationResult compilationResult = javac.compile(warnings, verbose).await();
-                    exitCode = compilationResult.exitCode;
+                        final int filesToCompileCount = waveJavaSourceFilesToCompile.getCount();
+                        JavaCompilationResult compilationResult = null;
+                        if (filesToCompileCount == 0)
+                        {
+                            compilationResult = new JavaCompilationResult(0, null, null, Iterable.create());
+                        }
+                        else
+                        {
+                            output.writeLine("Compiling " + filesToCompileCount + " file" + (filesToCompileCount == 1 ? "" : "s") + "...").await();
+                        }
+                        if (compilationResult == null && parameters.getParallel() && useBuildJson)
+                        {
+                            if (parallelDependencyGraph == null)
+                            {
+                                parallelDependencyGraph = SourceDependencyGraph.create(updatedBuildJson.getSourceFiles());
+                            }
+                            final CompilationPlan compilationPlan = CompilationPlan.create(
+                                parallelDependencyGraph,
+                                waveJavaSourceFilePaths,
+                                java.lang.Runtime.getRuntime().availableProcessors(),
+                                QubBuildCompile.parallelMinimumBatchSize);
+                            if (compilationPlan.getBatchCount() > 1)
+                            {
+                                compilationResult = QubBuildCompile.compileInParallel(parameters, javacBaseArguments, compilationPlan, verbose, compilationIssues::add).await();
+                            }
+                        }
+                        if (compilationResult == null)
+                        {
+                            waveJavac.addSourceFilePaths(waveJavaSourceFilePaths);
+                            compilationResult = waveJavac.compile(warnings, verbose, compilationIssues::add, false).await();
+                        }
+                        if (exitCode == 0)
+                        {
+                            exitCode = compilationResult.exitCode;
+                        }
 
-                    verbose.writeLine("Compilation finished.").await();
+                        verbose.writeLine("Compilation finished.").await();
 
-                    final List<JavaCompilerIssue> nonModifiedNonCompiledJavaSourceFileWarnings = nonModifiedJavaSourceFileWarnings
-                        .where((JavaCompilerIssue warning) -> !javaSourceFilesToCompile.contains((File fileToCompile) -> fileToCompile.relativeTo(folderToBuild).equals(Path.parse(warning.sourceFilePath))))
-                        .toList();
+                        Iterable<File> nextWaveJavaSourceFiles = Iterable.create();
+                        if (useBuildJson)
+                        {
+                            if (compilationResult.exitCode != 0)
+                            {
+                                // The class files in the outputs folder weren't updated, so the
+                                // dependents of these source files are still up to date with the
+                                // ABI that they were last compiled against.
+                                for (final File waveJavaSourceFile : waveJavaSourceFiles)
+                                {
+                                    final Path waveJavaSourceFilePath = waveJavaSourceFile.relativeTo(folderToBuild);
+                                    final BuildJSONSourceFile waveBuildJsonSourceFile = updatedBuildJson.getSourceFile(waveJavaSourceFilePath).await();
+                                    final String previousAbiDigest = previousAbiDigests.get(waveJavaSourceFilePath.toString())
+                                        .catchError(NotFoundException.class)
+                                        .await();
+                                    if (previousAbiDigest != null)
+                                    {
+                                        waveBuildJsonSourceFile.setAbiDigest(previousAbiDigest);
+                                    }
+                                    final Iterable<Path> waveJavaSourceFilePreviousClassFiles = previousClassFiles.get(waveJavaSourceFilePath.toString())
+                                        .catchError(NotFoundException.class)
+                                        .await();
+                                    if (waveJavaSourceFilePreviousClassFiles != null)
+                                    {
+                                        waveBuildJsonSourceFile.setClassFiles(waveJavaSourceFilePreviousClassFiles);
+                                    }
+                                }
+                            }
+                            else
+                            {
+                                final Iterable<File> abiChangedJavaSourceFiles = QubBuildCompile.updateSourceFilesFromClassFiles(updatedBuildJson, waveJavaSourceFiles, javaSourceFiles, previousAbiDigests, previousClassFiles, folderToBuild, outputsFolder).await();
+                                if (buildCache != null)
+                                {
+                                    final Map<String,List<JavaCompilerIssue>> compilationIssuesBySourceFile = QubBuildCompile.getIssuesBySourceFile(compilationIssues);
+                                    for (final File compiledJavaSourceFile : waveJavaSourceFilesToCompile)
+                                    {
+                                        final Path compiledJavaSourceFilePath = compiledJavaSourceFile.relativeTo(folderToBuild);
+                                        Iterable<Path> compiledClassFilePaths = updatedBuildJson.getSourceFile(compiledJavaSourceFilePath).await().getClassFiles();
+                                        if (Iterable.isNullOrEmpty(compiledClassFilePaths))
+                                        {
+                                            compiledClassFilePaths = Iterable.create(QubBuildCompile.getClassFile(compiledJavaSourceFile, folderToBuild, outputsFolder).relativeTo(outputsFolder));
+                                        }
+                                        Iterable<JavaCompilerIssue> compiledIssues = compilationIssuesBySourceFile.get(SourceFileSet.normalize(compiledJavaSourceFilePath.toString()))
+                                            .catchError(NotFoundException.class)
+                                            .await();
+                                        if (compiledIssues == null)
+                                        {
+                                            compiledIssues = Iterable.create();
+                                        }
+                                        final String compiledBuildCacheKey = waveBuildCacheKeys.get(compiledJavaSourceFile.toString()).await();
+                                        buildCache.store(compiledBuildCacheKey, compiledClassFilePaths, outputsFolder, compiledIssues)
+                                            .catchError(FileNotFoundException.class)
+                                            .await();
+                                        if (remoteBuildCache != null)
+                                        {
+                                            remoteBuildCache.upload(compiledBuildCacheKey, buildCache).await();
+                                        }
+                                    }
+                                }
+                                if (dependencyGraph != null && abiChangedJavaSourceFiles.any())
+                                {
+                                    final SourceDependencyGraph.SourceFileIds candidateJavaSourceFileIds = nonModifiedJavaSourceFileIds
+                                        .except(dependencyGraph.getIds(javaSourceFilesToCompile.toList().map((File javaSourceFile) -> javaSourceFile.relativeTo(folderToBuild))));
+                                    // Only the source files that refer to a changed ABI are recompiled. If
+                                    // their own ABIs change too, the next wave recompiles their dependents.
+                                    final Iterable<SourceInvalidation> javaSourceFilesWithChangedDependencyAbis = dependencyGraph.getDirectlyInvalidatedSourceFiles(
+                                        dependencyGraph.getIds(abiChangedJavaSourceFiles.map((File javaSourceFile) -> javaSourceFile.relativeTo(folderToBuild))),
+                                        candidateJavaSourceFileIds);
+                                    if (javaSourceFilesWithChangedDependencyAbis.any())
+                                    {
+                                        verbose.writeLine("Source files with dependency ABI changes:").await();
+                                        final List<File> abiInvalidatedJavaSourceFiles = List.create();
+                                        for (final SourceInvalidation invalidation : javaSourceFilesWithChangedDependencyAbis)
+                                        {
+                                            verbose.writeLine(Strings.join(" -> ", invalidation.getChain().map((Path chainPath) -> folderToBuild.getFile(chainPath).await().toString()))).await();
+                                            abiInvalidatedJavaSourceFiles.add(folderToBuild.getFile(invalidation.getSourceFilePath()).await());
+                                        }
+                                        javaSourceFilesToCompile.addAll(abiInvalidatedJavaSourceFiles);
+                                        nextWaveJavaSourceFiles = abiInvalidatedJavaSourceFiles;
+
+                                        waveJavac = QubBuildCompile.createJavacCompiler(parameters).await();
+                                        for (final String javacBaseArgument : javacBaseArguments)
+                                        {
+                                            waveJavac.addArguments(javacBaseArgument);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                        waveJavaSourceFiles = nextWaveJavaSourceFiles;
+                    }
+
+                    if (remoteBuildCache != null)
+                    {
+                        final int failedUploadCount = remoteBuildCache.waitForUploads().await();
+                        if (failedUploadCount > 0)
+                        {
+                            verbose.writeLine("Failed to upload " + failedUploadCount + " build cache entr" + (failedUploadCount == 1 ? "y" : "ies") + " to the remote build cache.").await();
+                        }
+                        remoteBuildCache.dispose().await();
+                    }
+                    if (buildCache != null)
+                    {
+                        buildCache.save().await();
+                    }
+
+                    final List<JavaCompilerIssue> nonModifiedNonCompiledJavaSourceFileWarnings = QubBuildCompile.getIssuesInSourceFilesNotCompiled(nonModifiedJavaSourceFileWarnings, javaSourceFilesToCompile);
                     if (nonModifiedNonCompiledJavaSourceFileWarnings.any())
                     {
                         nonModifiedNonCompiledJavaSourceFileWarnings.sort((JavaCompilerIssue lhs, JavaCompilerIssue rhs) -> lhs.sourceFilePath.compareTo(rhs.sourceFilePath) < 0);
@@ -489,17 +945,23 @@ public interface QubBuildCompile
                         for (final JavaCompilerIssue warning : nonModifiedNonCompiledJavaSourceFileWarnings)
                         {
                             output.writeLine(warning.sourceFilePath + " (Line " + warning.lineNumber + "): " + warning.message).await();
-                            final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(Path.parse(warning.sourceFilePath)).await();
-                            sourceFile.addIssue(warning);
                         }
+                        QubBuildCompile.addIssues(updatedBuildJson, nonModifiedNonCompiledJavaSourceFileWarnings).await();
+                    }
+
+                    final Iterable<JavaCompilerIssue> nonModifiedNonCompiledJavaSourceFileErrors = QubBuildCompile.getIssuesInSourceFilesNotCompiled(nonModifiedJavaSourceFileErrors, javaSourceFilesToCompile);
+                    if (QubBuildCompile.replayUnmodifiedErrors(output, nonModifiedNonCompiledJavaSourceFileErrors, updatedBuildJson).await() && exitCode == 0)
+                    {
+                        exitCode = 1;
                     }
 
-                    if (!Iterable.isNullOrEmpty(compilationResult.issues))
+                    if (!Iterable.isNullOrEmpty(compilationIssues))
                     {
-                        final Iterable<JavaCompilerIssue> sortedIssues = compilationResult.issues
-                            .order((JavaCompilerIssue lhs, JavaCompilerIssue rhs) -> lhs.sourceFilePath.compareTo(rhs.sourceFilePath) < 0);
+                        final Iterable<JavaCompilerIssue> sortedIssues = compilationIssues
+                            .order((JavaCompilerIssue lhs, JavaCompilerIssue rhs) -> lhs.sourceFilePath.compareTo(rhs.sourceFilePath) < 0)
+                            .toList();
 
-                        final Iterable<JavaCompilerIssue> warningIssues = sortedIssues.where((JavaCompilerIssue issue) -> issue.type == Issue.Type.Warning);
+                        final Iterable<JavaCompilerIssue> warningIssues = sortedIssues.where((JavaCompilerIssue issue) -> issue.type == Issue.Type.Warning).toList();
                         final int warningCount = warningIssues.getCount();
                         if (warningCount > 0 && warnings == Warnings.Show)
                         {
@@ -507,12 +969,11 @@ public interface QubBuildCompile
                             for (final JavaCompilerIssue warning : warningIssues)
                             {
                                 output.writeLine(warning.sourceFilePath + " (Line " + warning.lineNumber + "): " + warning.message).await();
-                                final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(Path.parse(warning.sourceFilePath)).await();
-                                sourceFile.addIssue(warning);
                             }
+                            QubBuildCompile.addIssues(updatedBuildJson, warningIssues).await();
                         }
 
-                        final Iterable<JavaCompilerIssue> errors = sortedIssues.where((JavaCompilerIssue issue) -> issue.type == Issue.Type.Error);
+                        final Iterable<JavaCompilerIssue> errors = sortedIssues.where((JavaCompilerIssue issue) -> issue.type == Issue.Type.Error).toList();
                         final int errorCount = errors.getCount();
                         if (errorCount > 0)
                         {
@@ -520,10 +981,8 @@ public interface QubBuildCompile
                             for (final JavaCompilerIssue error : errors)
                             {
                                 output.writeLine(error.sourceFilePath + " (Line " + error.lineNumber + "): " + error.message).await();
-                                final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(Path.parse(error.sourceFilePath)).await();
-
-                                sourceFile.addIssue(error);
                             }
+                            QubBuildCompile.addIssues(updatedBuildJson, errors).await();
                         }
                     }
                 }
@@ -536,6 +995,21 @@ public interface QubBuildCompile
                         writeStream.write(updatedBuildJson.toString(JSONFormat.pretty)).await();
                     }
                     verbose.writeLine("Done writing build.json file.").await();
+
+                    if (projectState != null)
+                    {
+                        projectState.setBuildJson(buildJsonFile.getLastModified().await(), updatedBuildJson);
+                    }
+                }
+
+                if (projectState != null)
+                {
+                    projectState.clearChangedJavaSourceFiles();
+                }
+
+                if (buildStampFile != null)
+                {
+                    QubBuildCompile.writeBuildStamp(parameters, buildStampFile, dependencyClassPaths, outputsFolder, noCompileOutput, exitCode).await();
                 }
             }
             catch (Throwable error)
@@ -549,11 +1023,1221 @@ public interface QubBuildCompile
                 output.writeLine("ERROR: " + message).await();
                 ++exitCode;
             }
-        }
-
+            finally
+            {
+                if (ownedJavacWorkerPool != null)
+                {
+                    parameters.setJavacWorkerPool(null);
+                    ownedJavacWorkerPool.dispose().await();
+                }
+            }
+        }
+
         return exitCode;
     }
 
+    /**
+     * Update the class file manifests, dependencies, and ABI digests of the provided compiled
+     * source files from the class files in the outputs folder. The outputs folder is scanned once.
+     * Each class file is assigned to the source file whose name matches its top-level class name,
+     * or otherwise to the source file that is named in its SourceFile attribute. The source files
+     * that the class files reference are added to the dependencies that were found in the source
+     * file, because a class file doesn't reference the classes whose constants it inlines. A
+     * compiled source file whose class files don't exist or can't be parsed keeps its existing
+     * dependencies and gets no ABI digest.
+     * @param buildJson The BuildJSON object that contains the source files to update.
+     * @param compiledSourceFiles The source files that were compiled.
+     * @param javaSourceFiles All of the source files in the project.
+     * @param previousAbiDigests The ABI digests (keyed by relative source file path) that the
+     *                           compiled source files had before they were compiled.
+     * @param previousClassFiles The class file manifests (keyed by relative source file path) that
+     *                           the compiled source files had before they were compiled. Class files
+     *                           in these manifests that weren't created again are deleted.
+     * @param rootFolder The root project folder that contains the source folder and the output folder.
+     * @param outputFolder The output folder where compiled class files were created in.
+     * @return The compiled source files that had a previous ABI digest that is different from their
+     * new ABI digest.
+     */
+    static Result<Iterable<File>> updateSourceFilesFromClassFiles(BuildJSON buildJson, Iterable<File> compiledSourceFiles, Iterable<File> javaSourceFiles, Map<String,String> previousAbiDigests, Map<String,Iterable<Path>> previousClassFiles, Folder rootFolder, Folder outputFolder)
+    {
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(compiledSourceFiles, "compiledSourceFiles");
+        PreCondition.assertNotNull(javaSourceFiles, "javaSourceFiles");
+        PreCondition.assertNotNull(previousAbiDigests, "previousAbiDigests");
+        PreCondition.assertNotNull(previousClassFiles, "previousClassFiles");
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        return Result.create2(() ->
+        {
+            final List<Path> sourceFilePaths = List.create();
+            final Map<String,Integer> classNameToSourceFileIndex = Map.create();
+            final Map<String,Integer> sourceFilePathToSourceFileIndex = Map.create();
+            for (final File javaSourceFile : javaSourceFiles)
+            {
+                final Path sourceFilePath = javaSourceFile.relativeTo(rootFolder);
+                classNameToSourceFileIndex.set(QubBuildCompile.getClassName(javaSourceFile, rootFolder, outputFolder), sourceFilePaths.getCount());
+                sourceFilePathToSourceFileIndex.set(sourceFilePath.toString(), sourceFilePaths.getCount());
+                sourceFilePaths.add(sourceFilePath);
+            }
+
+            final Map<String,Integer> compiledSourceFileIndexes = Map.create();
+            final Set<Integer> compiledSourceFileIndexSet = Set.create();
+            for (final File compiledSourceFile : compiledSourceFiles)
+            {
+                final Integer compiledSourceFileIndex = classNameToSourceFileIndex.get(QubBuildCompile.getClassName(compiledSourceFile, rootFolder, outputFolder))
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (compiledSourceFileIndex != null)
+                {
+                    compiledSourceFileIndexes.set(compiledSourceFile.relativeTo(rootFolder).toString(), compiledSourceFileIndex);
+                    compiledSourceFileIndexSet.add(compiledSourceFileIndex);
+                }
+            }
+
+            // Classes that were compiled from a source file with a different name can only be
+            // matched to their source file through the class file manifests.
+            final Map<String,Integer> otherClassNameToSourceFileIndex = Map.create();
+            for (int sourceFileIndex = 0; sourceFileIndex < sourceFilePaths.getCount(); ++sourceFileIndex)
+            {
+                final BuildJSONSourceFile sourceFile = buildJson.getSourceFile(sourceFilePaths.get(sourceFileIndex))
+                    .catchError(NotFoundException.class)
+                    .await();
+                final Iterable<Path> sourceFileClassFiles = sourceFile == null ? null : sourceFile.getClassFiles();
+                if (!Iterable.isNullOrEmpty(sourceFileClassFiles))
+                {
+                    for (final Path sourceFileClassFile : sourceFileClassFiles)
+                    {
+                        otherClassNameToSourceFileIndex.set(QubBuildCompile.getClassName(sourceFileClassFile), sourceFileIndex);
+                    }
+                }
+            }
+
+            final Map<Integer,List<File>> compiledClassFiles = Map.create();
+            for (final File classFile : QubBuild.getJavaClassFiles(outputFolder).await())
+            {
+                final String className = QubBuildCompile.getClassName(classFile.relativeTo(outputFolder));
+                Integer sourceFileIndex = classNameToSourceFileIndex.get(JavaClassFile.getTopLevelClassName(className))
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (sourceFileIndex == null)
+                {
+                    final JavaClassFile javaClassFile = JavaClassFile.parse(classFile)
+                        .catchError(ParseException.class)
+                        .await();
+                    if (javaClassFile != null && !Strings.isNullOrEmpty(javaClassFile.getSourceFileName()))
+                    {
+                        final int lastSlashIndex = className.lastIndexOf('/');
+                        final String packagePrefix = lastSlashIndex < 0 ? "" : className.substring(0, lastSlashIndex + 1);
+                        final String sourceFileName = javaClassFile.getSourceFileName();
+                        final int sourceFileExtensionIndex = sourceFileName.lastIndexOf('.');
+                        sourceFileIndex = classNameToSourceFileIndex.get(packagePrefix + (sourceFileExtensionIndex < 0 ? sourceFileName : sourceFileName.substring(0, sourceFileExtensionIndex)))
+                            .catchError(NotFoundException.class)
+                            .await();
+                    }
+                }
+
+                if (sourceFileIndex != null && compiledSourceFileIndexSet.contains(sourceFileIndex))
+                {
+                    List<File> sourceFileClassFiles = compiledClassFiles.get(sourceFileIndex)
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (sourceFileClassFiles == null)
+                    {
+                        sourceFileClassFiles = List.create();
+                        compiledClassFiles.set(sourceFileIndex, sourceFileClassFiles);
+                    }
+                    sourceFileClassFiles.add(classFile);
+                    otherClassNameToSourceFileIndex.set(JavaClassFile.getTopLevelClassName(className), sourceFileIndex);
+                }
+            }
+
+            final List<File> result = List.create();
+            for (final File compiledSourceFile : compiledSourceFiles)
+            {
+                final Path compiledSourceFilePath = compiledSourceFile.relativeTo(rootFolder);
+                final BuildJSONSourceFile buildJsonSourceFile = buildJson.getSourceFile(compiledSourceFilePath)
+                    .catchError(NotFoundException.class)
+                    .await();
+                final Integer compiledSourceFileIndex = compiledSourceFileIndexes.get(compiledSourceFilePath.toString())
+                    .catchError(NotFoundException.class)
+                    .await();
+                final List<File> classFiles = compiledSourceFileIndex == null
+                    ? null
+                    : compiledClassFiles.get(compiledSourceFileIndex)
+                        .catchError(NotFoundException.class)
+                        .await();
+
+                final Iterable<Path> previousSourceClassFiles = previousClassFiles.get(compiledSourceFilePath.toString())
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (!Iterable.isNullOrEmpty(previousSourceClassFiles))
+                {
+                    final Set<String> classFilePaths = Set.create();
+                    if (classFiles != null)
+                    {
+                        for (final File classFile : classFiles)
+                        {
+                            classFilePaths.add(classFile.relativeTo(outputFolder).toString());
+                        }
+                    }
+                    QubBuildCompile.deleteClassFiles(previousSourceClassFiles.where((Path previousSourceClassFile) -> !classFilePaths.contains(previousSourceClassFile.toString())), outputFolder).await();
+                }
+
+                String abiDigest = null;
+                if (buildJsonSourceFile != null && !Iterable.isNullOrEmpty(classFiles))
+                {
+                    final Path conventionalClassFilePath = QubBuildCompile.getClassFile(compiledSourceFile, rootFolder, outputFolder).relativeTo(outputFolder);
+                    final boolean isConventional = classFiles.getCount() == 1 && classFiles.first().relativeTo(outputFolder).equals(conventionalClassFilePath);
+                    if (!isConventional || buildJsonSourceFile.getClassFiles() != null)
+                    {
+                        buildJsonSourceFile.setClassFiles(classFiles.map((File classFile) -> classFile.relativeTo(outputFolder)));
+                    }
+
+                    // javac inlines the values of compile-time constants, so a class file doesn't
+                    // reference the class that a constant came from. The dependencies that were
+                    // found in the source file are kept so that those classes are still
+                    // dependencies.
+                    final Set<Integer> dependencyIndexes = Set.create();
+                    final Iterable<Path> sourceDependencies = buildJsonSourceFile.getDependencies();
+                    if (!Iterable.isNullOrEmpty(sourceDependencies))
+                    {
+                        for (final Path sourceDependency : sourceDependencies)
+                        {
+                            final Integer dependencyIndex = sourceFilePathToSourceFileIndex.get(sourceDependency.toString())
+                                .catchError(NotFoundException.class)
+                                .await();
+                            if (dependencyIndex != null)
+                            {
+                                dependencyIndexes.add(dependencyIndex);
+                            }
+                        }
+                    }
+                    final List<String> classAbiDigests = List.create();
+                    boolean parsedAllClassFiles = true;
+                    for (final File classFile : classFiles)
+                    {
+                        final JavaClassFile javaClassFile = JavaClassFile.parse(classFile)
+                            .catchError(ParseException.class)
+                            .await();
+                        if (javaClassFile == null)
+                        {
+                            parsedAllClassFiles = false;
+                            break;
+                        }
+
+                        if (!JavaClassFile.isAnonymousOrLocalClassName(javaClassFile.getClassName()))
+                        {
+                            classAbiDigests.add(javaClassFile.getClassName() + ":" + javaClassFile.getAbiDigest());
+                        }
+
+                        for (final String referencedClassName : javaClassFile.getReferencedClassNames())
+                        {
+                            final String referencedTopLevelClassName = JavaClassFile.getTopLevelClassName(referencedClassName);
+                            Integer dependencyIndex = classNameToSourceFileIndex.get(referencedTopLevelClassName)
+                                .catchError(NotFoundException.class)
+                                .await();
+                            if (dependencyIndex == null)
+                            {
+                                dependencyIndex = otherClassNameToSourceFileIndex.get(referencedTopLevelClassName)
+                                    .catchError(NotFoundException.class)
+                                    .await();
+                            }
+                            if (dependencyIndex != null)
+                            {
+                                dependencyIndexes.add(dependencyIndex);
+                            }
+                        }
+                    }
+
+                    if (parsedAllClassFiles)
+                    {
+                        // The dependencies are sorted by source file index so that they are
+                        // written in the same order as the project's source files.
+                        final List<Integer> sortedDependencyIndexes = dependencyIndexes.toList();
+                        sortedDependencyIndexes.sort((Integer lhs, Integer rhs) -> lhs < rhs);
+                        final List<Path> dependencies = List.create();
+                        for (final Integer dependencyIndex : sortedDependencyIndexes)
+                        {
+                            final Path dependencyPath = sourceFilePaths.get(dependencyIndex);
+                            if (!dependencyPath.equals(compiledSourceFilePath))
+                            {
+                                dependencies.add(dependencyPath);
+                            }
+                        }
+                        buildJsonSourceFile.setDependencies(dependencies);
+
+                        classAbiDigests.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+                        abiDigest = ContentHash.create(Strings.join('\n', classAbiDigests));
+                        buildJsonSourceFile.setAbiDigest(abiDigest);
+                    }
+                }
+
+                final String previousAbiDigest = previousAbiDigests.get(compiledSourceFilePath.toString())
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (previousAbiDigest != null && !previousAbiDigest.equals(abiDigest))
+                {
+                    result.add(compiledSourceFile);
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Compile the project, and then compile it again each time its source files change. The
+     * rebuilds use the changes that the SourceFolderWatcher reports instead of finding the
+     * project's source files and checking their last modified times again. This only returns if
+     * the source folders can't be watched anymore.
+     * @param parameters The parameters of the compile action.
+     * @return The exit code of the most recent build.
+     */
+    static int watch(QubBuildCompileParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertTrue(parameters.getWatch(), "parameters.getWatch()");
+
+        final CharacterToByteWriteStream output = parameters.getOutputWriteStream();
+        final Folder folderToBuild = parameters.getFolderToBuild();
+        final File projectJsonFile = folderToBuild.getFile("project.json").await();
+
+        QubBuildProjectState projectState = parameters.getProjectState();
+        if (projectState == null)
+        {
+            projectState = QubBuildProjectState.create();
+        }
+        projectState.setWatched(true);
+        parameters
+            .setWatch(false)
+            .setUseDaemon(false)
+            .setProjectState(projectState);
+
+        int exitCode = 0;
+        SourceFolderWatcher watcher = null;
+        try
+        {
+            ProjectJSONJava projectJsonJava = null;
+            boolean rebuild = true;
+            boolean watching = true;
+            while (watching)
+            {
+                if (rebuild)
+                {
+                    // The watcher is started before the build so that files that are saved while
+                    // the build is running are reported to the next build.
+                    if (watcher == null)
+                    {
+                        final ProjectJSON watchedProjectJson = ProjectJSON.parse(projectJsonFile)
+                            .catchError()
+                            .await();
+                        final ProjectJSONJava watchedProjectJsonJava = watchedProjectJson == null ? null : watchedProjectJson.getJava();
+                        final List<Folder> excludedFolders = List.create();
+                        if (watchedProjectJsonJava != null)
+                        {
+                            excludedFolders.add(QubBuild.getJavaOutputsFolder(folderToBuild, watchedProjectJsonJava).await());
+                        }
+                        watcher = SourceFolderWatcher.create(folderToBuild, excludedFolders).await();
+                    }
+
+                    exitCode = QubBuildCompile.run(parameters);
+                    rebuild = false;
+
+                    final ProjectJSON projectJson = projectState.getProjectJson(projectJsonFile.getLastModified()
+                        .catchError(FileNotFoundException.class)
+                        .await());
+                    projectJsonJava = projectJson == null ? null : projectJson.getJava();
+
+                    output.writeLine("Watching " + folderToBuild + " for changes...").await();
+                }
+
+                final SourceFolderChanges changes = watcher.waitForChanges(QubBuildCompile.watchDebounceMilliseconds)
+                    .catchError()
+                    .await();
+                if (changes == null)
+                {
+                    watching = false;
+                }
+                else if (projectJsonJava == null ||
+                    changes.isOverflowed() ||
+                    changes.getChangedPaths().contains(projectJsonFile.getPath()) ||
+                    changes.getDeletedPaths().contains(projectJsonFile.getPath()))
+                {
+                    // The source files have to be found again, and the outputs folder that isn't
+                    // watched may have moved.
+                    projectState.clearJavaSourceFiles();
+                    watcher.dispose().await();
+                    watcher = null;
+                    rebuild = true;
+                }
+                else
+                {
+                    rebuild = QubBuildCompile.applySourceFolderChanges(projectState, folderToBuild, projectJsonJava, changes);
+                }
+            }
+        }
+        catch (Throwable error)
+        {
+            output.writeLine("ERROR: " + Exceptions.unwrap(error).getMessage()).await();
+            ++exitCode;
+        }
+        finally
+        {
+            if (watcher != null)
+            {
+                watcher.dispose().await();
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Update the remembered source files in the provided project state with the provided changes.
+     * @param projectState The project state that remembers the project's source files.
+     * @param folderToBuild The root folder of the project.
+     * @param projectJsonJava The ProjectJSON Java configuration object of the project.
+     * @param changes The changes that were reported by the SourceFolderWatcher.
+     * @return Whether or not any of the project's source files were created, modified, or deleted.
+     */
+    static boolean applySourceFolderChanges(QubBuildProjectState projectState, Folder folderToBuild, ProjectJSONJava projectJsonJava, SourceFolderChanges changes)
+    {
+        PreCondition.assertNotNull(projectState, "projectState");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+        PreCondition.assertNotNull(projectJsonJava, "projectJsonJava");
+        PreCondition.assertNotNull(changes, "changes");
+
+        final FileSystem fileSystem = folderToBuild.getFileSystem();
+        final Function1<File,Boolean> javaSourceFileMatcher = QubBuild.getJavaSourceFileMatcher(folderToBuild, projectJsonJava);
+
+        boolean result = false;
+        for (final Path deletedPath : changes.getDeletedPaths())
+        {
+            if (projectState.removeJavaSourceFiles(deletedPath))
+            {
+                result = true;
+            }
+        }
+        for (final Path changedPath : changes.getChangedPaths())
+        {
+            final File changedFile = fileSystem.getFile(changedPath).await();
+            if (projectState.setJavaSourceFileChanged(changedFile) ||
+                (javaSourceFileMatcher.run(changedFile) && projectState.addJavaSourceFile(changedFile)))
+            {
+                result = true;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the paths to the compiled sources files of the provided project's transitive
+     * dependencies.
+     * @param projectJsonJava The ProjectJSON Java configuration object.
+     * @param qubFolder The Qub folder that the dependencies are installed in.
+     * @return The paths to the dependencies' compiled sources files.
+     */
+    static Result<List<String>> getDependencyClassPaths(ProjectJSONJava projectJsonJava, QubFolder qubFolder)
+    {
+        PreCondition.assertNotNull(projectJsonJava, "projectJsonJava");
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
+        return Result.create2(() ->
+        {
+            final List<String> result = List.create();
+            Iterable<ProjectSignature> dependencies = projectJsonJava.getDependencies();
+            if (!Iterable.isNullOrEmpty(dependencies))
+            {
+                final Map<ProjectSignature, Iterable<ProjectSignature>> dependencyMap = projectJsonJava.getTransitiveDependencyPaths(qubFolder);
+                dependencies = dependencyMap.getKeys();
+
+                final Set<ProjectSignature> errorDependencies = Set.create();
+                for (final ProjectSignature dependency : dependencies)
+                {
+                    if (!errorDependencies.contains(dependency))
+                    {
+                        final Iterable<ProjectSignature> matchingDependencies = dependencies.where(dependency::equalsIgnoreVersion).toList();
+                        if (matchingDependencies.getCount() > 1)
+                        {
+                            errorDependencies.addAll(matchingDependencies);
+                            final InMemoryCharacterToByteStream errorMessage = InMemoryCharacterToByteStream.create();
+                            final IndentedCharacterWriteStream indentedErrorMessage = IndentedCharacterWriteStream.create(errorMessage)
+                                .setSingleIndent(" ");
+                            indentedErrorMessage.writeLine("Found more than one required version for package " + dependency.toStringIgnoreVersion() + ":").await();
+                            int number = 0;
+                            for (final ProjectSignature matchingProjectSignature : matchingDependencies)
+                            {
+                                ++number;
+                                final String numberString = number + ". ";
+                                indentedErrorMessage.setCurrentIndent("");
+                                errorMessage.writeLine(numberString + matchingProjectSignature).await();
+                                indentedErrorMessage.setCurrentIndent(Strings.repeat(' ', numberString.length()));
+                                final Iterable<ProjectSignature> path = dependencyMap.get(matchingProjectSignature).await();
+                                for (final ProjectSignature pathProjectSignature : path)
+                                {
+                                    indentedErrorMessage.increaseIndent();
+                                    indentedErrorMessage.writeLine("from " + pathProjectSignature).await();
+                                }
+                            }
+                            throw new RuntimeException(errorMessage.getText().await());
+                        }
+                    }
+                }
+
+                for (final ProjectSignature dependency : dependencies)
+                {
+                    final QubPublisherFolder publisherFolder = qubFolder.getPublisherFolder(dependency.getPublisher()).await();
+                    if (!publisherFolder.exists().await())
+                    {
+                        throw new NotFoundException("No publisher folder named " + Strings.escapeAndQuote(dependency.getPublisher()) + " found in the Qub folder (" + qubFolder + ").");
+                    }
+                    else
+                    {
+                        final QubProjectFolder projectFolder = publisherFolder.getProjectFolder(dependency.getProject()).await();
+                        if (!projectFolder.exists().await())
+                        {
+                            throw new NotFoundException("No project folder named " + Strings.escapeAndQuote(dependency.getProject()) + " found in the " + Strings.escapeAndQuote(dependency.getPublisher()) + " publisher folder (" + publisherFolder + ").");
+                        }
+                        else
+                        {
+                            QubProjectVersionFolder versionFolder = projectFolder.getProjectVersionFolder(dependency.getVersion()).await();
+                            if (!versionFolder.exists().await())
+                            {
+                                throw new NotFoundException("No version folder named " + Strings.escapeAndQuote(dependency.getVersion()) + " found in the " + Strings.escapeAndQuote(dependency.getProject()) + " project folder (" + projectFolder + ").");
+                            }
+                            else
+                            {
+                                final File dependencyFile = versionFolder.getCompiledSourcesFile().await();
+                                if (!dependencyFile.exists().await())
+                                {
+                                    throw new NotFoundException("No dependency file named " + Strings.escapeAndQuote(dependencyFile.getName()) + " found in the " + Strings.escapeAndQuote(dependency.getVersion()) + " version folder (" + versionFolder + ").");
+                                }
+                                else
+                                {
+                                    result.add(dependencyFile.toString());
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Compile the batches of the provided plan with several javac workers. The stages of the plan
+     * are compiled in order, and the batches of a stage are compiled at the same time by their own
+     * compilers. The stages after a stage that failed aren't compiled. Every worker compiles against the outputs folder, so the class files that were
+     * created by earlier stages are on each worker's classpath. Each worker's verbose logs are
+     * buffered and then written in batch order after its stage has finished. The workers' issues
+     * are passed to the provided issue action while javac is still running instead of being
+     * buffered with javac's output.
+     * @param parameters The parameters of the compile action.
+     * @param javacBaseArguments The arguments that each worker's compiler is created with.
+     * @param compilationPlan The plan that contains the batches of source files to compile.
+     * @param verbose The stream that verbose logs should be written to.
+     * @param issueAction The action that is run for each issue that a worker reports. It is only
+     *                    run by one worker at a time.
+     * @return A single result whose exit code is the first non-zero exit code that a worker
+     * returned. Its issues are empty because they were passed to the issue action.
+     */
+    static Result<JavaCompilationResult> compileInParallel(QubBuildCompileParameters parameters, Iterable<String> javacBaseArguments, CompilationPlan compilationPlan, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> issueAction)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(javacBaseArguments, "javacBaseArguments");
+        PreCondition.assertNotNull(compilationPlan, "compilationPlan");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(issueAction, "issueAction");
+
+        return Result.create2(() ->
+        {
+            final Warnings warnings = parameters.getWarnings();
+            final int workerCount = Math.max(1, compilationPlan.getMaximumStageBatchCount());
+            verbose.writeLine("Compiling " + compilationPlan.getBatchCount() + " batches in " + compilationPlan.getStages().getCount() + " stages with up to " + workerCount + " javac workers...").await();
+
+            int exitCode = 0;
+            final Object issueLock = new Object();
+            final Action1<JavaCompilerIssue> batchIssueAction = (JavaCompilerIssue issue) ->
+            {
+                synchronized (issueLock)
+                {
+                    issueAction.run(issue);
+                }
+            };
+            final AsyncRunner workers = ParallelAsyncRunner.create();
+            final Iterable<Iterable<Iterable<Path>>> stages = compilationPlan.getStages();
+            int compiledStageCount = 0;
+            for (final Iterable<Iterable<Path>> stage : stages)
+            {
+                // Later stages depend on the class files of this stage, so they aren't scheduled
+                // once a stage has failed.
+                if (exitCode != 0)
+                {
+                    final int skippedStageCount = stages.getCount() - compiledStageCount;
+                    verbose.writeLine("Skipping " + skippedStageCount + " stage" + (skippedStageCount == 1 ? "" : "s") + " because a previous stage failed.").await();
+                    break;
+                }
+
+                final List<Result<JavaCompilationResult>> batchResults = List.create();
+                final List<InMemoryCharacterToByteStream> batchVerboseStreams = List.create();
+                for (final Iterable<Path> batch : stage)
+                {
+                    final InMemoryCharacterToByteStream batchVerbose = InMemoryCharacterToByteStream.create();
+                    batchVerboseStreams.add(batchVerbose);
+                    batchResults.add(workers.schedule(() ->
+                    {
+                        final JavacCompiler<?> batchJavac = QubBuildCompile.createJavacCompiler(parameters).await();
+                        for (final String javacBaseArgument : javacBaseArguments)
+                        {
+                            batchJavac.addArguments(javacBaseArgument);
+                        }
+                        batchJavac.addSourceFilePaths(batch);
+                        return batchJavac.compile(warnings, batchVerbose, batchIssueAction, false).await();
+                    }));
+                }
+
+                for (int i = 0; i < batchResults.getCount(); ++i)
+                {
+                    final JavaCompilationResult batchResult = batchResults.get(i).await();
+                    verbose.write(batchVerboseStreams.get(i).getText().await()).await();
+                    if (exitCode == 0)
+                    {
+                        exitCode = batchResult.exitCode;
+                    }
+                }
+                ++compiledStageCount;
+            }
+
+            return new JavaCompilationResult(exitCode, null, null, Iterable.create());
+        });
+    }
+
+    /**
+     * Create the JavacCompiler that the provided parameters ask for. The returned compiler has no
+     * arguments.
+     * @param parameters The parameters of the compile action.
+     * @return The JavacCompiler.
+     */
+    static Result<JavacCompiler<?>> createJavacCompiler(QubBuildCompileParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return Result.create2(() ->
+        {
+            JavacCompiler<?> result;
+            if (parameters.getCompiler() == JavaCompilerMode.InProcess)
+            {
+                result = JavacInProcessCompiler.create(parameters.getFolderToBuild()).await();
+            }
+            else
+            {
+                // The javac arguments contain paths that are relative to the folder to build, which
+                // isn't always the folder that the ProcessFactory starts processes in (such as when
+                // a daemon builds for a client).
+                final JavacProcessBuilder javacProcessBuilder = JavacProcessBuilder.get(parameters.getProcessFactory()).await();
+                javacProcessBuilder.setWorkingFolder(parameters.getFolderToBuild());
+                if (parameters.getCompiler() == JavaCompilerMode.Worker)
+                {
+                    javacProcessBuilder.setWorkerPool(parameters.getJavacWorkerPool());
+                }
+                result = javacProcessBuilder;
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the version of the javac that the provided parameters will compile with. When javac is
+     * run as a separate process and its executable can be found on the PATH, the version is read
+     * from the toolchain cache in the qub-build data folder. The version is only queried from javac
+     * when the javac executable's path, size, or last modified time doesn't match the cache.
+     * @param parameters The parameters of the compile action.
+     * @param verbose The stream that verbose logs should be written to.
+     * @return The version of javac.
+     */
+    static Result<VersionNumber> getJavacVersion(QubBuildCompileParameters parameters, CharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        return Result.create2(() ->
+        {
+            VersionNumber result = null;
+
+            final File javacFile = parameters.getCompiler() == JavaCompilerMode.InProcess
+                ? null
+                : QubBuildCompile.findJavacExecutable(parameters.getEnvironmentVariables(), parameters.getFolderToBuild().getFileSystem()).await();
+            if (javacFile == null)
+            {
+                result = QubBuildCompile.createJavacCompiler(parameters).await().getVersion(verbose).await();
+            }
+            else
+            {
+                final File toolchainCacheFile = parameters.getQubBuildDataFolder().getFile(QubBuildCompile.toolchainCacheFileName).await();
+                ToolchainCache toolchainCache = ToolchainCache.parse(toolchainCacheFile)
+                    .catchError()
+                    .await();
+                if (toolchainCache == null)
+                {
+                    toolchainCache = ToolchainCache.create();
+                }
+
+                final SourceFileAttributes javacAttributes = SourceFileAttributes.create();
+                final File resolvedJavacFile = QubBuildCompile.readJavacAttributes(javacFile, javacAttributes).await();
+                final long javacSize = javacAttributes.getSize(resolvedJavacFile);
+                final DateTime javacLastModified = javacAttributes.getLastModified(resolvedJavacFile).await();
+                result = toolchainCache.getJavacVersion(resolvedJavacFile.getPath(), javacSize, javacLastModified);
+                if (result != null)
+                {
+                    verbose.writeLine("Using cached javac version " + result + " for " + javacFile + ".").await();
+                }
+                else
+                {
+                    result = QubBuildCompile.createJavacCompiler(parameters).await().getVersion(verbose).await();
+                    toolchainCache.setJavacVersion(resolvedJavacFile.getPath(), javacSize, javacLastModified, result);
+
+                    // Failing to update the cache only means that the version will be queried again
+                    // during the next build.
+                    final ToolchainCache updatedToolchainCache = toolchainCache;
+                    Result.create2(() ->
+                    {
+                        try (final CharacterWriteStream writeStream = CharacterWriteStream.create(ByteWriteStream.buffer(toolchainCacheFile.getContentsByteWriteStream().await())))
+                        {
+                            writeStream.write(updatedToolchainCache.toString(JSONFormat.pretty)).await();
+                        }
+                    })
+                        .catchError()
+                        .await();
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Read the size and last modified time of the provided javac executable into the provided
+     * attributes. When the javac executable is on the real file system, symbolic links (such as
+     * the ones that alternatives and version managers create) are resolved first so that the
+     * toolchain cache is keyed on the file that actually runs, and both values are read from a
+     * single attributes query instead of reading the executable's contents.
+     * @param javacFile The javac executable.
+     * @param javacAttributes The attributes object to add the javac executable's attributes to.
+     * @return The javac executable with its symbolic links resolved.
+     */
+    static Result<File> readJavacAttributes(File javacFile, SourceFileAttributes javacAttributes)
+    {
+        PreCondition.assertNotNull(javacFile, "javacFile");
+        PreCondition.assertNotNull(javacAttributes, "javacAttributes");
+
+        return Result.create2(() ->
+        {
+            File result;
+
+            final FileSystem fileSystem = javacFile.getFileSystem();
+            if (fileSystem instanceof JavaFileSystem)
+            {
+                try
+                {
+                    final java.nio.file.Path realPath = java.nio.file.Paths.get(javacFile.toString()).toRealPath();
+                    final java.nio.file.attribute.BasicFileAttributes attributes = java.nio.file.Files.readAttributes(realPath, java.nio.file.attribute.BasicFileAttributes.class);
+                    result = fileSystem.getFile(realPath.toString()).await();
+                    javacAttributes.set(result.getPath(), attributes.size(), SourceFileAttributes.toDateTime(attributes.lastModifiedTime()));
+                }
+                catch (java.nio.file.NoSuchFileException e)
+                {
+                    throw new NotFoundException("The javac executable " + javacFile + " doesn't exist.");
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+            else
+            {
+                result = javacFile;
+                javacAttributes.set(result.getPath(), result.getContents().await().length, result.getLastModified().await());
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Find the javac executable that a javac process would be started from by searching the
+     * folders in the PATH environment variable.
+     * @param environmentVariables The environment variables that contain the PATH.
+     * @param fileSystem The file system to search.
+     * @return The javac executable file, or null if it couldn't be found.
+     */
+    static Result<File> findJavacExecutable(EnvironmentVariables environmentVariables, FileSystem fileSystem)
+    {
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+
+        return Result.create2(() ->
+        {
+            File result = null;
+
+            final String pathValue = environmentVariables.get("PATH")
+                .catchError(NotFoundException.class)
+                .await();
+            if (!Strings.isNullOrEmpty(pathValue))
+            {
+                for (final String folderPathString : pathValue.split(java.util.regex.Pattern.quote(java.io.File.pathSeparator)))
+                {
+                    if (!Strings.isNullOrEmpty(folderPathString) && Path.parse(folderPathString).isRooted())
+                    {
+                        final Folder folder = fileSystem.getFolder(folderPathString)
+                            .catchError()
+                            .await();
+                        if (folder != null)
+                        {
+                            for (final String javacFileName : Iterable.create(JavacProcessBuilder.executablePathString, JavacProcessBuilder.executablePathString + ".exe"))
+                            {
+                                final File javacFile = folder.getFile(javacFileName).await();
+                                if (javacFile.exists().await())
+                                {
+                                    result = javacFile;
+                                    break;
+                                }
+                            }
+                        }
+                    }
+
+                    if (result != null)
+                    {
+                        break;
+                    }
+                }
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the path to the java executable that javac workers should be started with. Workers are
+     * run by the java executable next to the javac executable that a javac process would be
+     * started from, so that the worker compiles with the same JDK. If that java executable can't be
+     * found, then the java executable on the PATH is used.
+     * @param environmentVariables The environment variables that contain the PATH.
+     * @param fileSystem The file system to search.
+     * @return The path to the java executable that javac workers should be started with.
+     */
+    static Result<String> getJavacWorkerJavaExecutablePath(EnvironmentVariables environmentVariables, FileSystem fileSystem)
+    {
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+
+        return Result.create2(() ->
+        {
+            String result = JavacWorkerProcess.executablePathString;
+
+            final File javacFile = QubBuildCompile.findJavacExecutable(environmentVariables, fileSystem).await();
+            final File resolvedJavacFile = javacFile == null
+                ? null
+                : QubBuildCompile.readJavacAttributes(javacFile, SourceFileAttributes.create())
+                    .catchError(NotFoundException.class)
+                    .await();
+            if (resolvedJavacFile != null)
+            {
+                final String javaFileName = JavacWorkerProcess.executablePathString + resolvedJavacFile.getName().substring(JavacProcessBuilder.executablePathString.length());
+                final File javaFile = resolvedJavacFile.getParentFolder().await().getFile(javaFileName).await();
+                if (javaFile.exists().await())
+                {
+                    result = javaFile.toString();
+                }
+            }
+
+            PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Write the provided errors from source files that weren't compiled again, and add them back
+     * to the provided build.json so that they are replayed again by the next build.
+     * @param output The stream that the errors will be written to.
+     * @param errors The errors from the previous build of source files that weren't compiled.
+     * @param buildJson The build.json that the errors will be added to.
+     * @return Whether or not any errors were replayed.
+     */
+    static Result<Boolean> replayUnmodifiedErrors(CharacterWriteStream output, Iterable<JavaCompilerIssue> errors, BuildJSON buildJson)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(errors, "errors");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+
+        return Result.create2(() ->
+        {
+            final boolean result = errors.any();
+            if (result)
+            {
+                final Iterable<JavaCompilerIssue> sortedErrors = errors
+                    .order((JavaCompilerIssue lhs, JavaCompilerIssue rhs) -> lhs.sourceFilePath.compareTo(rhs.sourceFilePath) < 0)
+                    .toList();
+
+                final int unmodifiedErrorCount = errors.getCount();
+                output.writeLine(unmodifiedErrorCount + " Unmodified Error" + (unmodifiedErrorCount == 1 ? "" : "s") + ":").await();
+                for (final JavaCompilerIssue error : sortedErrors)
+                {
+                    output.writeLine(error.sourceFilePath + " (Line " + error.lineNumber + "): " + error.message).await();
+                }
+                QubBuildCompile.addIssues(buildJson, sortedErrors).await();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Add the provided issues to their source files in the provided build.json. The issues are
+     * grouped by source file first so that each source file's record is only rebuilt once.
+     * @param buildJson The build.json that contains the issues' source files.
+     * @param issues The issues to add.
+     * @return The result of adding the issues.
+     */
+    static Result<Void> addIssues(BuildJSON buildJson, Iterable<JavaCompilerIssue> issues)
+    {
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(issues, "issues");
+
+        return Result.create2(() ->
+        {
+            final Map<String,List<JavaCompilerIssue>> issuesBySourceFile = QubBuildCompile.getIssuesBySourceFile(issues);
+            for (final String sourceFilePath : issuesBySourceFile.getKeys())
+            {
+                buildJson.getSourceFile(Path.parse(sourceFilePath)).await()
+                    .addIssues(issuesBySourceFile.get(sourceFilePath).await());
+            }
+        });
+    }
+
+    /**
+     * Get the source files from the previous build that don't exist anymore. This is one of the
+     * incremental planning steps of run(), and it only does set lookups so that it scales linearly
+     * with the number of source files.
+     * @param previousSourceFilePaths The relative paths of the source files from the previous
+     *                                build.
+     * @param javaSourceFiles The source files that exist now.
+     * @param folderToBuild The folder that the relative paths are relative to.
+     * @return The source files from the previous build that don't exist anymore.
+     */
+    static SourceFileSet getDeletedJavaSourceFiles(Iterable<Path> previousSourceFilePaths, Iterable<File> javaSourceFiles, Folder folderToBuild)
+    {
+        PreCondition.assertNotNull(previousSourceFilePaths, "previousSourceFilePaths");
+        PreCondition.assertNotNull(javaSourceFiles, "javaSourceFiles");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+
+        final SourceFileSet javaSourceFileSet = SourceFileSet.create(folderToBuild, javaSourceFiles);
+        final SourceFileSet result = SourceFileSet.create(folderToBuild);
+        for (final Path previousSourceFilePath : previousSourceFilePaths)
+        {
+            if (!javaSourceFileSet.contains(previousSourceFilePath))
+            {
+                result.add(folderToBuild.getFile(previousSourceFilePath).await());
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the provided unmodified source files that depend on a deleted source file. This is one of
+     * the incremental planning steps of run().
+     * @param nonModifiedJavaSourceFiles The source files that haven't been modified.
+     * @param deletedJavaSourceFiles The source files that have been deleted.
+     * @param buildJson The build.json that contains the dependencies of the unmodified source
+     *                  files.
+     * @param folderToBuild The folder that the relative paths are relative to.
+     * @return The unmodified source files that depend on a deleted source file.
+     */
+    static List<File> getJavaSourceFilesWithDeletedDependencies(Iterable<File> nonModifiedJavaSourceFiles, SourceFileSet deletedJavaSourceFiles, BuildJSON buildJson, Folder folderToBuild)
+    {
+        PreCondition.assertNotNull(nonModifiedJavaSourceFiles, "nonModifiedJavaSourceFiles");
+        PreCondition.assertNotNull(deletedJavaSourceFiles, "deletedJavaSourceFiles");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+
+        final List<File> result = List.create();
+        if (deletedJavaSourceFiles.any())
+        {
+            for (final File nonModifiedJavaSourceFile : nonModifiedJavaSourceFiles)
+            {
+                final BuildJSONSourceFile sourceFile = buildJson.getSourceFile(nonModifiedJavaSourceFile.relativeTo(folderToBuild)).await();
+                final Iterable<Path> sourceFileDependencies = sourceFile.getDependencies();
+                if (!Iterable.isNullOrEmpty(sourceFileDependencies))
+                {
+                    for (final Path sourceFileDependency : sourceFileDependencies)
+                    {
+                        if (deletedJavaSourceFiles.contains(sourceFileDependency))
+                        {
+                            result.add(nonModifiedJavaSourceFile);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the provided issues that are in source files that aren't going to be compiled.
+     * @param issues The issues to filter.
+     * @param javaSourceFilesToCompile The source files that are going to be compiled.
+     * @return The issues that are in source files that aren't going to be compiled.
+     */
+    static List<JavaCompilerIssue> getIssuesInSourceFilesNotCompiled(Iterable<JavaCompilerIssue> issues, SourceFileSet javaSourceFilesToCompile)
+    {
+        PreCondition.assertNotNull(issues, "issues");
+        PreCondition.assertNotNull(javaSourceFilesToCompile, "javaSourceFilesToCompile");
+
+        return issues
+            .where((JavaCompilerIssue issue) -> !javaSourceFilesToCompile.contains(issue.sourceFilePath))
+            .toList();
+    }
+
+    /**
+     * Get whether or not the provided last modified time or size of a source file is different
+     * from the ones that were recorded when the source file was last built.
+     * @param buildJsonSource The source file from the previous build.
+     * @param lastModified The current last modified time of the source file.
+     * @param size The current size of the source file in bytes, or null if it isn't known.
+     * @return Whether or not the source file's last modified time or size changed.
+     */
+    static boolean hasStatChanged(BuildJSONSourceFile buildJsonSource, DateTime lastModified, Long size)
+    {
+        PreCondition.assertNotNull(buildJsonSource, "buildJsonSource");
+        PreCondition.assertNotNull(lastModified, "lastModified");
+
+        return !lastModified.equals(buildJsonSource.getLastModified()) ||
+            QubBuildCompile.hasSizeChanged(buildJsonSource, size);
+    }
+
+    /**
+     * Get whether or not the provided size of a source file is different from the size that was
+     * recorded when the source file was last built. A size that isn't known on either side isn't
+     * a change.
+     * @param buildJsonSource The source file from the previous build.
+     * @param size The current size of the source file in bytes, or null if it isn't known.
+     * @return Whether or not the source file's size changed.
+     */
+    static boolean hasSizeChanged(BuildJSONSourceFile buildJsonSource, Long size)
+    {
+        PreCondition.assertNotNull(buildJsonSource, "buildJsonSource");
+
+        final Long recordedSize = buildJsonSource.getSize();
+        return size != null && recordedSize != null && !size.equals(recordedSize);
+    }
+
+    /**
+     * Group the provided issues by the normalized relative paths of their source files.
+     * @param issues The issues to group.
+     * @return The issues keyed by the normalized relative paths of their source files.
+     */
+    static Map<String,List<JavaCompilerIssue>> getIssuesBySourceFile(Iterable<JavaCompilerIssue> issues)
+    {
+        PreCondition.assertNotNull(issues, "issues");
+
+        final Map<String,List<JavaCompilerIssue>> result = Map.create();
+        for (final JavaCompilerIssue issue : issues)
+        {
+            final String sourceFilePath = SourceFileSet.normalize(issue.sourceFilePath);
+            List<JavaCompilerIssue> sourceFileIssues = result.get(sourceFilePath)
+                .catchError(NotFoundException.class)
+                .await();
+            if (sourceFileIssues == null)
+            {
+                sourceFileIssues = List.create();
+                result.set(sourceFilePath, sourceFileIssues);
+            }
+            sourceFileIssues.add(issue);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Parse the source folder index from the provided file. An index that doesn't exist or that
+     * can't be parsed is replaced with an empty index.
+     * @param sourceFolderIndexFile The file that the source folder index is stored in.
+     * @return The parsed source folder index.
+     */
+    static Result<SourceFolderIndex> parseSourceFolderIndex(File sourceFolderIndexFile)
+    {
+        PreCondition.assertNotNull(sourceFolderIndexFile, "sourceFolderIndexFile");
+
+        return Result.create2(() ->
+        {
+            SourceFolderIndex result = SourceFolderIndex.parse(sourceFolderIndexFile)
+                .catchError()
+                .await();
+            if (result == null)
+            {
+                result = SourceFolderIndex.create();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Write the provided source folder index to the provided file. Failing to write the index
+     * only means that the next build will list every folder again.
+     * @param sourceFolderIndexFile The file that the source folder index is stored in.
+     * @param sourceFolderIndex The source folder index to write.
+     */
+    static Result<Void> writeSourceFolderIndex(File sourceFolderIndexFile, SourceFolderIndex sourceFolderIndex)
+    {
+        PreCondition.assertNotNull(sourceFolderIndexFile, "sourceFolderIndexFile");
+        PreCondition.assertNotNull(sourceFolderIndex, "sourceFolderIndex");
+
+        return Result.create2(() ->
+        {
+            try (final CharacterWriteStream writeStream = CharacterWriteStream.create(ByteWriteStream.buffer(sourceFolderIndexFile.getContentsByteWriteStream().await())))
+            {
+                writeStream.write(sourceFolderIndex.toString()).await();
+            }
+        })
+            .catchError();
+    }
+
+    /**
+     * Get the stamp of the previous build from the provided file if the inputs of the build with
+     * the provided parameters haven't changed since then.
+     * @param parameters The parameters of the build.
+     * @param buildStampFile The file that the stamp of the previous build is stored in, or null if
+     *                       build stamps aren't used.
+     * @return The stamp of the previous build, or null if there is no previous stamp or if the
+     * build inputs have changed.
+     */
+    static Result<BuildStamp> getMatchingBuildStamp(QubBuildCompileParameters parameters, File buildStampFile)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return Result.create2(() ->
+        {
+            BuildStamp result = null;
+            if (buildStampFile != null)
+            {
+                result = BuildStamp.parse(buildStampFile)
+                    .catchError()
+                    .await();
+                if (result != null && !Strings.isNullOrEmpty(result.getOutputsFolder()))
+                {
+                    final Folder folderToBuild = parameters.getFolderToBuild();
+                    final Folder outputsFolder = folderToBuild.getFolder(result.getOutputsFolder()).await();
+                    final String digest = QubBuildCompile.getBuildStampDigest(parameters, result.getDependencyClassPaths(), outputsFolder)
+                        .catchError()
+                        .await();
+                    if (digest == null || !digest.equals(result.getDigest()))
+                    {
+                        result = null;
+                    }
+                }
+                else
+                {
+                    result = null;
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Update the provided build stamp file after a build. Only builds that didn't compile
+     * anything get a stamp, because only their output can be replayed without compiling.
+     * @param parameters The parameters of the build.
+     * @param buildStampFile The file that the build stamp is stored in.
+     * @param dependencyClassPaths The resolved class paths of the project's dependencies.
+     * @param outputsFolder The outputs folder of the build.
+     * @param noCompileOutput The output of the build if it didn't compile anything, or null if it
+     *                        did.
+     * @param exitCode The exit code of the build.
+     */
+    static Result<Void> writeBuildStamp(QubBuildCompileParameters parameters, File buildStampFile, Iterable<String> dependencyClassPaths, Folder outputsFolder, InMemoryCharacterToByteStream noCompileOutput, int exitCode)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(buildStampFile, "buildStampFile");
+        PreCondition.assertNotNull(dependencyClassPaths, "dependencyClassPaths");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        // Failing to update the stamp only means that the next build won't be able to skip the
+        // build pipeline.
+        return Result.create2(() ->
+        {
+            if (noCompileOutput == null)
+            {
+                buildStampFile.delete()
+                    .catchError(FileNotFoundException.class)
+                    .await();
+            }
+            else
+            {
+                final String digest = QubBuildCompile.getBuildStampDigest(parameters, dependencyClassPaths, outputsFolder).await();
+                final BuildStamp buildStamp = BuildStamp.create(digest, dependencyClassPaths, Strings.getLines(noCompileOutput.getText().await()), exitCode, outputsFolder.relativeTo(parameters.getFolderToBuild()).toString());
+                try (final CharacterWriteStream writeStream = CharacterWriteStream.create(ByteWriteStream.buffer(buildStampFile.getContentsByteWriteStream().await())))
+                {
+                    writeStream.write(buildStamp.toString(JSONFormat.pretty)).await();
+                }
+            }
+        })
+            .catchError();
+    }
+
+    /**
+     * Get the digest of the inputs of a build with the provided parameters. The folder listings
+     * of the build stamp's index are reused for the folders that haven't changed, and the index is
+     * written back if any of its listings changed.
+     * @param parameters The parameters of the build.
+     * @param dependencyClassPaths The resolved class paths of the project's dependencies.
+     * @param outputsFolder The outputs folder of the build.
+     * @return The digest of the build's inputs.
+     */
+    static Result<String> getBuildStampDigest(QubBuildCompileParameters parameters, Iterable<String> dependencyClassPaths, Folder outputsFolder)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(dependencyClassPaths, "dependencyClassPaths");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        return Result.create2(() ->
+        {
+            final File buildStampIndexFile = BuildStamp.getBuildStampIndexFile(parameters.getQubBuildDataFolder(), parameters.getFolderToBuild()).await();
+            final SourceFolderIndex buildStampIndex = QubBuildCompile.parseSourceFolderIndex(buildStampIndexFile).await();
+            final String result = BuildStamp.getDigest(parameters, dependencyClassPaths, outputsFolder, buildStampIndex).await();
+            if (buildStampIndex.hasChanged())
+            {
+                QubBuildCompile.writeSourceFolderIndex(buildStampIndexFile, buildStampIndex).await();
+            }
+
+            PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+            return result;
+        });
+    }
+
     static Result<Void> writeFileList(CharacterWriteStream verbose, Iterable<File> files, String description)
     {
         return Result.create2(() ->
@@ -629,6 +2313,54 @@ public interface QubBuildCompile
         return outputFolder.getFile(sourceFileRelativeToSourcePath.changeFileExtension(".class")).await();
     }
 
+    /**
+     * Get the internal name of the top-level class that will be created when the provided source
+     * file is compiled (such as "qub/Strings").
+     * @param sourceFile The source file that will create the class when it is compiled.
+     * @param rootFolder The root project folder that contains the source folder and the output folder.
+     * @param outputFolder The output folder where compiled class files will be created in.
+     * @return The internal name of the top-level class.
+     */
+    static String getClassName(File sourceFile, Folder rootFolder, Folder outputFolder)
+    {
+        return QubBuildCompile.getClassName(QubBuildCompile.getClassFile(sourceFile, rootFolder, outputFolder).relativeTo(outputFolder));
+    }
+
+    /**
+     * Get the internal name of the class that is defined by the class file at the provided path.
+     * @param classFileRelativePath The path to the class file relative to the outputs folder.
+     * @return The internal name of the class (such as "qub/Strings").
+     */
+    static String getClassName(Path classFileRelativePath)
+    {
+        final String classFileRelativePathString = classFileRelativePath.toString();
+        return classFileRelativePathString.substring(0, classFileRelativePathString.length() - ".class".length());
+    }
+
+    /**
+     * Delete the provided class files from the provided output folder. Class files that don't exist
+     * are ignored.
+     * @param classFilePaths The paths to the class files relative to the output folder.
+     * @param outputFolder The output folder that contains the class files.
+     * @return The result of deleting the class files.
+     */
+    static Result<Void> deleteClassFiles(Iterable<Path> classFilePaths, Folder outputFolder)
+    {
+        PreCondition.assertNotNull(classFilePaths, "classFilePaths");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        return Result.create2(() ->
+        {
+            for (final Path classFilePath : classFilePaths)
+            {
+                outputFolder.getFile(classFilePath).await()
+                    .delete()
+                    .catchError(FileNotFoundException.class)
+                    .await();
+            }
+        });
+    }
+
     /**
      * Find the existing class files that are related to the provided source file.
      * @param sourceFile The source file that was compiled into the resulting class files.
@@ -638,14 +2370,53 @@ public interface QubBuildCompile
      */
     static Iterable<File> getExistingClassFiles(File sourceFile, Folder rootFolder, Folder outputFolder)
     {
-        final File classFile = QubBuildCompile.getClassFile(sourceFile, rootFolder, outputFolder);
-        final List<File> result = classFile.getParentFolder().await()
-            .getFiles().await()
-            .where((File file) -> file.getName().startsWith(classFile.getNameWithoutFileExtension() + "$"))
-            .toList();
-        if (classFile.exists().await())
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        return QubBuildCompile.getExistingClassFiles(Iterable.create(sourceFile), rootFolder, outputFolder);
+    }
+
+    /**
+     * Get the existing class files in the provided output folder that were compiled from the
+     * provided source files, based on the conventional class file names. Each class file folder is
+     * only listed once, no matter how many of the source files' class files it holds.
+     * @param sourceFiles The source files to get the existing class files of.
+     * @param rootFolder The root project folder that contains the source files.
+     * @param outputFolder The output folder where compiled class files are created in.
+     * @return The existing class files of the provided source files.
+     */
+    static Iterable<File> getExistingClassFiles(Iterable<File> sourceFiles, Folder rootFolder, Folder outputFolder)
+    {
+        PreCondition.assertNotNull(sourceFiles, "sourceFiles");
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        final List<File> result = List.create();
+        final Map<String,Iterable<File>> classFolderFiles = Map.create();
+        for (final File sourceFile : sourceFiles)
         {
-            result.add(classFile);
+            final File classFile = QubBuildCompile.getClassFile(sourceFile, rootFolder, outputFolder);
+            final Folder classFolder = classFile.getParentFolder().await();
+            Iterable<File> classFiles = classFolderFiles.get(classFolder.toString())
+                .catchError(NotFoundException.class)
+                .await();
+            if (classFiles == null)
+            {
+                classFiles = classFolder.getFiles()
+                    .catchError(FolderNotFoundException.class)
+                    .await();
+                if (classFiles == null)
+                {
+                    classFiles = Iterable.create();
+                }
+                classFolderFiles.set(classFolder.toString(), classFiles);
+            }
+
+            final String nestedClassFileNamePrefix = classFile.getNameWithoutFileExtension() + "$";
+            result.addAll(classFiles.where((File file) -> file.getName().startsWith(nestedClassFileNamePrefix)));
+            if (classFiles.any((File file) -> file.getName().equals(classFile.getName())))
+            {
+                result.add(classFile);
+            }
         }
 
         PostCondition.assertNotNull(result, "result");
@@ -10,6 +10,18 @@ public class QubBuildCompileParameters
     private final Folder qubBuildDataFolder;
     private Warnings warnings;
     private boolean buildJson;
+    private boolean fingerprints;
+    private JavaCompilerMode compiler;
+    private boolean parallel;
+    private boolean watch;
+    private boolean retryErrors;
+    private boolean buildCache;
+    private Folder buildCacheFolder;
+    private String remoteBuildCacheUrl;
+    private String remoteBuildCacheToken;
+    private JavacWorkerPool javacWorkerPool;
+    private QubBuildProjectState projectState;
+    private boolean useDaemon;
     private VerboseCharacterToByteWriteStream verbose;
 
     public QubBuildCompileParameters(CharacterToByteWriteStream outputWriteStream, Folder folderToBuild, EnvironmentVariables environmentVariables, ProcessFactory processFactory, QubFolder qubFolder, Folder qubBuildDataFolder)
@@ -29,6 +41,12 @@ public class QubBuildCompileParameters
         this.qubBuildDataFolder = qubBuildDataFolder;
         this.warnings = QubBuildCompileParameters.getWarningsDefault();
         this.buildJson = QubBuildCompileParameters.getBuildJsonDefault();
+        this.fingerprints = QubBuildCompileParameters.getFingerprintsDefault();
+        this.compiler = QubBuildCompileParameters.getCompilerDefault();
+        this.parallel = QubBuildCompileParameters.getParallelDefault();
+        this.watch = QubBuildCompileParameters.getWatchDefault();
+        this.retryErrors = QubBuildCompileParameters.getRetryErrorsDefault();
+        this.buildCache = QubBuildCompileParameters.getBuildCacheDefault();
         this.verbose = QubBuildCompileParameters.getVerboseDefault();
     }
 
@@ -128,6 +146,277 @@ public class QubBuildCompileParameters
         return this;
     }
 
+    /**
+     * Get whether or not source file contents will be compared when a source file's last modified
+     * time doesn't match the last modified time in the build.json file.
+     * @return Whether or not source file contents will be compared.
+     */
+    public boolean getFingerprints()
+    {
+        return this.fingerprints;
+    }
+
+    /**
+     * Set whether or not source file contents will be compared when a source file's last modified
+     * time doesn't match the last modified time in the build.json file.
+     * @param fingerprints Whether or not source file contents will be compared.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setFingerprints(boolean fingerprints)
+    {
+        this.fingerprints = fingerprints;
+        return this;
+    }
+
+    /**
+     * Get which Java compiler will be used to compile source files.
+     * @return Which Java compiler will be used to compile source files.
+     */
+    public JavaCompilerMode getCompiler()
+    {
+        return this.compiler;
+    }
+
+    /**
+     * Set which Java compiler will be used to compile source files.
+     * @param compiler Which Java compiler will be used to compile source files.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setCompiler(JavaCompilerMode compiler)
+    {
+        PreCondition.assertNotNull(compiler, "compiler");
+
+        this.compiler = compiler;
+        return this;
+    }
+
+    /**
+     * Get the pool of warm javac workers that compilations will be sent to when the compiler is
+     * JavaCompilerMode.Worker.
+     * @return The pool of javac workers, or null if a pool will be created for each build.
+     */
+    public JavacWorkerPool getJavacWorkerPool()
+    {
+        return this.javacWorkerPool;
+    }
+
+    /**
+     * Set the pool of warm javac workers that compilations will be sent to when the compiler is
+     * JavaCompilerMode.Worker. A pool that is set here isn't disposed at the end of a build, so its
+     * workers can be reused by later builds.
+     * @param javacWorkerPool The pool of javac workers, or null to create a pool for each build.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setJavacWorkerPool(JavacWorkerPool javacWorkerPool)
+    {
+        this.javacWorkerPool = javacWorkerPool;
+        return this;
+    }
+
+    /**
+     * Get whether or not independent groups of source files will be compiled at the same time by
+     * separate compilers.
+     * @return Whether or not independent groups of source files will be compiled in parallel.
+     */
+    public boolean getParallel()
+    {
+        return this.parallel;
+    }
+
+    /**
+     * Set whether or not independent groups of source files will be compiled at the same time by
+     * separate compilers.
+     * @param parallel Whether or not independent groups of source files will be compiled in
+     *                 parallel.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setParallel(boolean parallel)
+    {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Get whether or not the project's source folders will be watched for changes so that the
+     * project can be compiled again each time its source files change.
+     * @return Whether or not the project's source folders will be watched for changes.
+     */
+    public boolean getWatch()
+    {
+        return this.watch;
+    }
+
+    /**
+     * Set whether or not the project's source folders will be watched for changes so that the
+     * project can be compiled again each time its source files change.
+     * @param watch Whether or not the project's source folders will be watched for changes.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setWatch(boolean watch)
+    {
+        this.watch = watch;
+        return this;
+    }
+
+    /**
+     * Get whether or not source files that failed to compile will be compiled again even if they
+     * and their dependencies haven't changed. If they aren't compiled again, then their errors
+     * from the previous build are reported again instead.
+     * @return Whether or not unchanged source files with errors will be compiled again.
+     */
+    public boolean getRetryErrors()
+    {
+        return this.retryErrors;
+    }
+
+    /**
+     * Set whether or not source files that failed to compile will be compiled again even if they
+     * and their dependencies haven't changed. If they aren't compiled again, then their errors
+     * from the previous build are reported again instead.
+     * @param retryErrors Whether or not unchanged source files with errors will be compiled again.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setRetryErrors(boolean retryErrors)
+    {
+        this.retryErrors = retryErrors;
+        return this;
+    }
+
+    /**
+     * Get whether or not compiled class files will be restored from and stored in a build cache
+     * that is shared between project folders.
+     * @return Whether or not the build cache will be used.
+     */
+    public boolean getBuildCache()
+    {
+        return this.buildCache;
+    }
+
+    /**
+     * Set whether or not compiled class files will be restored from and stored in a build cache
+     * that is shared between project folders.
+     * @param buildCache Whether or not the build cache will be used.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setBuildCache(boolean buildCache)
+    {
+        this.buildCache = buildCache;
+        return this;
+    }
+
+    /**
+     * Get the folder that the build cache is stored in. If no folder has been set, then the
+     * buildcache folder in the qub-build data folder will be used.
+     * @return The folder that the build cache is stored in.
+     */
+    public Folder getBuildCacheFolder()
+    {
+        return this.buildCacheFolder != null
+            ? this.buildCacheFolder
+            : this.qubBuildDataFolder.getFolder(QubBuildCompileParameters.getBuildCacheFolderNameDefault()).await();
+    }
+
+    /**
+     * Set the folder that the build cache is stored in.
+     * @param buildCacheFolder The folder that the build cache is stored in, or null to use the
+     *                         buildcache folder in the qub-build data folder.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setBuildCacheFolder(Folder buildCacheFolder)
+    {
+        this.buildCacheFolder = buildCacheFolder;
+        return this;
+    }
+
+    /**
+     * Get the base URL of the remote build cache that build cache entries will be downloaded from
+     * and uploaded to.
+     * @return The base URL of the remote build cache, or null if no remote build cache will be
+     * used.
+     */
+    public String getRemoteBuildCacheUrl()
+    {
+        return this.remoteBuildCacheUrl;
+    }
+
+    /**
+     * Set the base URL of the remote build cache that build cache entries will be downloaded from
+     * and uploaded to. The remote build cache is only used when the build cache is used.
+     * @param remoteBuildCacheUrl The base URL of the remote build cache, or null to not use a
+     *                            remote build cache.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setRemoteBuildCacheUrl(String remoteBuildCacheUrl)
+    {
+        this.remoteBuildCacheUrl = Strings.isNullOrEmpty(remoteBuildCacheUrl) ? null : remoteBuildCacheUrl;
+        return this;
+    }
+
+    /**
+     * Get the token that build cache entries are uploaded to the remote build cache with.
+     * @return The token of the remote build cache, or null if no token will be sent.
+     */
+    public String getRemoteBuildCacheToken()
+    {
+        return this.remoteBuildCacheToken;
+    }
+
+    /**
+     * Set the token that build cache entries are uploaded to the remote build cache with.
+     * @param remoteBuildCacheToken The token of the remote build cache, or null to not send a
+     *                              token.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setRemoteBuildCacheToken(String remoteBuildCacheToken)
+    {
+        this.remoteBuildCacheToken = Strings.isNullOrEmpty(remoteBuildCacheToken) ? null : remoteBuildCacheToken;
+        return this;
+    }
+
+    /**
+     * Get the in-memory project state that is kept between builds by a long-running qub-build
+     * process.
+     * @return The in-memory project state, or null if nothing is kept between builds.
+     */
+    public QubBuildProjectState getProjectState()
+    {
+        return this.projectState;
+    }
+
+    /**
+     * Set the in-memory project state that is kept between builds by a long-running qub-build
+     * process.
+     * @param projectState The in-memory project state, or null if nothing should be kept between
+     *                     builds.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setProjectState(QubBuildProjectState projectState)
+    {
+        this.projectState = projectState;
+        return this;
+    }
+
+    /**
+     * Get whether or not the build will be sent to a running qub-build daemon if there is one.
+     * @return Whether or not the build will be sent to a running qub-build daemon.
+     */
+    public boolean getUseDaemon()
+    {
+        return this.useDaemon;
+    }
+
+    /**
+     * Set whether or not the build will be sent to a running qub-build daemon if there is one. If
+     * no daemon is running, then the build is run in the current process.
+     * @param useDaemon Whether or not the build will be sent to a running qub-build daemon.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setUseDaemon(boolean useDaemon)
+    {
+        this.useDaemon = useDaemon;
+        return this;
+    }
+
     /**
      * Get the VerboseCharacterWriteStream where verbose logs will be written to.
      * @return The VerboseCharacterWriteStream where verbose logs will be written to.
@@ -168,6 +457,70 @@ public class QubBuildCompileParameters
         return true;
     }
 
+    /**
+     * Get the default value for the --fingerprints parameter.
+     * @return The default value for the --fingerprints parameter.
+     */
+    static boolean getFingerprintsDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --compiler parameter.
+     * @return The default value for the --compiler parameter.
+     */
+    static JavaCompilerMode getCompilerDefault()
+    {
+        return JavaCompilerMode.Process;
+    }
+
+    /**
+     * Get the default value for the --parallel parameter.
+     * @return The default value for the --parallel parameter.
+     */
+    static boolean getParallelDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --watch parameter.
+     * @return The default value for the --watch parameter.
+     */
+    static boolean getWatchDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --retryerrors parameter.
+     * @return The default value for the --retryerrors parameter.
+     */
+    static boolean getRetryErrorsDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --buildcache parameter.
+     * @return The default value for the --buildcache parameter.
+     */
+    static boolean getBuildCacheDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the name of the folder in the qub-build data folder that the build cache is stored in
+     * when no other folder has been set.
+     * @return The name of the default build cache folder.
+     */
+    static String getBuildCacheFolderNameDefault()
+    {
+        return "buildcache";
+    }
+
     /**
      * Get the default value for the --verbose parameter.
      * @return The default value for the --verbose parameter.
@@ -0,0 +1,705 @@
+package qub;
+
+/**
+ * A long-running qub-build process that keeps the in-memory state of the projects that it builds
+ * and a pool of warm javac workers between builds. Compile requests are accepted from qub-build
+ * clients over a TCP socket that is only bound to the loopback address. The daemon writes its port
+ * and a random token to a daemon.json file in the qub-build data folder, and each request must
+ * contain that token. Requests are handled concurrently, but builds of the same project are run one
+ * at a time. A request is a single line that contains a JSON object, and the response is a stream of
+ * lines that each contain a JSON object. A compile response has a line for each line of the build's
+ * output as it is written, followed by a line with the build's exit code.
+ */
+public interface QubBuildDaemon
+{
+    String daemonJsonFileName = "daemon.json";
+    String portPropertyName = "port";
+    String tokenPropertyName = "token";
+    String typePropertyName = "type";
+    String compileRequestType = "compile";
+    String stopRequestType = "stop";
+    String folderPropertyName = "folder";
+    String environmentPropertyName = "environment";
+    String warningsPropertyName = "warnings";
+    String buildJsonPropertyName = "buildjson";
+    String fingerprintsPropertyName = "fingerprints";
+    String compilerPropertyName = "compiler";
+    String parallelPropertyName = "parallel";
+    String retryErrorsPropertyName = "retryerrors";
+    String buildCachePropertyName = "buildcache";
+    String buildCacheFolderPropertyName = "buildcacheFolder";
+    String remoteBuildCacheUrlPropertyName = "remoteBuildcacheUrl";
+    String remoteBuildCacheTokenPropertyName = "remoteBuildcacheToken";
+    String verbosePropertyName = "verbose";
+    String exitCodePropertyName = "exitCode";
+    String outputPropertyName = "output";
+    String errorPropertyName = "error";
+
+    /**
+     * The number of milliseconds that a client will wait to connect to the daemon before it falls
+     * back to building in its own process.
+     */
+    int connectTimeoutMilliseconds = 1000;
+
+    /**
+     * The number of milliseconds that either end of a connection will wait for the next line from
+     * the other end before it gives up on the connection.
+     */
+    int readTimeoutMilliseconds = 10 * 60 * 1000;
+
+    /**
+     * The names of the client's environment variables that are sent with a compile request, since
+     * they determine which JDK the build uses.
+     */
+    Iterable<String> environmentVariableNames = Iterable.create("PATH", "JAVA_HOME");
+
+    static void addAction(CommandLineActions actions)
+    {
+        PreCondition.assertNotNull(actions, "actions");
+
+        actions.addAction("daemon", QubBuildDaemon::getParameters, QubBuildDaemon::run)
+            .setDescription("Run a background process that keeps build state in memory between compiles.");
+    }
+
+    static CommandLineParameterBoolean addStopParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("stop", QubBuildDaemonParameters.getStopDefault())
+            .setDescription("Whether or not to stop the running daemon instead of starting a new one. Defaults to false.");
+    }
+
+    static QubBuildDaemonParameters getParameters(DesktopProcess process, CommandLineAction action)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(action, "action");
+
+        final CommandLineParameters parameters = action.createCommandLineParameters(process);
+        final CommandLineParameterBoolean stopParameter = QubBuildDaemon.addStopParameter(parameters);
+        final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
+        final CommandLineParameterProfiler profiler = parameters.addProfiler(process, QubBuild.class);
+        final CommandLineParameterHelp help = parameters.addHelp();
+
+        QubBuildDaemonParameters result = null;
+        if (!help.showApplicationHelpLines(process).await())
+        {
+            profiler.await();
+
+            final CharacterToByteWriteStream output = process.getOutputWriteStream();
+            final FileSystem fileSystem = process.getFileSystem();
+            final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
+            final ProcessFactory processFactory = process.getProcessFactory();
+            final Boolean stop = stopParameter.getValue().await();
+            final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
+            final QubFolder qubFolder = process.getQubFolder().await();
+            final Folder projectDataFolder = process.getQubProjectDataFolder().await();
+            result = new QubBuildDaemonParameters(output, fileSystem, environmentVariables, processFactory, qubFolder, projectDataFolder)
+                .setStop(stop)
+                .setVerbose(verbose);
+        }
+
+        return result;
+    }
+
+    static int run(QubBuildDaemonParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final CharacterToByteWriteStream output = parameters.getOutputWriteStream();
+        final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
+        final Folder qubBuildDataFolder = parameters.getQubBuildDataFolder();
+
+        int exitCode = 0;
+        if (parameters.getStop())
+        {
+            final JSONObject stopRequest = JSONObject.create()
+                .setString(QubBuildDaemon.typePropertyName, QubBuildDaemon.stopRequestType);
+            JSONObject response = null;
+            try (final java.net.Socket socket = QubBuildDaemon.sendRequest(qubBuildDataFolder, stopRequest).await())
+            {
+                if (socket != null)
+                {
+                    response = QubBuildDaemon.readResponse(QubBuildDaemon.getLineReader(socket));
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                // The daemon went away before it responded.
+            }
+            output.writeLine(response == null ? "No qub-build daemon is running." : "Stopped the qub-build daemon.").await();
+        }
+        else
+        {
+            final File daemonJsonFile = qubBuildDataFolder.getFile(QubBuildDaemon.daemonJsonFileName).await();
+            try (final java.net.ServerSocket serverSocket = new java.net.ServerSocket(0, 50, java.net.InetAddress.getLoopbackAddress()))
+            {
+                final String token = java.util.UUID.randomUUID().toString();
+                final JSONObject daemonJson = JSONObject.create()
+                    .setNumber(QubBuildDaemon.portPropertyName, serverSocket.getLocalPort())
+                    .setString(QubBuildDaemon.tokenPropertyName, token);
+                try (final CharacterWriteStream writeStream = CharacterWriteStream.create(ByteWriteStream.buffer(daemonJsonFile.getContentsByteWriteStream().await())))
+                {
+                    writeStream.write(daemonJson.toString(JSONFormat.pretty)).await();
+                }
+
+                output.writeLine("Listening for compile requests on port " + serverSocket.getLocalPort() + "...").await();
+
+                final Map<String,JavacWorkerPool> javacWorkerPools = Map.create();
+                final Map<String,QubBuildProjectState> projectStates = Map.create();
+                final AsyncRunner requestRunner = ParallelAsyncRunner.create();
+                final java.util.concurrent.Phaser activeRequests = new java.util.concurrent.Phaser(1);
+                final java.util.concurrent.atomic.AtomicBoolean stopped = new java.util.concurrent.atomic.AtomicBoolean();
+                try
+                {
+                    while (!stopped.get() && !serverSocket.isClosed())
+                    {
+                        try
+                        {
+                            final java.net.Socket socket = serverSocket.accept();
+                            activeRequests.register();
+                            requestRunner.schedule(() ->
+                            {
+                                try
+                                {
+                                    QubBuildDaemon.handleConnection(parameters, token, socket, javacWorkerPools, projectStates, () ->
+                                    {
+                                        // Closing the server socket stops the loop that is waiting
+                                        // for the next connection.
+                                        stopped.set(true);
+                                        try
+                                        {
+                                            serverSocket.close();
+                                        }
+                                        catch (java.io.IOException e)
+                                        {
+                                            verbose.writeLine("Failed to stop listening for requests: " + e.getMessage()).await();
+                                        }
+                                    });
+                                }
+                                finally
+                                {
+                                    activeRequests.arriveAndDeregister();
+                                }
+                            });
+                        }
+                        catch (java.io.IOException e)
+                        {
+                            if (!stopped.get())
+                            {
+                                verbose.writeLine("Failed to accept a request: " + e.getMessage()).await();
+                            }
+                        }
+                    }
+
+                    // Builds that are still running need the worker pools, so they are allowed to
+                    // finish before the pools are disposed.
+                    activeRequests.arriveAndAwaitAdvance();
+                }
+                finally
+                {
+                    synchronized (javacWorkerPools)
+                    {
+                        for (final MapEntry<String,JavacWorkerPool> javacWorkerPool : javacWorkerPools)
+                        {
+                            javacWorkerPool.getValue().dispose().await();
+                        }
+                    }
+                    daemonJsonFile.delete()
+                        .catchError(FileNotFoundException.class)
+                        .await();
+                }
+
+                output.writeLine("Stopped.").await();
+            }
+            catch (java.io.IOException e)
+            {
+                output.writeLine("ERROR: " + e.getMessage()).await();
+                ++exitCode;
+            }
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Read the request from the provided connection, handle it, and write the response lines back
+     * to the connection.
+     * @param parameters The parameters of the daemon action.
+     * @param token The token that the request must contain.
+     * @param socket The connection to the client that sent the request.
+     * @param javacWorkerPools The pools of warm javac workers, keyed by the java executable that
+     *                         their workers are started with.
+     * @param projectStates The in-memory project states, keyed by project folder path.
+     * @param stopAction The action that will be run if the request asks the daemon to stop.
+     */
+    static void handleConnection(QubBuildDaemonParameters parameters, String token, java.net.Socket socket, Map<String,JavacWorkerPool> javacWorkerPools, Map<String,QubBuildProjectState> projectStates, Action0 stopAction)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+        PreCondition.assertNotNull(socket, "socket");
+        PreCondition.assertNotNull(javacWorkerPools, "javacWorkerPools");
+        PreCondition.assertNotNull(projectStates, "projectStates");
+        PreCondition.assertNotNull(stopAction, "stopAction");
+
+        try (final java.net.Socket connection = socket)
+        {
+            connection.setSoTimeout(QubBuildDaemon.readTimeoutMilliseconds);
+            final String requestLine = QubBuildDaemon.getLineReader(connection).readLine();
+
+            final java.io.Writer writer = new java.io.OutputStreamWriter(connection.getOutputStream(), java.nio.charset.StandardCharsets.UTF_8);
+            final boolean stop = QubBuildDaemon.handleRequest(parameters, token, requestLine, javacWorkerPools, projectStates, (JSONObject response) ->
+            {
+                try
+                {
+                    writer.write(response.toString() + "\n");
+                    writer.flush();
+                }
+                catch (java.io.IOException e)
+                {
+                    // The client has gone away, but the build still finishes so that the project's
+                    // state matches its outputs folder.
+                }
+            }).await();
+            if (stop)
+            {
+                stopAction.run();
+            }
+        }
+        catch (Throwable error)
+        {
+            parameters.getVerbose().writeLine("Failed to handle a request: " + Exceptions.unwrap(error).getMessage()).await();
+        }
+    }
+
+    /**
+     * Handle the provided request line that was sent to the daemon.
+     * @param parameters The parameters of the daemon action.
+     * @param token The token that the request must contain.
+     * @param requestLine The request line that was sent to the daemon.
+     * @param javacWorkerPools The pools of warm javac workers, keyed by the java executable that
+     *                         their workers are started with.
+     * @param projectStates The in-memory project states, keyed by project folder path.
+     * @param responseAction The action that will be invoked with each line of the response as soon
+     *                       as it is available.
+     * @return Whether or not the request asked the daemon to stop.
+     */
+    static Result<Boolean> handleRequest(QubBuildDaemonParameters parameters, String token, String requestLine, Map<String,JavacWorkerPool> javacWorkerPools, Map<String,QubBuildProjectState> projectStates, Action1<JSONObject> responseAction)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+        PreCondition.assertNotNull(javacWorkerPools, "javacWorkerPools");
+        PreCondition.assertNotNull(projectStates, "projectStates");
+        PreCondition.assertNotNull(responseAction, "responseAction");
+
+        return Result.create2(() ->
+        {
+            boolean result = false;
+
+            final JSONObject request = Strings.isNullOrEmpty(requestLine)
+                ? null
+                : JSON.parseObject(requestLine).catchError().await();
+            final String requestType = request == null
+                ? null
+                : request.getString(QubBuildDaemon.typePropertyName).catchError().await();
+            if (request == null || !token.equals(request.getString(QubBuildDaemon.tokenPropertyName).catchError().await()))
+            {
+                responseAction.run(JSONObject.create()
+                    .setString(QubBuildDaemon.errorPropertyName, "Invalid request."));
+            }
+            else if (QubBuildDaemon.stopRequestType.equals(requestType))
+            {
+                responseAction.run(JSONObject.create()
+                    .setString(QubBuildDaemon.typePropertyName, QubBuildDaemon.stopRequestType));
+                result = true;
+            }
+            else if (QubBuildDaemon.compileRequestType.equals(requestType))
+            {
+                final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                final java.lang.Thread outputThread = new java.lang.Thread(() ->
+                {
+                    String outputLine = output.readLine().catchError().await();
+                    while (outputLine != null)
+                    {
+                        int outputLineLength = outputLine.length();
+                        while (outputLineLength > 0 && (outputLine.charAt(outputLineLength - 1) == '\n' || outputLine.charAt(outputLineLength - 1) == '\r'))
+                        {
+                            --outputLineLength;
+                        }
+                        responseAction.run(JSONObject.create()
+                            .setString(QubBuildDaemon.outputPropertyName, outputLine.substring(0, outputLineLength)));
+                        outputLine = output.readLine().catchError().await();
+                    }
+                });
+                outputThread.setDaemon(true);
+                outputThread.start();
+
+                JSONObject response;
+                try
+                {
+                    final Folder folderToBuild = parameters.getFileSystem().getFolder(request.getString(QubBuildDaemon.folderPropertyName).await()).await();
+                    final EnvironmentVariables environmentVariables = QubBuildDaemon.getEnvironmentVariables(parameters, request);
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(output)
+                        .setIsVerbose(java.lang.Boolean.parseBoolean(request.getString(QubBuildDaemon.verbosePropertyName).await()));
+                    final JavaCompilerMode compiler = JavaCompilerMode.valueOf(request.getString(QubBuildDaemon.compilerPropertyName).await());
+
+                    final QubBuildCompileParameters compileParameters = new QubBuildCompileParameters(output, folderToBuild, environmentVariables, parameters.getProcessFactory(), parameters.getQubFolder(), parameters.getQubBuildDataFolder())
+                        .setWarnings(Warnings.valueOf(request.getString(QubBuildDaemon.warningsPropertyName).await()))
+                        .setBuildJson(java.lang.Boolean.parseBoolean(request.getString(QubBuildDaemon.buildJsonPropertyName).await()))
+                        .setFingerprints(java.lang.Boolean.parseBoolean(request.getString(QubBuildDaemon.fingerprintsPropertyName).await()))
+                        .setCompiler(compiler)
+                        .setParallel(java.lang.Boolean.parseBoolean(request.getString(QubBuildDaemon.parallelPropertyName).await()))
+                        .setRetryErrors(java.lang.Boolean.parseBoolean(request.getString(QubBuildDaemon.retryErrorsPropertyName).await()))
+                        .setBuildCache(java.lang.Boolean.parseBoolean(request.getString(QubBuildDaemon.buildCachePropertyName).await()))
+                        .setBuildCacheFolder(parameters.getFileSystem().getFolder(request.getString(QubBuildDaemon.buildCacheFolderPropertyName).await()).await())
+                        .setRemoteBuildCacheUrl(request.getString(QubBuildDaemon.remoteBuildCacheUrlPropertyName).catchError().await())
+                        .setRemoteBuildCacheToken(request.getString(QubBuildDaemon.remoteBuildCacheTokenPropertyName).catchError().await())
+                        .setVerbose(verbose);
+                    if (compiler == JavaCompilerMode.Worker)
+                    {
+                        compileParameters.setJavacWorkerPool(QubBuildDaemon.getJavacWorkerPool(parameters, environmentVariables, javacWorkerPools).await());
+                    }
+
+                    final QubBuildProjectState projectState = QubBuildDaemon.getProjectState(folderToBuild, projectStates);
+                    compileParameters.setProjectState(projectState);
+
+                    parameters.getVerbose().writeLine("Compiling " + folderToBuild + "...").await();
+                    final int exitCode;
+                    synchronized (projectState)
+                    {
+                        exitCode = QubBuildCompile.run(compileParameters);
+                    }
+
+                    response = JSONObject.create()
+                        .setNumber(QubBuildDaemon.exitCodePropertyName, exitCode);
+                }
+                catch (Throwable error)
+                {
+                    response = JSONObject.create()
+                        .setString(QubBuildDaemon.errorPropertyName, Exceptions.unwrap(error).getMessage());
+                }
+                finally
+                {
+                    output.endOfStream();
+                }
+
+                try
+                {
+                    outputThread.join();
+                }
+                catch (InterruptedException e)
+                {
+                    throw new RuntimeException(e);
+                }
+                responseAction.run(response);
+            }
+            else
+            {
+                responseAction.run(JSONObject.create()
+                    .setString(QubBuildDaemon.errorPropertyName, "Unrecognized request type: " + Strings.escapeAndQuote(requestType)));
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the environment variables that a compile request should be built with. These are the
+     * daemon's environment variables, overridden by the client's environment variables that were
+     * sent with the request.
+     * @param parameters The parameters of the daemon action.
+     * @param request The compile request.
+     * @return The environment variables that the compile request should be built with.
+     */
+    static EnvironmentVariables getEnvironmentVariables(QubBuildDaemonParameters parameters, JSONObject request)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(request, "request");
+
+        final EnvironmentVariables result = EnvironmentVariables.create();
+        final JSONObject environment = request.getObject(QubBuildDaemon.environmentPropertyName)
+            .catchError()
+            .await();
+        for (final String environmentVariableName : QubBuildDaemon.environmentVariableNames)
+        {
+            String environmentVariableValue = environment == null
+                ? null
+                : environment.getString(environmentVariableName).catchError().await();
+            if (environmentVariableValue == null)
+            {
+                environmentVariableValue = parameters.getEnvironmentVariables().get(environmentVariableName)
+                    .catchError(NotFoundException.class)
+                    .await();
+            }
+            if (environmentVariableValue != null)
+            {
+                result.set(environmentVariableName, environmentVariableValue);
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the pool of javac workers that run with the JDK that the provided environment variables
+     * resolve to, creating the pool if it doesn't exist yet.
+     * @param parameters The parameters of the daemon action.
+     * @param environmentVariables The environment variables of the compile request.
+     * @param javacWorkerPools The pools of warm javac workers, keyed by the java executable that
+     *                         their workers are started with.
+     * @return The pool of javac workers.
+     */
+    static Result<JavacWorkerPool> getJavacWorkerPool(QubBuildDaemonParameters parameters, EnvironmentVariables environmentVariables, Map<String,JavacWorkerPool> javacWorkerPools)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(javacWorkerPools, "javacWorkerPools");
+
+        return Result.create2(() ->
+        {
+            final String javaExecutablePath = QubBuildCompile.getJavacWorkerJavaExecutablePath(environmentVariables, parameters.getFileSystem()).await();
+            synchronized (javacWorkerPools)
+            {
+                JavacWorkerPool result = javacWorkerPools.get(javaExecutablePath)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (result == null)
+                {
+                    result = JavacWorkerPool.create(parameters.getProcessFactory())
+                        .setJavaExecutablePath(javaExecutablePath);
+                    javacWorkerPools.set(javaExecutablePath, result);
+                }
+
+                PostCondition.assertNotNull(result, "result");
+
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Get the in-memory state of the provided project folder, creating the state if it doesn't
+     * exist yet.
+     * @param folderToBuild The project folder.
+     * @param projectStates The in-memory project states, keyed by project folder path.
+     * @return The in-memory state of the project folder.
+     */
+    static QubBuildProjectState getProjectState(Folder folderToBuild, Map<String,QubBuildProjectState> projectStates)
+    {
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+        PreCondition.assertNotNull(projectStates, "projectStates");
+
+        synchronized (projectStates)
+        {
+            QubBuildProjectState result = projectStates.get(folderToBuild.toString())
+                .catchError(NotFoundException.class)
+                .await();
+            if (result == null)
+            {
+                result = QubBuildProjectState.create();
+                projectStates.set(folderToBuild.toString(), result);
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        }
+    }
+
+    /**
+     * Send the provided build to a running daemon. The build's output is written to the provided
+     * parameters' output stream as the daemon streams it back.
+     * @param parameters The parameters of the compile action.
+     * @return The exit code of the build, or null if no daemon is running or the daemon couldn't
+     * handle the build.
+     */
+    static Result<Integer> compile(QubBuildCompileParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return Result.create2(() ->
+        {
+            Integer result = null;
+
+            final JSONObject environment = JSONObject.create();
+            for (final String environmentVariableName : QubBuildDaemon.environmentVariableNames)
+            {
+                final String environmentVariableValue = parameters.getEnvironmentVariables().get(environmentVariableName)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (environmentVariableValue != null)
+                {
+                    environment.setString(environmentVariableName, environmentVariableValue);
+                }
+            }
+
+            final JSONObject request = JSONObject.create()
+                .setString(QubBuildDaemon.typePropertyName, QubBuildDaemon.compileRequestType)
+                .setString(QubBuildDaemon.folderPropertyName, parameters.getFolderToBuild().toString())
+                .setString(QubBuildDaemon.warningsPropertyName, parameters.getWarnings().name())
+                .setString(QubBuildDaemon.buildJsonPropertyName, java.lang.Boolean.toString(parameters.getBuildJson()))
+                .setString(QubBuildDaemon.fingerprintsPropertyName, java.lang.Boolean.toString(parameters.getFingerprints()))
+                .setString(QubBuildDaemon.compilerPropertyName, parameters.getCompiler().name())
+                .setString(QubBuildDaemon.parallelPropertyName, java.lang.Boolean.toString(parameters.getParallel()))
+                .setString(QubBuildDaemon.retryErrorsPropertyName, java.lang.Boolean.toString(parameters.getRetryErrors()))
+                .setString(QubBuildDaemon.buildCachePropertyName, java.lang.Boolean.toString(parameters.getBuildCache()))
+                .setString(QubBuildDaemon.buildCacheFolderPropertyName, parameters.getBuildCacheFolder().toString())
+                .setString(QubBuildDaemon.remoteBuildCacheUrlPropertyName, parameters.getRemoteBuildCacheUrl() == null ? "" : parameters.getRemoteBuildCacheUrl())
+                .setString(QubBuildDaemon.remoteBuildCacheTokenPropertyName, parameters.getRemoteBuildCacheToken() == null ? "" : parameters.getRemoteBuildCacheToken())
+                .setString(QubBuildDaemon.verbosePropertyName, java.lang.Boolean.toString(parameters.getVerbose().isVerbose()));
+            request.set(QubBuildDaemon.environmentPropertyName, environment);
+
+            final CharacterToByteWriteStream output = parameters.getOutputWriteStream();
+            boolean outputWritten = false;
+            String error = null;
+            try (final java.net.Socket socket = QubBuildDaemon.sendRequest(parameters.getQubBuildDataFolder(), request).await())
+            {
+                if (socket != null)
+                {
+                    final java.io.BufferedReader reader = QubBuildDaemon.getLineReader(socket);
+                    JSONObject response = QubBuildDaemon.readResponse(reader);
+                    while (result == null && error == null && response != null)
+                    {
+                        final String outputLine = response.getString(QubBuildDaemon.outputPropertyName).catchError().await();
+                        if (outputLine != null)
+                        {
+                            output.writeLine(outputLine).await();
+                            outputWritten = true;
+                            response = QubBuildDaemon.readResponse(reader);
+                        }
+                        else
+                        {
+                            final Number exitCode = response.getNumber(QubBuildDaemon.exitCodePropertyName).catchError().await();
+                            if (exitCode != null)
+                            {
+                                result = exitCode.intValue();
+                            }
+                            else
+                            {
+                                error = response.getString(QubBuildDaemon.errorPropertyName).catchError().await();
+                                if (error == null)
+                                {
+                                    error = "Unrecognized response: " + response.toString();
+                                }
+                            }
+                        }
+                    }
+                    if (result == null && error == null)
+                    {
+                        error = "The qub-build daemon closed the connection before the build finished.";
+                    }
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                error = "Lost the connection to the qub-build daemon: " + e.getMessage();
+            }
+
+            // If the daemon didn't write any of the build's output, then the build can still be
+            // run in this process instead. Otherwise building again would repeat that output.
+            if (result == null && outputWritten)
+            {
+                output.writeLine("ERROR: " + error).await();
+                result = 1;
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Send the provided request to the daemon that is described by the daemon.json file in the
+     * provided qub-build data folder.
+     * @param qubBuildDataFolder The qub-build data folder that contains the daemon.json file.
+     * @param request The request to send. The daemon's token will be added to the request.
+     * @return The connection to the daemon that the response can be read from, or null if no
+     * daemon is running.
+     */
+    static Result<java.net.Socket> sendRequest(Folder qubBuildDataFolder, JSONObject request)
+    {
+        PreCondition.assertNotNull(qubBuildDataFolder, "qubBuildDataFolder");
+        PreCondition.assertNotNull(request, "request");
+
+        return Result.create2(() ->
+        {
+            java.net.Socket result = null;
+
+            final File daemonJsonFile = qubBuildDataFolder.getFile(QubBuildDaemon.daemonJsonFileName).await();
+            final JSONObject daemonJson = JSON.parseObject(daemonJsonFile)
+                .catchError()
+                .await();
+            if (daemonJson != null)
+            {
+                final Number port = daemonJson.getNumber(QubBuildDaemon.portPropertyName).catchError().await();
+                final String token = daemonJson.getString(QubBuildDaemon.tokenPropertyName).catchError().await();
+                if (port != null && !Strings.isNullOrEmpty(token))
+                {
+                    request.setString(QubBuildDaemon.tokenPropertyName, token);
+                    final java.net.Socket socket = new java.net.Socket();
+                    try
+                    {
+                        socket.connect(new java.net.InetSocketAddress(java.net.InetAddress.getLoopbackAddress(), port.intValue()), QubBuildDaemon.connectTimeoutMilliseconds);
+                        socket.setSoTimeout(QubBuildDaemon.readTimeoutMilliseconds);
+
+                        final java.io.Writer writer = new java.io.OutputStreamWriter(socket.getOutputStream(), java.nio.charset.StandardCharsets.UTF_8);
+                        writer.write(request.toString() + "\n");
+                        writer.flush();
+
+                        result = socket;
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        // The daemon.json file was left behind by a daemon that isn't running
+                        // anymore.
+                        try
+                        {
+                            socket.close();
+                        }
+                        catch (java.io.IOException closeError)
+                        {
+                        }
+                    }
+                }
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Get a reader for the lines that the other end of the provided connection sends.
+     * @param socket The connection.
+     * @return The reader for the lines that are sent over the connection.
+     */
+    static java.io.BufferedReader getLineReader(java.net.Socket socket) throws java.io.IOException
+    {
+        PreCondition.assertNotNull(socket, "socket");
+
+        return new java.io.BufferedReader(new java.io.InputStreamReader(socket.getInputStream(), java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read the next response line from the provided reader.
+     * @param reader The reader of a connection to the daemon.
+     * @return The next response, or null if the daemon has closed the connection.
+     */
+    static JSONObject readResponse(java.io.BufferedReader reader) throws java.io.IOException
+    {
+        PreCondition.assertNotNull(reader, "reader");
+
+        JSONObject result = null;
+        String responseLine = reader.readLine();
+        while (result == null && responseLine != null)
+        {
+            result = JSON.parseObject(responseLine)
+                .catchError()
+                .await();
+            if (result == null)
+            {
+                responseLine = reader.readLine();
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+package qub;
+
+public class QubBuildDaemonParameters
+{
+    private final CharacterToByteWriteStream outputWriteStream;
+    private final FileSystem fileSystem;
+    private final EnvironmentVariables environmentVariables;
+    private final ProcessFactory processFactory;
+    private final QubFolder qubFolder;
+    private final Folder qubBuildDataFolder;
+    private boolean stop;
+    private VerboseCharacterToByteWriteStream verbose;
+
+    public QubBuildDaemonParameters(CharacterToByteWriteStream outputWriteStream, FileSystem fileSystem, EnvironmentVariables environmentVariables, ProcessFactory processFactory, QubFolder qubFolder, Folder qubBuildDataFolder)
+    {
+        PreCondition.assertNotNull(outputWriteStream, "outputWriteStream");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(processFactory, "processFactory");
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+        PreCondition.assertNotNull(qubBuildDataFolder, "qubBuildDataFolder");
+
+        this.outputWriteStream = outputWriteStream;
+        this.fileSystem = fileSystem;
+        this.environmentVariables = environmentVariables;
+        this.processFactory = processFactory;
+        this.qubFolder = qubFolder;
+        this.qubBuildDataFolder = qubBuildDataFolder;
+        this.stop = QubBuildDaemonParameters.getStopDefault();
+        this.verbose = QubBuildCompileParameters.getVerboseDefault();
+    }
+
+    /**
+     * Get the CharacterWriteStream that output will be written to.
+     * @return The CharacterWriteStream that output will be written to.
+     */
+    public CharacterToByteWriteStream getOutputWriteStream()
+    {
+        return this.outputWriteStream;
+    }
+
+    /**
+     * Get the FileSystem that the folders in compile requests will be found in.
+     * @return The FileSystem that the folders in compile requests will be found in.
+     */
+    public FileSystem getFileSystem()
+    {
+        return this.fileSystem;
+    }
+
+    /**
+     * Get the environment variables that this application is being run with.
+     * @return The environment variables that this application is being run with.
+     */
+    public EnvironmentVariables getEnvironmentVariables()
+    {
+        return this.environmentVariables;
+    }
+
+    /**
+     * Get the ProcessFactory that will be used to invoke other processes.
+     * @return The ProcessFactory that will be used to invoke other processes.
+     */
+    public ProcessFactory getProcessFactory()
+    {
+        return this.processFactory;
+    }
+
+    /**
+     * Get the Qub folder for this application.
+     * @return The Qub folder for this application.
+     */
+    public QubFolder getQubFolder()
+    {
+        return this.qubFolder;
+    }
+
+    /**
+     * Get the qub-build data folder for this application.
+     * @return The qub-build data folder for this application.
+     */
+    public Folder getQubBuildDataFolder()
+    {
+        return this.qubBuildDataFolder;
+    }
+
+    /**
+     * Get whether or not a running daemon will be stopped instead of starting a new daemon.
+     * @return Whether or not a running daemon will be stopped.
+     */
+    public boolean getStop()
+    {
+        return this.stop;
+    }
+
+    /**
+     * Set whether or not a running daemon will be stopped instead of starting a new daemon.
+     * @param stop Whether or not a running daemon will be stopped.
+     * @return This object for method chaining.
+     */
+    public QubBuildDaemonParameters setStop(boolean stop)
+    {
+        this.stop = stop;
+        return this;
+    }
+
+    /**
+     * Get the VerboseCharacterWriteStream where verbose logs will be written to.
+     * @return The VerboseCharacterWriteStream where verbose logs will be written to.
+     */
+    public VerboseCharacterToByteWriteStream getVerbose()
+    {
+        return this.verbose;
+    }
+
+    /**
+     * Set the VerboseCharacterWriteStream where verbose logs will be written to.
+     * @param verbose The VerboseCharacterWriteStream where verbose logs will be written to.
+     * @return This object for method chaining.
+     */
+    public QubBuildDaemonParameters setVerbose(VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        this.verbose = verbose;
+        return this;
+    }
+
+    /**
+     * Get the default value for the --stop parameter.
+     * @return The default value for the --stop parameter.
+     */
+    static boolean getStopDefault()
+    {
+        return false;
+    }
+}
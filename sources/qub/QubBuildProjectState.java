@@ -0,0 +1,308 @@
+package qub;
+
+/**
+ * The in-memory state of a project that a long-running qub-build process keeps between builds.
+ * Each cached value remembers the last modified time of the file that it came from, and it is only
+ * returned while that file still has the same last modified time.
+ */
+public class QubBuildProjectState
+{
+    private DateTime projectJsonLastModified;
+    private ProjectJSON projectJson;
+    private DateTime dependencyClassPathsLastModified;
+    private Iterable<String> dependencyClassPaths;
+    private DateTime buildJsonLastModified;
+    private BuildJSON buildJson;
+    private boolean watched;
+    private java.util.LinkedHashMap<String,File> javaSourceFiles;
+    private final java.util.HashSet<String> changedJavaSourceFilePaths;
+    private boolean javaSourceFilesRecorded;
+
+    private QubBuildProjectState()
+    {
+        this.changedJavaSourceFilePaths = new java.util.HashSet<>();
+    }
+
+    /**
+     * Create a new empty QubBuildProjectState.
+     * @return The new QubBuildProjectState.
+     */
+    public static QubBuildProjectState create()
+    {
+        return new QubBuildProjectState();
+    }
+
+    /**
+     * Get the cached project.json if it was parsed from a project.json file with the provided last
+     * modified time.
+     * @param projectJsonLastModified The current last modified time of the project.json file.
+     * @return The cached project.json, or null if it isn't cached or it is out of date.
+     */
+    public ProjectJSON getProjectJson(DateTime projectJsonLastModified)
+    {
+        return projectJsonLastModified != null && projectJsonLastModified.equals(this.projectJsonLastModified)
+            ? this.projectJson
+            : null;
+    }
+
+    /**
+     * Cache the provided project.json.
+     * @param projectJsonLastModified The last modified time of the project.json file that the
+     *                                project.json was parsed from.
+     * @param projectJson The parsed project.json.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState setProjectJson(DateTime projectJsonLastModified, ProjectJSON projectJson)
+    {
+        PreCondition.assertNotNull(projectJson, "projectJson");
+
+        this.projectJsonLastModified = projectJsonLastModified;
+        this.projectJson = projectJson;
+        return this;
+    }
+
+    /**
+     * Get the cached paths to the project's resolved dependencies if they were resolved from a
+     * project.json file with the provided last modified time.
+     * @param projectJsonLastModified The current last modified time of the project.json file.
+     * @return The cached dependency classpaths, or null if they aren't cached or they are out of
+     * date.
+     */
+    public Iterable<String> getDependencyClassPaths(DateTime projectJsonLastModified)
+    {
+        return projectJsonLastModified != null && projectJsonLastModified.equals(this.dependencyClassPathsLastModified)
+            ? this.dependencyClassPaths
+            : null;
+    }
+
+    /**
+     * Cache the provided paths to the project's resolved dependencies.
+     * @param projectJsonLastModified The last modified time of the project.json file that the
+     *                                dependencies were resolved from.
+     * @param dependencyClassPaths The paths to the project's resolved dependencies.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState setDependencyClassPaths(DateTime projectJsonLastModified, Iterable<String> dependencyClassPaths)
+    {
+        PreCondition.assertNotNull(dependencyClassPaths, "dependencyClassPaths");
+
+        this.dependencyClassPathsLastModified = projectJsonLastModified;
+        this.dependencyClassPaths = dependencyClassPaths.toList();
+        return this;
+    }
+
+    /**
+     * Take the cached build.json out of this state if it was written to a build.json file with the
+     * provided last modified time. The build.json isn't cached anymore after this call, because the
+     * caller is expected to modify it.
+     * @param buildJsonLastModified The current last modified time of the build.json file.
+     * @return The cached build.json, or null if it isn't cached or it is out of date.
+     */
+    public BuildJSON takeBuildJson(DateTime buildJsonLastModified)
+    {
+        BuildJSON result = null;
+        if (buildJsonLastModified != null && buildJsonLastModified.equals(this.buildJsonLastModified))
+        {
+            result = this.buildJson;
+        }
+        this.buildJsonLastModified = null;
+        this.buildJson = null;
+        return result;
+    }
+
+    /**
+     * Cache the provided build.json.
+     * @param buildJsonLastModified The last modified time of the build.json file that the
+     *                              build.json was written to.
+     * @param buildJson The build.json.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState setBuildJson(DateTime buildJsonLastModified, BuildJSON buildJson)
+    {
+        PreCondition.assertNotNull(buildJsonLastModified, "buildJsonLastModified");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+
+        this.buildJsonLastModified = buildJsonLastModified;
+        this.buildJson = buildJson;
+        return this;
+    }
+
+    /**
+     * Get whether or not the project's source folders are being watched for changes. The project's
+     * source files are only remembered between builds while they are being watched, because
+     * nothing else reports when source files are added, modified, or deleted.
+     * @return Whether or not the project's source folders are being watched for changes.
+     */
+    public boolean isWatched()
+    {
+        return this.watched;
+    }
+
+    /**
+     * Set whether or not the project's source folders are being watched for changes.
+     * @param watched Whether or not the project's source folders are being watched for changes.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState setWatched(boolean watched)
+    {
+        this.watched = watched;
+        if (!watched)
+        {
+            this.clearJavaSourceFiles();
+        }
+        return this;
+    }
+
+    /**
+     * Get the remembered source files of the project.
+     * @return The remembered source files of the project, or null if the project's source folders
+     * aren't being watched or the source files need to be found again.
+     */
+    public Iterable<File> getJavaSourceFiles()
+    {
+        List<File> result = null;
+        if (this.javaSourceFiles != null)
+        {
+            result = List.create();
+            for (final File javaSourceFile : this.javaSourceFiles.values())
+            {
+                result.add(javaSourceFile);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remember the provided source files of the project. Nothing is remembered if the project's
+     * source folders aren't being watched.
+     * @param javaSourceFiles The source files of the project.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState setJavaSourceFiles(Iterable<File> javaSourceFiles)
+    {
+        PreCondition.assertNotNull(javaSourceFiles, "javaSourceFiles");
+
+        if (this.watched)
+        {
+            this.javaSourceFiles = new java.util.LinkedHashMap<>();
+            for (final File javaSourceFile : javaSourceFiles)
+            {
+                this.javaSourceFiles.put(javaSourceFile.toString(), javaSourceFile);
+            }
+            this.javaSourceFilesRecorded = false;
+        }
+        return this;
+    }
+
+    /**
+     * Forget the remembered source files of the project so that they are found again by the next
+     * build.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState clearJavaSourceFiles()
+    {
+        this.javaSourceFiles = null;
+        this.changedJavaSourceFilePaths.clear();
+        this.javaSourceFilesRecorded = false;
+        return this;
+    }
+
+    /**
+     * Add the provided new source file to the remembered source files of the project.
+     * @param javaSourceFile The source file that was created.
+     * @return Whether or not the remembered source files of the project changed.
+     */
+    public boolean addJavaSourceFile(File javaSourceFile)
+    {
+        PreCondition.assertNotNull(javaSourceFile, "javaSourceFile");
+
+        boolean result = false;
+        if (this.javaSourceFiles != null)
+        {
+            final String javaSourceFilePath = javaSourceFile.toString();
+            this.javaSourceFiles.put(javaSourceFilePath, javaSourceFile);
+            this.changedJavaSourceFilePaths.add(javaSourceFilePath);
+            result = true;
+        }
+        return result;
+    }
+
+    /**
+     * Remove the source file at the provided path, or the source files under the folder at the
+     * provided path, from the remembered source files of the project.
+     * @param deletedPath The path of the file or folder that was deleted.
+     * @return Whether or not the remembered source files of the project changed.
+     */
+    public boolean removeJavaSourceFiles(Path deletedPath)
+    {
+        PreCondition.assertNotNull(deletedPath, "deletedPath");
+
+        boolean result = false;
+        if (this.javaSourceFiles != null)
+        {
+            final String deletedPathString = deletedPath.toString();
+            final String deletedFolderPathString = deletedPathString.endsWith("/") ? deletedPathString : deletedPathString + "/";
+            final java.util.Iterator<String> javaSourceFilePaths = this.javaSourceFiles.keySet().iterator();
+            while (javaSourceFilePaths.hasNext())
+            {
+                final String javaSourceFilePath = javaSourceFilePaths.next();
+                if (javaSourceFilePath.equals(deletedPathString) || javaSourceFilePath.startsWith(deletedFolderPathString))
+                {
+                    javaSourceFilePaths.remove();
+                    this.changedJavaSourceFilePaths.remove(javaSourceFilePath);
+                    result = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Mark the provided remembered source file as modified.
+     * @param javaSourceFile The source file that was modified.
+     * @return Whether or not the provided file is one of the remembered source files of the
+     * project.
+     */
+    public boolean setJavaSourceFileChanged(File javaSourceFile)
+    {
+        PreCondition.assertNotNull(javaSourceFile, "javaSourceFile");
+
+        final String javaSourceFilePath = javaSourceFile.toString();
+        final boolean result = this.javaSourceFiles != null && this.javaSourceFiles.containsKey(javaSourceFilePath);
+        if (result)
+        {
+            this.changedJavaSourceFilePaths.add(javaSourceFilePath);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided source file may have changed since the previous build. This
+     * is true for every file until a build has recorded the state of the remembered source files,
+     * because files can change before they are watched. After that, only the files that were
+     * reported as created or modified may have changed.
+     * @param javaSourceFile The source file to check.
+     * @return Whether or not the provided source file may have changed since the previous build.
+     */
+    public boolean isJavaSourceFileChanged(File javaSourceFile)
+    {
+        PreCondition.assertNotNull(javaSourceFile, "javaSourceFile");
+
+        return this.javaSourceFiles == null ||
+            !this.javaSourceFilesRecorded ||
+            this.changedJavaSourceFilePaths.contains(javaSourceFile.toString());
+    }
+
+    /**
+     * Forget which of the remembered source files were created or modified. This is done after a
+     * build has recorded the current state of every source file, so later builds only need to
+     * check the source files that are reported as changed.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState clearChangedJavaSourceFiles()
+    {
+        this.changedJavaSourceFilePaths.clear();
+        this.javaSourceFilesRecorded = this.javaSourceFiles != null;
+        return this;
+    }
+}
@@ -0,0 +1,317 @@
+package qub;
+
+/**
+ * Shares the entries of a local BuildCache through a BuildCacheBackend, such as an HTTP server
+ * that several build agents use. Entries are downloaded into the local cache before the local
+ * cache is checked, and entries that were compiled locally are uploaded in the background.
+ *
+ * Downloads and uploads run on a bounded number of threads. A remote cache is only ever an
+ * optimization: a download that fails or that doesn't finish before the timeout is treated as a
+ * miss, so the source file is compiled locally instead.
+ */
+public class RemoteBuildCache implements Disposable
+{
+    private final BuildCacheBackend backend;
+    private final java.util.concurrent.ExecutorService transfers;
+    private final List<java.util.concurrent.Future<Boolean>> uploads;
+    private int timeoutMilliseconds;
+    private boolean disposed;
+
+    private RemoteBuildCache(BuildCacheBackend backend, int maximumConcurrentTransfers)
+    {
+        PreCondition.assertNotNull(backend, "backend");
+        PreCondition.assertGreaterThan(maximumConcurrentTransfers, 0, "maximumConcurrentTransfers");
+
+        this.backend = backend;
+        this.transfers = java.util.concurrent.Executors.newFixedThreadPool(maximumConcurrentTransfers, (Runnable runnable) ->
+        {
+            // Transfers that are still running when a build finishes must not keep the process
+            // alive.
+            final java.lang.Thread thread = new java.lang.Thread(runnable, "qub-build remote cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.uploads = List.create();
+        this.timeoutMilliseconds = RemoteBuildCache.getTimeoutMillisecondsDefault();
+    }
+
+    /**
+     * Create a new RemoteBuildCache that shares entries through the provided backend.
+     * @param backend The backend that entries are shared through.
+     * @return The new RemoteBuildCache.
+     */
+    public static RemoteBuildCache create(BuildCacheBackend backend)
+    {
+        return RemoteBuildCache.create(backend, RemoteBuildCache.getMaximumConcurrentTransfersDefault());
+    }
+
+    /**
+     * Create a new RemoteBuildCache that shares entries through the provided backend.
+     * @param backend The backend that entries are shared through.
+     * @param maximumConcurrentTransfers The maximum number of entries that will be downloaded or
+     *                                   uploaded at the same time.
+     * @return The new RemoteBuildCache.
+     */
+    public static RemoteBuildCache create(BuildCacheBackend backend, int maximumConcurrentTransfers)
+    {
+        return new RemoteBuildCache(backend, maximumConcurrentTransfers);
+    }
+
+    /**
+     * Get the default maximum number of entries that will be downloaded or uploaded at the same
+     * time.
+     * @return The default maximum number of concurrent transfers.
+     */
+    static int getMaximumConcurrentTransfersDefault()
+    {
+        return 8;
+    }
+
+    /**
+     * Get the default number of milliseconds that a group of downloads or the pending uploads can
+     * take before they are abandoned.
+     * @return The default timeout in milliseconds.
+     */
+    static int getTimeoutMillisecondsDefault()
+    {
+        return 10000;
+    }
+
+    /**
+     * Get the number of milliseconds that a group of downloads or the pending uploads can take
+     * before they are abandoned.
+     * @return The timeout in milliseconds.
+     */
+    public int getTimeoutMilliseconds()
+    {
+        return this.timeoutMilliseconds;
+    }
+
+    /**
+     * Set the number of milliseconds that a group of downloads or the pending uploads can take
+     * before they are abandoned.
+     * @param timeoutMilliseconds The timeout in milliseconds.
+     * @return This object for method chaining.
+     */
+    public RemoteBuildCache setTimeoutMilliseconds(int timeoutMilliseconds)
+    {
+        PreCondition.assertGreaterThan(timeoutMilliseconds, 0, "timeoutMilliseconds");
+
+        this.timeoutMilliseconds = timeoutMilliseconds;
+        return this;
+    }
+
+    /**
+     * Download the entries with the provided keys into the provided local cache. Keys that aren't
+     * in the remote cache, that fail to download, or that don't finish downloading before the
+     * timeout are skipped.
+     * @param keys The keys of the entries to download.
+     * @param localCache The local cache to add the downloaded entries to.
+     * @return The number of entries that were added to the local cache.
+     */
+    public Result<Integer> download(Iterable<String> keys, BuildCache localCache)
+    {
+        PreCondition.assertNotNull(keys, "keys");
+        PreCondition.assertNotNull(localCache, "localCache");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create2(() ->
+        {
+            final List<String> downloadKeys = List.create();
+            final List<java.util.concurrent.Future<RemoteBuildCacheEntry>> downloads = List.create();
+            for (final String key : keys)
+            {
+                downloadKeys.add(key);
+                downloads.add(this.transfers.submit(() -> this.downloadEntry(key)));
+            }
+
+            // The downloads run in parallel, but they are added to the local cache on this thread
+            // because BuildCache isn't thread-safe.
+            int result = 0;
+            final long deadline = java.lang.System.nanoTime() + java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(this.timeoutMilliseconds);
+            for (int i = 0; i < downloads.getCount(); ++i)
+            {
+                final RemoteBuildCacheEntry entry = RemoteBuildCache.getBeforeDeadline(downloads.get(i), deadline);
+                if (entry != null && localCache.addEntry(downloadKeys.get(i), entry.manifestContents, entry.objectContents).await())
+                {
+                    ++result;
+                }
+            }
+
+            return result;
+        });
+    }
+
+    private RemoteBuildCacheEntry downloadEntry(String key)
+    {
+        RemoteBuildCacheEntry result = null;
+
+        final byte[] manifestBytes = this.backend.get(BuildCache.getManifestPath(key)).await();
+        if (manifestBytes != null)
+        {
+            final String manifestContents = new String(manifestBytes, java.nio.charset.StandardCharsets.UTF_8);
+            final Iterable<String> objectHashes = BuildCache.getManifestObjectHashes(manifestContents);
+            if (objectHashes != null)
+            {
+                final Map<String,byte[]> objectContents = Map.create();
+                for (final String objectHash : objectHashes)
+                {
+                    if (!objectContents.containsKey(objectHash))
+                    {
+                        final byte[] contents = this.backend.get(BuildCache.getObjectPath(objectHash)).await();
+                        if (contents == null)
+                        {
+                            return null;
+                        }
+                        objectContents.set(objectHash, contents);
+                    }
+                }
+                result = new RemoteBuildCacheEntry(manifestContents, objectContents);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Start uploading the entry with the provided key from the provided local cache. The entry's
+     * class files are uploaded before its manifest, so the remote cache never contains a manifest
+     * whose class files haven't been uploaded yet.
+     * @param key The key of the entry to upload.
+     * @param localCache The local cache that contains the entry.
+     * @return Whether or not an upload was started.
+     */
+    public Result<Boolean> upload(String key, BuildCache localCache)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+        PreCondition.assertNotNull(localCache, "localCache");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create2(() ->
+        {
+            boolean result = false;
+
+            // The entry is read on this thread because BuildCache isn't thread-safe.
+            final String manifestContents = localCache.getManifestContents(key).await();
+            final Iterable<String> objectHashes = manifestContents == null
+                ? null
+                : BuildCache.getManifestObjectHashes(manifestContents);
+            if (objectHashes != null)
+            {
+                final Map<String,byte[]> objectContents = Map.create();
+                for (final String objectHash : objectHashes)
+                {
+                    final byte[] contents = localCache.getObjectContents(objectHash).await();
+                    if (contents == null)
+                    {
+                        objectContents.clear();
+                        break;
+                    }
+                    objectContents.set(objectHash, contents);
+                }
+
+                if (objectContents.any())
+                {
+                    this.uploads.add(this.transfers.submit(() ->
+                    {
+                        for (final MapEntry<String,byte[]> object : objectContents)
+                        {
+                            this.backend.put(BuildCache.getObjectPath(object.getKey()), object.getValue()).await();
+                        }
+                        this.backend.put(BuildCache.getManifestPath(key), manifestContents.getBytes(java.nio.charset.StandardCharsets.UTF_8)).await();
+                        return true;
+                    }));
+                    result = true;
+                }
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Wait for the uploads that have been started to finish. Uploads that don't finish before the
+     * timeout are abandoned.
+     * @return The number of uploads that failed or were abandoned.
+     */
+    public Result<Integer> waitForUploads()
+    {
+        return Result.create2(() ->
+        {
+            int result = 0;
+            final long deadline = java.lang.System.nanoTime() + java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(this.timeoutMilliseconds);
+            for (final java.util.concurrent.Future<Boolean> upload : this.uploads)
+            {
+                if (RemoteBuildCache.getBeforeDeadline(upload, deadline) == null)
+                {
+                    ++result;
+                }
+            }
+            this.uploads.clear();
+            return result;
+        });
+    }
+
+    /**
+     * Get the value of the provided transfer, or null if the transfer failed or didn't finish
+     * before the provided deadline. A transfer that didn't finish is cancelled.
+     */
+    private static <T> T getBeforeDeadline(java.util.concurrent.Future<T> transfer, long deadline)
+    {
+        T result = null;
+        try
+        {
+            result = transfer.get(java.lang.Math.max(0, deadline - java.lang.System.nanoTime()), java.util.concurrent.TimeUnit.NANOSECONDS);
+        }
+        catch (java.util.concurrent.TimeoutException e)
+        {
+            transfer.cancel(true);
+        }
+        catch (java.util.concurrent.ExecutionException e)
+        {
+            // A failed transfer is treated the same as a miss.
+        }
+        catch (InterruptedException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create2(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                this.transfers.shutdownNow();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * An entry that was downloaded from the remote cache but hasn't been added to the local cache
+     * yet.
+     */
+    private static class RemoteBuildCacheEntry
+    {
+        private final String manifestContents;
+        private final Map<String,byte[]> objectContents;
+
+        private RemoteBuildCacheEntry(String manifestContents, Map<String,byte[]> objectContents)
+        {
+            this.manifestContents = manifestContents;
+            this.objectContents = objectContents;
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package qub;
+
+/**
+ * The dependencies between a project's source files. Each relative source file path is given an
+ * integer ID, and the edges in both directions are stored in compressed sparse row form: one
+ * array holds the IDs of every source file's dependencies (or dependents) back to back, and
+ * another array holds the index in that array where each source file's IDs start. This keeps
+ * large graphs compact and lets sets of source files be held as bitsets of their IDs (see
+ * SourceFileIds).
+ */
+public class SourceDependencyGraph
+{
+    private final List<Path> sourceFilePaths;
+    private final java.util.HashMap<String,Integer> sourceFileIds;
+    private int[] dependencyOffsets;
+    private int[] dependencyIds;
+    private int[] dependentOffsets;
+    private int[] dependentIds;
+
+    private SourceDependencyGraph()
+    {
+        this.sourceFilePaths = List.create();
+        this.sourceFileIds = new java.util.HashMap<>();
+    }
+
+    /**
+     * Create a new SourceDependencyGraph from the dependencies of the provided source files.
+     * @param sourceFiles The source files to create the SourceDependencyGraph from.
+     * @return The new SourceDependencyGraph.
+     */
+    public static SourceDependencyGraph create(Iterable<BuildJSONSourceFile> sourceFiles)
+    {
+        PreCondition.assertNotNull(sourceFiles, "sourceFiles");
+
+        final SourceDependencyGraph result = new SourceDependencyGraph();
+        for (final BuildJSONSourceFile sourceFile : sourceFiles)
+        {
+            result.getOrAddId(sourceFile.getRelativePath());
+        }
+
+        // Each edge goes from a source file to one of its dependencies. The edges are collected
+        // in order first, because a dependency that isn't a source file gets its ID while the
+        // edges are being read.
+        int edgeCount = 0;
+        int[] edgeSourceIds = new int[16];
+        int[] edgeDependencyIds = new int[16];
+        for (final BuildJSONSourceFile sourceFile : sourceFiles)
+        {
+            final int sourceFileId = result.getOrAddId(sourceFile.getRelativePath());
+            final Iterable<Path> dependencies = sourceFile.getDependencies();
+            if (!Iterable.isNullOrEmpty(dependencies))
+            {
+                for (final Path dependency : dependencies)
+                {
+                    final int dependencyId = result.getOrAddId(dependency);
+                    if (dependencyId != sourceFileId)
+                    {
+                        if (edgeCount == edgeSourceIds.length)
+                        {
+                            edgeSourceIds = java.util.Arrays.copyOf(edgeSourceIds, edgeCount * 2);
+                            edgeDependencyIds = java.util.Arrays.copyOf(edgeDependencyIds, edgeCount * 2);
+                        }
+                        edgeSourceIds[edgeCount] = sourceFileId;
+                        edgeDependencyIds[edgeCount] = dependencyId;
+                        ++edgeCount;
+                    }
+                }
+            }
+        }
+
+        final int sourceFileCount = result.sourceFilePaths.getCount();
+        result.dependencyOffsets = SourceDependencyGraph.createOffsets(sourceFileCount, edgeSourceIds, edgeCount);
+        result.dependencyIds = SourceDependencyGraph.createIds(result.dependencyOffsets, edgeSourceIds, edgeDependencyIds, edgeCount);
+        result.dependentOffsets = SourceDependencyGraph.createOffsets(sourceFileCount, edgeDependencyIds, edgeCount);
+        result.dependentIds = SourceDependencyGraph.createIds(result.dependentOffsets, edgeDependencyIds, edgeSourceIds, edgeCount);
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the index that each row starts at in the compressed sparse row array of the provided
+     * edges. The returned array has one more element than there are rows, so the last element is
+     * the number of edges.
+     */
+    private static int[] createOffsets(int rowCount, int[] rowIds, int edgeCount)
+    {
+        final int[] result = new int[rowCount + 1];
+        for (int edgeIndex = 0; edgeIndex < edgeCount; ++edgeIndex)
+        {
+            ++result[rowIds[edgeIndex] + 1];
+        }
+        for (int rowId = 0; rowId < rowCount; ++rowId)
+        {
+            result[rowId + 1] += result[rowId];
+        }
+        return result;
+    }
+
+    /**
+     * Get the compressed sparse row array of the provided edges. The columns of each row stay in
+     * the order that their edges were provided in.
+     */
+    private static int[] createIds(int[] offsets, int[] rowIds, int[] columnIds, int edgeCount)
+    {
+        final int[] result = new int[edgeCount];
+        final int[] nextIndexes = java.util.Arrays.copyOf(offsets, offsets.length - 1);
+        for (int edgeIndex = 0; edgeIndex < edgeCount; ++edgeIndex)
+        {
+            result[nextIndexes[rowIds[edgeIndex]]++] = columnIds[edgeIndex];
+        }
+        return result;
+    }
+
+    private int getOrAddId(Path sourceFilePath)
+    {
+        final String key = sourceFilePath.toString();
+        Integer result = this.sourceFileIds.get(key);
+        if (result == null)
+        {
+            result = this.sourceFilePaths.getCount();
+            this.sourceFileIds.put(key, result);
+            this.sourceFilePaths.add(sourceFilePath);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of source files that have an ID in this graph. This includes dependencies
+     * that aren't source files anymore, and IDs are the numbers from zero up to this count.
+     * @return The number of source files that have an ID in this graph.
+     */
+    public int getSourceFileCount()
+    {
+        return this.sourceFilePaths.getCount();
+    }
+
+    /**
+     * Get the ID of the source file at the provided relative path.
+     * @param sourceFilePath The relative path to the source file.
+     * @return The ID of the source file, or -1 if the source file isn't in this graph.
+     */
+    public int getId(Path sourceFilePath)
+    {
+        PreCondition.assertNotNull(sourceFilePath, "sourceFilePath");
+
+        final Integer result = this.sourceFileIds.get(sourceFilePath.toString());
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * Get the IDs of the source files at the provided relative paths. Paths that aren't in this
+     * graph are ignored.
+     * @param sourceFilePaths The relative paths to the source files.
+     * @return The IDs of the source files.
+     */
+    public SourceFileIds getIds(Iterable<Path> sourceFilePaths)
+    {
+        PreCondition.assertNotNull(sourceFilePaths, "sourceFilePaths");
+
+        final SourceFileIds result = SourceFileIds.create();
+        for (final Path sourceFilePath : sourceFilePaths)
+        {
+            final int sourceFileId = this.getId(sourceFilePath);
+            if (sourceFileId >= 0)
+            {
+                result.add(sourceFileId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the relative path to the source file with the provided ID.
+     * @param sourceFileId The ID of the source file.
+     * @return The relative path to the source file.
+     */
+    public Path getPath(int sourceFileId)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(sourceFileId, 0, "sourceFileId");
+        PreCondition.assertTrue(sourceFileId < this.getSourceFileCount(), "sourceFileId < this.getSourceFileCount()");
+
+        return this.sourceFilePaths.get(sourceFileId);
+    }
+
+    /**
+     * Get the number of source files that directly depend on the source file with the provided ID.
+     * @param sourceFileId The ID of the source file.
+     * @return The number of source files that directly depend on the source file.
+     */
+    public int getDependentCount(int sourceFileId)
+    {
+        return this.dependentOffsets[sourceFileId + 1] - this.dependentOffsets[sourceFileId];
+    }
+
+    /**
+     * Get the ID of one of the source files that directly depend on the source file with the
+     * provided ID.
+     * @param sourceFileId The ID of the source file.
+     * @param dependentIndex The index of the dependent, from zero up to the source file's
+     *                       dependent count.
+     * @return The ID of the dependent source file.
+     */
+    public int getDependentId(int sourceFileId, int dependentIndex)
+    {
+        return this.dependentIds[this.dependentOffsets[sourceFileId] + dependentIndex];
+    }
+
+    /**
+     * Get the relative paths to the source files that the source file at the provided relative
+     * path directly depends on.
+     * @param sourceFilePath The relative path to the source file.
+     * @return The relative paths to the source files that the source file directly depends on.
+     */
+    public Iterable<Path> getDependencies(Path sourceFilePath)
+    {
+        PreCondition.assertNotNull(sourceFilePath, "sourceFilePath");
+
+        return this.getPaths(this.getId(sourceFilePath), this.dependencyOffsets, this.dependencyIds);
+    }
+
+    /**
+     * Get the relative paths to the source files that directly depend on the source file at the
+     * provided relative path.
+     * @param sourceFilePath The relative path to the source file.
+     * @return The relative paths to the source files that directly depend on the source file.
+     */
+    public Iterable<Path> getDependents(Path sourceFilePath)
+    {
+        PreCondition.assertNotNull(sourceFilePath, "sourceFilePath");
+
+        return this.getPaths(this.getId(sourceFilePath), this.dependentOffsets, this.dependentIds);
+    }
+
+    private Iterable<Path> getPaths(int sourceFileId, int[] offsets, int[] ids)
+    {
+        final List<Path> result = List.create();
+        if (sourceFileId >= 0)
+        {
+            for (int index = offsets[sourceFileId]; index < offsets[sourceFileId + 1]; ++index)
+            {
+                result.add(this.sourceFilePaths.get(ids[index]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the candidate source files that must be recompiled because they directly or
+     * transitively depend on one of the provided modified source files. The graph is traversed
+     * breadth-first, so each invalidated source file is visited once and the returned
+     * invalidations are ordered by their distance from the modified source files.
+     * @param modifiedSourceFilePaths The relative paths to the source files that will be
+     *                                recompiled.
+     * @param candidateSourceFilePaths The relative paths to the source files that may be
+     *                                 invalidated.
+     * @return The invalidated candidate source files.
+     */
+    public Iterable<SourceInvalidation> getInvalidatedSourceFiles(Iterable<Path> modifiedSourceFilePaths, Iterable<Path> candidateSourceFilePaths)
+    {
+        PreCondition.assertNotNull(modifiedSourceFilePaths, "modifiedSourceFilePaths");
+        PreCondition.assertNotNull(candidateSourceFilePaths, "candidateSourceFilePaths");
+
+        return this.getInvalidatedSourceFiles(this.getIds(modifiedSourceFilePaths), this.getIds(candidateSourceFilePaths));
+    }
+
+    /**
+     * Get the candidate source files that must be recompiled because they directly or
+     * transitively depend on one of the provided modified source files. The graph is traversed
+     * breadth-first, so each invalidated source file is visited once and the returned
+     * invalidations are ordered by their distance from the modified source files.
+     * @param modifiedSourceFileIds The IDs of the source files that will be recompiled.
+     * @param candidateSourceFileIds The IDs of the source files that may be invalidated.
+     * @return The invalidated candidate source files.
+     */
+    public Iterable<SourceInvalidation> getInvalidatedSourceFiles(SourceFileIds modifiedSourceFileIds, SourceFileIds candidateSourceFileIds)
+    {
+        PreCondition.assertNotNull(modifiedSourceFileIds, "modifiedSourceFileIds");
+        PreCondition.assertNotNull(candidateSourceFileIds, "candidateSourceFileIds");
+
+        final int sourceFileCount = this.sourceFilePaths.getCount();
+        final SourceInvalidation[] invalidations = new SourceInvalidation[sourceFileCount];
+        java.util.BitSet frontier = modifiedSourceFileIds.ids.get(0, sourceFileCount);
+        final java.util.BitSet visited = (java.util.BitSet)frontier.clone();
+        for (int sourceFileId = frontier.nextSetBit(0); sourceFileId >= 0; sourceFileId = frontier.nextSetBit(sourceFileId + 1))
+        {
+            invalidations[sourceFileId] = new SourceInvalidation(this.sourceFilePaths.get(sourceFileId), null);
+        }
+
+        final java.util.BitSet candidates = candidateSourceFileIds.ids.get(0, sourceFileCount);
+        candidates.andNot(visited);
+
+        final List<SourceInvalidation> result = List.create();
+        while (!frontier.isEmpty())
+        {
+            final java.util.BitSet nextFrontier = new java.util.BitSet(sourceFileCount);
+            for (int sourceFileId = frontier.nextSetBit(0); sourceFileId >= 0; sourceFileId = frontier.nextSetBit(sourceFileId + 1))
+            {
+                for (int index = this.dependentOffsets[sourceFileId]; index < this.dependentOffsets[sourceFileId + 1]; ++index)
+                {
+                    final int dependentId = this.dependentIds[index];
+                    if (candidates.get(dependentId) && !visited.get(dependentId))
+                    {
+                        visited.set(dependentId);
+                        nextFrontier.set(dependentId);
+                        invalidations[dependentId] = new SourceInvalidation(this.sourceFilePaths.get(dependentId), invalidations[sourceFileId]);
+                    }
+                }
+            }
+
+            for (int sourceFileId = nextFrontier.nextSetBit(0); sourceFileId >= 0; sourceFileId = nextFrontier.nextSetBit(sourceFileId + 1))
+            {
+                result.add(invalidations[sourceFileId]);
+            }
+            frontier = nextFrontier;
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the candidate source files that directly depend on one of the provided source files.
+     * Unlike getInvalidatedSourceFiles(), the dependents of those dependents aren't returned, so
+     * a source file is only invalidated by a dependency that it refers to itself.
+     * @param changedSourceFileIds The IDs of the source files whose dependents may be invalidated.
+     * @param candidateSourceFileIds The IDs of the source files that may be invalidated.
+     * @return The invalidated candidate source files, in the order of their IDs.
+     */
+    public Iterable<SourceInvalidation> getDirectlyInvalidatedSourceFiles(SourceFileIds changedSourceFileIds, SourceFileIds candidateSourceFileIds)
+    {
+        PreCondition.assertNotNull(changedSourceFileIds, "changedSourceFileIds");
+        PreCondition.assertNotNull(candidateSourceFileIds, "candidateSourceFileIds");
+
+        final int sourceFileCount = this.sourceFilePaths.getCount();
+        final java.util.BitSet changed = changedSourceFileIds.ids.get(0, sourceFileCount);
+        final java.util.BitSet candidates = candidateSourceFileIds.ids.get(0, sourceFileCount);
+        candidates.andNot(changed);
+
+        final SourceInvalidation[] invalidations = new SourceInvalidation[sourceFileCount];
+        for (int sourceFileId = changed.nextSetBit(0); sourceFileId >= 0; sourceFileId = changed.nextSetBit(sourceFileId + 1))
+        {
+            final SourceInvalidation changedInvalidation = new SourceInvalidation(this.sourceFilePaths.get(sourceFileId), null);
+            for (int index = this.dependentOffsets[sourceFileId]; index < this.dependentOffsets[sourceFileId + 1]; ++index)
+            {
+                final int dependentId = this.dependentIds[index];
+                if (candidates.get(dependentId) && invalidations[dependentId] == null)
+                {
+                    invalidations[dependentId] = new SourceInvalidation(this.sourceFilePaths.get(dependentId), changedInvalidation);
+                }
+            }
+        }
+
+        final List<SourceInvalidation> result = List.create();
+        for (final SourceInvalidation invalidation : invalidations)
+        {
+            if (invalidation != null)
+            {
+                result.add(invalidation);
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the strongly connected components of the graph that is made up of the provided source
+     * files and the dependencies between them. Source files that depend on each other through a
+     * dependency cycle are in the same component. Each component comes after every component
+     * that it depends on, and the source files within a component are in the order that they
+     * were provided in. Source files that aren't in the graph are each put in their own component.
+     * @param sourceFilePaths The relative paths to the source files to get the components of.
+     * @return The strongly connected components of the provided source files.
+     */
+    public Iterable<Iterable<Path>> getStronglyConnectedComponents(Iterable<Path> sourceFilePaths)
+    {
+        PreCondition.assertNotNull(sourceFilePaths, "sourceFilePaths");
+
+        final int sourceFileCount = this.sourceFilePaths.getCount();
+        final int[] inputIndexes = new int[sourceFileCount];
+        final java.util.BitSet members = new java.util.BitSet(sourceFileCount);
+        final List<Integer> memberIds = List.create();
+        final List<Iterable<Path>> result = List.create();
+        for (final Path sourceFilePath : sourceFilePaths)
+        {
+            final int sourceFileId = this.getId(sourceFilePath);
+            if (sourceFileId < 0)
+            {
+                result.add(Iterable.create(sourceFilePath));
+            }
+            else if (!members.get(sourceFileId))
+            {
+                members.set(sourceFileId);
+                inputIndexes[sourceFileId] = memberIds.getCount();
+                memberIds.add(sourceFileId);
+            }
+        }
+
+        // Tarjan's algorithm is run over the dependent edges without recursion. A component is
+        // completed only after every component that depends on it, so the completed components
+        // are reversed to put dependencies first.
+        final int[] indexes = new int[sourceFileCount];
+        java.util.Arrays.fill(indexes, -1);
+        final int[] lowLinks = new int[sourceFileCount];
+        final java.util.BitSet onStack = new java.util.BitSet(sourceFileCount);
+        final int[] stack = new int[sourceFileCount];
+        int stackCount = 0;
+        final int[] callNodes = new int[sourceFileCount];
+        final int[] callEdges = new int[sourceFileCount];
+        int callCount = 0;
+        int nextIndex = 0;
+        final List<Iterable<Path>> completedComponents = List.create();
+        for (final Integer rootId : memberIds)
+        {
+            if (indexes[rootId] < 0)
+            {
+                indexes[rootId] = nextIndex;
+                lowLinks[rootId] = nextIndex;
+                ++nextIndex;
+                stack[stackCount++] = rootId;
+                onStack.set(rootId);
+                callNodes[callCount] = rootId;
+                callEdges[callCount] = this.dependentOffsets[rootId];
+                ++callCount;
+
+                while (callCount > 0)
+                {
+                    final int nodeId = callNodes[callCount - 1];
+                    final int edgeIndex = callEdges[callCount - 1];
+                    if (edgeIndex < this.dependentOffsets[nodeId + 1])
+                    {
+                        callEdges[callCount - 1] = edgeIndex + 1;
+                        final int dependentId = this.dependentIds[edgeIndex];
+                        if (members.get(dependentId))
+                        {
+                            if (indexes[dependentId] < 0)
+                            {
+                                indexes[dependentId] = nextIndex;
+                                lowLinks[dependentId] = nextIndex;
+                                ++nextIndex;
+                                stack[stackCount++] = dependentId;
+                                onStack.set(dependentId);
+                                callNodes[callCount] = dependentId;
+                                callEdges[callCount] = this.dependentOffsets[dependentId];
+                                ++callCount;
+                            }
+                            else if (onStack.get(dependentId))
+                            {
+                                lowLinks[nodeId] = Math.min(lowLinks[nodeId], indexes[dependentId]);
+                            }
+                        }
+                    }
+                    else
+                    {
+                        --callCount;
+                        if (callCount > 0)
+                        {
+                            final int parentId = callNodes[callCount - 1];
+                            lowLinks[parentId] = Math.min(lowLinks[parentId], lowLinks[nodeId]);
+                        }
+
+                        if (lowLinks[nodeId] == indexes[nodeId])
+                        {
+                            final List<Integer> componentIds = List.create();
+                            int componentId;
+                            do
+                            {
+                                componentId = stack[--stackCount];
+                                onStack.clear(componentId);
+                                componentIds.add(componentId);
+                            }
+                            while (componentId != nodeId);
+
+                            componentIds.sort((Integer lhs, Integer rhs) -> inputIndexes[lhs] < inputIndexes[rhs]);
+                            completedComponents.add(componentIds
+                                .map((Integer id) -> this.sourceFilePaths.get(id))
+                                .toList());
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int i = completedComponents.getCount() - 1; i >= 0; --i)
+        {
+            result.add(completedComponents.get(i));
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * A set of source file IDs from a SourceDependencyGraph. The IDs are held as a bitset, so
+     * large sets of source files can be built and compared without hashing their paths.
+     */
+    public static class SourceFileIds
+    {
+        private final java.util.BitSet ids;
+
+        private SourceFileIds(java.util.BitSet ids)
+        {
+            this.ids = ids;
+        }
+
+        /**
+         * Create a new empty SourceFileIds object.
+         * @return The new SourceFileIds object.
+         */
+        public static SourceFileIds create()
+        {
+            return new SourceFileIds(new java.util.BitSet());
+        }
+
+        /**
+         * Get the number of IDs in this set.
+         * @return The number of IDs in this set.
+         */
+        public int getCount()
+        {
+            return this.ids.cardinality();
+        }
+
+        /**
+         * Get whether or not this set contains the provided ID.
+         * @param sourceFileId The ID to look for.
+         * @return Whether or not this set contains the provided ID.
+         */
+        public boolean contains(int sourceFileId)
+        {
+            PreCondition.assertGreaterThanOrEqualTo(sourceFileId, 0, "sourceFileId");
+
+            return this.ids.get(sourceFileId);
+        }
+
+        /**
+         * Add the provided ID to this set.
+         * @param sourceFileId The ID to add.
+         * @return This object for method chaining.
+         */
+        public SourceFileIds add(int sourceFileId)
+        {
+            PreCondition.assertGreaterThanOrEqualTo(sourceFileId, 0, "sourceFileId");
+
+            this.ids.set(sourceFileId);
+            return this;
+        }
+
+        /**
+         * Get a new set that contains the IDs in this set that aren't in the provided set. This set
+         * isn't changed.
+         * @param sourceFileIds The IDs to leave out of the new set.
+         * @return The new set.
+         */
+        public SourceFileIds except(SourceFileIds sourceFileIds)
+        {
+            PreCondition.assertNotNull(sourceFileIds, "sourceFileIds");
+
+            final java.util.BitSet resultIds = (java.util.BitSet)this.ids.clone();
+            resultIds.andNot(sourceFileIds.ids);
+            return new SourceFileIds(resultIds);
+        }
+    }
+}
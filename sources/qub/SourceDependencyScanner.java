@@ -0,0 +1,208 @@
+package qub;
+
+/**
+ * An index of the class names of a project's source files that can find which of those source
+ * files another source file refers to in a single pass over its contents.
+ */
+public class SourceDependencyScanner
+{
+    private final List<File> sourceFiles;
+    private final Map<String,List<Integer>> classNameToSourceFileIndexes;
+
+    private SourceDependencyScanner(Iterable<File> sourceFiles)
+    {
+        this.sourceFiles = List.create();
+        this.classNameToSourceFileIndexes = Map.create();
+        for (final File sourceFile : sourceFiles)
+        {
+            final String className = sourceFile.getNameWithoutFileExtension();
+            List<Integer> sourceFileIndexes = this.classNameToSourceFileIndexes.get(className)
+                .catchError(NotFoundException.class)
+                .await();
+            if (sourceFileIndexes == null)
+            {
+                sourceFileIndexes = List.create();
+                this.classNameToSourceFileIndexes.set(className, sourceFileIndexes);
+            }
+            sourceFileIndexes.add(this.sourceFiles.getCount());
+            this.sourceFiles.add(sourceFile);
+        }
+    }
+
+    /**
+     * Create a new SourceDependencyScanner for the provided source files.
+     * @param sourceFiles The source files that other source files may depend on.
+     * @return The new SourceDependencyScanner.
+     */
+    public static SourceDependencyScanner create(Iterable<File> sourceFiles)
+    {
+        PreCondition.assertNotNull(sourceFiles, "sourceFiles");
+
+        return new SourceDependencyScanner(sourceFiles);
+    }
+
+    /**
+     * Get the source files that the provided source file's contents refer to by class name. Names
+     * that appear in comments, string literals, and character literals are ignored.
+     * @param sourceFile The source file that is being scanned. This source file will never be
+     *                   returned as one of its own dependencies.
+     * @param sourceFileContents The contents of the source file.
+     * @return The source files that the provided source file refers to, in the order that they were
+     * provided to this scanner.
+     */
+    public Iterable<File> getDependencies(File sourceFile, String sourceFileContents)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+        PreCondition.assertNotNull(sourceFileContents, "sourceFileContents");
+
+        final boolean[] dependencyIndexes = new boolean[this.sourceFiles.getCount()];
+        SourceDependencyScanner.scanIdentifiers(sourceFileContents, (String identifier) ->
+        {
+            final List<Integer> sourceFileIndexes = this.classNameToSourceFileIndexes.get(identifier)
+                .catchError(NotFoundException.class)
+                .await();
+            if (sourceFileIndexes != null)
+            {
+                for (final Integer sourceFileIndex : sourceFileIndexes)
+                {
+                    dependencyIndexes[sourceFileIndex] = true;
+                }
+            }
+        });
+
+        final List<File> result = List.create();
+        for (int dependencyIndex = 0; dependencyIndex < dependencyIndexes.length; ++dependencyIndex)
+        {
+            final File dependency = this.sourceFiles.get(dependencyIndex);
+            if (dependencyIndexes[dependencyIndex] && !sourceFile.equals(dependency))
+            {
+                result.add(dependency);
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Invoke the provided action for each Java identifier in the provided source code. Comments,
+     * string literals, text blocks, character literals, and numeric literals are skipped.
+     * @param sourceCode The source code to scan.
+     * @param identifierAction The action to invoke for each identifier.
+     */
+    public static void scanIdentifiers(String sourceCode, Action1<String> identifierAction)
+    {
+        PreCondition.assertNotNull(sourceCode, "sourceCode");
+        PreCondition.assertNotNull(identifierAction, "identifierAction");
+
+        final int length = sourceCode.length();
+        int index = 0;
+        while (index < length)
+        {
+            final char c = sourceCode.charAt(index);
+            if (c == '/' && index + 1 < length && sourceCode.charAt(index + 1) == '/')
+            {
+                index = SourceDependencyScanner.skipToEndOfLine(sourceCode, index + 2);
+            }
+            else if (c == '/' && index + 1 < length && sourceCode.charAt(index + 1) == '*')
+            {
+                final int commentEndIndex = sourceCode.indexOf("*/", index + 2);
+                index = (commentEndIndex < 0 ? length : commentEndIndex + 2);
+            }
+            else if (c == '"' && sourceCode.startsWith("\"\"\"", index))
+            {
+                index = SourceDependencyScanner.skipTextBlock(sourceCode, index + 3);
+            }
+            else if (c == '"' || c == '\'')
+            {
+                index = SourceDependencyScanner.skipQuotedLiteral(sourceCode, index + 1, c);
+            }
+            else if (Character.isJavaIdentifierStart(c))
+            {
+                final int identifierStartIndex = index;
+                ++index;
+                while (index < length && Character.isJavaIdentifierPart(sourceCode.charAt(index)))
+                {
+                    ++index;
+                }
+                identifierAction.run(sourceCode.substring(identifierStartIndex, index));
+            }
+            else if (Character.isDigit(c))
+            {
+                // Skip numeric literals such as 0x1F and 10L so that their suffixes aren't treated
+                // as identifiers.
+                ++index;
+                while (index < length && (Character.isJavaIdentifierPart(sourceCode.charAt(index)) || sourceCode.charAt(index) == '.'))
+                {
+                    ++index;
+                }
+            }
+            else
+            {
+                ++index;
+            }
+        }
+    }
+
+    private static int skipToEndOfLine(String sourceCode, int index)
+    {
+        final int length = sourceCode.length();
+        while (index < length && sourceCode.charAt(index) != '\n' && sourceCode.charAt(index) != '\r')
+        {
+            ++index;
+        }
+        return index;
+    }
+
+    private static int skipQuotedLiteral(String sourceCode, int index, char quote)
+    {
+        final int length = sourceCode.length();
+        while (index < length)
+        {
+            final char c = sourceCode.charAt(index);
+            if (c == '\\')
+            {
+                index += 2;
+            }
+            else if (c == quote)
+            {
+                ++index;
+                break;
+            }
+            else if (c == '\n' || c == '\r')
+            {
+                // Unterminated literals end at the end of the line.
+                break;
+            }
+            else
+            {
+                ++index;
+            }
+        }
+        return Math.min(index, length);
+    }
+
+    private static int skipTextBlock(String sourceCode, int index)
+    {
+        final int length = sourceCode.length();
+        while (index < length)
+        {
+            final char c = sourceCode.charAt(index);
+            if (c == '\\')
+            {
+                index += 2;
+            }
+            else if (c == '"' && sourceCode.startsWith("\"\"\"", index))
+            {
+                index += 3;
+                break;
+            }
+            else
+            {
+                ++index;
+            }
+        }
+        return Math.min(index, length);
+    }
+}
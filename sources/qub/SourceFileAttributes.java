@@ -0,0 +1,107 @@
+package qub;
+
+/**
+ * The sizes and last modified times of the files that were found while the source files of a
+ * project were discovered. Collecting the attributes while the folders are walked means that the
+ * build doesn't need to ask the file system about each source file again.
+ */
+public class SourceFileAttributes
+{
+    private final java.util.HashMap<String,SourceFileAttribute> attributes;
+
+    private SourceFileAttributes()
+    {
+        this.attributes = new java.util.HashMap<>();
+    }
+
+    /**
+     * Create a new empty SourceFileAttributes object.
+     * @return The new SourceFileAttributes object.
+     */
+    public static SourceFileAttributes create()
+    {
+        return new SourceFileAttributes();
+    }
+
+    /**
+     * Get the number of files that have attributes in this object.
+     * @return The number of files that have attributes in this object.
+     */
+    public int getCount()
+    {
+        return this.attributes.size();
+    }
+
+    /**
+     * Set the attributes of the file at the provided path.
+     * @param filePath The path of the file.
+     * @param size The size of the file in bytes.
+     * @param lastModified The last modified time of the file.
+     * @return This object for method chaining.
+     */
+    public SourceFileAttributes set(Path filePath, long size, DateTime lastModified)
+    {
+        PreCondition.assertNotNull(filePath, "filePath");
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+        PreCondition.assertNotNull(lastModified, "lastModified");
+
+        this.attributes.put(filePath.toString(), new SourceFileAttribute(size, lastModified));
+        return this;
+    }
+
+    /**
+     * Convert the provided file system time to a DateTime.
+     * @param fileTime The file system time to convert.
+     * @return The converted DateTime.
+     */
+    public static DateTime toDateTime(java.nio.file.attribute.FileTime fileTime)
+    {
+        PreCondition.assertNotNull(fileTime, "fileTime");
+
+        return DateTime.createFromDurationSinceEpoch(Duration.milliseconds(fileTime.toMillis()));
+    }
+
+    /**
+     * Get the size of the provided file that was collected when the file was discovered.
+     * @param file The file to get the size of.
+     * @return The size of the provided file in bytes, or null if its size wasn't collected.
+     */
+    public Long getSize(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        final SourceFileAttribute attribute = this.attributes.get(file.getPath().toString());
+        return attribute == null ? null : attribute.size;
+    }
+
+    /**
+     * Get the last modified time of the provided file. The last modified time is only read from
+     * the file system if it wasn't collected when the file was discovered.
+     * @param file The file to get the last modified time of.
+     * @return The last modified time of the provided file.
+     */
+    public Result<DateTime> getLastModified(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return Result.create2(() ->
+        {
+            final SourceFileAttribute attribute = this.attributes.get(file.getPath().toString());
+            return attribute != null
+                ? attribute.lastModified
+                : file.getLastModified().await();
+        });
+    }
+
+    private static class SourceFileAttribute
+    {
+        private final long size;
+        private final DateTime lastModified;
+
+        private SourceFileAttribute(long size, DateTime lastModified)
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
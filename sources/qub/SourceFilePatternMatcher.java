@@ -0,0 +1,248 @@
+package qub;
+
+/**
+ * A matcher that is compiled once from the sourceFiles patterns in a project.json file. The
+ * patterns are stored in a trie that is keyed by the folders at the start of each pattern that
+ * don't contain wildcards, so a path is only compared against the patterns whose fixed folders it
+ * is in, and whole folders that can't contain a match are rejected before they are visited.
+ *
+ * A pattern also requires every matching path to start with the characters before its first
+ * wildcard and to end with the characters after its last wildcard. Those checks reject most
+ * paths with a couple of string comparisons, so PathPattern.isMatch() is only called for paths
+ * that are likely to match. The trie and these checks ignore case, so they never reject a path
+ * that PathPattern.isMatch() would accept.
+ */
+public class SourceFilePatternMatcher
+{
+    private final SourceFilePatternTrieNode root;
+    private final int patternCount;
+
+    private SourceFilePatternMatcher(Iterable<PathPattern> patterns)
+    {
+        PreCondition.assertNotNull(patterns, "patterns");
+
+        this.root = new SourceFilePatternTrieNode();
+        int patternCount = 0;
+        for (final PathPattern pattern : patterns)
+        {
+            String patternString = pattern.toString().replace('\\', '/');
+            while (patternString.startsWith("/") || patternString.startsWith("./"))
+            {
+                patternString = patternString.substring(patternString.indexOf('/') + 1);
+            }
+            final int firstWildcardIndex = SourceFilePatternMatcher.indexOfWildcard(patternString);
+            final int lastWildcardIndex = SourceFilePatternMatcher.lastIndexOfWildcard(patternString);
+            final String literalPrefix = firstWildcardIndex == -1 ? patternString : patternString.substring(0, firstWildcardIndex);
+            final String literalSuffix = lastWildcardIndex == -1 ? patternString : patternString.substring(lastWildcardIndex + 1);
+
+            SourceFilePatternTrieNode node = this.root;
+            final String fixedPrefix = QubBuild.getFixedPrefix(pattern);
+            if (!fixedPrefix.isEmpty())
+            {
+                for (final String segment : fixedPrefix.split("/"))
+                {
+                    node = node.getOrCreateChild(segment);
+                }
+            }
+            node.patterns.add(new CompiledPathPattern(pattern, literalPrefix, literalSuffix));
+            ++patternCount;
+        }
+        this.patternCount = patternCount;
+    }
+
+    /**
+     * Compile the provided patterns into a new SourceFilePatternMatcher.
+     * @param patterns The patterns to compile.
+     * @return The new SourceFilePatternMatcher.
+     */
+    public static SourceFilePatternMatcher create(Iterable<PathPattern> patterns)
+    {
+        return new SourceFilePatternMatcher(patterns);
+    }
+
+    /**
+     * Get the number of patterns that this matcher was compiled from.
+     * @return The number of patterns that this matcher was compiled from.
+     */
+    public int getPatternCount()
+    {
+        return this.patternCount;
+    }
+
+    /**
+     * Get whether or not the provided relative file path matches any of this matcher's patterns.
+     * @param relativeFilePath The path of a file relative to the project folder, using '/' as the
+     *                         separator.
+     * @return Whether or not the provided relative file path matches any of this matcher's
+     * patterns.
+     */
+    public boolean isMatch(String relativeFilePath)
+    {
+        PreCondition.assertNotNull(relativeFilePath, "relativeFilePath");
+
+        boolean result = false;
+        Path parsedRelativeFilePath = null;
+        SourceFilePatternTrieNode node = this.root;
+        int segmentStartIndex = 0;
+        while (node != null)
+        {
+            for (final CompiledPathPattern compiledPattern : node.patterns)
+            {
+                if (SourceFilePatternMatcher.startsWithIgnoreCase(relativeFilePath, compiledPattern.literalPrefix) &&
+                    SourceFilePatternMatcher.endsWithIgnoreCase(relativeFilePath, compiledPattern.literalSuffix))
+                {
+                    if (parsedRelativeFilePath == null)
+                    {
+                        parsedRelativeFilePath = Path.parse(relativeFilePath);
+                    }
+                    if (compiledPattern.pattern.isMatch(parsedRelativeFilePath))
+                    {
+                        result = true;
+                        break;
+                    }
+                }
+            }
+
+            // Only folder segments lead to a child node, so the last segment (the file name)
+            // never does.
+            final int segmentEndIndex = relativeFilePath.indexOf('/', segmentStartIndex);
+            if (result || segmentEndIndex == -1)
+            {
+                break;
+            }
+            node = node.getChild(relativeFilePath.substring(segmentStartIndex, segmentEndIndex));
+            segmentStartIndex = segmentEndIndex + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the folder at the provided relative path could contain a file that
+     * matches one of this matcher's patterns.
+     * @param relativeFolderPath The path of a folder relative to the project folder, using '/' as
+     *                           the separator and without a trailing separator.
+     * @return Whether or not the folder could contain a matching file.
+     */
+    public boolean canContainMatches(String relativeFolderPath)
+    {
+        PreCondition.assertNotNull(relativeFolderPath, "relativeFolderPath");
+
+        boolean result = this.root.patterns.any();
+        SourceFilePatternTrieNode node = this.root;
+        int segmentStartIndex = 0;
+        while (!result && node != null)
+        {
+            if (segmentStartIndex > relativeFolderPath.length())
+            {
+                // The folder is on the way to the fixed prefix of at least one pattern.
+                result = true;
+            }
+            else
+            {
+                int segmentEndIndex = relativeFolderPath.indexOf('/', segmentStartIndex);
+                if (segmentEndIndex == -1)
+                {
+                    segmentEndIndex = relativeFolderPath.length();
+                }
+                node = node.getChild(relativeFolderPath.substring(segmentStartIndex, segmentEndIndex));
+                segmentStartIndex = segmentEndIndex + 1;
+                result = node != null && node.patterns.any();
+            }
+        }
+        return result;
+    }
+
+    private static boolean startsWithIgnoreCase(String text, String prefix)
+    {
+        return text.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private static boolean endsWithIgnoreCase(String text, String suffix)
+    {
+        return text.regionMatches(true, text.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
+    private static int indexOfWildcard(String patternString)
+    {
+        int result = -1;
+        for (int i = 0; i < patternString.length(); ++i)
+        {
+            if (SourceFilePatternMatcher.isWildcard(patternString.charAt(i)))
+            {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static int lastIndexOfWildcard(String patternString)
+    {
+        int result = -1;
+        for (int i = patternString.length() - 1; 0 <= i; --i)
+        {
+            if (SourceFilePatternMatcher.isWildcard(patternString.charAt(i)))
+            {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    static boolean isWildcard(char character)
+    {
+        switch (character)
+        {
+            case '*':
+            case '?':
+            case '[':
+            case ']':
+            case '{':
+            case '}':
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    private static class SourceFilePatternTrieNode
+    {
+        private final List<CompiledPathPattern> patterns;
+        private java.util.HashMap<String,SourceFilePatternTrieNode> children;
+
+        private SourceFilePatternTrieNode()
+        {
+            this.patterns = List.create();
+        }
+
+        private SourceFilePatternTrieNode getChild(String segment)
+        {
+            return this.children == null ? null : this.children.get(segment.toLowerCase());
+        }
+
+        private SourceFilePatternTrieNode getOrCreateChild(String segment)
+        {
+            if (this.children == null)
+            {
+                this.children = new java.util.HashMap<>();
+            }
+            return this.children.computeIfAbsent(segment.toLowerCase(), (String key) -> new SourceFilePatternTrieNode());
+        }
+    }
+
+    private static class CompiledPathPattern
+    {
+        private final PathPattern pattern;
+        private final String literalPrefix;
+        private final String literalSuffix;
+
+        private CompiledPathPattern(PathPattern pattern, String literalPrefix, String literalSuffix)
+        {
+            this.pattern = pattern;
+            this.literalPrefix = literalPrefix;
+            this.literalSuffix = literalSuffix;
+        }
+    }
+}
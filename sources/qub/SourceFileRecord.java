@@ -0,0 +1,426 @@
+package qub;
+
+/**
+ * An immutable record of the state of a source file from its last build. The record's values are
+ * parsed once when a build.json file is loaded, so reading them while a build is being planned
+ * doesn't touch JSON or allocate. Each with...() method returns a new record with one changed
+ * value, and the record is only converted back to JSON when the build.json file is saved.
+ */
+public class SourceFileRecord
+{
+    static final String lastModifiedPropertyName = "lastModified";
+    static final String sizePropertyName = "size";
+    static final String contentHashPropertyName = "contentHash";
+    static final String abiDigestPropertyName = "abiDigest";
+    static final String dependenciesPropertyName = "dependencies";
+    static final String classFilesPropertyName = "classFiles";
+    static final String issuesPropertyName = "issues";
+
+    private final Path relativePath;
+    private final String relativePathString;
+    private final DateTime lastModified;
+    private final Long size;
+    private final String contentHash;
+    private final String abiDigest;
+    private final Iterable<Path> dependencies;
+    private final Iterable<Path> classFiles;
+    private final Iterable<JavaCompilerIssue> issues;
+
+    private SourceFileRecord(Path relativePath, DateTime lastModified, Long size, String contentHash, String abiDigest, Iterable<Path> dependencies, Iterable<Path> classFiles, Iterable<JavaCompilerIssue> issues)
+    {
+        PreCondition.assertNotNull(relativePath, "relativePath");
+        PreCondition.assertNotNull(issues, "issues");
+
+        this.relativePath = relativePath;
+        this.relativePathString = relativePath.toString();
+        this.lastModified = lastModified;
+        this.size = size;
+        this.contentHash = contentHash;
+        this.abiDigest = abiDigest;
+        this.dependencies = dependencies;
+        this.classFiles = classFiles;
+        this.issues = issues;
+    }
+
+    /**
+     * Create a new SourceFileRecord that only has the provided relative path.
+     * @param relativePath The path to the source file from the project folder.
+     * @return The new SourceFileRecord.
+     */
+    public static SourceFileRecord create(Path relativePath)
+    {
+        PreCondition.assertNotNull(relativePath, "relativePath");
+        PreCondition.assertFalse(relativePath.isRooted(), "relativePath.isRooted()");
+
+        return new SourceFileRecord(relativePath, null, null, null, null, null, null, Iterable.create());
+    }
+
+    /**
+     * Parse a SourceFileRecord from the provided JSONProperty.
+     * @param sourceFileProperty The JSONProperty to parse.
+     * @return The parsed SourceFileRecord.
+     */
+    public static Result<SourceFileRecord> parse(JSONProperty sourceFileProperty)
+    {
+        return SourceFileRecord.parse(sourceFileProperty, null);
+    }
+
+    /**
+     * Parse a SourceFileRecord from the provided JSONProperty.
+     * @param sourceFileProperty The JSONProperty to parse.
+     * @param paths The paths that have already been parsed, keyed by their string value. Equal
+     *              paths that are found in the JSONProperty will share the Path object from this
+     *              map, and new paths will be added to it. This can be null.
+     * @return The parsed SourceFileRecord.
+     */
+    public static Result<SourceFileRecord> parse(JSONProperty sourceFileProperty, Map<String,Path> paths)
+    {
+        PreCondition.assertNotNull(sourceFileProperty, "sourceFileProperty");
+
+        return Result.create2(() ->
+        {
+            final JSONObject json = sourceFileProperty.getObjectValue().await();
+
+            final String lastModifiedString = json.getString(SourceFileRecord.lastModifiedPropertyName)
+                .catchError()
+                .await();
+            final DateTime lastModified = Strings.isNullOrEmpty(lastModifiedString)
+                ? null
+                : DateTime.parse(lastModifiedString).catchError().await();
+
+            final Number size = json.getNumber(SourceFileRecord.sizePropertyName)
+                .catchError()
+                .await();
+
+            final JSONArray issuesArray = json.getArray(SourceFileRecord.issuesPropertyName)
+                .catchError()
+                .await();
+            final Iterable<JavaCompilerIssue> issues = issuesArray == null
+                ? Iterable.create()
+                : issuesArray
+                    .instanceOf(JSONObject.class)
+                    .map((JSONObject issueJson) -> JavaCompilerIssue.parse(issueJson).await())
+                    .toList();
+
+            return new SourceFileRecord(
+                SourceFileRecord.getPath(sourceFileProperty.getName(), paths),
+                lastModified,
+                size == null ? null : size.longValue(),
+                json.getString(SourceFileRecord.contentHashPropertyName).catchError().await(),
+                json.getString(SourceFileRecord.abiDigestPropertyName).catchError().await(),
+                SourceFileRecord.parsePaths(json, SourceFileRecord.dependenciesPropertyName, paths),
+                SourceFileRecord.parsePaths(json, SourceFileRecord.classFilesPropertyName, null),
+                issues);
+        });
+    }
+
+    private static Path getPath(String pathString, Map<String,Path> paths)
+    {
+        Path result;
+        if (paths == null)
+        {
+            result = Path.parse(pathString);
+        }
+        else
+        {
+            result = paths.get(pathString)
+                .catchError(NotFoundException.class)
+                .await();
+            if (result == null)
+            {
+                result = Path.parse(pathString);
+                paths.set(pathString, result);
+            }
+        }
+        return result;
+    }
+
+    private static Iterable<Path> parsePaths(JSONObject json, String propertyName, Map<String,Path> paths)
+    {
+        final JSONArray pathsArray = json.getArray(propertyName)
+            .catchError()
+            .await();
+        List<Path> result = null;
+        if (pathsArray != null)
+        {
+            result = List.create();
+            for (final JSONString pathString : pathsArray.instanceOf(JSONString.class))
+            {
+                result.add(SourceFileRecord.getPath(pathString.getValue(), paths));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the path to the source file from the project folder.
+     * @return The path to the source file from the project folder.
+     */
+    public Path getRelativePath()
+    {
+        return this.relativePath;
+    }
+
+    /**
+     * Get the string form of the path to the source file from the project folder.
+     * @return The string form of the path to the source file from the project folder.
+     */
+    public String getRelativePathString()
+    {
+        return this.relativePathString;
+    }
+
+    /**
+     * Get the last time the source file was modified, or null if it isn't known.
+     * @return The last time the source file was modified.
+     */
+    public DateTime getLastModified()
+    {
+        return this.lastModified;
+    }
+
+    /**
+     * Get the size of the source file in bytes, or null if it isn't known.
+     * @return The size of the source file in bytes.
+     */
+    public Long getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Get the hash of the source file's contents, or null if it isn't known.
+     * @return The hash of the source file's contents.
+     */
+    public String getContentHash()
+    {
+        return this.contentHash;
+    }
+
+    /**
+     * Get the digest of the ABI of the source file's class files, or null if it isn't known.
+     * @return The digest of the ABI of the source file's class files.
+     */
+    public String getAbiDigest()
+    {
+        return this.abiDigest;
+    }
+
+    /**
+     * Get the relative paths to the source files that this source file depends on, or null if
+     * they weren't recorded.
+     * @return The relative paths to the source files that this source file depends on.
+     */
+    public Iterable<Path> getDependencies()
+    {
+        return this.dependencies;
+    }
+
+    /**
+     * Get the paths (relative to the outputs folder) to the class files that were produced when
+     * this source file was compiled, or null if they weren't recorded.
+     * @return The paths to the class files that were produced when this source file was compiled.
+     */
+    public Iterable<Path> getClassFiles()
+    {
+        return this.classFiles;
+    }
+
+    /**
+     * Get the issues that were reported for this source file.
+     * @return The issues that were reported for this source file.
+     */
+    public Iterable<JavaCompilerIssue> getIssues()
+    {
+        return this.issues;
+    }
+
+    /**
+     * Get a copy of this record with the provided last modified time.
+     * @param lastModified The last time the source file was modified.
+     * @return The new SourceFileRecord.
+     */
+    public SourceFileRecord withLastModified(DateTime lastModified)
+    {
+        PreCondition.assertNotNull(lastModified, "lastModified");
+
+        return new SourceFileRecord(this.relativePath, lastModified, this.size, this.contentHash, this.abiDigest, this.dependencies, this.classFiles, this.issues);
+    }
+
+    /**
+     * Get a copy of this record with the provided size.
+     * @param size The size of the source file in bytes.
+     * @return The new SourceFileRecord.
+     */
+    public SourceFileRecord withSize(long size)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+
+        return new SourceFileRecord(this.relativePath, this.lastModified, size, this.contentHash, this.abiDigest, this.dependencies, this.classFiles, this.issues);
+    }
+
+    /**
+     * Get a copy of this record with the provided content hash.
+     * @param contentHash The hash of the source file's contents.
+     * @return The new SourceFileRecord.
+     */
+    public SourceFileRecord withContentHash(String contentHash)
+    {
+        PreCondition.assertNotNullAndNotEmpty(contentHash, "contentHash");
+
+        return new SourceFileRecord(this.relativePath, this.lastModified, this.size, contentHash, this.abiDigest, this.dependencies, this.classFiles, this.issues);
+    }
+
+    /**
+     * Get a copy of this record with the provided ABI digest.
+     * @param abiDigest The digest of the ABI of the source file's class files.
+     * @return The new SourceFileRecord.
+     */
+    public SourceFileRecord withAbiDigest(String abiDigest)
+    {
+        PreCondition.assertNotNullAndNotEmpty(abiDigest, "abiDigest");
+
+        return new SourceFileRecord(this.relativePath, this.lastModified, this.size, this.contentHash, abiDigest, this.dependencies, this.classFiles, this.issues);
+    }
+
+    /**
+     * Get a copy of this record with the provided dependencies.
+     * @param dependencies The relative paths to the source files that this source file depends on.
+     * @return The new SourceFileRecord.
+     */
+    public SourceFileRecord withDependencies(Iterable<Path> dependencies)
+    {
+        PreCondition.assertNotNull(dependencies, "dependencies");
+
+        return new SourceFileRecord(this.relativePath, this.lastModified, this.size, this.contentHash, this.abiDigest, dependencies.toList(), this.classFiles, this.issues);
+    }
+
+    /**
+     * Get a copy of this record with the provided class files.
+     * @param classFiles The paths (relative to the outputs folder) to the class files that were
+     *                   produced when this source file was compiled.
+     * @return The new SourceFileRecord.
+     */
+    public SourceFileRecord withClassFiles(Iterable<Path> classFiles)
+    {
+        PreCondition.assertNotNull(classFiles, "classFiles");
+
+        return new SourceFileRecord(this.relativePath, this.lastModified, this.size, this.contentHash, this.abiDigest, this.dependencies, classFiles.toList(), this.issues);
+    }
+
+    /**
+     * Get a copy of this record with the provided issues.
+     * @param issues The issues that were reported for this source file.
+     * @return The new SourceFileRecord.
+     */
+    public SourceFileRecord withIssues(Iterable<JavaCompilerIssue> issues)
+    {
+        PreCondition.assertNotNull(issues, "issues");
+
+        return new SourceFileRecord(this.relativePath, this.lastModified, this.size, this.contentHash, this.abiDigest, this.dependencies, this.classFiles, issues.toList());
+    }
+
+    /**
+     * Get a copy of this record with the provided issue added to its issues.
+     * @param issue The issue to add.
+     * @return The new SourceFileRecord.
+     */
+    public SourceFileRecord withIssue(JavaCompilerIssue issue)
+    {
+        PreCondition.assertNotNull(issue, "issue");
+
+        return this.withAddedIssues(Iterable.create(issue));
+    }
+
+    /**
+     * Get a copy of this record with the provided issues added to its issues. Each call copies
+     * this record's issues, so all of a source file's new issues should be added with one call.
+     * @param issues The issues to add.
+     * @return The new SourceFileRecord.
+     */
+    public SourceFileRecord withAddedIssues(Iterable<JavaCompilerIssue> issues)
+    {
+        PreCondition.assertNotNull(issues, "issues");
+
+        final List<JavaCompilerIssue> allIssues = List.create();
+        allIssues.addAll(this.issues);
+        allIssues.addAll(issues);
+        return new SourceFileRecord(this.relativePath, this.lastModified, this.size, this.contentHash, this.abiDigest, this.dependencies, this.classFiles, allIssues);
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof SourceFileRecord && this.equals((SourceFileRecord)rhs);
+    }
+
+    public boolean equals(SourceFileRecord rhs)
+    {
+        return rhs != null &&
+            Comparer.equal(this.relativePathString, rhs.relativePathString) &&
+            Comparer.equal(this.lastModified, rhs.lastModified) &&
+            Comparer.equal(this.size, rhs.size) &&
+            Comparer.equal(this.contentHash, rhs.contentHash) &&
+            Comparer.equal(this.abiDigest, rhs.abiDigest) &&
+            Comparer.equal(this.dependencies, rhs.dependencies) &&
+            Comparer.equal(this.classFiles, rhs.classFiles) &&
+            Comparer.equal(this.issues, rhs.issues);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toJsonProperty().toString();
+    }
+
+    /**
+     * Get the JSON representation of this record. Dependencies and class files that were set to
+     * an empty list are written as empty arrays so that they are parsed back the same way.
+     * @return The JSON representation of this record.
+     */
+    public JSONObject toJson()
+    {
+        final JSONObject result = JSONObject.create();
+        if (this.lastModified != null)
+        {
+            result.setString(SourceFileRecord.lastModifiedPropertyName, this.lastModified.toString());
+        }
+        if (this.size != null)
+        {
+            result.setNumber(SourceFileRecord.sizePropertyName, this.size);
+        }
+        if (this.contentHash != null)
+        {
+            result.setString(SourceFileRecord.contentHashPropertyName, this.contentHash);
+        }
+        if (this.abiDigest != null)
+        {
+            result.setString(SourceFileRecord.abiDigestPropertyName, this.abiDigest);
+        }
+        if (this.dependencies != null)
+        {
+            result.setArray(SourceFileRecord.dependenciesPropertyName, JSONArray.create(this.dependencies.map(Path::toString).map(JSONString::get)));
+        }
+        if (this.classFiles != null)
+        {
+            result.setArray(SourceFileRecord.classFilesPropertyName, JSONArray.create(this.classFiles.map(Path::toString).map(JSONString::get)));
+        }
+        if (this.issues.any())
+        {
+            result.setArray(SourceFileRecord.issuesPropertyName, JSONArray.create(this.issues.map(JavaCompilerIssue::toJson)));
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the JSON property that this record is stored as in a build.json file.
+     * @return The JSON property that this record is stored as in a build.json file.
+     */
+    public JSONProperty toJsonProperty()
+    {
+        return JSONProperty.create(this.relativePathString, this.toJson());
+    }
+}
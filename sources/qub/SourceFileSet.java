@@ -0,0 +1,160 @@
+package qub;
+
+/**
+ * A set of source files that is keyed by each file's normalized path relative to a project
+ * folder. Adding a file and checking whether a file or a relative path is in the set take
+ * constant time, and the files are iterated in the order that they were first added.
+ */
+public class SourceFileSet
+{
+    private final Folder rootFolder;
+    private final java.util.LinkedHashMap<String,File> files;
+
+    private SourceFileSet(Folder rootFolder)
+    {
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+
+        this.rootFolder = rootFolder;
+        this.files = new java.util.LinkedHashMap<>();
+    }
+
+    /**
+     * Create a new empty SourceFileSet for source files in the provided project folder.
+     * @param rootFolder The project folder that the source files are in.
+     * @return The new SourceFileSet.
+     */
+    public static SourceFileSet create(Folder rootFolder)
+    {
+        return new SourceFileSet(rootFolder);
+    }
+
+    /**
+     * Create a new SourceFileSet that contains the provided source files.
+     * @param rootFolder The project folder that the source files are in.
+     * @param files The source files to add to the new set.
+     * @return The new SourceFileSet.
+     */
+    public static SourceFileSet create(Folder rootFolder, Iterable<File> files)
+    {
+        return SourceFileSet.create(rootFolder).addAll(files);
+    }
+
+    /**
+     * Get the normalized form of the provided relative path that is used to key source files.
+     * @param relativePath The path relative to the project folder.
+     * @return The normalized relative path.
+     */
+    static String normalize(String relativePath)
+    {
+        PreCondition.assertNotNull(relativePath, "relativePath");
+
+        String result = relativePath.replace('\\', '/');
+        while (result.startsWith("./"))
+        {
+            result = result.substring(2);
+        }
+        return result;
+    }
+
+    private String getKey(File file)
+    {
+        return SourceFileSet.normalize(file.relativeTo(this.rootFolder).toString());
+    }
+
+    /**
+     * Get the number of source files in this set.
+     * @return The number of source files in this set.
+     */
+    public int getCount()
+    {
+        return this.files.size();
+    }
+
+    /**
+     * Get whether or not this set contains any source files.
+     * @return Whether or not this set contains any source files.
+     */
+    public boolean any()
+    {
+        return !this.files.isEmpty();
+    }
+
+    /**
+     * Add the provided source file to this set if it isn't already in this set.
+     * @param file The source file to add.
+     * @return This object for method chaining.
+     */
+    public SourceFileSet add(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        this.files.putIfAbsent(this.getKey(file), file);
+        return this;
+    }
+
+    /**
+     * Add the provided source files that aren't already in this set.
+     * @param files The source files to add.
+     * @return This object for method chaining.
+     */
+    public SourceFileSet addAll(Iterable<File> files)
+    {
+        PreCondition.assertNotNull(files, "files");
+
+        for (final File file : files)
+        {
+            this.add(file);
+        }
+        return this;
+    }
+
+    /**
+     * Get whether or not this set contains the provided source file.
+     * @param file The source file to look for.
+     * @return Whether or not this set contains the provided source file.
+     */
+    public boolean contains(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return this.files.containsKey(this.getKey(file));
+    }
+
+    /**
+     * Get whether or not this set contains the source file at the provided path.
+     * @param relativePath The path of the source file relative to the project folder.
+     * @return Whether or not this set contains the source file at the provided path.
+     */
+    public boolean contains(Path relativePath)
+    {
+        PreCondition.assertNotNull(relativePath, "relativePath");
+
+        return this.contains(relativePath.toString());
+    }
+
+    /**
+     * Get whether or not this set contains the source file at the provided path.
+     * @param relativePath The path of the source file relative to the project folder.
+     * @return Whether or not this set contains the source file at the provided path.
+     */
+    public boolean contains(String relativePath)
+    {
+        PreCondition.assertNotNull(relativePath, "relativePath");
+
+        return this.files.containsKey(SourceFileSet.normalize(relativePath));
+    }
+
+    /**
+     * Get the source files in this set in the order that they were added.
+     * @return The source files in this set.
+     */
+    public List<File> toList()
+    {
+        final List<File> result = List.create();
+        for (final File file : this.files.values())
+        {
+            result.add(file);
+        }
+        return result;
+    }
+}
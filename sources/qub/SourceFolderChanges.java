@@ -0,0 +1,114 @@
+package qub;
+
+/**
+ * The file system changes that a SourceFolderWatcher saw in a burst of events. A path that changes
+ * several times within the burst is only reported once, with its most recent state.
+ */
+public class SourceFolderChanges
+{
+    private final java.util.LinkedHashMap<String,Path> changedPaths;
+    private final java.util.LinkedHashMap<String,Path> deletedPaths;
+    private boolean overflowed;
+
+    private SourceFolderChanges()
+    {
+        this.changedPaths = new java.util.LinkedHashMap<>();
+        this.deletedPaths = new java.util.LinkedHashMap<>();
+    }
+
+    /**
+     * Create a new empty SourceFolderChanges object.
+     * @return The new SourceFolderChanges object.
+     */
+    public static SourceFolderChanges create()
+    {
+        return new SourceFolderChanges();
+    }
+
+    /**
+     * Add a file that was created or modified.
+     * @param changedPath The path of the file that was created or modified.
+     * @return This object for method chaining.
+     */
+    public SourceFolderChanges addChangedPath(Path changedPath)
+    {
+        PreCondition.assertNotNull(changedPath, "changedPath");
+
+        final String changedPathString = changedPath.toString();
+        this.deletedPaths.remove(changedPathString);
+        this.changedPaths.put(changedPathString, changedPath);
+        return this;
+    }
+
+    /**
+     * Add a file or folder that was deleted.
+     * @param deletedPath The path of the file or folder that was deleted.
+     * @return This object for method chaining.
+     */
+    public SourceFolderChanges addDeletedPath(Path deletedPath)
+    {
+        PreCondition.assertNotNull(deletedPath, "deletedPath");
+
+        final String deletedPathString = deletedPath.toString();
+        this.changedPaths.remove(deletedPathString);
+        this.deletedPaths.put(deletedPathString, deletedPath);
+        return this;
+    }
+
+    /**
+     * Mark that events were lost, so the changed and deleted paths aren't complete.
+     * @return This object for method chaining.
+     */
+    public SourceFolderChanges setOverflowed()
+    {
+        this.overflowed = true;
+        return this;
+    }
+
+    /**
+     * Get whether or not events were lost, which means that the changed and deleted paths aren't
+     * complete.
+     * @return Whether or not events were lost.
+     */
+    public boolean isOverflowed()
+    {
+        return this.overflowed;
+    }
+
+    /**
+     * Get the paths of the files that were created or modified.
+     * @return The paths of the files that were created or modified.
+     */
+    public Iterable<Path> getChangedPaths()
+    {
+        final List<Path> result = List.create();
+        for (final Path changedPath : this.changedPaths.values())
+        {
+            result.add(changedPath);
+        }
+        return result;
+    }
+
+    /**
+     * Get the paths of the files and folders that were deleted.
+     * @return The paths of the files and folders that were deleted.
+     */
+    public Iterable<Path> getDeletedPaths()
+    {
+        final List<Path> result = List.create();
+        for (final Path deletedPath : this.deletedPaths.values())
+        {
+            result.add(deletedPath);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not this object contains any changes.
+     * @return Whether or not this object contains any changes.
+     */
+    public boolean any()
+    {
+        return this.overflowed || !this.changedPaths.isEmpty() || !this.deletedPaths.isEmpty();
+    }
+}
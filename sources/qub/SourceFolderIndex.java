@@ -0,0 +1,317 @@
+package qub;
+
+/**
+ * The listings of the folders in a project folder from a previous build. Each listing is keyed by
+ * the folder's path relative to the project folder and records the folder's last modified time,
+ * so a folder that hasn't had any entries added, removed, or renamed since the previous build
+ * doesn't need to be listed again.
+ *
+ * Some file systems only store last modified times to the nearest second or two. A folder that
+ * changed in the same tick that it was listed could have the same last modified time before and
+ * after the change, so a listing is only reused if it was recorded at least
+ * timestampGranularityMilliseconds after the folder's last modification.
+ */
+public class SourceFolderIndex extends JSONObjectWrapperBase
+{
+    /**
+     * The name of the folder in the qub-build data folder that source folder indexes are stored
+     * in.
+     */
+    public static final String sourceFolderIndexesFolderName = "sourceindexes";
+
+    /**
+     * The coarsest last modified time granularity of the supported file systems (FAT stores last
+     * modified times to the nearest two seconds).
+     */
+    public static final long timestampGranularityMilliseconds = 2000;
+
+    private static final String foldersPropertyName = "folders";
+    private static final String lastModifiedPropertyName = "lastModified";
+    private static final String listedPropertyName = "listed";
+    private static final String filesPropertyName = "files";
+    private static final String subfoldersPropertyName = "subfolders";
+
+    private boolean changed;
+
+    private SourceFolderIndex(JSONObject json)
+    {
+        super(json);
+    }
+
+    /**
+     * Create a new empty SourceFolderIndex.
+     * @return The new SourceFolderIndex.
+     */
+    public static SourceFolderIndex create()
+    {
+        return new SourceFolderIndex(JSONObject.create());
+    }
+
+    /**
+     * Parse a SourceFolderIndex from the provided file.
+     * @param sourceFolderIndexFile The file to parse.
+     * @return The parsed SourceFolderIndex.
+     */
+    public static Result<SourceFolderIndex> parse(File sourceFolderIndexFile)
+    {
+        PreCondition.assertNotNull(sourceFolderIndexFile, "sourceFolderIndexFile");
+
+        return Result.create2(() ->
+        {
+            return SourceFolderIndex.parse(JSON.parseObject(sourceFolderIndexFile).await()).await();
+        });
+    }
+
+    /**
+     * Parse a SourceFolderIndex from the provided JSONObject.
+     * @param json The JSONObject to parse.
+     * @return The parsed SourceFolderIndex.
+     */
+    public static Result<SourceFolderIndex> parse(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return Result.create2(() ->
+        {
+            return new SourceFolderIndex(json);
+        });
+    }
+
+    /**
+     * Get the file that the source folder index of the provided project folder is stored in.
+     * @param qubBuildDataFolder The qub-build data folder.
+     * @param projectFolder The project folder that is being built.
+     * @return The file that the source folder index of the provided project folder is stored in.
+     */
+    public static Result<File> getSourceFolderIndexFile(Folder qubBuildDataFolder, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(qubBuildDataFolder, "qubBuildDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        return qubBuildDataFolder.getFile(SourceFolderIndex.sourceFolderIndexesFolderName + "/" + ContentHash.create(projectFolder.toString()) + ".json");
+    }
+
+    /**
+     * Get whether or not any of this index's listings changed since it was created or parsed.
+     * @return Whether or not any of this index's listings changed.
+     */
+    public boolean hasChanged()
+    {
+        return this.changed;
+    }
+
+    /**
+     * Get all of the files in the provided folder and its subfolders. Folders whose listings in
+     * this index are still valid aren't listed again, and the listings of the other folders are
+     * updated. Indexes only apply to folders on a JavaFileSystem, so the files in folders on other
+     * file systems are always listed.
+     * @param rootFolder The folder to get the files of.
+     * @return All of the files in the provided folder and its subfolders.
+     */
+    public Result<Iterable<File>> getFilesRecursively(Folder rootFolder)
+    {
+        return this.getFilesRecursively(rootFolder, (String relativeFolderPath) -> true);
+    }
+
+    /**
+     * Get all of the files in the provided folder and in the subfolders that the provided filter
+     * accepts. Folders whose listings in this index are still valid aren't listed again, and the
+     * listings of the other visited folders are updated. Indexes only apply to folders on a
+     * JavaFileSystem, so the files in folders on other file systems are always listed.
+     * @param rootFolder The folder to get the files of.
+     * @param folderFilter A function that is given the path of each subfolder relative to the
+     *                     root folder (without a trailing slash) and that returns whether or not
+     *                     the subfolder should be visited.
+     * @return The files in the provided folder and in the accepted subfolders.
+     */
+    public Result<Iterable<File>> getFilesRecursively(Folder rootFolder, Function1<String,Boolean> folderFilter)
+    {
+        return this.getFilesRecursively(rootFolder, folderFilter, null);
+    }
+
+    /**
+     * Get all of the files in the provided folder and in the subfolders that the provided filter
+     * accepts. Folders whose listings in this index are still valid aren't listed again, and the
+     * listings of the other visited folders are updated. The sizes and last modified times of the
+     * files in the folders that are listed are read in the same pass and added to the provided
+     * SourceFileAttributes. Indexes only apply to folders on a JavaFileSystem, so the files in
+     * folders on other file systems are always listed.
+     * @param rootFolder The folder to get the files of.
+     * @param folderFilter A function that is given the path of each subfolder relative to the
+     *                     root folder (without a trailing slash) and that returns whether or not
+     *                     the subfolder should be visited.
+     * @param sourceFileAttributes The object that the attributes of the listed files will be added
+     *                             to, or null if the attributes aren't needed.
+     * @return The files in the provided folder and in the accepted subfolders.
+     */
+    public Result<Iterable<File>> getFilesRecursively(Folder rootFolder, Function1<String,Boolean> folderFilter, SourceFileAttributes sourceFileAttributes)
+    {
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(folderFilter, "folderFilter");
+
+        return Result.create2(() ->
+        {
+            final FileSystem fileSystem = rootFolder.getFileSystem();
+            if (!(fileSystem instanceof JavaFileSystem))
+            {
+                return QubBuild.getFilesRecursively(rootFolder, folderFilter).await();
+            }
+
+            final List<File> result = List.create();
+            final JSONObject previousFolders = this.json.getObject(SourceFolderIndex.foldersPropertyName)
+                .catchError()
+                .await();
+            final JSONObject folders = JSONObject.create();
+
+            final java.nio.file.Path rootFolderPath = java.nio.file.Paths.get(rootFolder.toString());
+            final java.util.ArrayDeque<String> relativeFolderPathsToVisit = new java.util.ArrayDeque<>();
+            relativeFolderPathsToVisit.add("");
+            while (!relativeFolderPathsToVisit.isEmpty())
+            {
+                final String relativeFolderPath = relativeFolderPathsToVisit.removeFirst();
+                final java.nio.file.Path folderPath = relativeFolderPath.isEmpty()
+                    ? rootFolderPath
+                    : rootFolderPath.resolve(relativeFolderPath);
+
+                final long lastModified;
+                try
+                {
+                    lastModified = java.nio.file.Files.getLastModifiedTime(folderPath).toMillis();
+                }
+                catch (java.io.IOException e)
+                {
+                    if (relativeFolderPath.isEmpty())
+                    {
+                        throw new FolderNotFoundException(rootFolder);
+                    }
+
+                    // The folder was deleted while it was being visited.
+                    this.changed = true;
+                    continue;
+                }
+
+                // Folders that are listed again return their files' attributes from the same system
+                // calls that list them. The attributes of files in reused listings are read later,
+                // and only for the files that are actually source files.
+                final java.util.HashMap<String,java.nio.file.attribute.BasicFileAttributes> listedFileAttributes = new java.util.HashMap<>();
+                JSONObject folderListing = previousFolders == null
+                    ? null
+                    : previousFolders.getObject(relativeFolderPath).catchError().await();
+                if (!SourceFolderIndex.isValidListing(folderListing, lastModified))
+                {
+                    folderListing = SourceFolderIndex.listFolder(folderPath, lastModified, listedFileAttributes);
+                    this.changed = true;
+                }
+                folders.setObject(relativeFolderPath, folderListing);
+
+                for (final String fileName : SourceFolderIndex.getStrings(folderListing, SourceFolderIndex.filesPropertyName))
+                {
+                    final File file = fileSystem.getFile(folderPath.resolve(fileName).toString()).await();
+                    result.add(file);
+
+                    final java.nio.file.attribute.BasicFileAttributes fileAttributes = listedFileAttributes.get(fileName);
+                    if (sourceFileAttributes != null && fileAttributes != null)
+                    {
+                        sourceFileAttributes.set(file.getPath(), fileAttributes.size(), SourceFileAttributes.toDateTime(fileAttributes.lastModifiedTime()));
+                    }
+                }
+                for (final String subfolderName : SourceFolderIndex.getStrings(folderListing, SourceFolderIndex.subfoldersPropertyName))
+                {
+                    final String relativeSubfolderPath = relativeFolderPath.isEmpty() ? subfolderName : relativeFolderPath + "/" + subfolderName;
+                    if (folderFilter.run(relativeSubfolderPath))
+                    {
+                        relativeFolderPathsToVisit.add(relativeSubfolderPath);
+                    }
+                }
+            }
+
+            if (previousFolders != null && previousFolders.getProperties().getCount() != folders.getProperties().getCount())
+            {
+                this.changed = true;
+            }
+            this.json.setObject(SourceFolderIndex.foldersPropertyName, folders);
+
+            return result;
+        });
+    }
+
+    /**
+     * Get whether or not the provided listing can be used for a folder with the provided last
+     * modified time.
+     * @param folderListing The listing from the previous build, or null if there isn't one.
+     * @param lastModified The current last modified time of the folder in milliseconds since the
+     *                     epoch.
+     * @return Whether or not the provided listing can be used.
+     */
+    static boolean isValidListing(JSONObject folderListing, long lastModified)
+    {
+        boolean result = false;
+        if (folderListing != null)
+        {
+            final Number listingLastModified = folderListing.getNumber(SourceFolderIndex.lastModifiedPropertyName)
+                .catchError()
+                .await();
+            final Number listed = folderListing.getNumber(SourceFolderIndex.listedPropertyName)
+                .catchError()
+                .await();
+            result = listingLastModified != null && listingLastModified.longValue() == lastModified &&
+                listed != null && listed.longValue() - SourceFolderIndex.timestampGranularityMilliseconds >= lastModified;
+        }
+        return result;
+    }
+
+    private static JSONObject listFolder(java.nio.file.Path folderPath, long lastModified, java.util.Map<String,java.nio.file.attribute.BasicFileAttributes> fileAttributes)
+    {
+        // The listing time is taken before the folder is listed so that a change that happens
+        // while the folder is being listed makes the listing invalid for the next build.
+        final long listed = java.lang.System.currentTimeMillis();
+        final JSONArray files = JSONArray.create();
+        final JSONArray subfolders = JSONArray.create();
+        try (final java.nio.file.DirectoryStream<java.nio.file.Path> entries = java.nio.file.Files.newDirectoryStream(folderPath))
+        {
+            for (final java.nio.file.Path entry : entries)
+            {
+                final String entryName = entry.getFileName().toString();
+                final java.nio.file.attribute.BasicFileAttributes entryAttributes = java.nio.file.Files.readAttributes(entry, java.nio.file.attribute.BasicFileAttributes.class);
+                if (entryAttributes.isDirectory())
+                {
+                    subfolders.add(JSONString.get(entryName));
+                }
+                else
+                {
+                    files.add(JSONString.get(entryName));
+                    fileAttributes.put(entryName, entryAttributes);
+                }
+            }
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+
+        return JSONObject.create()
+            .setNumber(SourceFolderIndex.lastModifiedPropertyName, lastModified)
+            .setNumber(SourceFolderIndex.listedPropertyName, listed)
+            .setArray(SourceFolderIndex.filesPropertyName, files)
+            .setArray(SourceFolderIndex.subfoldersPropertyName, subfolders);
+    }
+
+    private static Iterable<String> getStrings(JSONObject json, String propertyName)
+    {
+        final List<String> result = List.create();
+        final JSONArray array = json.getArray(propertyName)
+            .catchError()
+            .await();
+        if (array != null)
+        {
+            for (final JSONSegment element : array)
+            {
+                if (element instanceof JSONString)
+                {
+                    result.add(((JSONString)element).getValue());
+                }
+            }
+        }
+        return result;
+    }
+}
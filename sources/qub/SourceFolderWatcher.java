@@ -0,0 +1,227 @@
+package qub;
+
+/**
+ * Watches a project folder and all of its sub-folders for file system changes with a
+ * java.nio.file.WatchService. A WatchService only reports the direct children of the folders that
+ * are registered with it, so every sub-folder is registered separately, including the sub-folders
+ * that are created while the folder is being watched.
+ */
+public class SourceFolderWatcher implements Disposable
+{
+    private final java.nio.file.WatchService watchService;
+    private final java.util.HashMap<java.nio.file.WatchKey,java.nio.file.Path> watchedFolders;
+    private final java.util.HashSet<java.nio.file.Path> excludedFolders;
+    private boolean disposed;
+
+    private SourceFolderWatcher(java.nio.file.WatchService watchService, java.util.HashSet<java.nio.file.Path> excludedFolders)
+    {
+        PreCondition.assertNotNull(watchService, "watchService");
+        PreCondition.assertNotNull(excludedFolders, "excludedFolders");
+
+        this.watchService = watchService;
+        this.watchedFolders = new java.util.HashMap<>();
+        this.excludedFolders = excludedFolders;
+    }
+
+    /**
+     * Start watching the provided folder and all of its sub-folders, except for the provided
+     * excluded folders and their sub-folders. The folders must be on the local file system.
+     * @param rootFolder The folder to watch.
+     * @param excludedFolders The folders that won't be watched, such as the folder that compiled
+     *                        class files are written to.
+     * @return The new SourceFolderWatcher.
+     */
+    public static Result<SourceFolderWatcher> create(Folder rootFolder, Iterable<Folder> excludedFolders)
+    {
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(excludedFolders, "excludedFolders");
+
+        return Result.create2(() ->
+        {
+            final java.util.HashSet<java.nio.file.Path> excludedFolderPaths = new java.util.HashSet<>();
+            for (final Folder excludedFolder : excludedFolders)
+            {
+                excludedFolderPaths.add(SourceFolderWatcher.toNioPath(excludedFolder.getPath()));
+            }
+
+            try
+            {
+                final java.nio.file.WatchService watchService = java.nio.file.FileSystems.getDefault().newWatchService();
+                final SourceFolderWatcher result = new SourceFolderWatcher(watchService, excludedFolderPaths);
+                result.watchFolder(SourceFolderWatcher.toNioPath(rootFolder.getPath()), null);
+                return result;
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static java.nio.file.Path toNioPath(Path path)
+    {
+        return java.nio.file.Paths.get(path.toString()).toAbsolutePath().normalize();
+    }
+
+    private static Path toQubPath(java.nio.file.Path path)
+    {
+        // Qub paths use forward slashes on every platform.
+        return Path.parse(path.toString().replace('\\', '/'));
+    }
+
+    /**
+     * Register the provided folder and its sub-folders with the WatchService. If changes is not
+     * null, then the files that already exist in the folders are added to it as changed files,
+     * because they may have been created before their folder was registered.
+     */
+    private void watchFolder(java.nio.file.Path folderPath, SourceFolderChanges changes) throws java.io.IOException
+    {
+        java.nio.file.Files.walkFileTree(folderPath, new java.nio.file.SimpleFileVisitor<java.nio.file.Path>()
+        {
+            @Override
+            public java.nio.file.FileVisitResult preVisitDirectory(java.nio.file.Path folder, java.nio.file.attribute.BasicFileAttributes attributes) throws java.io.IOException
+            {
+                java.nio.file.FileVisitResult result;
+                if (SourceFolderWatcher.this.excludedFolders.contains(folder))
+                {
+                    result = java.nio.file.FileVisitResult.SKIP_SUBTREE;
+                }
+                else
+                {
+                    final java.nio.file.WatchKey watchKey = folder.register(
+                        SourceFolderWatcher.this.watchService,
+                        java.nio.file.StandardWatchEventKinds.ENTRY_CREATE,
+                        java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY,
+                        java.nio.file.StandardWatchEventKinds.ENTRY_DELETE);
+                    SourceFolderWatcher.this.watchedFolders.put(watchKey, folder);
+                    result = java.nio.file.FileVisitResult.CONTINUE;
+                }
+                return result;
+            }
+
+            @Override
+            public java.nio.file.FileVisitResult visitFile(java.nio.file.Path file, java.nio.file.attribute.BasicFileAttributes attributes)
+            {
+                if (changes != null)
+                {
+                    changes.addChangedPath(SourceFolderWatcher.toQubPath(file));
+                }
+                return java.nio.file.FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public java.nio.file.FileVisitResult visitFileFailed(java.nio.file.Path file, java.io.IOException e)
+            {
+                // The file or folder was deleted before it could be visited. Its delete event will
+                // be reported separately.
+                return java.nio.file.FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Wait until at least one change happens in the watched folders, and then keep collecting
+     * changes until no more changes happen for the provided number of milliseconds. This turns a
+     * burst of events, such as an editor saving several files or a version control checkout, into
+     * a single set of changes.
+     * @param debounceMilliseconds The number of milliseconds without any events that ends a burst.
+     * @return The changes that happened in the watched folders.
+     */
+    public Result<SourceFolderChanges> waitForChanges(int debounceMilliseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(debounceMilliseconds, 0, "debounceMilliseconds");
+        PreCondition.assertNotDisposed(this, "this");
+
+        return Result.create2(() ->
+        {
+            final SourceFolderChanges result = SourceFolderChanges.create();
+            try
+            {
+                while (!result.any())
+                {
+                    java.nio.file.WatchKey watchKey = this.watchService.take();
+                    while (watchKey != null)
+                    {
+                        this.addChanges(watchKey, result);
+                        watchKey = this.watchService.poll(debounceMilliseconds, java.util.concurrent.TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                throw new RuntimeException(e);
+            }
+            return result;
+        });
+    }
+
+    private void addChanges(java.nio.file.WatchKey watchKey, SourceFolderChanges changes)
+    {
+        final java.nio.file.Path folder = this.watchedFolders.get(watchKey);
+        for (final java.nio.file.WatchEvent<?> event : watchKey.pollEvents())
+        {
+            final java.nio.file.WatchEvent.Kind<?> kind = event.kind();
+            if (kind == java.nio.file.StandardWatchEventKinds.OVERFLOW)
+            {
+                changes.setOverflowed();
+            }
+            else if (folder != null)
+            {
+                final java.nio.file.Path changedPath = folder.resolve((java.nio.file.Path)event.context());
+                if (kind == java.nio.file.StandardWatchEventKinds.ENTRY_DELETE)
+                {
+                    changes.addDeletedPath(SourceFolderWatcher.toQubPath(changedPath));
+                }
+                else if (!java.nio.file.Files.isDirectory(changedPath))
+                {
+                    changes.addChangedPath(SourceFolderWatcher.toQubPath(changedPath));
+                }
+                else if (kind == java.nio.file.StandardWatchEventKinds.ENTRY_CREATE)
+                {
+                    try
+                    {
+                        this.watchFolder(changedPath, changes);
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        changes.setOverflowed();
+                    }
+                }
+            }
+        }
+
+        if (!watchKey.reset())
+        {
+            // The folder was deleted or can't be watched anymore.
+            this.watchedFolders.remove(watchKey);
+        }
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        return this.disposed;
+    }
+
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create2(() ->
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                try
+                {
+                    this.watchService.close();
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package qub;
+
+/**
+ * A source file that must be recompiled because one of its dependencies is being recompiled.
+ */
+public class SourceInvalidation
+{
+    private final Path sourceFilePath;
+    private final SourceInvalidation cause;
+
+    /**
+     * Create a new SourceInvalidation object.
+     * @param sourceFilePath The relative path to the source file that was invalidated.
+     * @param cause The invalidation of the dependency that caused this source file to be
+     *              invalidated, or null if this source file was itself modified.
+     */
+    SourceInvalidation(Path sourceFilePath, SourceInvalidation cause)
+    {
+        PreCondition.assertNotNull(sourceFilePath, "sourceFilePath");
+
+        this.sourceFilePath = sourceFilePath;
+        this.cause = cause;
+    }
+
+    /**
+     * Get the relative path to the source file that was invalidated.
+     * @return The relative path to the source file that was invalidated.
+     */
+    public Path getSourceFilePath()
+    {
+        return this.sourceFilePath;
+    }
+
+    /**
+     * Get the invalidation of the dependency that caused this source file to be invalidated.
+     * @return The invalidation of the dependency that caused this source file to be invalidated,
+     * or null if this source file was itself modified.
+     */
+    public SourceInvalidation getCause()
+    {
+        return this.cause;
+    }
+
+    /**
+     * Get the chain of relative source file paths that led to this source file being invalidated.
+     * The chain starts with this source file and ends with the modified source file.
+     * @return The chain of relative source file paths that led to this source file being
+     * invalidated.
+     */
+    public Iterable<Path> getChain()
+    {
+        final List<Path> result = List.create();
+        SourceInvalidation current = this;
+        while (current != null)
+        {
+            result.add(current.sourceFilePath);
+            current = current.cause;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Strings.join(" -> ", this.getChain().map(Path::toString));
+    }
+}
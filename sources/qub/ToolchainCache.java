@@ -0,0 +1,138 @@
+package qub;
+
+/**
+ * A cache of facts about the tools that qub-build runs (such as the version of javac) that is
+ * persisted between builds. Each cached fact is keyed by the path, size, and last modified time
+ * of the tool's executable file, so a fact is only used while the tool hasn't changed.
+ */
+public class ToolchainCache extends JSONObjectWrapperBase
+{
+    private static final String javacPropertyName = "javac";
+    private static final String sizePropertyName = "size";
+    private static final String lastModifiedPropertyName = "lastModified";
+    private static final String versionPropertyName = "version";
+
+    private ToolchainCache(JSONObject json)
+    {
+        super(json);
+    }
+
+    /**
+     * Create a new empty ToolchainCache.
+     * @return The new ToolchainCache.
+     */
+    public static ToolchainCache create()
+    {
+        return new ToolchainCache(JSONObject.create());
+    }
+
+    /**
+     * Parse a ToolchainCache from the provided file.
+     * @param toolchainCacheFile The file to parse.
+     * @return The parsed ToolchainCache.
+     */
+    public static Result<ToolchainCache> parse(File toolchainCacheFile)
+    {
+        PreCondition.assertNotNull(toolchainCacheFile, "toolchainCacheFile");
+
+        return Result.create2(() ->
+        {
+            return ToolchainCache.parse(JSON.parseObject(toolchainCacheFile).await()).await();
+        });
+    }
+
+    /**
+     * Parse a ToolchainCache from the provided JSONObject.
+     * @param json The JSONObject to parse.
+     * @return The parsed ToolchainCache.
+     */
+    public static Result<ToolchainCache> parse(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return Result.create2(() ->
+        {
+            return new ToolchainCache(json);
+        });
+    }
+
+    /**
+     * Get the cached version of the javac executable at the provided path.
+     * @param javacPath The path to the javac executable.
+     * @param size The current size of the javac executable in bytes.
+     * @param lastModified The current last modified time of the javac executable.
+     * @return The cached version, or null if no version is cached for the javac executable or if
+     * the javac executable has changed since its version was cached.
+     */
+    public VersionNumber getJavacVersion(Path javacPath, long size, DateTime lastModified)
+    {
+        PreCondition.assertNotNull(javacPath, "javacPath");
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+        PreCondition.assertNotNull(lastModified, "lastModified");
+
+        VersionNumber result = null;
+
+        final JSONObject javacEntry = this.getJavacEntries()
+            .getObject(javacPath.toString())
+            .catchError()
+            .await();
+        if (javacEntry != null)
+        {
+            final Number entrySize = javacEntry.getNumber(ToolchainCache.sizePropertyName)
+                .catchError()
+                .await();
+            final String entryLastModified = javacEntry.getString(ToolchainCache.lastModifiedPropertyName)
+                .catchError()
+                .await();
+            final String entryVersion = javacEntry.getString(ToolchainCache.versionPropertyName)
+                .catchError()
+                .await();
+            if (entrySize != null && entrySize.longValue() == size &&
+                lastModified.toString().equals(entryLastModified) &&
+                !Strings.isNullOrEmpty(entryVersion))
+            {
+                result = VersionNumber.parse(entryVersion)
+                    .catchError()
+                    .await();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Set the cached version of the javac executable at the provided path.
+     * @param javacPath The path to the javac executable.
+     * @param size The size of the javac executable in bytes.
+     * @param lastModified The last modified time of the javac executable.
+     * @param version The version of the javac executable.
+     * @return This object for method chaining.
+     */
+    public ToolchainCache setJavacVersion(Path javacPath, long size, DateTime lastModified, VersionNumber version)
+    {
+        PreCondition.assertNotNull(javacPath, "javacPath");
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+        PreCondition.assertNotNull(lastModified, "lastModified");
+        PreCondition.assertNotNull(version, "version");
+
+        final JSONObject javacEntries = this.getJavacEntries();
+        javacEntries.set(javacPath.toString(), JSONObject.create()
+            .setNumber(ToolchainCache.sizePropertyName, size)
+            .setString(ToolchainCache.lastModifiedPropertyName, lastModified.toString())
+            .setString(ToolchainCache.versionPropertyName, version.toString()));
+        this.json.set(ToolchainCache.javacPropertyName, javacEntries);
+        return this;
+    }
+
+    private JSONObject getJavacEntries()
+    {
+        JSONObject result = this.json.getObject(ToolchainCache.javacPropertyName)
+            .catchError()
+            .await();
+        if (result == null)
+        {
+            result = JSONObject.create();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package qub;
+
+public interface BuildCacheKeysTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(BuildCacheKeys.class, () ->
+        {
+            runner.testGroup("getKey(File)", () ->
+            {
+                runner.test("with the same sources in different project folders", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder aFolder = fileSystem.getFolder("/a/").await();
+                    final Folder bFolder = fileSystem.getFolder("/b/").await();
+                    for (final Folder projectFolder : Iterable.create(aFolder, bFolder))
+                    {
+                        projectFolder.getFile("sources/A.java").await().setContentsAsString("public class A { B b; }").await();
+                        projectFolder.getFile("sources/B.java").await().setContentsAsString("public class B {}").await();
+                    }
+
+                    final BuildCacheKeys aKeys = BuildCacheKeys.create(aFolder, Iterable.create(aFolder.getFile("sources/A.java").await(), aFolder.getFile("sources/B.java").await()), "digest");
+                    final BuildCacheKeys bKeys = BuildCacheKeys.create(bFolder, Iterable.create(bFolder.getFile("sources/A.java").await(), bFolder.getFile("sources/B.java").await()), "digest");
+                    test.assertEqual(
+                        aKeys.getKey(aFolder.getFile("sources/A.java").await()).await(),
+                        bKeys.getKey(bFolder.getFile("sources/A.java").await()).await());
+                    test.assertNotEqual(
+                        aKeys.getKey(aFolder.getFile("sources/A.java").await()).await(),
+                        aKeys.getKey(aFolder.getFile("sources/B.java").await()).await());
+                });
+
+                runner.test("with a changed dependency", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.getFolder("/project/").await();
+                    final File aJavaFile = projectFolder.getFile("sources/A.java").await();
+                    final File bJavaFile = projectFolder.getFile("sources/B.java").await();
+                    aJavaFile.setContentsAsString("public class A { B b; }").await();
+                    bJavaFile.setContentsAsString("public class B {}").await();
+                    final String keyBefore = BuildCacheKeys.create(projectFolder, Iterable.create(aJavaFile, bJavaFile), "digest").getKey(aJavaFile).await();
+
+                    bJavaFile.setContentsAsString("public class B { int c; }").await();
+                    final String keyAfter = BuildCacheKeys.create(projectFolder, Iterable.create(aJavaFile, bJavaFile), "digest").getKey(aJavaFile).await();
+
+                    test.assertNotEqual(keyBefore, keyAfter);
+                });
+
+                runner.test("with a different compilation digest", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.getFolder("/project/").await();
+                    final File aJavaFile = projectFolder.getFile("sources/A.java").await();
+                    aJavaFile.setContentsAsString("public class A {}").await();
+
+                    test.assertNotEqual(
+                        BuildCacheKeys.create(projectFolder, Iterable.create(aJavaFile), "digest1").getKey(aJavaFile).await(),
+                        BuildCacheKeys.create(projectFolder, Iterable.create(aJavaFile), "digest2").getKey(aJavaFile).await());
+                });
+            });
+        });
+    }
+}
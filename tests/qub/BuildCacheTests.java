@@ -0,0 +1,139 @@
+package qub;
+
+public interface BuildCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(BuildCache.class, () ->
+        {
+            runner.test("create(Folder)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder cacheFolder = fileSystem.getFolder("/cache/").await();
+                final BuildCache cache = BuildCache.create(cacheFolder);
+                test.assertSame(cacheFolder, cache.getCacheFolder());
+                test.assertEqual(BuildCache.getMaximumSizeBytesDefault(), cache.getMaximumSizeBytes());
+                test.assertEqual(0L, cache.getSizeBytes());
+                test.assertFalse(cache.contains("a"));
+            });
+
+            runner.testGroup("restore(String,Folder)", () ->
+            {
+                runner.test("with a key that isn't in the cache", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final BuildCache cache = BuildCache.create(fileSystem.getFolder("/cache/").await());
+                    final Folder outputsFolder = fileSystem.getFolder("/outputs/").await();
+                    test.assertNull(cache.restore("a", outputsFolder).await());
+                    test.assertFalse(outputsFolder.exists().await());
+                });
+
+                runner.test("with a key that was stored and saved", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder cacheFolder = fileSystem.getFolder("/cache/").await();
+                    final Folder outputsFolder = fileSystem.getFolder("/a/outputs/").await();
+                    outputsFolder.getFile("A.class").await().setContentsAsString("A.java bytecode").await();
+                    outputsFolder.getFile("A$1.class").await().setContentsAsString("A$1 bytecode").await();
+                    final JavaCompilerIssue warning = JavaCompilerIssue.warning("sources/A.java", 1, 2, "Be careful.");
+
+                    final BuildCache storeCache = BuildCache.create(cacheFolder);
+                    storeCache.store("a", Iterable.create(Path.parse("A.class"), Path.parse("A$1.class")), outputsFolder, Iterable.create(warning)).await();
+                    storeCache.save().await();
+                    test.assertEqual(27L, storeCache.getSizeBytes());
+
+                    final BuildCache restoreCache = BuildCache.create(cacheFolder);
+                    test.assertTrue(restoreCache.contains("a"));
+                    final Folder otherOutputsFolder = fileSystem.getFolder("/b/outputs/").await();
+                    test.assertEqual(Iterable.create(warning), restoreCache.restore("a", otherOutputsFolder).await());
+                    test.assertEqual("A.java bytecode", otherOutputsFolder.getFile("A.class").await().getContentsAsString().await());
+                    test.assertEqual("A$1 bytecode", otherOutputsFolder.getFile("A$1.class").await().getContentsAsString().await());
+                });
+
+                runner.test("with an entry whose class file was deleted", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder cacheFolder = fileSystem.getFolder("/cache/").await();
+                    final Folder outputsFolder = fileSystem.getFolder("/outputs/").await();
+                    outputsFolder.getFile("A.class").await().setContentsAsString("A.java bytecode").await();
+
+                    final BuildCache cache = BuildCache.create(cacheFolder);
+                    cache.store("a", Iterable.create(Path.parse("A.class")), outputsFolder, Iterable.create()).await();
+                    cacheFolder.getFolder("objects").await().delete().await();
+
+                    test.assertNull(cache.restore("a", fileSystem.getFolder("/other/").await()).await());
+                    test.assertFalse(cache.contains("a"));
+                });
+            });
+
+            runner.testGroup("isValidPath(String)", () ->
+            {
+                final Action2<String,Boolean> isValidPathTest = (String path, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(path), (Test test) ->
+                    {
+                        test.assertEqual(expected, BuildCache.isValidPath(path));
+                    });
+                };
+
+                isValidPathTest.run(null, false);
+                isValidPathTest.run("", false);
+                isValidPathTest.run("index.json", false);
+                isValidPathTest.run("entries/abcd.json", true);
+                isValidPathTest.run("entries/ABCD.json", false);
+                isValidPathTest.run("entries/../index.json", false);
+                isValidPathTest.run("objects/ab/abcd", true);
+                isValidPathTest.run("objects/cd/abcd", false);
+                isValidPathTest.run("objects/ab/../../index.json", false);
+            });
+
+            runner.testGroup("save()", () ->
+            {
+                runner.test("when the cache is within its maximum size", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder outputsFolder = fileSystem.getFolder("/outputs/").await();
+                    outputsFolder.getFile("A.class").await().setContentsAsString("A bytecode").await();
+                    outputsFolder.getFile("B.class").await().setContentsAsString("B bytecode").await();
+
+                    final BuildCache cache = BuildCache.create(fileSystem.getFolder("/cache/").await());
+                    cache.store("a", Iterable.create(Path.parse("A.class")), outputsFolder, Iterable.create()).await();
+                    cache.store("b", Iterable.create(Path.parse("B.class")), outputsFolder, Iterable.create()).await();
+                    cache.save().await();
+
+                    test.assertTrue(cache.contains("a"));
+                    test.assertTrue(cache.contains("b"));
+                    test.assertEqual(20L, cache.getSizeBytes());
+                });
+
+                runner.test("when the cache is larger than its maximum size", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder outputsFolder = fileSystem.getFolder("/outputs/").await();
+                    outputsFolder.getFile("A.class").await().setContentsAsString("A bytecode").await();
+                    outputsFolder.getFile("B.class").await().setContentsAsString("B bytecode").await();
+                    outputsFolder.getFile("C.class").await().setContentsAsString("C bytecode").await();
+
+                    final BuildCache cache = BuildCache.create(fileSystem.getFolder("/cache/").await())
+                        .setMaximumSizeBytes(20);
+                    cache.store("a", Iterable.create(Path.parse("A.class")), outputsFolder, Iterable.create()).await();
+                    cache.store("b", Iterable.create(Path.parse("B.class")), outputsFolder, Iterable.create()).await();
+                    test.assertNotNull(cache.restore("a", fileSystem.getFolder("/other/").await()).await());
+                    cache.store("c", Iterable.create(Path.parse("C.class")), outputsFolder, Iterable.create()).await();
+                    cache.save().await();
+
+                    test.assertTrue(cache.contains("a"));
+                    test.assertFalse(cache.contains("b"));
+                    test.assertTrue(cache.contains("c"));
+                    test.assertEqual(20L, cache.getSizeBytes());
+                });
+            });
+        });
+    }
+}
@@ -34,6 +34,63 @@ public interface BuildJSONSourceFileTests
                 });
             });
 
+            runner.testGroup("setContentHash(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setContentHash(null),
+                        new PreConditionFailure("contentHash cannot be null."));
+                    test.assertNull(sourceFile.getContentHash());
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setContentHash(""),
+                        new PreConditionFailure("contentHash cannot be empty."));
+                    test.assertNull(sourceFile.getContentHash());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final String contentHash = ContentHash.create("a.java contents");
+                    final BuildJSONSourceFile setContentHashResult = sourceFile.setContentHash(contentHash);
+                    test.assertSame(sourceFile, setContentHashResult);
+                    test.assertEqual(contentHash, sourceFile.getContentHash());
+                    test.assertEqual("\"a\":{\"contentHash\":\"" + contentHash + "\"}", sourceFile.toString());
+                });
+            });
+
+            runner.testGroup("setAbiDigest(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setAbiDigest(null),
+                        new PreConditionFailure("abiDigest cannot be null."));
+                    test.assertNull(sourceFile.getAbiDigest());
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setAbiDigest(""),
+                        new PreConditionFailure("abiDigest cannot be empty."));
+                    test.assertNull(sourceFile.getAbiDigest());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setAbiDigestResult = sourceFile.setAbiDigest("abc");
+                    test.assertSame(sourceFile, setAbiDigestResult);
+                    test.assertEqual("abc", sourceFile.getAbiDigest());
+                    test.assertEqual("\"a\":{\"abiDigest\":\"abc\"}", sourceFile.toString());
+                });
+            });
+
             runner.testGroup("setDependencies(Iterable<Path>)", () ->
             {
                 runner.test("with null", (Test test) ->
@@ -63,6 +120,36 @@ public interface BuildJSONSourceFileTests
                 });
             });
 
+            runner.testGroup("setClassFiles(Iterable<Path>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setClassFiles(null),
+                        new PreConditionFailure("classFiles cannot be null."));
+                    test.assertNull(sourceFile.getClassFiles());
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final Iterable<Path> classFiles = Iterable.create();
+                    final BuildJSONSourceFile setClassFilesResult = sourceFile.setClassFiles(classFiles);
+                    test.assertSame(sourceFile, setClassFilesResult);
+                    test.assertEqual(classFiles, sourceFile.getClassFiles());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final Iterable<Path> classFiles = Iterable.create(Path.parse("qub/A.class"), Path.parse("qub/Helper.class"));
+                    final BuildJSONSourceFile setClassFilesResult = sourceFile.setClassFiles(classFiles);
+                    test.assertSame(sourceFile, setClassFilesResult);
+                    test.assertEqual(classFiles, sourceFile.getClassFiles());
+                    test.assertEqual("\"a\":{\"classFiles\":[\"qub/A.class\",\"qub/Helper.class\"]}", sourceFile.toString());
+                });
+            });
+
             runner.testGroup("addIssue(JavaCompilerIssue)", () ->
             {
                 runner.test("with null", (Test test) ->
@@ -82,6 +169,28 @@ public interface BuildJSONSourceFileTests
                 });
             });
 
+            runner.testGroup("addIssues(Iterable<JavaCompilerIssue>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.addIssues(null),
+                        new PreConditionFailure("issues cannot be null."));
+                    test.assertEqual(Iterable.create(), sourceFile.getIssues());
+                });
+
+                runner.test("with existing issues", (Test test) ->
+                {
+                    final JavaCompilerIssue issue1 = new JavaCompilerIssue("a.java", 1, 2, Issue.Type.Warning, "Hello!");
+                    final JavaCompilerIssue issue2 = new JavaCompilerIssue("a.java", 3, 4, Issue.Type.Error, "Oops!");
+                    final JavaCompilerIssue issue3 = new JavaCompilerIssue("a.java", 5, 6, Issue.Type.Error, "Again!");
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a")
+                        .addIssue(issue1);
+                    test.assertSame(sourceFile, sourceFile.addIssues(Iterable.create(issue2, issue3)));
+                    test.assertEqual(Iterable.create(issue1, issue2, issue3), sourceFile.getIssues());
+                });
+            });
+
             runner.testGroup("setIssues(Iterable<JavaCompilerIssue>)", () ->
             {
                 runner.test("with null", (Test test) ->
@@ -197,6 +306,27 @@ public interface BuildJSONSourceFileTests
                         .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5)))
                         .setDependencies(Iterable.create()),
                     false);
+                equalsTest.run(
+                    BuildJSONSourceFile.create("a")
+                        .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5))),
+                    BuildJSONSourceFile.create("a")
+                        .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5)))
+                        .setContentHash("abc"),
+                    false);
+                equalsTest.run(
+                    BuildJSONSourceFile.create("a")
+                        .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5)))
+                        .setAbiDigest("abc"),
+                    BuildJSONSourceFile.create("a")
+                        .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5)))
+                        .setAbiDigest("def"),
+                    false);
+                equalsTest.run(
+                    BuildJSONSourceFile.create("a")
+                        .setClassFiles(Iterable.create(Path.parse("A.class"))),
+                    BuildJSONSourceFile.create("a")
+                        .setClassFiles(Iterable.create(Path.parse("A.class"), Path.parse("B.class"))),
+                    false);
                 equalsTest.run(
                     BuildJSONSourceFile.create("a")
                         .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5))),
@@ -222,6 +352,15 @@ public interface BuildJSONSourceFileTests
                         "\"a\":{\"lastModified\":\"1970-01-01T00:00:00.000000020Z\",\"dependencies\":[\"b\",\"c\"]}",
                         parseJsonSourceFile.toString());
                 });
+
+                runner.test("with empty dependencies and class files", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a")
+                        .setDependencies(Iterable.create())
+                        .setClassFiles(Iterable.create());
+                    test.assertEqual("\"a\":{\"dependencies\":[],\"classFiles\":[]}", sourceFile.toString());
+                    test.assertEqual(sourceFile.getRecord().toJson(), sourceFile.toJson());
+                });
             });
         });
     }
@@ -180,6 +180,68 @@ public interface BuildJSONTests
                             .setLastModified(DateTime.epoch.plus(Duration.milliseconds(10))),
                         buildJson.getSourceFile(Path.parse("sources/A.java")).await());
                 });
+
+                runner.test("with the same source file as getSourceFiles()", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create();
+                    final BuildJSONSourceFile aSourceFile = BuildJSONSourceFile.create(Path.parse("sources/A.java"))
+                        .setLastModified(DateTime.epoch.plus(Duration.milliseconds(10)));
+                    final BuildJSONSourceFile bSourceFile = BuildJSONSourceFile.create(Path.parse("sources/B.java"))
+                        .setLastModified(DateTime.epoch.plus(Duration.milliseconds(20)));
+                    buildJson.setSourceFiles(Iterable.create(aSourceFile, bSourceFile));
+                    test.assertSame(aSourceFile, buildJson.getSourceFile(Path.parse("sources/A.java")).await());
+                    test.assertSame(bSourceFile, buildJson.getSourceFile(Path.parse("sources/B.java")).await());
+                    test.assertSame(buildJson.getSourceFiles(), buildJson.getSourceFiles());
+                });
+
+                runner.test("getSourceFiles() is a read-only view", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create();
+                    final Iterable<BuildJSONSourceFile> sourceFiles = buildJson.getSourceFiles();
+                    test.assertFalse(sourceFiles instanceof List);
+
+                    final BuildJSONSourceFile aSourceFile = BuildJSONSourceFile.create(Path.parse("sources/A.java"));
+                    buildJson.setSourceFiles(Iterable.create(aSourceFile));
+                    test.assertEqual(Iterable.create(aSourceFile), sourceFiles);
+                });
+
+                runner.test("after setSourceFiles() is called again", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create();
+                    buildJson.setSourceFiles(Iterable.create(
+                        BuildJSONSourceFile.create(Path.parse("sources/A.java"))
+                            .setLastModified(DateTime.epoch.plus(Duration.milliseconds(10)))));
+                    buildJson.setSourceFiles(Iterable.create(
+                        BuildJSONSourceFile.create(Path.parse("sources/B.java"))
+                            .setLastModified(DateTime.epoch.plus(Duration.milliseconds(20)))));
+                    test.assertThrows(() -> buildJson.getSourceFile(Path.parse("sources/A.java")).await(),
+                        new NotFoundException("No source file found in the BuildJSON object with the path \"sources/A.java\"."));
+                    test.assertEqual(
+                        BuildJSONSourceFile.create(Path.parse("sources/B.java"))
+                            .setLastModified(DateTime.epoch.plus(Duration.milliseconds(20))),
+                        buildJson.getSourceFile(Path.parse("sources/B.java")).await());
+                });
+
+                runner.test("with parsed BuildJSON", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.parse(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(Path.parse("sources/A.java"))
+                                    .setLastModified(DateTime.epoch.plus(Duration.milliseconds(10))),
+                                BuildJSONSourceFile.create(Path.parse("sources/B.java"))
+                                    .setLastModified(DateTime.epoch.plus(Duration.milliseconds(20)))
+                                    .setDependencies(Iterable.create(Path.parse("sources/A.java")))))
+                            .toJson())
+                        .await();
+                    test.assertEqual(
+                        BuildJSONSourceFile.create(Path.parse("sources/B.java"))
+                            .setLastModified(DateTime.epoch.plus(Duration.milliseconds(20)))
+                            .setDependencies(Iterable.create(Path.parse("sources/A.java"))),
+                        buildJson.getSourceFile(Path.parse("sources/B.java")).await());
+                    test.assertEqual(2, buildJson.getSourceFiles().getCount());
+                });
             });
 
             runner.testGroup("toJson()", () ->
@@ -241,6 +303,26 @@ public interface BuildJSONTests
                         .setObject("sourceFiles", JSONObject.create()
                             .setObject("hello.java", JSONObject.create()
                                 .setString("lastModified", "1970-01-01T00:00Z"))));
+
+                runner.test("after a parsed source file is modified", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.parse(
+                        BuildJSON.create()
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create("hello.java")
+                                    .setLastModified(DateTime.epoch)))
+                            .toJson())
+                        .await();
+                    buildJson.getSourceFile("hello.java").await()
+                        .addIssue(JavaCompilerIssue.warning("hello.java", 1, 2, "Help!"));
+                    test.assertEqual(
+                        JSONObject.create()
+                            .setObject("sourceFiles", JSONObject.create()
+                                .setObject("hello.java", JSONObject.create()
+                                    .setString("lastModified", "1970-01-01T00:00Z")
+                                    .setArray("issues", JSONArray.create(Iterable.create(JavaCompilerIssue.warning("hello.java", 1, 2, "Help!").toJson()))))),
+                        buildJson.toJson());
+                });
             });
         });
     }
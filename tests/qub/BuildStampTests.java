@@ -0,0 +1,119 @@
+package qub;
+
+public interface BuildStampTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(BuildStamp.class, () ->
+        {
+            runner.test("create(String,Iterable<String>,Iterable<String>,int)", (Test test) ->
+            {
+                final BuildStamp stamp = BuildStamp.create("abc", Iterable.create("/qub/a/b/1/b.jar"), Iterable.create("No files need to be compiled."), 1);
+                test.assertEqual("abc", stamp.getDigest());
+                test.assertEqual(Iterable.create("/qub/a/b/1/b.jar"), stamp.getDependencyClassPaths());
+                test.assertEqual(Iterable.create("No files need to be compiled."), stamp.getOutputLines());
+                test.assertEqual(1, stamp.getExitCode());
+
+                final BuildStamp parsedStamp = BuildStamp.parse(JSON.parseObject(stamp.toString()).await()).await();
+                test.assertEqual("abc", parsedStamp.getDigest());
+                test.assertEqual(Iterable.create("/qub/a/b/1/b.jar"), parsedStamp.getDependencyClassPaths());
+                test.assertEqual(Iterable.create("No files need to be compiled."), parsedStamp.getOutputLines());
+                test.assertEqual(1, parsedStamp.getExitCode());
+                test.assertNull(parsedStamp.getOutputsFolder());
+            });
+
+            runner.test("create(String,Iterable<String>,Iterable<String>,int,String)", (Test test) ->
+            {
+                final BuildStamp stamp = BuildStamp.create("abc", Iterable.create(), Iterable.create("No files need to be compiled."), 0, "outputs");
+                test.assertEqual("outputs", stamp.getOutputsFolder());
+
+                final BuildStamp parsedStamp = BuildStamp.parse(JSON.parseObject(stamp.toString()).await()).await();
+                test.assertEqual("abc", parsedStamp.getDigest());
+                test.assertEqual("outputs", parsedStamp.getOutputsFolder());
+            });
+
+            runner.testGroup("getFolderSummary(Folder,Function1<String,Boolean>,Iterable<Folder>)", () ->
+            {
+                runner.test("with no changes", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.getFile("sources/A.java").await().setContentsAsString("A.java source").await();
+
+                    test.assertEqual(
+                        BuildStamp.getFolderSummary(folder, (String relativeFolderPath) -> true, Iterable.create()).await(),
+                        BuildStamp.getFolderSummary(folder, (String relativeFolderPath) -> true, Iterable.create()).await());
+                });
+
+                runner.test("with an added file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.getFile("sources/A.java").await().setContentsAsString("A.java source").await();
+                    final String summaryBefore = BuildStamp.getFolderSummary(folder, (String relativeFolderPath) -> true, Iterable.create()).await();
+
+                    folder.getFile("sources/B.java").await().setContentsAsString("B.java source").await();
+
+                    test.assertNotEqual(summaryBefore, BuildStamp.getFolderSummary(folder, (String relativeFolderPath) -> true, Iterable.create()).await());
+                });
+
+                runner.test("with a deleted file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder outputsFolder = fileSystem.getFolder("/project/outputs/").await();
+                    outputsFolder.getFile("build.json").await().setContentsAsString("{}").await();
+                    final File aClassFile = outputsFolder.getFile("qub/A.class").await();
+                    aClassFile.setContentsAsString("A.class bytes").await();
+                    final String summaryBefore = BuildStamp.getFolderSummary(outputsFolder, (String relativeFolderPath) -> true, Iterable.create()).await();
+
+                    aClassFile.delete().await();
+
+                    test.assertNotEqual(summaryBefore, BuildStamp.getFolderSummary(outputsFolder, (String relativeFolderPath) -> true, Iterable.create()).await());
+                });
+
+                runner.test("with a folder index from a previous summary", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.getFile("sources/A.java").await().setContentsAsString("A.java source").await();
+                    final SourceFolderIndex sourceFolderIndex = SourceFolderIndex.create();
+
+                    test.assertEqual(
+                        BuildStamp.getFolderSummary(folder, (String relativeFolderPath) -> true, Iterable.create()).await(),
+                        BuildStamp.getFolderSummary(folder, (String relativeFolderPath) -> true, Iterable.create(), sourceFolderIndex).await());
+                    test.assertEqual(
+                        BuildStamp.getFolderSummary(folder, (String relativeFolderPath) -> true, Iterable.create()).await(),
+                        BuildStamp.getFolderSummary(folder, (String relativeFolderPath) -> true, Iterable.create(), sourceFolderIndex).await());
+                });
+
+                runner.test("with a file in a folder that the filter rejects or an excluded folder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    folder.getFile("sources/A.java").await().setContentsAsString("A.java source").await();
+                    folder.getFile(QubBuild.ignoreFileName).await().setContentsAsString("generated").await();
+                    final Function1<String,Boolean> folderFilter = QubBuild.getInputFolderFilter(folder, folder.getFolder("outputs").await()).await();
+                    final Folder excludedFolder = folder.getFolder("data").await();
+                    final String summaryBefore = BuildStamp.getFolderSummary(folder, folderFilter, Iterable.create(excludedFolder)).await();
+
+                    folder.getFile(".git/HEAD").await().setContentsAsString("ref: refs/heads/main").await();
+                    folder.getFile(".hg/dirstate").await().setContentsAsString("dirstate").await();
+                    folder.getFile("outputs/A.class").await().setContentsAsString("A.class bytes").await();
+                    folder.getFile("generated/B.java").await().setContentsAsString("B.java source").await();
+                    excludedFolder.getFile("logs/1.log").await().setContentsAsString("No files need to be compiled.").await();
+
+                    test.assertEqual(summaryBefore, BuildStamp.getFolderSummary(folder, folderFilter, Iterable.create(excludedFolder)).await());
+
+                    folder.getFile("sources/B.java").await().setContentsAsString("B.java source").await();
+
+                    test.assertNotEqual(summaryBefore, BuildStamp.getFolderSummary(folder, folderFilter, Iterable.create(excludedFolder)).await());
+                });
+            });
+        });
+    }
+}
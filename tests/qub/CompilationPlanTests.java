@@ -0,0 +1,99 @@
+package qub;
+
+public interface CompilationPlanTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(CompilationPlan.class, () ->
+        {
+            runner.testGroup("create(SourceDependencyGraph,Iterable<Path>,int,int)", () ->
+            {
+                final Function0<SourceDependencyGraph> createGraph = () ->
+                    SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java"), Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/C.java"),
+                        BuildJSONSourceFile.create("sources/D.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/E.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/C.java")))));
+                final Iterable<Path> allSourceFilePaths = Iterable.create(
+                    Path.parse("sources/A.java"),
+                    Path.parse("sources/B.java"),
+                    Path.parse("sources/C.java"),
+                    Path.parse("sources/D.java"),
+                    Path.parse("sources/E.java"));
+                final Function1<CompilationPlan,Iterable<String>> stageStrings = (CompilationPlan plan) ->
+                    plan.getStages()
+                        .map((Iterable<Iterable<Path>> stage) -> Strings.join(" | ", stage.map((Iterable<Path> batch) -> Strings.join(",", batch.map(Path::toString)))))
+                        .toList();
+
+                runner.test("with null dependencyGraph", (Test test) ->
+                {
+                    test.assertThrows(() -> CompilationPlan.create(null, allSourceFilePaths, 2, 1),
+                        new PreConditionFailure("dependencyGraph cannot be null."));
+                });
+
+                runner.test("with null sourceFilePaths", (Test test) ->
+                {
+                    test.assertThrows(() -> CompilationPlan.create(createGraph.run(), null, 2, 1),
+                        new PreConditionFailure("sourceFilePaths cannot be null."));
+                });
+
+                runner.test("with no source files", (Test test) ->
+                {
+                    final CompilationPlan plan = CompilationPlan.create(createGraph.run(), Iterable.create(), 2, 1);
+                    test.assertEqual(Iterable.create(), stageStrings.run(plan));
+                    test.assertEqual(0, plan.getBatchCount());
+                    test.assertEqual(0, plan.getMaximumStageBatchCount());
+                });
+
+                runner.test("with independent dependents", (Test test) ->
+                {
+                    final CompilationPlan plan = CompilationPlan.create(createGraph.run(), allSourceFilePaths, 2, 1);
+                    test.assertEqual(
+                        Iterable.create(
+                            "sources/C.java",
+                            "sources/A.java,sources/B.java | sources/D.java,sources/E.java"),
+                        stageStrings.run(plan));
+                    test.assertEqual(3, plan.getBatchCount());
+                    test.assertEqual(2, plan.getMaximumStageBatchCount());
+                });
+
+                runner.test("with one batch allowed", (Test test) ->
+                {
+                    final CompilationPlan plan = CompilationPlan.create(createGraph.run(), allSourceFilePaths, 1, 1);
+                    test.assertEqual(
+                        Iterable.create("sources/A.java,sources/B.java,sources/C.java,sources/D.java,sources/E.java"),
+                        stageStrings.run(plan));
+                    test.assertEqual(1, plan.getBatchCount());
+                    test.assertEqual(1, plan.getMaximumStageBatchCount());
+                });
+
+                runner.test("with stages that are too small to divide", (Test test) ->
+                {
+                    final CompilationPlan plan = CompilationPlan.create(createGraph.run(), allSourceFilePaths, 2, 3);
+                    test.assertEqual(
+                        Iterable.create("sources/A.java,sources/B.java,sources/C.java,sources/D.java,sources/E.java"),
+                        stageStrings.run(plan));
+                    test.assertEqual(1, plan.getBatchCount());
+                });
+
+                runner.test("with dependency chain", (Test test) ->
+                {
+                    final CompilationPlan plan = CompilationPlan.create(
+                        createGraph.run(),
+                        Iterable.create(Path.parse("sources/D.java"), Path.parse("sources/C.java")),
+                        2,
+                        1);
+                    test.assertEqual(
+                        Iterable.create("sources/D.java,sources/C.java"),
+                        stageStrings.run(plan));
+                    test.assertEqual(1, plan.getBatchCount());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,195 @@
+package qub;
+
+public interface JavaClassFileTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavaClassFile.class, () ->
+        {
+            runner.testGroup("getTopLevelClassName(String)", () ->
+            {
+                final Action2<String,String> getTopLevelClassNameTest = (String className, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(className), (Test test) ->
+                    {
+                        test.assertEqual(expected, JavaClassFile.getTopLevelClassName(className));
+                    });
+                };
+
+                getTopLevelClassNameTest.run("A", "A");
+                getTopLevelClassNameTest.run("qub/A", "qub/A");
+                getTopLevelClassNameTest.run("qub/A$B", "qub/A");
+                getTopLevelClassNameTest.run("qub/A$B$1", "qub/A");
+                getTopLevelClassNameTest.run("qub/$A", "qub/$A");
+            });
+
+            runner.testGroup("isAnonymousOrLocalClassName(String)", () ->
+            {
+                final Action2<String,Boolean> isAnonymousOrLocalClassNameTest = (String className, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(className), (Test test) ->
+                    {
+                        test.assertEqual(expected, JavaClassFile.isAnonymousOrLocalClassName(className));
+                    });
+                };
+
+                isAnonymousOrLocalClassNameTest.run("A", false);
+                isAnonymousOrLocalClassNameTest.run("qub/A", false);
+                isAnonymousOrLocalClassNameTest.run("qub/A$B", false);
+                isAnonymousOrLocalClassNameTest.run("qub/A$1", true);
+                isAnonymousOrLocalClassNameTest.run("qub/A$1Local", true);
+                isAnonymousOrLocalClassNameTest.run("qub/A$B$2", true);
+                isAnonymousOrLocalClassNameTest.run("qub/A$", false);
+            });
+
+            runner.testGroup("parse(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaClassFile.parse((byte[])null),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaClassFile.parse(new byte[0]).await(),
+                        new ParseException("Expected the class file to start with the magic number 0xCAFEBABE."));
+                });
+
+                runner.test("with fake bytecode", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaClassFile.parse("A.java bytecode".getBytes()).await(),
+                        new ParseException("Expected the class file to start with the magic number 0xCAFEBABE."));
+                });
+
+                runner.test("with truncated class file", (Test test) ->
+                {
+                    final byte[] classFileBytes = JavaClassFileTests.createClassFileBytes();
+                    final byte[] truncatedBytes = java.util.Arrays.copyOf(classFileBytes, classFileBytes.length - 5);
+                    test.assertThrows(() -> JavaClassFile.parse(truncatedBytes).await(),
+                        new ParseException("The class file ended before it could be fully parsed."));
+                });
+
+                runner.test("with valid class file", (Test test) ->
+                {
+                    final JavaClassFile classFile = JavaClassFile.parse(JavaClassFileTests.createClassFileBytes()).await();
+                    test.assertNotNull(classFile);
+                    test.assertEqual("qub/A", classFile.getClassName());
+                    test.assertEqual(
+                        Iterable.create(
+                            "java/lang/Object",
+                            "qub/B$Inner",
+                            "qub/C",
+                            "qub/E",
+                            "qub/D"),
+                        classFile.getReferencedClassNames());
+                    test.assertFalse(Strings.isNullOrEmpty(classFile.getAbiDigest()));
+                    test.assertNull(classFile.getSourceFileName());
+                });
+            });
+
+            runner.testGroup("getAbiDigest()", () ->
+            {
+                final String publicFieldAbiDigest = JavaClassFile.parse(JavaClassFileTests.createClassFileBytes(0x0001, "Lqub/D;", (byte)1)).await().getAbiDigest();
+
+                runner.test("with same class file", (Test test) ->
+                {
+                    test.assertEqual(
+                        publicFieldAbiDigest,
+                        JavaClassFile.parse(JavaClassFileTests.createClassFileBytes(0x0001, "Lqub/D;", (byte)1)).await().getAbiDigest());
+                });
+
+                runner.test("with different non-ABI attribute contents", (Test test) ->
+                {
+                    test.assertEqual(
+                        publicFieldAbiDigest,
+                        JavaClassFile.parse(JavaClassFileTests.createClassFileBytes(0x0001, "Lqub/D;", (byte)2)).await().getAbiDigest());
+                });
+
+                runner.test("with different public field type", (Test test) ->
+                {
+                    test.assertNotEqual(
+                        publicFieldAbiDigest,
+                        JavaClassFile.parse(JavaClassFileTests.createClassFileBytes(0x0001, "Lqub/F;", (byte)1)).await().getAbiDigest());
+                });
+
+                runner.test("with different field access", (Test test) ->
+                {
+                    test.assertNotEqual(
+                        publicFieldAbiDigest,
+                        JavaClassFile.parse(JavaClassFileTests.createClassFileBytes(0x0004, "Lqub/D;", (byte)1)).await().getAbiDigest());
+                });
+
+                runner.test("with different private field type", (Test test) ->
+                {
+                    test.assertEqual(
+                        JavaClassFile.parse(JavaClassFileTests.createClassFileBytes(0x0002, "Lqub/D;", (byte)1)).await().getAbiDigest(),
+                        JavaClassFile.parse(JavaClassFileTests.createClassFileBytes(0x0002, "Lqub/F;", (byte)2)).await().getAbiDigest());
+                });
+            });
+        });
+    }
+
+    /**
+     * Create the bytes of a small class file named "qub/A" that references several other classes
+     * through its constant pool, a field descriptor, and a method descriptor.
+     */
+    static byte[] createClassFileBytes()
+    {
+        return JavaClassFileTests.createClassFileBytes(0, "Lqub/D;", (byte)1);
+    }
+
+    /**
+     * Create the bytes of a small class file named "qub/A" that has one field.
+     * @param fieldAccessFlags The access flags of the field.
+     * @param fieldDescriptor The descriptor of the field's type.
+     * @param fieldAttributeByte The first byte of the contents of the field's non-ABI attribute.
+     */
+    static byte[] createClassFileBytes(int fieldAccessFlags, String fieldDescriptor, byte fieldAttributeByte)
+    {
+        final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (final java.io.DataOutputStream output = new java.io.DataOutputStream(bytes))
+        {
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0); // Minor version
+            output.writeShort(52); // Major version
+
+            output.writeShort(15); // Constant pool count
+            output.writeByte(1); output.writeUTF("qub/A"); // 1
+            output.writeByte(7); output.writeShort(1); // 2
+            output.writeByte(1); output.writeUTF("java/lang/Object"); // 3
+            output.writeByte(7); output.writeShort(3); // 4
+            output.writeByte(1); output.writeUTF("qub/B$Inner"); // 5
+            output.writeByte(7); output.writeShort(5); // 6
+            output.writeByte(1); output.writeUTF("[Lqub/C;"); // 7
+            output.writeByte(7); output.writeShort(7); // 8
+            output.writeByte(1); output.writeUTF("field"); // 9
+            output.writeByte(1); output.writeUTF(fieldDescriptor); // 10
+            output.writeByte(5); output.writeLong(50); // 11 and 12
+            output.writeByte(1); output.writeUTF("(Lqub/E;I)V"); // 13
+            output.writeByte(12); output.writeShort(9); output.writeShort(13); // 14
+
+            output.writeShort(0x0021); // Access flags
+            output.writeShort(2); // This class
+            output.writeShort(4); // Super class
+            output.writeShort(0); // Interfaces
+
+            output.writeShort(1); // Fields
+            output.writeShort(fieldAccessFlags); // Access flags
+            output.writeShort(9); // Name
+            output.writeShort(10); // Descriptor
+            output.writeShort(1); // Attributes
+            output.writeShort(9); // Attribute name
+            output.writeInt(3); // Attribute length
+            output.write(new byte[] { fieldAttributeByte, 2, 3 });
+
+            output.writeShort(0); // Methods
+            output.writeShort(0); // Attributes
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,161 @@
+package qub;
+
+public interface JavacInProcessCompilerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavacInProcessCompiler.class, () ->
+        {
+            runner.testGroup("create(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacInProcessCompiler.create(null),
+                        new PreConditionFailure("workingFolder cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder workingFolder = fileSystem.getFolder("/project/").await();
+                    final JavacInProcessCompiler compiler = JavacInProcessCompiler.create(workingFolder).await();
+                    test.assertNotNull(compiler);
+                    test.assertEqual(workingFolder.getPath(), compiler.getWorkingFolderPath());
+                    test.assertEqual(Iterable.create(), compiler.getArguments());
+                });
+            });
+
+            runner.test("getArguments()", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder workingFolder = fileSystem.getFolder("/project/").await();
+                final JavacInProcessCompiler compiler = JavacInProcessCompiler.create(workingFolder).await();
+                test.assertSame(compiler, compiler.addOutputFolder(workingFolder.getFolder("outputs").await()));
+                test.assertSame(compiler, compiler.addSourceFile("sources/A.java"));
+                test.assertSame(compiler, compiler.addXlintUnchecked());
+                test.assertEqual(
+                    Iterable.create(
+                        "-d",
+                        "/project/outputs",
+                        "-Xlint:unchecked",
+                        "/project/sources/A.java"),
+                    compiler.getArguments());
+            });
+
+            runner.testGroup("getIssue(Diagnostic<? extends JavaFileObject>,Path,Warnings)", () ->
+            {
+                final Path workingFolderPath = Path.parse("/project");
+
+                runner.test("with error", (Test test) ->
+                {
+                    final javax.tools.Diagnostic<javax.tools.JavaFileObject> diagnostic = JavacInProcessCompilerTests.createDiagnostic(javax.tools.Diagnostic.Kind.ERROR, "/project/sources/A.java", 3, 7, "cannot find symbol\n  symbol: class B");
+                    test.assertEqual(
+                        JavaCompilerIssue.error("sources/A.java", 3, 7, "cannot find symbol"),
+                        JavacInProcessCompiler.getIssue(diagnostic, workingFolderPath, Warnings.Show));
+                });
+
+                runner.test("with warning", (Test test) ->
+                {
+                    final javax.tools.Diagnostic<javax.tools.JavaFileObject> diagnostic = JavacInProcessCompilerTests.createDiagnostic(javax.tools.Diagnostic.Kind.MANDATORY_WARNING, "/project/tests/A.java", 10, 1, "[deprecation] B in qub has been deprecated");
+                    test.assertEqual(
+                        JavaCompilerIssue.warning("tests/A.java", 10, 1, "[deprecation] B in qub has been deprecated"),
+                        JavacInProcessCompiler.getIssue(diagnostic, workingFolderPath, Warnings.Show));
+                });
+
+                runner.test("with warning when warnings are errors", (Test test) ->
+                {
+                    final javax.tools.Diagnostic<javax.tools.JavaFileObject> diagnostic = JavacInProcessCompilerTests.createDiagnostic(javax.tools.Diagnostic.Kind.WARNING, "/project/sources/A.java", 2, 5, "Are you sure?");
+                    test.assertEqual(
+                        JavaCompilerIssue.error("sources/A.java", 2, 5, "Are you sure?"),
+                        JavacInProcessCompiler.getIssue(diagnostic, workingFolderPath, Warnings.Error));
+                });
+
+                runner.test("with note", (Test test) ->
+                {
+                    final javax.tools.Diagnostic<javax.tools.JavaFileObject> diagnostic = JavacInProcessCompilerTests.createDiagnostic(javax.tools.Diagnostic.Kind.NOTE, "/project/sources/A.java", 1, 1, "Some input files use unchecked or unsafe operations.");
+                    test.assertNull(JavacInProcessCompiler.getIssue(diagnostic, workingFolderPath, Warnings.Show));
+                });
+
+                runner.test("with no source", (Test test) ->
+                {
+                    final javax.tools.Diagnostic<javax.tools.JavaFileObject> diagnostic = JavacInProcessCompilerTests.createDiagnostic(javax.tools.Diagnostic.Kind.ERROR, null, javax.tools.Diagnostic.NOPOS, javax.tools.Diagnostic.NOPOS, "invalid flag: -spam");
+                    test.assertNull(JavacInProcessCompiler.getIssue(diagnostic, workingFolderPath, Warnings.Show));
+                });
+            });
+        });
+    }
+
+    /**
+     * Create a compiler diagnostic for tests.
+     * @param kind The kind of the diagnostic.
+     * @param sourceFilePath The absolute path to the source file of the diagnostic, or null if the
+     *                       diagnostic doesn't have a source file.
+     * @param lineNumber The line number of the diagnostic.
+     * @param columnNumber The column number of the diagnostic.
+     * @param message The message of the diagnostic.
+     */
+    static javax.tools.Diagnostic<javax.tools.JavaFileObject> createDiagnostic(javax.tools.Diagnostic.Kind kind, String sourceFilePath, long lineNumber, long columnNumber, String message)
+    {
+        final javax.tools.JavaFileObject source = sourceFilePath == null
+            ? null
+            : new javax.tools.SimpleJavaFileObject(java.nio.file.Paths.get(sourceFilePath).toUri(), javax.tools.JavaFileObject.Kind.SOURCE) {};
+        return new javax.tools.Diagnostic<javax.tools.JavaFileObject>()
+        {
+            @Override
+            public Kind getKind()
+            {
+                return kind;
+            }
+
+            @Override
+            public javax.tools.JavaFileObject getSource()
+            {
+                return source;
+            }
+
+            @Override
+            public long getPosition()
+            {
+                return javax.tools.Diagnostic.NOPOS;
+            }
+
+            @Override
+            public long getStartPosition()
+            {
+                return javax.tools.Diagnostic.NOPOS;
+            }
+
+            @Override
+            public long getEndPosition()
+            {
+                return javax.tools.Diagnostic.NOPOS;
+            }
+
+            @Override
+            public long getLineNumber()
+            {
+                return lineNumber;
+            }
+
+            @Override
+            public long getColumnNumber()
+            {
+                return columnNumber;
+            }
+
+            @Override
+            public String getCode()
+            {
+                return null;
+            }
+
+            @Override
+            public String getMessage(java.util.Locale locale)
+            {
+                return message;
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package qub;
+
+public interface JavacIssueParserTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavacIssueParser.class, () ->
+        {
+            runner.testGroup("create(Warnings,Action1<JavaCompilerIssue>)", () ->
+            {
+                runner.test("with null warnings", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacIssueParser.create(null, (JavaCompilerIssue issue) -> {}),
+                        new PreConditionFailure("warnings cannot be null."));
+                });
+
+                runner.test("with null issueAction", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacIssueParser.create(Warnings.Show, null),
+                        new PreConditionFailure("issueAction cannot be null."));
+                });
+            });
+
+            runner.testGroup("addLine(String)", () ->
+            {
+                final Action3<Warnings,Iterable<String>,Iterable<JavaCompilerIssue>> addLineTest = (Warnings warnings, Iterable<String> lines, Iterable<JavaCompilerIssue> expected) ->
+                {
+                    runner.test("with " + warnings + " and " + Strings.escapeAndQuote(Strings.join("", lines)), (Test test) ->
+                    {
+                        final List<JavaCompilerIssue> issues = List.create();
+                        final JavacIssueParser parser = JavacIssueParser.create(warnings, issues::add);
+                        for (final String line : lines)
+                        {
+                            test.assertSame(parser, parser.addLine(line));
+                        }
+                        test.assertEqual(expected, issues);
+                    });
+                };
+
+                addLineTest.run(Warnings.Show, Iterable.create(), Iterable.create());
+                addLineTest.run(Warnings.Show,
+                    Iterable.create(
+                        "sources/A.java:3: error: cannot find symbol\n",
+                        "    B b;\n",
+                        "    ^\n"),
+                    Iterable.create(
+                        JavaCompilerIssue.error("sources/A.java", 3, 5, "cannot find symbol")));
+                addLineTest.run(Warnings.Show,
+                    Iterable.create(
+                        "sources/A.java:3: warning: [deprecation] B has been deprecated\r\n",
+                        "    B b;\r\n",
+                        "      ^\r\n"),
+                    Iterable.create(
+                        JavaCompilerIssue.warning("sources/A.java", 3, 7, "[deprecation] B has been deprecated")));
+                addLineTest.run(Warnings.Error,
+                    Iterable.create(
+                        "sources/A.java:3: warning: [deprecation] B has been deprecated",
+                        "    B b;",
+                        "      ^"),
+                    Iterable.create(
+                        JavaCompilerIssue.error("sources/A.java", 3, 7, "[deprecation] B has been deprecated")));
+                addLineTest.run(Warnings.Show,
+                    Iterable.create(
+                        "Note: Some input files use unchecked or unsafe operations.",
+                        "error: file not found: sources/A.java",
+                        "sources/A.java:1: error: ';' expected",
+                        "class A { int a }",
+                        "               ^",
+                        "  symbol: class B",
+                        "tests/B.java:20: warning: Are you sure?",
+                        "Fake code line",
+                        "^",
+                        "2 errors"),
+                    Iterable.create(
+                        JavaCompilerIssue.error("sources/A.java", 1, 16, "';' expected"),
+                        JavaCompilerIssue.warning("tests/B.java", 20, 1, "Are you sure?")));
+                addLineTest.run(Warnings.Show,
+                    Iterable.create(
+                        "sources/A.java:3: error: cannot find symbol",
+                        "    B b;"),
+                    Iterable.create());
+            });
+        });
+    }
+}
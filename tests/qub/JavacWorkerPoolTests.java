@@ -0,0 +1,90 @@
+package qub;
+
+public interface JavacWorkerPoolTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavacWorkerPool.class, () ->
+        {
+            runner.testGroup("create(ProcessFactory)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacWorkerPool.create(null),
+                        new PreConditionFailure("processFactory cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final JavacWorkerPool pool = JavacWorkerPool.create(process.getProcessFactory());
+                        test.assertNotNull(pool);
+                        test.assertEqual(JavacWorkerPool.getMaximumRequestsPerWorkerDefault(), pool.getMaximumRequestsPerWorker());
+                        test.assertEqual(JavacWorkerPool.getMaximumHeapUsedMegabytesDefault(), pool.getMaximumHeapUsedMegabytes());
+                        test.assertEqual(JavacWorkerProcess.executablePathString, pool.getJavaExecutablePath());
+                        test.assertEqual(0, pool.getIdleWorkerCount());
+                        test.assertFalse(pool.isDisposed());
+                    }
+                });
+            });
+
+            runner.testGroup("setJavaExecutablePath(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final JavacWorkerPool pool = JavacWorkerPool.create(process.getProcessFactory());
+                        test.assertThrows(() -> pool.setJavaExecutablePath(null),
+                            new PreConditionFailure("javaExecutablePath cannot be null."));
+                        test.assertEqual(JavacWorkerProcess.executablePathString, pool.getJavaExecutablePath());
+                    }
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final JavacWorkerPool pool = JavacWorkerPool.create(process.getProcessFactory());
+                        test.assertSame(pool, pool.setJavaExecutablePath("/jdk/bin/java"));
+                        test.assertEqual("/jdk/bin/java", pool.getJavaExecutablePath());
+                    }
+                });
+            });
+
+            runner.testGroup("shouldRecycle(int,int)", () ->
+            {
+                final Action3<Integer,Integer,Boolean> shouldRecycleTest = (Integer requestCount, Integer heapUsedMegabytes, Boolean expected) ->
+                {
+                    runner.test("with " + requestCount + " requests and " + heapUsedMegabytes + "MB", (Test test) ->
+                    {
+                        try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                        {
+                            final JavacWorkerPool pool = JavacWorkerPool.create(process.getProcessFactory())
+                                .setMaximumRequestsPerWorker(10)
+                                .setMaximumHeapUsedMegabytes(256);
+                            test.assertEqual(expected, pool.shouldRecycle(requestCount, heapUsedMegabytes));
+                        }
+                    });
+                };
+
+                shouldRecycleTest.run(1, 20, false);
+                shouldRecycleTest.run(9, 255, false);
+                shouldRecycleTest.run(10, 20, true);
+                shouldRecycleTest.run(1, 256, true);
+            });
+
+            runner.test("dispose()", (Test test) ->
+            {
+                try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                {
+                    final JavacWorkerPool pool = JavacWorkerPool.create(process.getProcessFactory());
+                    test.assertTrue(pool.dispose().await());
+                    test.assertTrue(pool.isDisposed());
+                    test.assertFalse(pool.dispose().await());
+                }
+            });
+        });
+    }
+}
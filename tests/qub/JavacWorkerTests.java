@@ -0,0 +1,147 @@
+package qub;
+
+public interface JavacWorkerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavacWorker.class, () ->
+        {
+            runner.testGroup("createRequest(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacWorker.createRequest(null),
+                        new PreConditionFailure("arguments cannot be null."));
+                });
+
+                final Action1<Iterable<String>> createRequestTest = (Iterable<String> arguments) ->
+                {
+                    runner.test("with " + arguments.map(Strings::escapeAndQuote), (Test test) ->
+                    {
+                        final String request = JavacWorker.createRequest(arguments);
+                        test.assertFalse(request.contains("\n"));
+                        test.assertEqual(arguments, JavacWorker.parseRequest(request).await());
+                    });
+                };
+
+                createRequestTest.run(Iterable.create());
+                createRequestTest.run(Iterable.create("-d", "outputs", "sources/A.java"));
+                createRequestTest.run(Iterable.create("-classpath", "outputs;C:\\qub\\a.jar", "sources/A \"quoted\".java"));
+            });
+
+            runner.testGroup("createRequest(Path,Iterable<String>)", () ->
+            {
+                runner.test("with null arguments", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacWorker.createRequest(Path.parse("/project"), null),
+                        new PreConditionFailure("arguments cannot be null."));
+                });
+
+                runner.test("with null working folder", (Test test) ->
+                {
+                    final Iterable<String> arguments = Iterable.create("-d", "outputs", "sources/A.java");
+                    final String request = JavacWorker.createRequest(null, arguments);
+                    test.assertEqual(arguments, JavacWorker.parseRequest(request).await());
+                });
+
+                runner.test("with working folder", (Test test) ->
+                {
+                    final java.nio.file.Path workingFolder = java.nio.file.Paths.get("/project");
+                    final String request = JavacWorker.createRequest(Path.parse("/project"), Iterable.create(
+                        "-d", "outputs",
+                        "-Xlint:unchecked",
+                        "-classpath", "/project/outputs",
+                        "-source", "11",
+                        "-Xmaxerrs", "5",
+                        "sources/A.java",
+                        "/other/B.java"));
+                    test.assertEqual(
+                        Iterable.create(
+                            "-d", workingFolder.resolve("outputs").toString(),
+                            "-Xlint:unchecked",
+                            "-classpath", "/project/outputs",
+                            "-source", "11",
+                            "-Xmaxerrs", "5",
+                            workingFolder.resolve("sources/A.java").toString(),
+                            workingFolder.resolve("/other/B.java").toString()),
+                        JavacWorker.parseRequest(request).await());
+                });
+            });
+
+            runner.testGroup("parseRequest(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacWorker.parseRequest(null),
+                        new PreConditionFailure("requestLine cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacWorker.parseRequest(""),
+                        new PreConditionFailure("requestLine cannot be empty."));
+                });
+
+                runner.test("with no arguments property", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacWorker.parseRequest("{}").await(),
+                        new ParseException("Expected the javac worker request to have an \"arguments\" array."));
+                });
+
+                runner.test("with non-string argument", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacWorker.parseRequest("{\"arguments\":[5]}").await(),
+                        new ParseException("Expected each javac worker argument to be a string."));
+                });
+            });
+
+            runner.testGroup("handleRequest(String,Action1<String>)", () ->
+            {
+                runner.test("with invalid request", (Test test) ->
+                {
+                    final List<String> responseLines = List.create();
+                    JavacWorker.handleRequest("{}", responseLines::add);
+                    test.assertEqual(2, responseLines.getCount());
+                    test.assertEqual("output:error: Invalid javac worker request: \"{}\"", responseLines.get(0));
+                    test.assertTrue(responseLines.get(1).startsWith("done:2:"));
+                });
+
+                runner.test("with --version", (Test test) ->
+                {
+                    final List<String> responseLines = List.create();
+                    JavacWorker.handleRequest(JavacWorker.createRequest(Iterable.create("--version")), responseLines::add);
+                    test.assertEqual(2, responseLines.getCount());
+                    test.assertTrue(responseLines.get(0).startsWith("output:javac "));
+                    test.assertTrue(responseLines.get(1).startsWith("done:0:"));
+                });
+
+                runner.test("with a source file that has an error", (Test test) ->
+                {
+                    try (final RealDesktopProcess process = RealDesktopProcess.create())
+                    {
+                        final Folder rootFolder = process.getCurrentFolder().createFolder("temp").await();
+                        try
+                        {
+                            final File sourceFile = rootFolder.createFile("sources/A.java").await();
+                            sourceFile.setContentsAsString("public class A { int x = ; }").await();
+                            final List<String> responseLines = List.create();
+                            JavacWorker.handleRequest(JavacWorker.createRequest(Iterable.create("-d", rootFolder.getFolder("outputs").await().toString(), sourceFile.toString())), (String responseLine) ->
+                            {
+                                responseLines.add(responseLine);
+                            });
+                            test.assertTrue(responseLines.getCount() >= 2);
+                            test.assertTrue(responseLines.first().startsWith("output:" + sourceFile.toString()));
+                            test.assertTrue(responseLines.first().contains("error"));
+                            test.assertFalse(responseLines.any((String responseLine) -> responseLine.endsWith("\r")));
+                            test.assertTrue(responseLines.last().startsWith("done:1:"));
+                        }
+                        finally
+                        {
+                            rootFolder.delete().await();
+                        }
+                    }
+                });
+            });
+        });
+    }
+}
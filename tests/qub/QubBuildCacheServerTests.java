@@ -0,0 +1,120 @@
+package qub;
+
+public interface QubBuildCacheServerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubBuildCacheServer.class, () ->
+        {
+            runner.testGroup("getCachePath(String)", () ->
+            {
+                final Action2<String,String> getCachePathTest = (String requestPath, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(requestPath), (Test test) ->
+                    {
+                        test.assertEqual(expected, QubBuildCacheServer.getCachePath(requestPath));
+                    });
+                };
+
+                getCachePathTest.run(null, "");
+                getCachePathTest.run("/", "");
+                getCachePathTest.run("/entries/ab.json", "entries/ab.json");
+                getCachePathTest.run("//objects/ab/abcd", "objects/ab/abcd");
+            });
+
+            runner.testGroup("getAddress(QubBuildCacheServerParameters)", () ->
+            {
+                runner.test("with default parameters", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final QubBuildCacheServerParameters parameters = new QubBuildCacheServerParameters(InMemoryCharacterToByteStream.create(), fileSystem.getFolder("/cache/").await());
+                    final java.net.InetSocketAddress address = QubBuildCacheServer.getAddress(parameters);
+                    test.assertTrue(address.getAddress().isLoopbackAddress());
+                    test.assertEqual(8787, address.getPort());
+                });
+
+                runner.test("with all interfaces", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final QubBuildCacheServerParameters parameters = new QubBuildCacheServerParameters(InMemoryCharacterToByteStream.create(), fileSystem.getFolder("/cache/").await())
+                        .setAllInterfaces(true);
+                    final java.net.InetSocketAddress address = QubBuildCacheServer.getAddress(parameters);
+                    test.assertTrue(address.getAddress().isAnyLocalAddress());
+                    test.assertEqual(8787, address.getPort());
+                });
+            });
+
+            runner.testGroup("isAuthorized(String,String)", () ->
+            {
+                final Action2<String,Boolean> isAuthorizedTest = (String authorizationHeaderValue, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(authorizationHeaderValue), (Test test) ->
+                    {
+                        test.assertEqual(expected, QubBuildCacheServer.isAuthorized("abc", authorizationHeaderValue));
+                    });
+                };
+
+                isAuthorizedTest.run(null, false);
+                isAuthorizedTest.run("", false);
+                isAuthorizedTest.run("abc", false);
+                isAuthorizedTest.run("Bearer ab", false);
+                isAuthorizedTest.run("Bearer abd", false);
+                isAuthorizedTest.run("Bearer abc", true);
+            });
+
+            runner.testGroup("put(FolderBuildCacheBackend,String,byte[])", () ->
+            {
+                runner.test("with an invalid path", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final FolderBuildCacheBackend backend = FolderBuildCacheBackend.create(fileSystem.getFolder("/cache/").await());
+                    test.assertEqual(400, QubBuildCacheServer.put(backend, "../A.class", new byte[] { 1 }).await());
+                    test.assertFalse(fileSystem.getFile("/A.class").await().exists().await());
+                });
+
+                runner.test("with a class file that matches its content hash", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final FolderBuildCacheBackend backend = FolderBuildCacheBackend.create(fileSystem.getFolder("/cache/").await());
+                    final byte[] contents = new byte[] { 1, 2, 3 };
+                    final String path = BuildCache.getObjectPath(ContentHash.create(contents));
+                    test.assertEqual(201, QubBuildCacheServer.put(backend, path, contents).await());
+                    test.assertEqual(contents, QubBuildCacheServer.get(backend, path).await());
+                });
+
+                runner.test("with a class file that doesn't match its content hash", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final FolderBuildCacheBackend backend = FolderBuildCacheBackend.create(fileSystem.getFolder("/cache/").await());
+                    final String path = BuildCache.getObjectPath(ContentHash.create(new byte[] { 1, 2, 3 }));
+                    test.assertEqual(400, QubBuildCacheServer.put(backend, path, new byte[] { 4, 5, 6 }).await());
+                    test.assertNull(QubBuildCacheServer.get(backend, path).await());
+                });
+
+                runner.test("with an invalid manifest", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final FolderBuildCacheBackend backend = FolderBuildCacheBackend.create(fileSystem.getFolder("/cache/").await());
+                    final String path = BuildCache.getManifestPath("abcd");
+                    test.assertEqual(400, QubBuildCacheServer.put(backend, path, "not a manifest".getBytes(java.nio.charset.StandardCharsets.UTF_8)).await());
+                    test.assertNull(QubBuildCacheServer.get(backend, path).await());
+                });
+            });
+
+            runner.test("get(FolderBuildCacheBackend,String) with an invalid path", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                fileSystem.getFile("/secret.txt").await().setContentsAsString("secret").await();
+                final FolderBuildCacheBackend backend = FolderBuildCacheBackend.create(fileSystem.getFolder("/cache/").await());
+                test.assertNull(QubBuildCacheServer.get(backend, "../secret.txt").await());
+            });
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package qub;
+
+/**
+ * Timing tests for the incremental build planner. These take much longer than the rest of the
+ * tests and their results depend on the machine, so they are skipped unless the
+ * QUB_BUILD_PERFORMANCE_TESTS environment variable is set.
+ */
+public interface QubBuildCompilePerformanceTests
+{
+    /**
+     * The environment variable that must be set for the performance tests to run.
+     */
+    String performanceTestsEnvironmentVariableName = "QUB_BUILD_PERFORMANCE_TESTS";
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubBuildCompile.class, () ->
+        {
+            final Skip skipPerformanceTests = runner.skip(
+                Strings.isNullOrEmpty(java.lang.System.getenv(QubBuildCompilePerformanceTests.performanceTestsEnvironmentVariableName)),
+                "Set " + QubBuildCompilePerformanceTests.performanceTestsEnvironmentVariableName + " to run the performance tests.");
+
+            runner.test("planning scales linearly with the number of source files", skipPerformanceTests, (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder folder = fileSystem.getFolder("/project/").await();
+                final int[] sourceFileCounts = new int[] { 10000, 50000, 100000 };
+                final long[] planningNanoseconds = new long[sourceFileCounts.length];
+
+                // Warm up the planning code before it is timed.
+                QubBuildCompilePerformanceTests.timePlanning(test, folder, sourceFileCounts[0]);
+
+                for (int i = 0; i < sourceFileCounts.length; ++i)
+                {
+                    long fastestNanoseconds = Long.MAX_VALUE;
+                    for (int attempt = 0; attempt < 3; ++attempt)
+                    {
+                        fastestNanoseconds = Math.min(fastestNanoseconds, QubBuildCompilePerformanceTests.timePlanning(test, folder, sourceFileCounts[i]));
+                    }
+                    planningNanoseconds[i] = fastestNanoseconds;
+                }
+
+                // Linear growth would make these ratios 5 and 10, and quadratic growth would make
+                // them 25 and 100. The limits leave plenty of room for timing noise between the two.
+                for (int i = 1; i < sourceFileCounts.length; ++i)
+                {
+                    final long sizeRatio = sourceFileCounts[i] / sourceFileCounts[0];
+                    test.assertTrue(planningNanoseconds[i] <= planningNanoseconds[0] * sizeRatio * 3,
+                        "Planning " + sourceFileCounts[i] + " source files took " + planningNanoseconds[i] + "ns, but planning " + sourceFileCounts[0] + " source files took " + planningNanoseconds[0] + "ns.");
+                }
+            });
+        });
+    }
+
+    /**
+     * Time the incremental planning steps of QubBuildCompile.run() for the provided number of
+     * synthetic source files. Every tenth source file has been deleted, each source file depends
+     * on the source file before it, and each source file had a warning in the previous build.
+     */
+    static long timePlanning(Test test, Folder folder, int sourceFileCount)
+    {
+        final List<File> javaSourceFiles = List.create();
+        final List<BuildJSONSourceFile> previousSourceFiles = List.create();
+        final List<JavaCompilerIssue> previousWarnings = List.create();
+        Path previousSourceFilePath = null;
+        for (int i = 0; i < sourceFileCount; ++i)
+        {
+            final String relativePath = "sources/package" + (i % 100) + "/Source" + i + ".java";
+            final Path sourceFilePath = Path.parse(relativePath);
+            final BuildJSONSourceFile previousSourceFile = BuildJSONSourceFile.create(sourceFilePath);
+            if (previousSourceFilePath != null)
+            {
+                previousSourceFile.setDependencies(Iterable.create(previousSourceFilePath));
+            }
+            previousSourceFiles.add(previousSourceFile);
+            if (i % 10 != 0)
+            {
+                javaSourceFiles.add(folder.getFile(relativePath).await());
+            }
+            previousWarnings.add(JavaCompilerIssue.warning(relativePath, 1, 1, "warning"));
+            previousSourceFilePath = sourceFilePath;
+        }
+        final BuildJSON buildJson = BuildJSON.create()
+            .setSourceFiles(previousSourceFiles);
+
+        final long start = java.lang.System.nanoTime();
+
+        final SourceFileSet deletedJavaSourceFiles = QubBuildCompile.getDeletedJavaSourceFiles(
+            buildJson.getSourceFiles().map(BuildJSONSourceFile::getRelativePath),
+            javaSourceFiles,
+            folder);
+        final SourceFileSet javaSourceFilesToCompile = SourceFileSet.create(folder,
+            QubBuildCompile.getJavaSourceFilesWithDeletedDependencies(javaSourceFiles, deletedJavaSourceFiles, buildJson, folder));
+        final List<JavaCompilerIssue> warningsNotCompiled = QubBuildCompile.getIssuesInSourceFilesNotCompiled(previousWarnings, javaSourceFilesToCompile);
+
+        final long result = java.lang.System.nanoTime() - start;
+
+        test.assertEqual(sourceFileCount / 10, deletedJavaSourceFiles.getCount());
+        test.assertEqual(sourceFileCount / 10, javaSourceFilesToCompile.getCount());
+        test.assertEqual(sourceFileCount - (sourceFileCount / 10), warningsNotCompiled.getCount());
+
+        return result;
+    }
+}
@@ -41,6 +41,13 @@ public interface QubBuildCompileTests
                         test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
                         test.assertNotNull(parameters.getProcessFactory());
                         test.assertTrue(parameters.getBuildJson());
+                        test.assertFalse(parameters.getFingerprints());
+                        test.assertEqual(JavaCompilerMode.Process, parameters.getCompiler());
+                        test.assertFalse(parameters.getParallel());
+                        test.assertFalse(parameters.getWatch());
+                        test.assertFalse(parameters.getRetryErrors());
+                        test.assertFalse(parameters.getBuildCache());
+                        test.assertNull(parameters.getJavacWorkerPool());
                         test.assertFalse(parameters.getVerbose().isVerbose());
                         test.assertEqual(Warnings.Show, parameters.getWarnings());
                     }
@@ -286,6 +293,174 @@ public interface QubBuildCompileTests
                     }
                 });
 
+                runner.test("with --fingerprints argument", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--fingerprints"))
+                    {
+                        process.getTypeLoader()
+                            .addTypeContainer("fake.MainClassFullName", "/qub/fake/main-java/versions/7/main-java.jar");
+                        final CommandLineAction action = CommandLineAction.create("fake-action-name", (DesktopProcess actionProcess) -> {});
+
+                        final QubBuildCompileParameters parameters = QubBuildCompile.getParameters(process, action);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolderToBuild());
+                        test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
+                        test.assertNotNull(parameters.getProcessFactory());
+                        test.assertTrue(parameters.getBuildJson());
+                        test.assertTrue(parameters.getFingerprints());
+                        test.assertFalse(parameters.getVerbose().isVerbose());
+                        test.assertEqual(Warnings.Show, parameters.getWarnings());
+                    }
+                });
+
+                runner.test("with --fingerprints=false argument", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--fingerprints=false"))
+                    {
+                        process.getTypeLoader()
+                            .addTypeContainer("fake.MainClassFullName", "/qub/fake/main-java/versions/7/main-java.jar");
+                        final CommandLineAction action = CommandLineAction.create("fake-action-name", (DesktopProcess actionProcess) -> {});
+
+                        final QubBuildCompileParameters parameters = QubBuildCompile.getParameters(process, action);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolderToBuild());
+                        test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
+                        test.assertNotNull(parameters.getProcessFactory());
+                        test.assertTrue(parameters.getBuildJson());
+                        test.assertFalse(parameters.getFingerprints());
+                        test.assertFalse(parameters.getVerbose().isVerbose());
+                        test.assertEqual(Warnings.Show, parameters.getWarnings());
+                    }
+                });
+
+                runner.test("with --compiler=inprocess argument", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--compiler=inprocess"))
+                    {
+                        process.getTypeLoader()
+                            .addTypeContainer("fake.MainClassFullName", "/qub/fake/main-java/versions/7/main-java.jar");
+                        final CommandLineAction action = CommandLineAction.create("fake-action-name", (DesktopProcess actionProcess) -> {});
+
+                        final QubBuildCompileParameters parameters = QubBuildCompile.getParameters(process, action);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolderToBuild());
+                        test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
+                        test.assertNotNull(parameters.getProcessFactory());
+                        test.assertTrue(parameters.getBuildJson());
+                        test.assertEqual(JavaCompilerMode.InProcess, parameters.getCompiler());
+                        test.assertFalse(parameters.getVerbose().isVerbose());
+                        test.assertEqual(Warnings.Show, parameters.getWarnings());
+                    }
+                });
+
+                runner.test("with --parallel argument", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--parallel"))
+                    {
+                        process.getTypeLoader()
+                            .addTypeContainer("fake.MainClassFullName", "/qub/fake/main-java/versions/7/main-java.jar");
+                        final CommandLineAction action = CommandLineAction.create("fake-action-name", (DesktopProcess actionProcess) -> {});
+
+                        final QubBuildCompileParameters parameters = QubBuildCompile.getParameters(process, action);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolderToBuild());
+                        test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
+                        test.assertNotNull(parameters.getProcessFactory());
+                        test.assertTrue(parameters.getBuildJson());
+                        test.assertTrue(parameters.getParallel());
+                        test.assertFalse(parameters.getVerbose().isVerbose());
+                        test.assertEqual(Warnings.Show, parameters.getWarnings());
+                    }
+                });
+
+                runner.test("with --compiler=worker argument", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--compiler=worker"))
+                    {
+                        process.getTypeLoader()
+                            .addTypeContainer("fake.MainClassFullName", "/qub/fake/main-java/versions/7/main-java.jar");
+                        final CommandLineAction action = CommandLineAction.create("fake-action-name", (DesktopProcess actionProcess) -> {});
+
+                        final QubBuildCompileParameters parameters = QubBuildCompile.getParameters(process, action);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolderToBuild());
+                        test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
+                        test.assertNotNull(parameters.getProcessFactory());
+                        test.assertTrue(parameters.getBuildJson());
+                        test.assertEqual(JavaCompilerMode.Worker, parameters.getCompiler());
+                        test.assertFalse(parameters.getVerbose().isVerbose());
+                        test.assertEqual(Warnings.Show, parameters.getWarnings());
+                    }
+                });
+
+                runner.test("with --watch argument", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--watch"))
+                    {
+                        process.getTypeLoader()
+                            .addTypeContainer("fake.MainClassFullName", "/qub/fake/main-java/versions/7/main-java.jar");
+                        final CommandLineAction action = CommandLineAction.create("fake-action-name", (DesktopProcess actionProcess) -> {});
+
+                        final QubBuildCompileParameters parameters = QubBuildCompile.getParameters(process, action);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolderToBuild());
+                        test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
+                        test.assertNotNull(parameters.getProcessFactory());
+                        test.assertTrue(parameters.getBuildJson());
+                        test.assertTrue(parameters.getWatch());
+                        test.assertFalse(parameters.getVerbose().isVerbose());
+                        test.assertEqual(Warnings.Show, parameters.getWarnings());
+                    }
+                });
+
+                runner.test("with --buildcache argument", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--buildcache"))
+                    {
+                        process.getTypeLoader()
+                            .addTypeContainer("fake.MainClassFullName", "/qub/fake/main-java/versions/7/main-java.jar");
+                        final CommandLineAction action = CommandLineAction.create("fake-action-name", (DesktopProcess actionProcess) -> {});
+
+                        final QubBuildCompileParameters parameters = QubBuildCompile.getParameters(process, action);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolderToBuild());
+                        test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
+                        test.assertNotNull(parameters.getProcessFactory());
+                        test.assertTrue(parameters.getBuildJson());
+                        test.assertTrue(parameters.getBuildCache());
+                        test.assertFalse(parameters.getVerbose().isVerbose());
+                        test.assertEqual(Warnings.Show, parameters.getWarnings());
+                    }
+                });
+
+                runner.test("with --retryerrors argument", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create("--retryerrors"))
+                    {
+                        process.getTypeLoader()
+                            .addTypeContainer("fake.MainClassFullName", "/qub/fake/main-java/versions/7/main-java.jar");
+                        final CommandLineAction action = CommandLineAction.create("fake-action-name", (DesktopProcess actionProcess) -> {});
+
+                        final QubBuildCompileParameters parameters = QubBuildCompile.getParameters(process, action);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(process.getCurrentFolder(), parameters.getFolderToBuild());
+                        test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
+                        test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
+                        test.assertNotNull(parameters.getProcessFactory());
+                        test.assertTrue(parameters.getBuildJson());
+                        test.assertTrue(parameters.getRetryErrors());
+                        test.assertFalse(parameters.getVerbose().isVerbose());
+                        test.assertEqual(Warnings.Show, parameters.getWarnings());
+                    }
+                });
+
                 runner.test("with --verbose argument", (Test test) ->
                 {
                     try (final FakeDesktopProcess process = FakeDesktopProcess.create("--verbose"))
@@ -375,14 +550,20 @@ public interface QubBuildCompileTests
                         test.assertNull(QubBuildCompile.getParameters(process, action));
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: fake-action-name [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--verbose] [--profiler] [--help]",
+                                "Usage: fake-action-name [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--fingerprints] [--compiler=<process|worker|inprocess>] [--parallel] [--watch] [--retryerrors] [--buildcache] [--verbose] [--profiler] [--help]",
                                 "  Compile source code files.",
-                                "  --folder:     The folder to build. The current folder will be used if this isn't defined.",
-                                "  --warnings:   How to handle build warnings. Can be either \"show\", \"error\", or \"hide\". Defaults to \"show\".",
-                                "  --buildjson:  Whether or not to read and write a build.json file. Defaults to true.",
-                                "  --verbose(v): Whether or not to show verbose logs.",
-                                "  --profiler:   Whether or not this application should pause before it is run to allow a profiler to be attached.",
-                                "  --help(?):    Show the help message for this application."),
+                                "  --folder:       The folder to build. The current folder will be used if this isn't defined.",
+                                "  --warnings:     How to handle build warnings. Can be either \"show\", \"error\", or \"hide\". Defaults to \"show\".",
+                                "  --buildjson:    Whether or not to read and write a build.json file. Defaults to true.",
+                                "  --fingerprints: Whether or not to compare file contents when a source file's last modified time changes. Defaults to false.",
+                                "  --compiler:     Which Java compiler to use. Can be either \"process\" to run a separate javac process, \"worker\" to reuse warm javac worker processes, or \"inprocess\" to run the JDK's compiler inside of this process. Defaults to \"process\".",
+                                "  --parallel:     Whether or not to compile independent groups of source files with several javac workers at the same time. Defaults to false.",
+                                "  --watch:        Whether or not to keep watching the source folders and compile again each time a source file changes. Defaults to false.",
+                                "  --retryerrors:  Whether or not to compile source files that failed to compile before even if they and their dependencies haven't changed. Defaults to false.",
+                                "  --buildcache:   Whether or not to restore and store compiled class files in a build cache that is shared between project folders. Defaults to false.",
+                                "  --verbose(v):   Whether or not to show verbose logs.",
+                                "  --profiler:     Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --help(?):      Show the help message for this application."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
                 });
@@ -396,19 +577,288 @@ public interface QubBuildCompileTests
                         test.assertNull(QubBuildCompile.getParameters(process, action));
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: fake-action-name [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--verbose] [--profiler] [--help]",
+                                "Usage: fake-action-name [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--fingerprints] [--compiler=<process|worker|inprocess>] [--parallel] [--watch] [--retryerrors] [--buildcache] [--verbose] [--profiler] [--help]",
                                 "  Compile source code files.",
-                                "  --folder:     The folder to build. The current folder will be used if this isn't defined.",
-                                "  --warnings:   How to handle build warnings. Can be either \"show\", \"error\", or \"hide\". Defaults to \"show\".",
-                                "  --buildjson:  Whether or not to read and write a build.json file. Defaults to true.",
-                                "  --verbose(v): Whether or not to show verbose logs.",
-                                "  --profiler:   Whether or not this application should pause before it is run to allow a profiler to be attached.",
-                                "  --help(?):    Show the help message for this application."),
+                                "  --folder:       The folder to build. The current folder will be used if this isn't defined.",
+                                "  --warnings:     How to handle build warnings. Can be either \"show\", \"error\", or \"hide\". Defaults to \"show\".",
+                                "  --buildjson:    Whether or not to read and write a build.json file. Defaults to true.",
+                                "  --fingerprints: Whether or not to compare file contents when a source file's last modified time changes. Defaults to false.",
+                                "  --compiler:     Which Java compiler to use. Can be either \"process\" to run a separate javac process, \"worker\" to reuse warm javac worker processes, or \"inprocess\" to run the JDK's compiler inside of this process. Defaults to \"process\".",
+                                "  --parallel:     Whether or not to compile independent groups of source files with several javac workers at the same time. Defaults to false.",
+                                "  --watch:        Whether or not to keep watching the source folders and compile again each time a source file changes. Defaults to false.",
+                                "  --retryerrors:  Whether or not to compile source files that failed to compile before even if they and their dependencies haven't changed. Defaults to false.",
+                                "  --buildcache:   Whether or not to restore and store compiled class files in a build cache that is shared between project folders. Defaults to false.",
+                                "  --verbose(v):   Whether or not to show verbose logs.",
+                                "  --profiler:     Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --help(?):      Show the help message for this application."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
                 });
             });
 
+            runner.test("getDeletedJavaSourceFiles(Iterable<Path>,Iterable<File>,Folder)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder folder = fileSystem.getFolder("/project/").await();
+                final File aJavaFile = folder.getFile("sources/A.java").await();
+                final File bJavaFile = folder.getFile("sources/B.java").await();
+                final SourceFileSet deletedJavaSourceFiles = QubBuildCompile.getDeletedJavaSourceFiles(
+                    Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/C.java")),
+                    Iterable.create(aJavaFile, bJavaFile),
+                    folder);
+                test.assertEqual(Iterable.create(folder.getFile("sources/C.java").await()), deletedJavaSourceFiles.toList());
+            });
+
+            runner.test("getJavaSourceFilesWithDeletedDependencies(Iterable<File>,SourceFileSet,BuildJSON,Folder)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder folder = fileSystem.getFolder("/project/").await();
+                final File aJavaFile = folder.getFile("sources/A.java").await();
+                final File bJavaFile = folder.getFile("sources/B.java").await();
+                final BuildJSON buildJson = BuildJSON.create()
+                    .setSourceFiles(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java"),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/C.java")))));
+                final SourceFileSet deletedJavaSourceFiles = SourceFileSet.create(folder, Iterable.create(folder.getFile("sources/C.java").await()));
+                test.assertEqual(
+                    Iterable.create(bJavaFile),
+                    QubBuildCompile.getJavaSourceFilesWithDeletedDependencies(Iterable.create(aJavaFile, bJavaFile), deletedJavaSourceFiles, buildJson, folder));
+            });
+
+            runner.testGroup("getExistingClassFiles(Iterable<File>,Folder,Folder)", () ->
+            {
+                runner.test("with null sourceFiles", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    test.assertThrows(() -> QubBuildCompile.getExistingClassFiles((Iterable<File>)null, folder, folder.getFolder("outputs").await()),
+                        new PreConditionFailure("sourceFiles cannot be null."));
+                });
+
+                runner.test("with a class folder that doesn't exist", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    final Folder outputsFolder = folder.getFolder("outputs").await();
+                    test.assertEqual(
+                        Iterable.create(),
+                        QubBuildCompile.getExistingClassFiles(Iterable.create(folder.getFile("sources/qub/A.java").await()), folder, outputsFolder));
+                });
+
+                runner.test("with deleted source files that share a class folder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    final Folder outputsFolder = folder.getFolder("outputs").await();
+                    final File aClassFile = outputsFolder.createFile("qub/A.class").await();
+                    final File aNestedClassFile = outputsFolder.createFile("qub/A$1.class").await();
+                    final File bNestedClassFile = outputsFolder.createFile("qub/B$Inner.class").await();
+                    outputsFolder.createFile("qub/AB.class").await();
+                    outputsFolder.createFile("qub/C.class").await();
+                    final Iterable<File> existingClassFiles = QubBuildCompile.getExistingClassFiles(
+                        Iterable.create(
+                            folder.getFile("sources/qub/A.java").await(),
+                            folder.getFile("sources/qub/B.java").await()),
+                        folder,
+                        outputsFolder);
+                    test.assertEqual(3, existingClassFiles.getCount());
+                    test.assertTrue(existingClassFiles.contains(aClassFile));
+                    test.assertTrue(existingClassFiles.contains(aNestedClassFile));
+                    test.assertTrue(existingClassFiles.contains(bNestedClassFile));
+                });
+            });
+
+            runner.testGroup("getJavacWorkerJavaExecutablePath(EnvironmentVariables,FileSystem)", () ->
+            {
+                runner.test("with no PATH", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    test.assertEqual(
+                        JavacWorkerProcess.executablePathString,
+                        QubBuildCompile.getJavacWorkerJavaExecutablePath(EnvironmentVariables.create(), fileSystem).await());
+                });
+
+                runner.test("with a javac executable that has no java executable next to it", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    fileSystem.createFile("/jdk/bin/javac").await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("PATH", "/jdk/bin");
+                    test.assertEqual(
+                        JavacWorkerProcess.executablePathString,
+                        QubBuildCompile.getJavacWorkerJavaExecutablePath(environmentVariables, fileSystem).await());
+                });
+
+                runner.test("with a java executable next to the javac executable", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    fileSystem.createFile("/jdk/bin/javac").await();
+                    fileSystem.createFile("/jdk/bin/java").await();
+                    final EnvironmentVariables environmentVariables = EnvironmentVariables.create()
+                        .set("PATH", "/jdk/bin");
+                    test.assertEqual(
+                        "/jdk/bin/java",
+                        QubBuildCompile.getJavacWorkerJavaExecutablePath(environmentVariables, fileSystem).await());
+                });
+            });
+
+            runner.testGroup("readJavacAttributes(File,SourceFileAttributes)", () ->
+            {
+                runner.test("with null javacFile", (Test test) ->
+                {
+                    test.assertThrows(() -> QubBuildCompile.readJavacAttributes(null, SourceFileAttributes.create()),
+                        new PreConditionFailure("javacFile cannot be null."));
+                });
+
+                runner.test("with null javacAttributes", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File javacFile = fileSystem.getFile("/jdk/bin/javac").await();
+                    test.assertThrows(() -> QubBuildCompile.readJavacAttributes(javacFile, null),
+                        new PreConditionFailure("javacAttributes cannot be null."));
+                });
+
+                runner.test("with a javac file that isn't on a JavaFileSystem", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File javacFile = fileSystem.getFile("/jdk/bin/javac").await();
+                    javacFile.setContentsAsString("javac launcher").await();
+                    final SourceFileAttributes javacAttributes = SourceFileAttributes.create();
+                    test.assertSame(javacFile, QubBuildCompile.readJavacAttributes(javacFile, javacAttributes).await());
+                    test.assertEqual((long)"javac launcher".length(), javacAttributes.getSize(javacFile));
+                    test.assertEqual(javacFile.getLastModified().await(), javacAttributes.getLastModified(javacFile).await());
+                });
+
+                runner.test("with a symbolic link to a javac file", (Test test) ->
+                {
+                    try (final RealDesktopProcess process = RealDesktopProcess.create())
+                    {
+                        final Folder rootFolder = process.getCurrentFolder().createFolder("temp").await();
+                        try
+                        {
+                            final File javacFile = rootFolder.createFile("jdk/bin/javac").await();
+                            javacFile.setContentsAsString("javac launcher").await();
+                            rootFolder.createFolder("bin").await();
+                            final File javacLinkFile = rootFolder.getFile("bin/javac").await();
+                            final java.nio.file.Path javacRealPath;
+                            try
+                            {
+                                java.nio.file.Files.createSymbolicLink(
+                                    java.nio.file.Paths.get(javacLinkFile.toString()),
+                                    java.nio.file.Paths.get(javacFile.toString()));
+                                javacRealPath = java.nio.file.Paths.get(javacFile.toString()).toRealPath();
+                            }
+                            catch (java.io.IOException e)
+                            {
+                                throw new RuntimeException(e);
+                            }
+
+                            final SourceFileAttributes javacAttributes = SourceFileAttributes.create();
+                            final File resolvedJavacFile = QubBuildCompile.readJavacAttributes(javacLinkFile, javacAttributes).await();
+                            test.assertEqual(javacRealPath.toString(), resolvedJavacFile.toString());
+                            test.assertEqual((long)"javac launcher".length(), javacAttributes.getSize(resolvedJavacFile));
+                            test.assertNull(javacAttributes.getSize(javacLinkFile));
+                        }
+                        finally
+                        {
+                            test.assertNull(rootFolder.delete().await());
+                        }
+                    }
+                });
+
+                runner.test("with a javac file that doesn't exist", (Test test) ->
+                {
+                    try (final RealDesktopProcess process = RealDesktopProcess.create())
+                    {
+                        final Folder rootFolder = process.getCurrentFolder().createFolder("temp").await();
+                        try
+                        {
+                            final File javacFile = rootFolder.getFile("jdk/bin/javac").await();
+                            test.assertThrows(() -> QubBuildCompile.readJavacAttributes(javacFile, SourceFileAttributes.create()).await(),
+                                new NotFoundException("The javac executable " + javacFile + " doesn't exist."));
+                        }
+                        finally
+                        {
+                            test.assertNull(rootFolder.delete().await());
+                        }
+                    }
+                });
+            });
+
+            runner.testGroup("hasStatChanged(BuildJSONSourceFile,DateTime,Long)", () ->
+            {
+                final DateTime lastModified = DateTime.create(2020, 1, 2, 0, 0);
+                final Function1<Long,BuildJSONSourceFile> createBuildJsonSource = (Long size) ->
+                {
+                    final BuildJSONSourceFile result = BuildJSONSourceFile.create("sources/A.java")
+                        .setLastModified(lastModified);
+                    if (size != null)
+                    {
+                        result.setSize(size);
+                    }
+                    return result;
+                };
+
+                runner.test("with the same last modified time and size", (Test test) ->
+                {
+                    test.assertFalse(QubBuildCompile.hasStatChanged(createBuildJsonSource.run(10L), lastModified, 10L));
+                });
+
+                runner.test("with a different last modified time", (Test test) ->
+                {
+                    test.assertTrue(QubBuildCompile.hasStatChanged(createBuildJsonSource.run(10L), DateTime.create(2020, 1, 3, 0, 0), 10L));
+                });
+
+                runner.test("with the same last modified time and a different size", (Test test) ->
+                {
+                    final BuildJSONSourceFile buildJsonSource = createBuildJsonSource.run(10L);
+                    test.assertTrue(QubBuildCompile.hasSizeChanged(buildJsonSource, 11L));
+                    test.assertTrue(QubBuildCompile.hasStatChanged(buildJsonSource, lastModified, 11L));
+                });
+
+                runner.test("with an unknown size", (Test test) ->
+                {
+                    test.assertFalse(QubBuildCompile.hasStatChanged(createBuildJsonSource.run(10L), lastModified, null));
+                    test.assertFalse(QubBuildCompile.hasStatChanged(createBuildJsonSource.run(null), lastModified, 11L));
+                });
+            });
+
+            runner.testGroup("getIssuesBySourceFile(Iterable<JavaCompilerIssue>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubBuildCompile.getIssuesBySourceFile(null),
+                        new PreConditionFailure("issues cannot be null."));
+                });
+
+                runner.test("with no issues", (Test test) ->
+                {
+                    test.assertFalse(QubBuildCompile.getIssuesBySourceFile(Iterable.create()).getKeys().any());
+                });
+
+                runner.test("with issues in different source files", (Test test) ->
+                {
+                    final JavaCompilerIssue a1 = JavaCompilerIssue.warning("sources/A.java", 1, 2, "a1");
+                    final JavaCompilerIssue b1 = JavaCompilerIssue.error("sources\\B.java", 3, 4, "b1");
+                    final JavaCompilerIssue a2 = JavaCompilerIssue.error("./sources/A.java", 5, 6, "a2");
+                    final Map<String,List<JavaCompilerIssue>> issues = QubBuildCompile.getIssuesBySourceFile(Iterable.create(a1, b1, a2));
+                    test.assertEqual(2, issues.getKeys().getCount());
+                    test.assertEqual(Iterable.create(a1, a2), issues.get("sources/A.java").await());
+                    test.assertEqual(Iterable.create(b1), issues.get("sources/B.java").await());
+                });
+            });
+
             runner.testGroup("run(QubBuildCompileParameters)", () ->
             {
                 runner.test("with null parameters", (Test test) ->
@@ -1090,7 +1540,7 @@ public interface QubBuildCompileTests
                         QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
                 });
 
-                runner.test("with source file with same age as existing class file and with build.json file",
+                runner.test("with cached javac version",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
                 {
@@ -1101,6 +1551,17 @@ public interface QubBuildCompileTests
                     outputsFolder.create().await();
                     final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
 
+                    final File javacFile = currentFolder.getFileSystem().getFile("/jdk/bin/javac").await();
+                    javacFile.setContentsAsString("javac launcher").await();
+                    process.getEnvironmentVariables()
+                        .set("PATH", "/jdk/bin");
+                    final File toolchainCacheFile = process.getQubProjectDataFolder().await().getFile(QubBuildCompile.toolchainCacheFileName).await();
+                    toolchainCacheFile.setContentsAsString(
+                        ToolchainCache.create()
+                            .setJavacVersion(javacFile.getPath(), "javac launcher".length(), javacFile.getLastModified().await(), VersionNumber.parse("14.0.1").await())
+                            .toString())
+                        .await();
+
                     QubBuildCompileTests.getProjectJsonFile(currentFolder)
                         .setContentsAsString(
                             ProjectJSON.create()
@@ -1122,16 +1583,9 @@ public interface QubBuildCompileTests
 
                     clock.advance(Duration.minutes(1));
 
-                    process.getProcessFactory()
-                        .add(new FakeJavacProcessRun()
-                            .setWorkingFolder(currentFolder)
-                            .addVersion()
-                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"));
-
                     final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process);
 
                     final int exitCode = QubBuildCompile.run(parameters);
-                    test.assertFalse(output.isDisposed());
                     test.assertEqual(
                         Iterable.create(
                             "No files need to be compiled."),
@@ -1140,8 +1594,7 @@ public interface QubBuildCompileTests
                         Iterable.create(
                             "VERBOSE: Parsing project.json...",
                             "VERBOSE: Getting javac version...",
-                            "VERBOSE: Running /: javac --version...",
-                            "VERBOSE: javac 14.0.1",
+                            "VERBOSE: Using cached javac version 14.0.1 for /jdk/bin/javac.",
                             "VERBOSE: Parsing outputs/build.json...",
                             "VERBOSE: /sources/A.java - No changes or issues",
                             "VERBOSE: Updating outputs/build.json...",
@@ -1153,21 +1606,453 @@ public interface QubBuildCompileTests
                             "VERBOSE: Done writing build.json file."),
                         QubBuildCompileTests.getLogFileContentLines(process));
                     test.assertEqual(0, exitCode);
+                });
 
-                    test.assertEqual(
-                        Iterable.create(
-                            "A.class",
-                            "build.json"),
-                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
-                        "Wrong files in outputs folder");
-                    test.assertEqual("A.java bytecode", aClassFile.getContentsAsString().await());
-                    test.assertEqual(Duration.zero, aClassFile.getLastModified().await().getDurationSinceEpoch());
-                    test.assertEqual(
-                        BuildJSON.create()
-                            .setJavacVersion("14.0.1")
-                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
-                            .setSourceFiles(Iterable.create(
-                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                runner.test("with unchanged build inputs since a build that didn't compile anything",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    final File javacFile = currentFolder.getFileSystem().getFile("/jdk/bin/javac").await();
+                    javacFile.setContentsAsString("javac launcher").await();
+                    process.getEnvironmentVariables()
+                        .set("PATH", "/jdk/bin");
+                    final File toolchainCacheFile = process.getQubProjectDataFolder().await().getFile(QubBuildCompile.toolchainCacheFileName).await();
+                    toolchainCacheFile.setContentsAsString(
+                        ToolchainCache.create()
+                            .setJavacVersion(javacFile.getPath(), "javac launcher".length(), javacFile.getLastModified().await(), VersionNumber.parse("14.0.1").await())
+                            .toString())
+                        .await();
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A.java bytecode").await();
+                    final File buildJsonFile = QubBuildCompileTests.getBuildJSONFile(outputsFolder);
+                    buildJsonFile.setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                            .toString());
+
+                    clock.advance(Duration.minutes(1));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled.",
+                            "No files need to be compiled."),
+                        QubBuildCompileTests.getOutputLines(output));
+
+                    final Folder projectDataFolder = process.getQubProjectDataFolder().await();
+                    test.assertEqual(
+                        Iterable.create(
+                            "VERBOSE: The build inputs haven't changed since the previous build.",
+                            "No files need to be compiled."),
+                        Strings.getLines(projectDataFolder.getFile("logs/2.log").await().getContentsAsString().await()));
+
+                    aJavaFile.setContentsAsString("A.java modified source").await();
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile.relativeTo(currentFolder))
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled.",
+                            "No files need to be compiled.",
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                });
+
+                runner.test("with a deleted class file since a build that didn't compile anything",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    final File javacFile = currentFolder.getFileSystem().getFile("/jdk/bin/javac").await();
+                    javacFile.setContentsAsString("javac launcher").await();
+                    process.getEnvironmentVariables()
+                        .set("PATH", "/jdk/bin");
+                    final File toolchainCacheFile = process.getQubProjectDataFolder().await().getFile(QubBuildCompile.toolchainCacheFileName).await();
+                    toolchainCacheFile.setContentsAsString(
+                        ToolchainCache.create()
+                            .setJavacVersion(javacFile.getPath(), "javac launcher".length(), javacFile.getLastModified().await(), VersionNumber.parse("14.0.1").await())
+                            .toString())
+                        .await();
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A.java bytecode").await();
+                    final File buildJsonFile = QubBuildCompileTests.getBuildJSONFile(outputsFolder);
+                    buildJsonFile.setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                            .toString());
+
+                    clock.advance(Duration.minutes(1));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled.",
+                            "No files need to be compiled."),
+                        QubBuildCompileTests.getOutputLines(output));
+
+                    final Folder projectDataFolder = process.getQubProjectDataFolder().await();
+                    test.assertEqual(
+                        Iterable.create(
+                            "VERBOSE: The build inputs haven't changed since the previous build.",
+                            "No files need to be compiled."),
+                        Strings.getLines(projectDataFolder.getFile("logs/2.log").await().getContentsAsString().await()));
+
+                    aClassFile.delete().await();
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile.relativeTo(currentFolder))
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled.",
+                            "No files need to be compiled.",
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertTrue(aClassFile.exists().await());
+                });
+
+                runner.test("with a source file that was modified before the first watched build",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    final File javacFile = currentFolder.getFileSystem().getFile("/jdk/bin/javac").await();
+                    javacFile.setContentsAsString("javac launcher").await();
+                    process.getEnvironmentVariables()
+                        .set("PATH", "/jdk/bin");
+                    final File toolchainCacheFile = process.getQubProjectDataFolder().await().getFile(QubBuildCompile.toolchainCacheFileName).await();
+                    toolchainCacheFile.setContentsAsString(
+                        ToolchainCache.create()
+                            .setJavacVersion(javacFile.getPath(), "javac launcher".length(), javacFile.getLastModified().await(), VersionNumber.parse("14.0.1").await())
+                            .toString())
+                        .await();
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    outputsFolder.getFile("A.class").await().setContentsAsString("A.java bytecode").await();
+                    QubBuildCompileTests.getBuildJSONFile(outputsFolder).setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                            .toString())
+                        .await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    // The file is modified after build.json was written, but before the project
+                    // is watched, so no change is reported for it.
+                    aJavaFile.setContentsAsString("A.java modified source").await();
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile.relativeTo(currentFolder))
+                            .setCompileFunctionAutomatically());
+
+                    final QubBuildProjectState projectState = QubBuildProjectState.create().setWatched(true);
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setProjectState(projectState)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertFalse(projectState.isJavaSourceFileChanged(aJavaFile));
+                });
+
+                runner.test("with a source file that was modified during the first watched build",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    final File javacFile = currentFolder.getFileSystem().getFile("/jdk/bin/javac").await();
+                    javacFile.setContentsAsString("javac launcher").await();
+                    process.getEnvironmentVariables()
+                        .set("PATH", "/jdk/bin");
+                    final File toolchainCacheFile = process.getQubProjectDataFolder().await().getFile(QubBuildCompile.toolchainCacheFileName).await();
+                    toolchainCacheFile.setContentsAsString(
+                        ToolchainCache.create()
+                            .setJavacVersion(javacFile.getPath(), "javac launcher".length(), javacFile.getLastModified().await(), VersionNumber.parse("14.0.1").await())
+                            .toString())
+                        .await();
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    outputsFolder.getFile("A.class").await().setContentsAsString("A.java bytecode").await();
+                    QubBuildCompileTests.getBuildJSONFile(outputsFolder).setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                            .toString())
+                        .await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    final QubBuildProjectState projectState = QubBuildProjectState.create().setWatched(true);
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setProjectState(projectState)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled."),
+                        QubBuildCompileTests.getOutputLines(output));
+
+                    // The watcher is started before the first build, so a file that is saved while
+                    // that build is running is reported once the build has finished.
+                    aJavaFile.setContentsAsString("A.java modified source").await();
+                    clock.advance(Duration.minutes(1));
+                    test.assertTrue(QubBuildCompile.applySourceFolderChanges(
+                        projectState,
+                        currentFolder,
+                        ProjectJSONJava.create(),
+                        SourceFolderChanges.create().addChangedPath(aJavaFile.getPath())));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile.relativeTo(currentFolder))
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setProjectState(projectState)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled.",
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                });
+
+                runner.test("with javac on the PATH and no cached javac version",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    final File javacFile = currentFolder.getFileSystem().getFile("/jdk/bin/javac").await();
+                    javacFile.setContentsAsString("javac launcher").await();
+                    process.getEnvironmentVariables()
+                        .set("PATH", "/jdk/bin");
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A.java bytecode").await();
+                    final File buildJsonFile = QubBuildCompileTests.getBuildJSONFile(outputsFolder);
+                    buildJsonFile.setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                            .toString());
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"));
+
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process);
+
+                    final int exitCode = QubBuildCompile.run(parameters);
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(0, exitCode);
+
+                    final File toolchainCacheFile = process.getQubProjectDataFolder().await().getFile(QubBuildCompile.toolchainCacheFileName).await();
+                    final ToolchainCache toolchainCache = ToolchainCache.parse(toolchainCacheFile).await();
+                    test.assertEqual(
+                        VersionNumber.parse("14.0.1").await(),
+                        toolchainCache.getJavacVersion(javacFile.getPath(), "javac launcher".length(), javacFile.getLastModified().await()));
+                });
+
+                runner.test("with source file with same age as existing class file and with build.json file",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A.java bytecode").await();
+                    final File buildJsonFile = QubBuildCompileTests.getBuildJSONFile(outputsFolder);
+                    buildJsonFile.setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                            .toString());
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"));
+
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process);
+
+                    final int exitCode = QubBuildCompile.run(parameters);
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "VERBOSE: Parsing project.json...",
+                            "VERBOSE: Getting javac version...",
+                            "VERBOSE: Running /: javac --version...",
+                            "VERBOSE: javac 14.0.1",
+                            "VERBOSE: Parsing outputs/build.json...",
+                            "VERBOSE: /sources/A.java - No changes or issues",
+                            "VERBOSE: Updating outputs/build.json...",
+                            "VERBOSE: Setting project.json...",
+                            "VERBOSE: Setting source files...",
+                            "VERBOSE: Detecting java source files to compile...",
+                            "No files need to be compiled.",
+                            "VERBOSE: Writing build.json file...",
+                            "VERBOSE: Done writing build.json file."),
+                        QubBuildCompileTests.getLogFileContentLines(process));
+                    test.assertEqual(0, exitCode);
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual("A.java bytecode", aClassFile.getContentsAsString().await());
+                    test.assertEqual(Duration.zero, aClassFile.getLastModified().await().getDurationSinceEpoch());
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
@@ -1221,7 +2106,195 @@ public interface QubBuildCompileTests
                             .addSourceFile(aJavaFile)
                             .setCompileFunctionAutomatically());
 
-                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process);
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process);
+
+                    test.assertEqual(0, QubBuildCompile.run(parameters));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "VERBOSE: Parsing project.json...",
+                            "VERBOSE: Getting javac version...",
+                            "VERBOSE: Running /: javac --version...",
+                            "VERBOSE: javac 14.0.1",
+                            "VERBOSE: Parsing outputs/build.json...",
+                            "VERBOSE: /sources/A.java - Last modified: 1970-01-01T00:00:01Z",
+                            "VERBOSE:                 - Last built:    1970-01-01T00:00Z",
+                            "VERBOSE: Updating outputs/build.json...",
+                            "VERBOSE: Setting project.json...",
+                            "VERBOSE: Setting source files...",
+                            "VERBOSE: Detecting java source files to compile...",
+                            "VERBOSE: Modified source files:",
+                            "VERBOSE: /sources/A.java",
+                            "Compiling 1 file...",
+                            "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/A.java...",
+                            "VERBOSE: Compilation finished.",
+                            "VERBOSE: Writing build.json file...",
+                            "VERBOSE: Done writing build.json file."),
+                        QubBuildCompileTests.getLogFileContentLines(process));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual("A.java bytecode", aClassFile.getContentsAsString().await());
+                    test.assertEqual(clock.getCurrentDateTime(), aClassFile.getLastModified().await());
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())))
+                            .toString(JSONFormat.pretty),
+                        buildJsonFile.getContentsAsString().await());
+                    test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
+                });
+
+                runner.test("with --fingerprints and source file with newer last modified but unchanged contents",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A.java bytecode").await();
+                    final File buildJsonFile = QubBuildCompileTests.getBuildJSONFile(outputsFolder);
+                    buildJsonFile.setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setContentHash(ContentHash.create("A.java source"))))
+                            .toString());
+
+                    clock.advance(Duration.seconds(1));
+
+                    aJavaFile.setContentsAsString("A.java source").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"));
+
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process)
+                        .setFingerprints(true);
+
+                    test.assertEqual(0, QubBuildCompile.run(parameters));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "VERBOSE: Parsing project.json...",
+                            "VERBOSE: Getting javac version...",
+                            "VERBOSE: Running /: javac --version...",
+                            "VERBOSE: javac 14.0.1",
+                            "VERBOSE: Parsing outputs/build.json...",
+                            "VERBOSE: /sources/A.java - Last modified changed, but contents are unchanged",
+                            "VERBOSE: /sources/A.java - No changes or issues",
+                            "VERBOSE: Updating outputs/build.json...",
+                            "VERBOSE: Setting project.json...",
+                            "VERBOSE: Setting source files...",
+                            "VERBOSE: Detecting java source files to compile...",
+                            "No files need to be compiled.",
+                            "VERBOSE: Writing build.json file...",
+                            "VERBOSE: Done writing build.json file."),
+                        QubBuildCompileTests.getLogFileContentLines(process));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual("A.java bytecode", aClassFile.getContentsAsString().await());
+                    test.assertEqual(DateTime.createFromDurationSinceEpoch(Duration.zero), aClassFile.getLastModified().await());
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setContentHash(ContentHash.create("A.java source"))))
+                            .toString(JSONFormat.pretty),
+                        buildJsonFile.getContentsAsString().await());
+                    test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
+                });
+
+                runner.test("with --fingerprints and source file with newer last modified and changed contents",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A.java bytecode").await();
+                    final File buildJsonFile = QubBuildCompileTests.getBuildJSONFile(outputsFolder);
+                    buildJsonFile.setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setContentHash(ContentHash.create("Old A.java source"))))
+                            .toString());
+
+                    clock.advance(Duration.seconds(1));
+
+                    aJavaFile.setContentsAsString("A.java source").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process)
+                        .setFingerprints(true);
 
                     test.assertEqual(0, QubBuildCompile.run(parameters));
                     test.assertFalse(output.isDisposed());
@@ -1265,7 +2338,8 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setContentHash(ContentHash.create("A.java source"))))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -1475,6 +2549,175 @@ public interface QubBuildCompileTests
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
                 });
 
+                runner.test("with one unmodified source file with one error",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File buildJsonFile = QubBuildCompileTests.getBuildJSONFile(outputsFolder);
+                    buildJsonFile.setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 20, Issue.Type.Error, "Are you sure?"))))
+                            .toString());
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"));
+
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process);
+
+                    test.assertEqual(1, QubBuildCompile.run(parameters));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "No files need to be compiled.",
+                            "1 Unmodified Error:",
+                            "sources/A.java (Line 1): Are you sure?"),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "VERBOSE: Parsing project.json...",
+                            "VERBOSE: Getting javac version...",
+                            "VERBOSE: Running /: javac --version...",
+                            "VERBOSE: javac 14.0.1",
+                            "VERBOSE: Parsing outputs/build.json...",
+                            "VERBOSE: /sources/A.java - Has unmodified errors",
+                            "VERBOSE: Updating outputs/build.json...",
+                            "VERBOSE: Setting project.json...",
+                            "VERBOSE: Setting source files...",
+                            "VERBOSE: Detecting java source files to compile...",
+                            "No files need to be compiled.",
+                            "1 Unmodified Error:",
+                            "sources/A.java (Line 1): Are you sure?",
+                            "VERBOSE: Writing build.json file...",
+                            "VERBOSE: Done writing build.json file."),
+                        QubBuildCompileTests.getLogFileContentLines(process));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create("sources/A.java")
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 20, Issue.Type.Error, "Are you sure?"))))
+                            .toString(JSONFormat.pretty),
+                        buildJsonFile.getContentsAsString().await());
+                    test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
+                });
+
+                runner.test("with one unmodified source file with one error and --retryerrors",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File buildJsonFile = QubBuildCompileTests.getBuildJSONFile(outputsFolder);
+                    buildJsonFile.setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 20, Issue.Type.Error, "Are you sure?"))))
+                            .toString());
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .addCompilerIssues(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 20, Issue.Type.Error, "Are you sure?"))
+                            .setCompileFunctionAutomatically());
+
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process)
+                        .setRetryErrors(true);
+
+                    test.assertEqual(1, QubBuildCompile.run(parameters));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file...",
+                            "1 Error:",
+                            "sources/A.java (Line 1): Are you sure?"),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "VERBOSE: Parsing project.json...",
+                            "VERBOSE: Getting javac version...",
+                            "VERBOSE: Running /: javac --version...",
+                            "VERBOSE: javac 14.0.1",
+                            "VERBOSE: Parsing outputs/build.json...",
+                            "VERBOSE: /sources/A.java - Has errors",
+                            "VERBOSE: Updating outputs/build.json...",
+                            "VERBOSE: Setting project.json...",
+                            "VERBOSE: Setting source files...",
+                            "VERBOSE: Detecting java source files to compile...",
+                            "VERBOSE: Source files that previously contained errors:",
+                            "VERBOSE: /sources/A.java",
+                            "Compiling 1 file...",
+                            "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/A.java...",
+                            "VERBOSE: sources/A.java:1: error: Are you sure?",
+                            "VERBOSE: Fake code line",
+                            "VERBOSE:                    ^",
+                            "VERBOSE: Compilation finished.",
+                            "1 Error:",
+                            "sources/A.java (Line 1): Are you sure?",
+                            "VERBOSE: Writing build.json file...",
+                            "VERBOSE: Done writing build.json file."),
+                        QubBuildCompileTests.getLogFileContentLines(process));
+                });
+
                 runner.test("with one modified source file with one warning",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
@@ -2579,6 +3822,107 @@ public interface QubBuildCompileTests
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
                 });
 
+                runner.test("with a modified constant that a dependent source file inlines",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source, CONSTANT = 1").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("B.java source, uses A.CONSTANT").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    final File bClassFile = outputsFolder.getFile("B.class").await();
+
+                    // The constant is inlined into B.class, so B.class doesn't reference A.
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(aJavaFile, bJavaFile)
+                            .setFunction(() ->
+                            {
+                                aClassFile.setContents(QubBuildCompileTests.createConstantClassFileBytes("A", 1)).await();
+                                bClassFile.setContents(QubBuildCompileTests.createConstantClassFileBytes("B", 1)).await();
+                            }));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(
+                        Iterable.create(aJavaFile.relativeTo(currentFolder)),
+                        BuildJSON.parse(QubBuildCompileTests.getBuildJSONFile(outputsFolder)).await().getSourceFile(bJavaFile.relativeTo(currentFolder)).await().getDependencies());
+
+                    clock.advance(Duration.seconds(1));
+                    aJavaFile.setContentsAsString("A.java source, CONSTANT = 2").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setFunction(() ->
+                            {
+                                aClassFile.setContents(QubBuildCompileTests.createConstantClassFileBytes("A", 2)).await();
+                            }))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(bJavaFile)
+                            .setFunction(() ->
+                            {
+                                bClassFile.setContents(QubBuildCompileTests.createConstantClassFileBytes("B", 2)).await();
+                            }));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 2 files...",
+                            "Compiling 1 file...",
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "B.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual(clock.getCurrentDateTime(), aClassFile.getLastModified().await());
+                    test.assertEqual(clock.getCurrentDateTime(), bClassFile.getLastModified().await());
+                    test.assertEqual(
+                        Iterable.create(aJavaFile.relativeTo(currentFolder)),
+                        BuildJSON.parse(QubBuildCompileTests.getBuildJSONFile(outputsFolder)).await().getSourceFile(bJavaFile.relativeTo(currentFolder)).await().getDependencies());
+                });
+
                 runner.test("with one modified source file and one unmodified and dependent source file",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
@@ -2656,6 +4000,8 @@ public interface QubBuildCompileTests
                             "VERBOSE: Detecting java source files to compile...",
                             "VERBOSE: Modified source files:",
                             "VERBOSE: /sources/A.java",
+                            "VERBOSE: Source files with modified dependencies:",
+                            "VERBOSE: /sources/B.java -> /sources/A.java",
                             "Compiling 2 files...",
                             "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/A.java sources/B.java...",
                             "VERBOSE: Compilation finished.",
@@ -2874,8 +4220,6 @@ public interface QubBuildCompileTests
                             "VERBOSE: Detecting java source files to compile...",
                             "VERBOSE: Source files with deleted dependencies:",
                             "VERBOSE: /sources/B.java",
-                            "VERBOSE: Source files with modified dependencies:",
-                            "VERBOSE: /sources/B.java",
                             "Compiling 1 file...",
                             "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/B.java...",
                             "VERBOSE: Compilation finished.",
@@ -3102,6 +4446,9 @@ public interface QubBuildCompileTests
                             "VERBOSE: Detecting java source files to compile...",
                             "VERBOSE: Modified source files:",
                             "VERBOSE: /sources/C.java",
+                            "VERBOSE: Source files with modified dependencies:",
+                            "VERBOSE: /sources/B.java -> /sources/C.java",
+                            "VERBOSE: /sources/A.java -> /sources/B.java -> /sources/C.java",
                             "Compiling 3 files...",
                             "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/C.java sources/B.java sources/A.java...",
                             "VERBOSE: Compilation finished.",
@@ -3243,7 +4590,7 @@ public interface QubBuildCompileTests
                             "VERBOSE: Source files with deleted dependencies:",
                             "VERBOSE: /sources/B.java",
                             "VERBOSE: Source files with modified dependencies:",
-                            "VERBOSE: /sources/B.java",
+                            "VERBOSE: /sources/A.java -> /sources/B.java",
                             "Compiling 2 files...",
                             "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/B.java sources/A.java...",
                             "VERBOSE: sources/B.java:1: error: Missing definition for C.",
@@ -5020,6 +6367,55 @@ public interface QubBuildCompileTests
         });
     }
 
+    /**
+     * Create the bytes of a class file that only has a public static final int constant named
+     * CONSTANT.
+     * @param className The name of the class.
+     * @param constantValue The value of the constant.
+     */
+    static byte[] createConstantClassFileBytes(String className, int constantValue)
+    {
+        final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (final java.io.DataOutputStream output = new java.io.DataOutputStream(bytes))
+        {
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0); // Minor version
+            output.writeShort(52); // Major version
+
+            output.writeShort(9); // Constant pool count
+            output.writeByte(1); output.writeUTF(className); // 1
+            output.writeByte(7); output.writeShort(1); // 2
+            output.writeByte(1); output.writeUTF("java/lang/Object"); // 3
+            output.writeByte(7); output.writeShort(3); // 4
+            output.writeByte(1); output.writeUTF("CONSTANT"); // 5
+            output.writeByte(1); output.writeUTF("I"); // 6
+            output.writeByte(1); output.writeUTF("ConstantValue"); // 7
+            output.writeByte(3); output.writeInt(constantValue); // 8
+
+            output.writeShort(0x0021); // Access flags
+            output.writeShort(2); // This class
+            output.writeShort(4); // Super class
+            output.writeShort(0); // Interfaces
+
+            output.writeShort(1); // Fields
+            output.writeShort(0x0019); // Access flags
+            output.writeShort(5); // Name
+            output.writeShort(6); // Descriptor
+            output.writeShort(1); // Attributes
+            output.writeShort(7); // Attribute name
+            output.writeInt(2); // Attribute length
+            output.writeShort(8); // Constant value
+
+            output.writeShort(0); // Methods
+            output.writeShort(0); // Attributes
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+
     static File getProjectJsonFile(Folder currentFolder)
     {
         return currentFolder.getFile("project.json").await();
@@ -0,0 +1,199 @@
+package qub;
+
+public interface QubBuildDaemonTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubBuildDaemon.class, () ->
+        {
+            runner.testGroup("handleRequest(QubBuildDaemonParameters,String,String,Map<String,JavacWorkerPool>,Map<String,QubBuildProjectState>,Action1<JSONObject>)", () ->
+            {
+                runner.test("with null responseAction",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubBuildDaemonParameters parameters = QubBuildDaemonTests.getParameters(process);
+                    test.assertThrows(() -> QubBuildDaemon.handleRequest(parameters, "abc", "{}", Map.create(), Map.create(), null),
+                        new PreConditionFailure("responseAction cannot be null."));
+                });
+
+                final Action1<String> invalidRequestTest = (String requestLine) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(requestLine),
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        final QubBuildDaemonParameters parameters = QubBuildDaemonTests.getParameters(process);
+                        final List<JSONObject> responses = List.create();
+                        test.assertFalse(QubBuildDaemon.handleRequest(parameters, "abc", requestLine, Map.create(), Map.create(), responses::add).await());
+                        test.assertEqual(1, responses.getCount());
+                        test.assertEqual("Invalid request.", responses.first().getString(QubBuildDaemon.errorPropertyName).await());
+                    });
+                };
+
+                invalidRequestTest.run(null);
+                invalidRequestTest.run("");
+                invalidRequestTest.run("not json");
+                invalidRequestTest.run("{\"type\":\"stop\"}");
+                invalidRequestTest.run("{\"type\":\"stop\",\"token\":\"abd\"}");
+
+                runner.test("with stop request",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubBuildDaemonParameters parameters = QubBuildDaemonTests.getParameters(process);
+                    final List<JSONObject> responses = List.create();
+                    test.assertTrue(QubBuildDaemon.handleRequest(parameters, "abc", "{\"type\":\"stop\",\"token\":\"abc\"}", Map.create(), Map.create(), responses::add).await());
+                    test.assertEqual(1, responses.getCount());
+                    test.assertEqual(QubBuildDaemon.stopRequestType, responses.first().getString(QubBuildDaemon.typePropertyName).await());
+                });
+
+                runner.test("with unrecognized request type",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubBuildDaemonParameters parameters = QubBuildDaemonTests.getParameters(process);
+                    final List<JSONObject> responses = List.create();
+                    test.assertFalse(QubBuildDaemon.handleRequest(parameters, "abc", "{\"type\":\"spam\",\"token\":\"abc\"}", Map.create(), Map.create(), responses::add).await());
+                    test.assertEqual(1, responses.getCount());
+                    test.assertEqual("Unrecognized request type: \"spam\"", responses.first().getString(QubBuildDaemon.errorPropertyName).await());
+                });
+            });
+
+            runner.testGroup("getEnvironmentVariables(QubBuildDaemonParameters,JSONObject)", () ->
+            {
+                runner.test("with no environment in the request",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    process.getEnvironmentVariables()
+                        .set("PATH", "/daemon/bin")
+                        .set("JAVA_HOME", "/daemon/jdk");
+                    final QubBuildDaemonParameters parameters = QubBuildDaemonTests.getParameters(process);
+                    final EnvironmentVariables environmentVariables = QubBuildDaemon.getEnvironmentVariables(parameters, JSONObject.create());
+                    test.assertEqual("/daemon/bin", environmentVariables.get("PATH").await());
+                    test.assertEqual("/daemon/jdk", environmentVariables.get("JAVA_HOME").await());
+                });
+
+                runner.test("with the client's environment in the request",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    process.getEnvironmentVariables()
+                        .set("PATH", "/daemon/bin")
+                        .set("JAVA_HOME", "/daemon/jdk");
+                    final QubBuildDaemonParameters parameters = QubBuildDaemonTests.getParameters(process);
+                    final JSONObject request = JSONObject.create();
+                    request.set(QubBuildDaemon.environmentPropertyName, JSONObject.create()
+                        .setString("PATH", "/client/bin"));
+                    final EnvironmentVariables environmentVariables = QubBuildDaemon.getEnvironmentVariables(parameters, request);
+                    test.assertEqual("/client/bin", environmentVariables.get("PATH").await());
+                    test.assertEqual("/daemon/jdk", environmentVariables.get("JAVA_HOME").await());
+                });
+            });
+
+            runner.testGroup("getProjectState(Folder,Map<String,QubBuildProjectState>)", () ->
+            {
+                runner.test("with the same folder twice", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Map<String,QubBuildProjectState> projectStates = Map.create();
+                    final QubBuildProjectState aState = QubBuildDaemon.getProjectState(fileSystem.getFolder("/a/").await(), projectStates);
+                    final QubBuildProjectState bState = QubBuildDaemon.getProjectState(fileSystem.getFolder("/b/").await(), projectStates);
+                    test.assertNotSame(aState, bState);
+                    test.assertSame(aState, QubBuildDaemon.getProjectState(fileSystem.getFolder("/a/").await(), projectStates));
+                });
+            });
+
+            runner.testGroup("compile(QubBuildCompileParameters)", () ->
+            {
+                runner.test("with no running daemon",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process);
+                    test.assertNull(QubBuildDaemon.compile(parameters).await());
+                    test.assertEqual("", output.getText().await());
+                });
+
+                runner.test("with a running daemon that builds a project in another folder", (Test test) ->
+                {
+                    try (final RealDesktopProcess process = RealDesktopProcess.create())
+                    {
+                        final Folder rootFolder = process.getCurrentFolder().createFolder("temp").await();
+                        try
+                        {
+                            // The daemon runs in the current folder, so the project's relative
+                            // javac arguments only work if the build runs in the project folder.
+                            final Folder projectFolder = rootFolder.getFolder("project").await();
+                            projectFolder.getFile("project.json").await()
+                                .setContentsAsString(
+                                    ProjectJSON.create()
+                                        .setJava(ProjectJSONJava.create())
+                                        .toString())
+                                .await();
+                            projectFolder.getFile("sources/A.java").await()
+                                .setContentsAsString("public class A {}")
+                                .await();
+                            final Folder qubBuildDataFolder = rootFolder.getFolder("data").await();
+
+                            final QubBuildDaemonParameters daemonParameters = new QubBuildDaemonParameters(InMemoryCharacterToByteStream.create(), process.getFileSystem(), process.getEnvironmentVariables(), process.getProcessFactory(), process.getQubFolder().await(), qubBuildDataFolder);
+                            final java.lang.Thread daemonThread = new java.lang.Thread(() -> QubBuildDaemon.run(daemonParameters));
+                            daemonThread.start();
+                            try
+                            {
+                                final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                                final QubBuildCompileParameters parameters = new QubBuildCompileParameters(output, projectFolder, process.getEnvironmentVariables(), process.getProcessFactory(), process.getQubFolder().await(), qubBuildDataFolder)
+                                    .setCompiler(JavaCompilerMode.Process);
+
+                                Integer exitCode = null;
+                                for (int attempt = 0; exitCode == null && attempt < 100; ++attempt)
+                                {
+                                    exitCode = QubBuildDaemon.compile(parameters).await();
+                                    if (exitCode == null)
+                                    {
+                                        java.util.concurrent.locks.LockSupport.parkNanos(100 * 1000 * 1000L);
+                                    }
+                                }
+
+                                test.assertEqual(0, exitCode);
+                                test.assertTrue(QubBuildCompileTests.getOutputLines(output).contains("Compiling 1 file..."));
+                                test.assertTrue(projectFolder.getFile("outputs/A.class").await().exists().await());
+                            }
+                            finally
+                            {
+                                final QubBuildDaemonParameters stopParameters = new QubBuildDaemonParameters(InMemoryCharacterToByteStream.create(), process.getFileSystem(), process.getEnvironmentVariables(), process.getProcessFactory(), process.getQubFolder().await(), qubBuildDataFolder)
+                                    .setStop(true);
+                                test.assertEqual(0, QubBuildDaemon.run(stopParameters));
+                                for (int attempt = 0; daemonThread.isAlive() && attempt < 100; ++attempt)
+                                {
+                                    java.util.concurrent.locks.LockSupport.parkNanos(100 * 1000 * 1000L);
+                                }
+                            }
+
+                            test.assertFalse(daemonThread.isAlive());
+                            test.assertFalse(qubBuildDataFolder.getFile(QubBuildDaemon.daemonJsonFileName).await().exists().await());
+                        }
+                        finally
+                        {
+                            rootFolder.delete().await();
+                        }
+                    }
+                });
+            });
+        });
+    }
+
+    static QubBuildDaemonParameters getParameters(FakeDesktopProcess process)
+    {
+        final CharacterToByteWriteStream output = process.getOutputWriteStream();
+        final FileSystem fileSystem = process.getFileSystem();
+        final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
+        final FakeProcessFactory processFactory = process.getProcessFactory();
+        final QubFolder qubFolder = process.getQubFolder().await();
+        final Folder projectDataFolder = process.getQubProjectDataFolder().await();
+        return new QubBuildDaemonParameters(output, fileSystem, environmentVariables, processFactory, qubFolder, projectDataFolder);
+    }
+}
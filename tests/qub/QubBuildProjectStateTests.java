@@ -0,0 +1,193 @@
+package qub;
+
+public interface QubBuildProjectStateTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubBuildProjectState.class, () ->
+        {
+            final DateTime lastModified = DateTime.create(2020, 3, 17, 12, 40);
+            final DateTime laterLastModified = DateTime.create(2020, 3, 17, 12, 41);
+
+            runner.test("create()", (Test test) ->
+            {
+                final QubBuildProjectState state = QubBuildProjectState.create();
+                test.assertNull(state.getProjectJson(lastModified));
+                test.assertNull(state.getDependencyClassPaths(lastModified));
+                test.assertNull(state.takeBuildJson(lastModified));
+            });
+
+            runner.testGroup("getProjectJson(DateTime)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setProjectJson(lastModified, ProjectJSON.create());
+                    test.assertNull(state.getProjectJson(null));
+                });
+
+                runner.test("with the same last modified time", (Test test) ->
+                {
+                    final ProjectJSON projectJson = ProjectJSON.create();
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setProjectJson(lastModified, projectJson);
+                    test.assertSame(projectJson, state.getProjectJson(lastModified));
+                });
+
+                runner.test("with a different last modified time", (Test test) ->
+                {
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setProjectJson(lastModified, ProjectJSON.create());
+                    test.assertNull(state.getProjectJson(laterLastModified));
+                });
+            });
+
+            runner.testGroup("getDependencyClassPaths(DateTime)", () ->
+            {
+                runner.test("with the same last modified time", (Test test) ->
+                {
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setDependencyClassPaths(lastModified, Iterable.create("a.jar", "b.jar"));
+                    test.assertEqual(Iterable.create("a.jar", "b.jar"), state.getDependencyClassPaths(lastModified));
+                });
+
+                runner.test("with a different last modified time", (Test test) ->
+                {
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setDependencyClassPaths(lastModified, Iterable.create("a.jar"));
+                    test.assertNull(state.getDependencyClassPaths(laterLastModified));
+                });
+            });
+
+            runner.testGroup("takeBuildJson(DateTime)", () ->
+            {
+                runner.test("with the same last modified time", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create();
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setBuildJson(lastModified, buildJson);
+                    test.assertSame(buildJson, state.takeBuildJson(lastModified));
+                    test.assertNull(state.takeBuildJson(lastModified));
+                });
+
+                runner.test("with a different last modified time", (Test test) ->
+                {
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setBuildJson(lastModified, BuildJSON.create());
+                    test.assertNull(state.takeBuildJson(laterLastModified));
+                    test.assertNull(state.takeBuildJson(lastModified));
+                });
+            });
+
+            runner.testGroup("setJavaSourceFiles(Iterable<File>)", () ->
+            {
+                runner.test("when not watched", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setJavaSourceFiles(Iterable.create(fileSystem.getFile("/sources/A.java").await()));
+                    test.assertFalse(state.isWatched());
+                    test.assertNull(state.getJavaSourceFiles());
+                    test.assertTrue(state.isJavaSourceFileChanged(fileSystem.getFile("/sources/A.java").await()));
+                });
+
+                runner.test("when watched", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File aJava = fileSystem.getFile("/sources/A.java").await();
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setWatched(true)
+                        .setJavaSourceFiles(Iterable.create(aJava));
+                    test.assertEqual(Iterable.create(aJava), state.getJavaSourceFiles());
+                    test.assertTrue(state.isJavaSourceFileChanged(aJava));
+
+                    state.clearChangedJavaSourceFiles();
+                    test.assertFalse(state.isJavaSourceFileChanged(aJava));
+
+                    state.setJavaSourceFiles(Iterable.create(aJava));
+                    test.assertTrue(state.isJavaSourceFileChanged(aJava));
+                });
+            });
+
+            runner.test("addJavaSourceFile(File)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final File aJava = fileSystem.getFile("/sources/A.java").await();
+                final File bJava = fileSystem.getFile("/sources/B.java").await();
+                final QubBuildProjectState state = QubBuildProjectState.create()
+                    .setWatched(true)
+                    .setJavaSourceFiles(Iterable.create(aJava))
+                    .clearChangedJavaSourceFiles();
+                test.assertTrue(state.addJavaSourceFile(bJava));
+                test.assertEqual(Iterable.create(aJava, bJava), state.getJavaSourceFiles());
+                test.assertFalse(state.isJavaSourceFileChanged(aJava));
+                test.assertTrue(state.isJavaSourceFileChanged(bJava));
+
+                state.clearChangedJavaSourceFiles();
+                test.assertFalse(state.isJavaSourceFileChanged(bJava));
+            });
+
+            runner.testGroup("removeJavaSourceFiles(Path)", () ->
+            {
+                runner.test("with a file path", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File aJava = fileSystem.getFile("/sources/A.java").await();
+                    final File bJava = fileSystem.getFile("/sources/B.java").await();
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setWatched(true)
+                        .setJavaSourceFiles(Iterable.create(aJava, bJava));
+                    test.assertTrue(state.removeJavaSourceFiles(aJava.getPath()));
+                    test.assertEqual(Iterable.create(bJava), state.getJavaSourceFiles());
+                    test.assertFalse(state.removeJavaSourceFiles(aJava.getPath()));
+                });
+
+                runner.test("with a folder path", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File aJava = fileSystem.getFile("/sources/a/A.java").await();
+                    final File abJava = fileSystem.getFile("/sources/ab/AB.java").await();
+                    final QubBuildProjectState state = QubBuildProjectState.create()
+                        .setWatched(true)
+                        .setJavaSourceFiles(Iterable.create(aJava, abJava));
+                    test.assertTrue(state.removeJavaSourceFiles(Path.parse("/sources/a")));
+                    test.assertEqual(Iterable.create(abJava), state.getJavaSourceFiles());
+                });
+            });
+
+            runner.test("setJavaSourceFileChanged(File)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final File aJava = fileSystem.getFile("/sources/A.java").await();
+                final QubBuildProjectState state = QubBuildProjectState.create()
+                    .setWatched(true)
+                    .setJavaSourceFiles(Iterable.create(aJava))
+                    .clearChangedJavaSourceFiles();
+                test.assertFalse(state.isJavaSourceFileChanged(aJava));
+                test.assertTrue(state.setJavaSourceFileChanged(aJava));
+                test.assertTrue(state.isJavaSourceFileChanged(aJava));
+                test.assertFalse(state.setJavaSourceFileChanged(fileSystem.getFile("/sources/B.txt").await()));
+            });
+
+            runner.test("clearJavaSourceFiles()", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final File aJava = fileSystem.getFile("/sources/A.java").await();
+                final QubBuildProjectState state = QubBuildProjectState.create()
+                    .setWatched(true)
+                    .setJavaSourceFiles(Iterable.create(aJava));
+                test.assertSame(state, state.clearJavaSourceFiles());
+                test.assertNull(state.getJavaSourceFiles());
+                test.assertTrue(state.isJavaSourceFileChanged(aJava));
+                test.assertFalse(state.addJavaSourceFile(aJava));
+            });
+        });
+    }
+}
@@ -40,6 +40,8 @@ public interface QubBuildTests
                                 "",
                                 "Actions:",
                                 "  compile (default): Compile source code files.",
+                                "  daemon:            Run a background process that keeps build state in memory between compiles.",
+                                "  httpcache:         Serve a build cache that is shared between build agents over HTTP.",
                                 "  logs:              Show the logs folder."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
@@ -60,6 +62,8 @@ public interface QubBuildTests
                                 "",
                                 "Actions:",
                                 "  compile (default): Compile source code files.",
+                                "  daemon:            Run a background process that keeps build state in memory between compiles.",
+                                "  httpcache:         Serve a build cache that is shared between build agents over HTTP.",
                                 "  logs:              Show the logs folder."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
@@ -73,14 +77,20 @@ public interface QubBuildTests
 
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: qub-build compile [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--verbose] [--profiler] [--help]",
+                                "Usage: qub-build compile [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--fingerprints] [--compiler=<process|worker|inprocess>] [--parallel] [--watch] [--retryerrors] [--buildcache] [--verbose] [--profiler] [--help]",
                                 "  Compile source code files.",
-                                "  --folder:     The folder to build. The current folder will be used if this isn't defined.",
-                                "  --warnings:   How to handle build warnings. Can be either \"show\", \"error\", or \"hide\". Defaults to \"show\".",
-                                "  --buildjson:  Whether or not to read and write a build.json file. Defaults to true.",
-                                "  --verbose(v): Whether or not to show verbose logs.",
-                                "  --profiler:   Whether or not this application should pause before it is run to allow a profiler to be attached.",
-                                "  --help(?):    Show the help message for this application."),
+                                "  --folder:       The folder to build. The current folder will be used if this isn't defined.",
+                                "  --warnings:     How to handle build warnings. Can be either \"show\", \"error\", or \"hide\". Defaults to \"show\".",
+                                "  --buildjson:    Whether or not to read and write a build.json file. Defaults to true.",
+                                "  --fingerprints: Whether or not to compare file contents when a source file's last modified time changes. Defaults to false.",
+                                "  --compiler:     Which Java compiler to use. Can be either \"process\" to run a separate javac process, \"worker\" to reuse warm javac worker processes, or \"inprocess\" to run the JDK's compiler inside of this process. Defaults to \"process\".",
+                                "  --parallel:     Whether or not to compile independent groups of source files with several javac workers at the same time. Defaults to false.",
+                                "  --watch:        Whether or not to keep watching the source folders and compile again each time a source file changes. Defaults to false.",
+                                "  --retryerrors:  Whether or not to compile source files that failed to compile before even if they and their dependencies haven't changed. Defaults to false.",
+                                "  --buildcache:   Whether or not to restore and store compiled class files in a build cache that is shared between project folders. Defaults to false.",
+                                "  --verbose(v):   Whether or not to show verbose logs.",
+                                "  --profiler:     Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --help(?):      Show the help message for this application."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
                 });
@@ -171,6 +181,105 @@ public interface QubBuildTests
                     final Iterable<File> javaSourceFiles = QubBuild.getJavaSourceFiles(projectFolder, projectJsonJava).await();
                     test.assertEqual(Iterable.create(javaFile), javaSourceFiles);
                 });
+
+                runner.test("with Java files in the outputs folder and in a .git folder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.createFolder("/project/folder/").await();
+                    final File javaFile = projectFolder.createFile("sources/A.java").await();
+                    projectFolder.createFile("outputs/B.java").await();
+                    projectFolder.createFile(".git/C.java").await();
+                    final ProjectJSONJava projectJsonJava = ProjectJSONJava.create();
+                    final Iterable<File> javaSourceFiles = QubBuild.getJavaSourceFiles(projectFolder, projectJsonJava).await();
+                    test.assertEqual(Iterable.create(javaFile), javaSourceFiles);
+                });
+
+                runner.test("with Java files in a folder listed in the ignore file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.createFolder("/project/folder/").await();
+                    final File javaFile = projectFolder.createFile("sources/A.java").await();
+                    projectFolder.createFile("node_modules/B.java").await();
+                    projectFolder.createFile("generated/old/C.java").await();
+                    projectFolder.getFile(QubBuild.ignoreFileName).await()
+                        .setContentsAsString("# Folders that never contain sources\nnode_modules/\n/generated/old\n")
+                        .await();
+                    final ProjectJSONJava projectJsonJava = ProjectJSONJava.create();
+                    final Iterable<File> javaSourceFiles = QubBuild.getJavaSourceFiles(projectFolder, projectJsonJava).await();
+                    test.assertEqual(Iterable.create(javaFile), javaSourceFiles);
+                });
+
+                runner.test("with Java file outside of the source pattern's fixed prefix", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.createFolder("/project/folder/").await();
+                    final File javaFile = projectFolder.createFile("sources/qub/A.java").await();
+                    projectFolder.createFile("tests/qub/A.java").await();
+                    final ProjectJSONJava projectJsonJava = ProjectJSONJava.create()
+                        .setSourceFiles(PathPattern.parse("sources/**/*.java"));
+                    final Iterable<File> javaSourceFiles = QubBuild.getJavaSourceFiles(projectFolder, projectJsonJava).await();
+                    test.assertEqual(Iterable.create(javaFile), javaSourceFiles);
+                });
+            });
+
+            runner.testGroup("getInputFolderFilter(Folder,Folder)", () ->
+            {
+                runner.test("with null projectFolder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder outputsFolder = fileSystem.getFolder("/project/outputs/").await();
+                    test.assertThrows(() -> QubBuild.getInputFolderFilter(null, outputsFolder),
+                        new PreConditionFailure("projectFolder cannot be null."));
+                });
+
+                runner.test("with null outputsFolder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.getFolder("/project/").await();
+                    test.assertThrows(() -> QubBuild.getInputFolderFilter(projectFolder, null),
+                        new PreConditionFailure("outputsFolder cannot be null."));
+                });
+
+                runner.test("with version control, outputs, and ignored folders", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.getFolder("/project/").await();
+                    projectFolder.getFile(QubBuild.ignoreFileName).await()
+                        .setContentsAsString("node_modules\n")
+                        .await();
+                    final Function1<String,Boolean> folderFilter = QubBuild.getInputFolderFilter(projectFolder, projectFolder.getFolder("build/classes").await()).await();
+                    test.assertTrue(folderFilter.run("sources"));
+                    test.assertTrue(folderFilter.run("build"));
+                    test.assertTrue(folderFilter.run("outputs"));
+                    test.assertFalse(folderFilter.run("build/classes"));
+                    test.assertFalse(folderFilter.run(".git"));
+                    test.assertFalse(folderFilter.run("sources/.svn"));
+                    test.assertFalse(folderFilter.run("node_modules"));
+                });
+            });
+
+            runner.testGroup("getFixedPrefix(PathPattern)", () ->
+            {
+                final Action2<String,String> getFixedPrefixTest = (String pattern, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(pattern), (Test test) ->
+                    {
+                        test.assertEqual(expected, QubBuild.getFixedPrefix(PathPattern.parse(pattern)));
+                    });
+                };
+
+                getFixedPrefixTest.run("A.java", "");
+                getFixedPrefixTest.run("**/*.java", "");
+                getFixedPrefixTest.run("sources/A.java", "sources");
+                getFixedPrefixTest.run("sources/**/*.java", "sources");
+                getFixedPrefixTest.run("sources/qub/*.java", "sources/qub");
+                getFixedPrefixTest.run("sources/qub*/A.java", "sources");
             });
 
             runner.testGroup("getJavaOutputsFolder(Folder,ProjectJSONJava)", () ->
@@ -0,0 +1,121 @@
+package qub;
+
+public interface RemoteBuildCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(RemoteBuildCache.class, () ->
+        {
+            runner.test("create(BuildCacheBackend)", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final RemoteBuildCache remoteCache = RemoteBuildCache.create(FolderBuildCacheBackend.create(fileSystem.getFolder("/remote/").await()));
+                try
+                {
+                    test.assertEqual(RemoteBuildCache.getTimeoutMillisecondsDefault(), remoteCache.getTimeoutMilliseconds());
+                    test.assertFalse(remoteCache.isDisposed());
+                }
+                finally
+                {
+                    remoteCache.dispose().await();
+                }
+                test.assertTrue(remoteCache.isDisposed());
+            });
+
+            runner.testGroup("download(Iterable<String>,BuildCache)", () ->
+            {
+                runner.test("with a key that isn't in the remote cache", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final BuildCache localCache = BuildCache.create(fileSystem.getFolder("/local/").await());
+                    final RemoteBuildCache remoteCache = RemoteBuildCache.create(FolderBuildCacheBackend.create(fileSystem.getFolder("/remote/").await()), 1);
+                    try
+                    {
+                        test.assertEqual(0, remoteCache.download(Iterable.create("abcd"), localCache).await());
+                        test.assertFalse(localCache.contains("abcd"));
+                    }
+                    finally
+                    {
+                        remoteCache.dispose().await();
+                    }
+                });
+
+                runner.test("with a key that was uploaded from another local cache", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder outputsFolder = fileSystem.getFolder("/a/outputs/").await();
+                    outputsFolder.getFile("A.class").await().setContentsAsString("A.java bytecode").await();
+                    final JavaCompilerIssue warning = JavaCompilerIssue.warning("sources/A.java", 1, 2, "Be careful.");
+                    final BuildCache uploadingCache = BuildCache.create(fileSystem.getFolder("/a/cache/").await());
+                    uploadingCache.store("abcd", Iterable.create(Path.parse("A.class")), outputsFolder, Iterable.create(warning)).await();
+
+                    final BuildCache downloadingCache = BuildCache.create(fileSystem.getFolder("/b/cache/").await());
+                    final RemoteBuildCache remoteCache = RemoteBuildCache.create(FolderBuildCacheBackend.create(fileSystem.getFolder("/remote/").await()), 1);
+                    try
+                    {
+                        test.assertTrue(remoteCache.upload("abcd", uploadingCache).await());
+                        test.assertEqual(0, remoteCache.waitForUploads().await());
+
+                        test.assertEqual(1, remoteCache.download(Iterable.create("abcd"), downloadingCache).await());
+                        test.assertTrue(downloadingCache.contains("abcd"));
+                        final Folder otherOutputsFolder = fileSystem.getFolder("/b/outputs/").await();
+                        test.assertEqual(Iterable.create(warning), downloadingCache.restore("abcd", otherOutputsFolder).await());
+                        test.assertEqual("A.java bytecode", otherOutputsFolder.getFile("A.class").await().getContentsAsString().await());
+                    }
+                    finally
+                    {
+                        remoteCache.dispose().await();
+                    }
+                });
+
+                runner.test("with a class file that doesn't match its content hash", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder outputsFolder = fileSystem.getFolder("/a/outputs/").await();
+                    outputsFolder.getFile("A.class").await().setContentsAsString("A.java bytecode").await();
+                    final BuildCache uploadingCache = BuildCache.create(fileSystem.getFolder("/a/cache/").await());
+                    uploadingCache.store("abcd", Iterable.create(Path.parse("A.class")), outputsFolder, Iterable.create()).await();
+
+                    final Folder remoteFolder = fileSystem.getFolder("/remote/").await();
+                    final RemoteBuildCache remoteCache = RemoteBuildCache.create(FolderBuildCacheBackend.create(remoteFolder), 1);
+                    try
+                    {
+                        test.assertTrue(remoteCache.upload("abcd", uploadingCache).await());
+                        test.assertEqual(0, remoteCache.waitForUploads().await());
+                        final String objectPath = BuildCache.getObjectPath(ContentHash.create("A.java bytecode"));
+                        remoteFolder.getFile(objectPath).await().setContentsAsString("corrupted bytecode").await();
+
+                        final BuildCache downloadingCache = BuildCache.create(fileSystem.getFolder("/b/cache/").await());
+                        test.assertEqual(0, remoteCache.download(Iterable.create("abcd"), downloadingCache).await());
+                        test.assertFalse(downloadingCache.contains("abcd"));
+                    }
+                    finally
+                    {
+                        remoteCache.dispose().await();
+                    }
+                });
+            });
+
+            runner.test("upload(String,BuildCache) with a key that isn't in the local cache", (Test test) ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final BuildCache localCache = BuildCache.create(fileSystem.getFolder("/local/").await());
+                final RemoteBuildCache remoteCache = RemoteBuildCache.create(FolderBuildCacheBackend.create(fileSystem.getFolder("/remote/").await()), 1);
+                try
+                {
+                    test.assertFalse(remoteCache.upload("abcd", localCache).await());
+                    test.assertEqual(0, remoteCache.waitForUploads().await());
+                }
+                finally
+                {
+                    remoteCache.dispose().await();
+                }
+            });
+        });
+    }
+}
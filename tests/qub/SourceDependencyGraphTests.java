@@ -0,0 +1,421 @@
+package qub;
+
+public interface SourceDependencyGraphTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(SourceDependencyGraph.class, () ->
+        {
+            runner.testGroup("create(Iterable<BuildJSONSourceFile>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> SourceDependencyGraph.create(null),
+                        new PreConditionFailure("sourceFiles cannot be null."));
+                });
+
+                runner.test("with no source files", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create());
+                    test.assertNotNull(graph);
+                    test.assertEqual(Iterable.create(), graph.getDependents(Path.parse("sources/A.java")));
+                });
+
+                runner.test("with dependencies", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/C.java"), Path.parse("sources/B.java"))),
+                        BuildJSONSourceFile.create("sources/C.java")));
+                    test.assertEqual(Iterable.create(), graph.getDependents(Path.parse("sources/A.java")));
+                    test.assertEqual(Iterable.create(), graph.getDependents(Path.parse("sources/B.java")));
+                    test.assertEqual(
+                        Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/B.java")),
+                        graph.getDependents(Path.parse("sources/C.java")));
+                });
+
+                runner.test("with dependency on a source file that isn't in the graph", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/Deleted.java")))));
+                    test.assertEqual(
+                        Iterable.create(Path.parse("sources/A.java")),
+                        graph.getDependents(Path.parse("sources/Deleted.java")));
+                });
+            });
+
+            runner.test("getIds(Iterable<Path>)", (Test test) ->
+            {
+                final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create(
+                    BuildJSONSourceFile.create("sources/A.java")
+                        .setDependencies(Iterable.create(Path.parse("sources/Deleted.java"))),
+                    BuildJSONSourceFile.create("sources/B.java")));
+                test.assertEqual(3, graph.getSourceFileCount());
+                test.assertEqual(0, graph.getId(Path.parse("sources/A.java")));
+                test.assertEqual(1, graph.getId(Path.parse("sources/B.java")));
+                test.assertEqual(2, graph.getId(Path.parse("sources/Deleted.java")));
+                test.assertEqual(-1, graph.getId(Path.parse("sources/New.java")));
+                test.assertEqual(Path.parse("sources/Deleted.java"), graph.getPath(2));
+
+                final SourceDependencyGraph.SourceFileIds ids = graph.getIds(Iterable.create(Path.parse("sources/B.java"), Path.parse("sources/New.java")));
+                test.assertEqual(1, ids.getCount());
+                test.assertTrue(ids.contains(1));
+                test.assertFalse(ids.contains(0));
+            });
+
+            runner.testGroup("SourceFileIds", () ->
+            {
+                runner.test("create()", (Test test) ->
+                {
+                    final SourceDependencyGraph.SourceFileIds ids = SourceDependencyGraph.SourceFileIds.create();
+                    test.assertEqual(0, ids.getCount());
+                    test.assertFalse(ids.contains(0));
+                });
+
+                runner.test("except(SourceFileIds)", (Test test) ->
+                {
+                    final SourceDependencyGraph.SourceFileIds ids = SourceDependencyGraph.SourceFileIds.create()
+                        .add(1)
+                        .add(2)
+                        .add(3);
+                    final SourceDependencyGraph.SourceFileIds remainingIds = ids.except(SourceDependencyGraph.SourceFileIds.create().add(2).add(7));
+                    test.assertEqual(3, ids.getCount());
+                    test.assertEqual(2, remainingIds.getCount());
+                    test.assertTrue(remainingIds.contains(1));
+                    test.assertFalse(remainingIds.contains(2));
+                    test.assertTrue(remainingIds.contains(3));
+                });
+            });
+
+            runner.test("getDependencies(Path)", (Test test) ->
+            {
+                final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create(
+                    BuildJSONSourceFile.create("sources/A.java")
+                        .setDependencies(Iterable.create(Path.parse("sources/C.java"), Path.parse("sources/A.java"), Path.parse("sources/B.java"))),
+                    BuildJSONSourceFile.create("sources/B.java"),
+                    BuildJSONSourceFile.create("sources/C.java")));
+                test.assertEqual(
+                    Iterable.create(Path.parse("sources/C.java"), Path.parse("sources/B.java")),
+                    graph.getDependencies(Path.parse("sources/A.java")));
+                test.assertEqual(Iterable.create(), graph.getDependencies(Path.parse("sources/B.java")));
+                test.assertEqual(Iterable.create(), graph.getDependencies(Path.parse("sources/New.java")));
+            });
+
+            runner.test("getDependentId(int,int)", (Test test) ->
+            {
+                final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create(
+                    BuildJSONSourceFile.create("sources/A.java")
+                        .setDependencies(Iterable.create(Path.parse("sources/C.java"))),
+                    BuildJSONSourceFile.create("sources/B.java")
+                        .setDependencies(Iterable.create(Path.parse("sources/C.java"))),
+                    BuildJSONSourceFile.create("sources/C.java")));
+                final int cId = graph.getId(Path.parse("sources/C.java"));
+                test.assertEqual(2, graph.getDependentCount(cId));
+                test.assertEqual(graph.getId(Path.parse("sources/A.java")), graph.getDependentId(cId, 0));
+                test.assertEqual(graph.getId(Path.parse("sources/B.java")), graph.getDependentId(cId, 1));
+                test.assertEqual(0, graph.getDependentCount(graph.getId(Path.parse("sources/A.java"))));
+            });
+
+            runner.testGroup("getInvalidatedSourceFiles(Iterable<Path>,Iterable<Path>)", () ->
+            {
+                final Function0<SourceDependencyGraph> createChainGraph = () ->
+                    SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/C.java"),
+                        BuildJSONSourceFile.create("sources/N.java")));
+
+                runner.test("with null modifiedSourceFilePaths", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    test.assertThrows(() -> graph.getInvalidatedSourceFiles(null, Iterable.create()),
+                        new PreConditionFailure("modifiedSourceFilePaths cannot be null."));
+                });
+
+                runner.test("with null candidateSourceFilePaths", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    test.assertThrows(() -> graph.getInvalidatedSourceFiles(Iterable.create(), null),
+                        new PreConditionFailure("candidateSourceFilePaths cannot be null."));
+                });
+
+                runner.test("with no modified source files", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    final Iterable<SourceInvalidation> invalidations = graph.getInvalidatedSourceFiles(
+                        Iterable.create(),
+                        Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/B.java"), Path.parse("sources/C.java"), Path.parse("sources/N.java")));
+                    test.assertEqual(Iterable.create(), invalidations);
+                });
+
+                runner.test("with modified source file at the end of a chain", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    final Iterable<SourceInvalidation> invalidations = graph.getInvalidatedSourceFiles(
+                        Iterable.create(Path.parse("sources/C.java")),
+                        Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/B.java"), Path.parse("sources/N.java")));
+                    test.assertEqual(
+                        Iterable.create(Path.parse("sources/B.java"), Path.parse("sources/A.java")),
+                        invalidations.map(SourceInvalidation::getSourceFilePath));
+                    test.assertEqual(
+                        Iterable.create(
+                            "sources/B.java -> sources/C.java",
+                            "sources/A.java -> sources/B.java -> sources/C.java"),
+                        invalidations.map(SourceInvalidation::toString));
+                });
+
+                runner.test("with modified source file at the start of a chain", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    final Iterable<SourceInvalidation> invalidations = graph.getInvalidatedSourceFiles(
+                        Iterable.create(Path.parse("sources/A.java")),
+                        Iterable.create(Path.parse("sources/B.java"), Path.parse("sources/C.java"), Path.parse("sources/N.java")));
+                    test.assertEqual(Iterable.create(), invalidations);
+                });
+
+                runner.test("with dependent that isn't a candidate", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    final Iterable<SourceInvalidation> invalidations = graph.getInvalidatedSourceFiles(
+                        Iterable.create(Path.parse("sources/C.java")),
+                        Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/N.java")));
+                    test.assertEqual(Iterable.create(), invalidations);
+                });
+
+                runner.test("with modified dependent", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    final Iterable<SourceInvalidation> invalidations = graph.getInvalidatedSourceFiles(
+                        Iterable.create(Path.parse("sources/C.java"), Path.parse("sources/B.java")),
+                        Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/N.java")));
+                    test.assertEqual(
+                        Iterable.create("sources/A.java -> sources/B.java"),
+                        invalidations.map(SourceInvalidation::toString));
+                });
+
+                runner.test("with cycle", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/C.java")));
+                    final Iterable<SourceInvalidation> invalidations = graph.getInvalidatedSourceFiles(
+                        Iterable.create(Path.parse("sources/C.java")),
+                        Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/B.java")));
+                    test.assertEqual(
+                        Iterable.create(
+                            "sources/B.java -> sources/C.java",
+                            "sources/A.java -> sources/B.java -> sources/C.java"),
+                        invalidations.map(SourceInvalidation::toString));
+                });
+            });
+            runner.testGroup("getDirectlyInvalidatedSourceFiles(SourceFileIds,SourceFileIds)", () ->
+            {
+                final Function0<SourceDependencyGraph> createChainGraph = () ->
+                    SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/C.java"),
+                        BuildJSONSourceFile.create("sources/N.java")));
+
+                runner.test("with null changedSourceFileIds", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    test.assertThrows(() -> graph.getDirectlyInvalidatedSourceFiles(null, SourceDependencyGraph.SourceFileIds.create()),
+                        new PreConditionFailure("changedSourceFileIds cannot be null."));
+                });
+
+                runner.test("with null candidateSourceFileIds", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    test.assertThrows(() -> graph.getDirectlyInvalidatedSourceFiles(SourceDependencyGraph.SourceFileIds.create(), null),
+                        new PreConditionFailure("candidateSourceFileIds cannot be null."));
+                });
+
+                runner.test("with changed source file at the end of a chain", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    final Iterable<SourceInvalidation> invalidations = graph.getDirectlyInvalidatedSourceFiles(
+                        graph.getIds(Iterable.create(Path.parse("sources/C.java"))),
+                        graph.getIds(Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/B.java"), Path.parse("sources/N.java"))));
+                    test.assertEqual(
+                        Iterable.create("sources/B.java -> sources/C.java"),
+                        invalidations.map(SourceInvalidation::toString));
+                });
+
+                runner.test("with changed source files that share a dependent", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java"), Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/B.java"),
+                        BuildJSONSourceFile.create("sources/C.java")));
+                    final Iterable<SourceInvalidation> invalidations = graph.getDirectlyInvalidatedSourceFiles(
+                        graph.getIds(Iterable.create(Path.parse("sources/B.java"), Path.parse("sources/C.java"))),
+                        graph.getIds(Iterable.create(Path.parse("sources/A.java"))));
+                    test.assertEqual(
+                        Iterable.create(Path.parse("sources/A.java")),
+                        invalidations.map(SourceInvalidation::getSourceFilePath));
+                });
+
+                runner.test("with changed dependent", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createChainGraph.run();
+                    final Iterable<SourceInvalidation> invalidations = graph.getDirectlyInvalidatedSourceFiles(
+                        graph.getIds(Iterable.create(Path.parse("sources/C.java"), Path.parse("sources/B.java"))),
+                        graph.getIds(Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/B.java"))));
+                    test.assertEqual(
+                        Iterable.create("sources/A.java -> sources/B.java"),
+                        invalidations.map(SourceInvalidation::toString));
+                });
+            });
+
+            runner.testGroup("getInvalidatedSourceFiles(SourceFileIds,SourceFileIds)", () ->
+            {
+                runner.test("with modified source file at the end of a chain", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/C.java")));
+                    final Iterable<SourceInvalidation> invalidations = graph.getInvalidatedSourceFiles(
+                        graph.getIds(Iterable.create(Path.parse("sources/C.java"))),
+                        graph.getIds(Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/B.java"))));
+                    test.assertEqual(
+                        Iterable.create(
+                            "sources/B.java -> sources/C.java",
+                            "sources/A.java -> sources/B.java -> sources/C.java"),
+                        invalidations.map(SourceInvalidation::toString));
+                });
+
+                runner.test("with IDs that aren't in the graph", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")));
+                    final SourceDependencyGraph.SourceFileIds ids = SourceDependencyGraph.SourceFileIds.create()
+                        .add(0)
+                        .add(5);
+                    test.assertEqual(Iterable.create(), graph.getInvalidatedSourceFiles(ids, ids));
+                });
+
+                runner.test("with 100000 source files", (Test test) ->
+                {
+                    // Each source file depends on the source file at half of its index, so the
+                    // graph is a binary tree with the first source file at its root.
+                    final int sourceFileCount = 100000;
+                    final List<BuildJSONSourceFile> sourceFiles = List.create();
+                    final List<Path> sourceFilePaths = List.create();
+                    for (int i = 0; i < sourceFileCount; ++i)
+                    {
+                        sourceFilePaths.add(Path.parse("sources/package" + (i % 100) + "/Source" + i + ".java"));
+                        final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create(sourceFilePaths.get(i));
+                        if (i > 0)
+                        {
+                            sourceFile.setDependencies(Iterable.create(sourceFilePaths.get((i - 1) / 2)));
+                        }
+                        sourceFiles.add(sourceFile);
+                    }
+
+                    final SourceDependencyGraph graph = SourceDependencyGraph.create(sourceFiles);
+                    test.assertEqual(sourceFileCount, graph.getSourceFileCount());
+                    test.assertEqual(2, graph.getDependentCount(0));
+
+                    final SourceDependencyGraph.SourceFileIds candidateIds = SourceDependencyGraph.SourceFileIds.create();
+                    for (int i = 1; i < sourceFileCount; ++i)
+                    {
+                        candidateIds.add(i);
+                    }
+                    final SourceDependencyGraph.SourceFileIds modifiedIds = SourceDependencyGraph.SourceFileIds.create()
+                        .add(0);
+                    final Iterable<SourceInvalidation> invalidations = graph.getInvalidatedSourceFiles(modifiedIds, candidateIds);
+                    test.assertEqual(sourceFileCount - 1, invalidations.getCount());
+                    test.assertEqual(sourceFilePaths.get(1), invalidations.first().getSourceFilePath());
+                });
+            });
+
+            runner.testGroup("getStronglyConnectedComponents(Iterable<Path>)", () ->
+            {
+                final Function0<SourceDependencyGraph> createCycleGraph = () ->
+                    SourceDependencyGraph.create(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/C.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/D.java"))),
+                        BuildJSONSourceFile.create("sources/D.java"),
+                        BuildJSONSourceFile.create("sources/E.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/A.java")))));
+                final Function1<Iterable<Iterable<Path>>,Iterable<String>> componentStrings = (Iterable<Iterable<Path>> components) ->
+                    components.map((Iterable<Path> component) -> Strings.join(",", component.map(Path::toString))).toList();
+
+                runner.test("with null sourceFilePaths", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createCycleGraph.run();
+                    test.assertThrows(() -> graph.getStronglyConnectedComponents(null),
+                        new PreConditionFailure("sourceFilePaths cannot be null."));
+                });
+
+                runner.test("with no source files", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createCycleGraph.run();
+                    test.assertEqual(Iterable.create(), componentStrings.run(graph.getStronglyConnectedComponents(Iterable.create())));
+                });
+
+                runner.test("with all source files", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createCycleGraph.run();
+                    test.assertEqual(
+                        Iterable.create(
+                            "sources/D.java",
+                            "sources/C.java",
+                            "sources/A.java,sources/B.java",
+                            "sources/E.java"),
+                        componentStrings.run(graph.getStronglyConnectedComponents(Iterable.create(
+                            Path.parse("sources/E.java"),
+                            Path.parse("sources/A.java"),
+                            Path.parse("sources/B.java"),
+                            Path.parse("sources/C.java"),
+                            Path.parse("sources/D.java")))));
+                });
+
+                runner.test("with source files that skip a dependency", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createCycleGraph.run();
+                    test.assertEqual(
+                        Iterable.create(
+                            "sources/D.java",
+                            "sources/B.java",
+                            "sources/E.java"),
+                        componentStrings.run(graph.getStronglyConnectedComponents(Iterable.create(
+                            Path.parse("sources/E.java"),
+                            Path.parse("sources/B.java"),
+                            Path.parse("sources/D.java")))));
+                });
+
+                runner.test("with source file that isn't in the graph", (Test test) ->
+                {
+                    final SourceDependencyGraph graph = createCycleGraph.run();
+                    test.assertEqual(
+                        Iterable.create(
+                            "sources/New.java",
+                            "sources/D.java"),
+                        componentStrings.run(graph.getStronglyConnectedComponents(Iterable.create(
+                            Path.parse("sources/D.java"),
+                            Path.parse("sources/New.java")))));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package qub;
+
+public interface SourceDependencyScannerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(SourceDependencyScanner.class, () ->
+        {
+            runner.testGroup("scanIdentifiers(String,Action1<String>)", () ->
+            {
+                final Action2<String,Iterable<String>> scanIdentifiersTest = (String sourceCode, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(sourceCode), (Test test) ->
+                    {
+                        final List<String> identifiers = List.create();
+                        SourceDependencyScanner.scanIdentifiers(sourceCode, identifiers::add);
+                        test.assertEqual(expected, identifiers);
+                    });
+                };
+
+                scanIdentifiersTest.run("", Iterable.create());
+                scanIdentifiersTest.run("A", Iterable.create("A"));
+                scanIdentifiersTest.run("A.java source", Iterable.create("A", "java", "source"));
+                scanIdentifiersTest.run("final List<String> a = B.create();", Iterable.create("final", "List", "String", "a", "B", "create"));
+                scanIdentifiersTest.run("A // B C\nD", Iterable.create("A", "D"));
+                scanIdentifiersTest.run("A /* B\nC */ D", Iterable.create("A", "D"));
+                scanIdentifiersTest.run("A /* B", Iterable.create("A"));
+                scanIdentifiersTest.run("A(\"B \\\" C\") D", Iterable.create("A", "D"));
+                scanIdentifiersTest.run("A('B') C('\\'') D", Iterable.create("A", "C", "D"));
+                scanIdentifiersTest.run("A(\"B\nC", Iterable.create("A", "C"));
+                scanIdentifiersTest.run("A(\"\"\"\nB \"C\"\n\"\"\") D", Iterable.create("A", "D"));
+                scanIdentifiersTest.run("A(10L, 0x1F, 1.5e3) B", Iterable.create("A", "B"));
+                scanIdentifiersTest.run("$A _B c1", Iterable.create("$A", "_B", "c1"));
+            });
+
+            runner.testGroup("getDependencies(File,String)", () ->
+            {
+                runner.test("with null sourceFile", (Test test) ->
+                {
+                    final SourceDependencyScanner scanner = SourceDependencyScanner.create(Iterable.create());
+                    test.assertThrows(() -> scanner.getDependencies(null, "A"),
+                        new PreConditionFailure("sourceFile cannot be null."));
+                });
+
+                runner.test("with null sourceFileContents", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File aJavaFile = fileSystem.getFile("/sources/A.java").await();
+                    final SourceDependencyScanner scanner = SourceDependencyScanner.create(Iterable.create(aJavaFile));
+                    test.assertThrows(() -> scanner.getDependencies(aJavaFile, null),
+                        new PreConditionFailure("sourceFileContents cannot be null."));
+                });
+
+                runner.test("with references", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File aJavaFile = fileSystem.getFile("/sources/A.java").await();
+                    final File bJavaFile = fileSystem.getFile("/sources/B.java").await();
+                    final File cJavaFile = fileSystem.getFile("/sources/C.java").await();
+                    final File dJavaFile = fileSystem.getFile("/sources/D.java").await();
+                    final File cTestsJavaFile = fileSystem.getFile("/tests/C.java").await();
+                    final SourceDependencyScanner scanner = SourceDependencyScanner.create(Iterable.create(aJavaFile, bJavaFile, cJavaFile, dJavaFile, cTestsJavaFile));
+                    test.assertEqual(
+                        Iterable.create(bJavaFile, cJavaFile, cTestsJavaFile),
+                        scanner.getDependencies(aJavaFile, "class A extends C { B b; A a; } // D\n\"D\""));
+                });
+
+                runner.test("with no references", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File aJavaFile = fileSystem.getFile("/sources/A.java").await();
+                    final File bJavaFile = fileSystem.getFile("/sources/B.java").await();
+                    final SourceDependencyScanner scanner = SourceDependencyScanner.create(Iterable.create(aJavaFile, bJavaFile));
+                    test.assertEqual(
+                        Iterable.create(),
+                        scanner.getDependencies(aJavaFile, "class A { Bee b; }"));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package qub;
+
+public interface SourceFileAttributesTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(SourceFileAttributes.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final SourceFileAttributes attributes = SourceFileAttributes.create();
+                test.assertEqual(0, attributes.getCount());
+            });
+
+            runner.testGroup("getLastModified(File)", () ->
+            {
+                runner.test("with a file whose attributes were collected", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/sources/A.java").await();
+                    final DateTime lastModified = DateTime.epoch.plus(Duration.seconds(5));
+
+                    final SourceFileAttributes attributes = SourceFileAttributes.create()
+                        .set(file.getPath(), 13, lastModified);
+                    test.assertEqual(1, attributes.getCount());
+                    test.assertEqual(lastModified, attributes.getLastModified(file).await());
+                    test.assertEqual(13L, attributes.getSize(file));
+                });
+
+                runner.test("with a file whose attributes weren't collected", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/sources/A.java").await();
+                    file.setContentsAsString("A.java source").await();
+
+                    final SourceFileAttributes attributes = SourceFileAttributes.create();
+                    test.assertEqual(file.getLastModified().await(), attributes.getLastModified(file).await());
+                    test.assertNull(attributes.getSize(file));
+                });
+            });
+
+            runner.test("toDateTime(FileTime)", (Test test) ->
+            {
+                test.assertEqual(
+                    DateTime.epoch.plus(Duration.seconds(5)),
+                    SourceFileAttributes.toDateTime(java.nio.file.attribute.FileTime.fromMillis(5000)));
+            });
+        });
+    }
+}
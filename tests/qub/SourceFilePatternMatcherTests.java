@@ -0,0 +1,152 @@
+package qub;
+
+public interface SourceFilePatternMatcherTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(SourceFilePatternMatcher.class, () ->
+        {
+            runner.testGroup("create(Iterable<PathPattern>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> SourceFilePatternMatcher.create(null),
+                        new PreConditionFailure("patterns cannot be null."));
+                });
+
+                runner.test("with two patterns", (Test test) ->
+                {
+                    final SourceFilePatternMatcher matcher = SourceFilePatternMatcher.create(Iterable.create(PathPattern.parse("sources/**/*.java"), PathPattern.parse("tests/*.java")));
+                    test.assertEqual(2, matcher.getPatternCount());
+                });
+            });
+
+            runner.testGroup("isMatch(String)", () ->
+            {
+                final Action3<Iterable<String>,String,Boolean> isMatchTest = (Iterable<String> patterns, String relativeFilePath, Boolean expected) ->
+                {
+                    runner.test("with " + patterns.map(Strings::escapeAndQuote) + " and " + Strings.escapeAndQuote(relativeFilePath), (Test test) ->
+                    {
+                        final SourceFilePatternMatcher matcher = SourceFilePatternMatcher.create(patterns.map(PathPattern::parse).toList());
+                        test.assertEqual(expected, matcher.isMatch(relativeFilePath));
+                    });
+                };
+
+                isMatchTest.run(Iterable.create(), "sources/A.java", false);
+                isMatchTest.run(Iterable.create("**/A*.java"), "subfolder/A.java", true);
+                isMatchTest.run(Iterable.create("**/A*.java"), "subfolder/B.java", false);
+                isMatchTest.run(Iterable.create("sources/**/*.java"), "sources/qub/A.java", true);
+                isMatchTest.run(Iterable.create("sources/**/*.java"), "tests/qub/A.java", false);
+                isMatchTest.run(Iterable.create("sources/**/*.java"), "sources/qub/A.class", false);
+                isMatchTest.run(Iterable.create("sources/**/*.java", "tests/**/*.java"), "tests/qub/A.java", true);
+                isMatchTest.run(Iterable.create("sources/A.java"), "sources/A.java", true);
+                isMatchTest.run(Iterable.create("sources/A.java"), "sources/B.java", false);
+            });
+
+            runner.testGroup("canContainMatches(String)", () ->
+            {
+                final Action3<Iterable<String>,String,Boolean> canContainMatchesTest = (Iterable<String> patterns, String relativeFolderPath, Boolean expected) ->
+                {
+                    runner.test("with " + patterns.map(Strings::escapeAndQuote) + " and " + Strings.escapeAndQuote(relativeFolderPath), (Test test) ->
+                    {
+                        final SourceFilePatternMatcher matcher = SourceFilePatternMatcher.create(patterns.map(PathPattern::parse).toList());
+                        test.assertEqual(expected, matcher.canContainMatches(relativeFolderPath));
+                    });
+                };
+
+                canContainMatchesTest.run(Iterable.create(), "sources", false);
+                canContainMatchesTest.run(Iterable.create("**/*.java"), "anything/at/all", true);
+                canContainMatchesTest.run(Iterable.create("sources/qub/*.java"), "sources", true);
+                canContainMatchesTest.run(Iterable.create("sources/qub/*.java"), "sources/qub", true);
+                canContainMatchesTest.run(Iterable.create("sources/qub/*.java"), "sources/qub/inner", true);
+                canContainMatchesTest.run(Iterable.create("sources/qub/*.java"), "sources/other", false);
+                canContainMatchesTest.run(Iterable.create("sources/qub/*.java"), "tests", false);
+                canContainMatchesTest.run(Iterable.create("sources/*.java", "tests/*.java"), "tests", true);
+            });
+
+            runner.test("matches the same paths as matching each pattern separately", (Test test) ->
+            {
+                final Iterable<PathPattern> patterns = SourceFilePatternMatcherTests.createModulePatterns();
+                final Iterable<String> relativeFilePaths = SourceFilePatternMatcherTests.createModuleFilePaths();
+                final Function1<String,Boolean> compiledMatcher = SourceFilePatternMatcher.create(patterns)::isMatch;
+                final Function1<String,Boolean> perPatternMatcher = SourceFilePatternMatcherTests.createPerPatternMatcher(patterns);
+
+                for (final String relativeFilePath : relativeFilePaths)
+                {
+                    test.assertEqual(perPatternMatcher.run(relativeFilePath), compiledMatcher.run(relativeFilePath), relativeFilePath);
+                }
+            });
+
+            final Skip skipPerformanceTests = runner.skip(
+                Strings.isNullOrEmpty(java.lang.System.getenv(QubBuildCompilePerformanceTests.performanceTestsEnvironmentVariableName)),
+                "Set " + QubBuildCompilePerformanceTests.performanceTestsEnvironmentVariableName + " to run the performance tests.");
+
+            runner.test("benchmark against matching each pattern separately", skipPerformanceTests, (Test test) ->
+            {
+                final Iterable<PathPattern> patterns = SourceFilePatternMatcherTests.createModulePatterns();
+                final Iterable<String> relativeFilePaths = SourceFilePatternMatcherTests.createModuleFilePaths();
+                final Function1<String,Boolean> compiledMatcher = SourceFilePatternMatcher.create(patterns)::isMatch;
+                final Function1<String,Boolean> perPatternMatcher = SourceFilePatternMatcherTests.createPerPatternMatcher(patterns);
+
+                // Warm up both matchers before they are timed.
+                SourceFilePatternMatcherTests.countMatches(relativeFilePaths, compiledMatcher);
+                SourceFilePatternMatcherTests.countMatches(relativeFilePaths, perPatternMatcher);
+
+                final long perPatternStart = java.lang.System.nanoTime();
+                final int perPatternMatchCount = SourceFilePatternMatcherTests.countMatches(relativeFilePaths, perPatternMatcher);
+                final long perPatternNanoseconds = java.lang.System.nanoTime() - perPatternStart;
+
+                final long compiledStart = java.lang.System.nanoTime();
+                final int compiledMatchCount = SourceFilePatternMatcherTests.countMatches(relativeFilePaths, compiledMatcher);
+                final long compiledNanoseconds = java.lang.System.nanoTime() - compiledStart;
+
+                test.assertEqual(perPatternMatchCount, compiledMatchCount);
+                test.assertTrue(compiledNanoseconds <= perPatternNanoseconds,
+                    "The compiled matcher took " + compiledNanoseconds + "ns, but matching each pattern separately took " + perPatternNanoseconds + "ns.");
+            });
+        });
+    }
+
+    static Iterable<PathPattern> createModulePatterns()
+    {
+        final List<PathPattern> result = List.create();
+        for (int i = 0; i < 20; ++i)
+        {
+            result.add(PathPattern.parse("sources/module" + i + "/**/*.java"));
+        }
+        return result;
+    }
+
+    static Iterable<String> createModuleFilePaths()
+    {
+        final List<String> result = List.create();
+        for (int i = 0; i < 20000; ++i)
+        {
+            final String folder = (i % 4 == 0 ? "sources" : "outputs") + "/module" + (i % 25) + "/package" + (i % 7);
+            result.add(folder + "/File" + i + (i % 3 == 0 ? ".java" : ".class"));
+        }
+        return result;
+    }
+
+    static Function1<String,Boolean> createPerPatternMatcher(Iterable<PathPattern> patterns)
+    {
+        return (String relativeFilePath) ->
+        {
+            final Path path = Path.parse(relativeFilePath);
+            return patterns.contains((PathPattern pattern) -> pattern.isMatch(path));
+        };
+    }
+
+    static int countMatches(Iterable<String> relativeFilePaths, Function1<String,Boolean> matcher)
+    {
+        int result = 0;
+        for (final String relativeFilePath : relativeFilePaths)
+        {
+            if (matcher.run(relativeFilePath))
+            {
+                ++result;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+package qub;
+
+public interface SourceFileRecordTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(SourceFileRecord.class, () ->
+        {
+            runner.testGroup("create(Path)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> SourceFileRecord.create(null),
+                        new PreConditionFailure("relativePath cannot be null."));
+                });
+
+                runner.test("with relative path", (Test test) ->
+                {
+                    final SourceFileRecord record = SourceFileRecord.create(Path.parse("sources/A.java"));
+                    test.assertEqual(Path.parse("sources/A.java"), record.getRelativePath());
+                    test.assertEqual("sources/A.java", record.getRelativePathString());
+                    test.assertNull(record.getLastModified());
+                    test.assertNull(record.getSize());
+                    test.assertNull(record.getContentHash());
+                    test.assertNull(record.getAbiDigest());
+                    test.assertNull(record.getDependencies());
+                    test.assertNull(record.getClassFiles());
+                    test.assertEqual(Iterable.create(), record.getIssues());
+                    test.assertEqual(JSONObject.create(), record.toJson());
+                });
+            });
+
+            runner.testGroup("parse(JSONProperty,Map<String,Path>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> SourceFileRecord.parse(null, null),
+                        new PreConditionFailure("sourceFileProperty cannot be null."));
+                });
+
+                runner.test("with all properties", (Test test) ->
+                {
+                    final SourceFileRecord expected = SourceFileRecord.create(Path.parse("sources/B.java"))
+                        .withLastModified(DateTime.epoch.plus(Duration.nanoseconds(20)))
+                        .withSize(13)
+                        .withContentHash("abc")
+                        .withAbiDigest("def")
+                        .withDependencies(Iterable.create(Path.parse("sources/A.java")))
+                        .withClassFiles(Iterable.create(Path.parse("B.class"), Path.parse("B$1.class")))
+                        .withIssue(JavaCompilerIssue.warning("sources/B.java", 1, 2, "Help!"));
+
+                    final SourceFileRecord record = SourceFileRecord.parse(expected.toJsonProperty(), null).await();
+                    test.assertEqual(expected, record);
+                    test.assertEqual(expected.toJson(), record.toJson());
+                });
+
+                runner.test("with empty dependencies", (Test test) ->
+                {
+                    final SourceFileRecord expected = SourceFileRecord.create(Path.parse("sources/B.java"))
+                        .withDependencies(Iterable.create());
+                    final SourceFileRecord record = SourceFileRecord.parse(expected.toJsonProperty(), null).await();
+                    test.assertEqual(Iterable.create(), record.getDependencies());
+                    test.assertNull(record.getClassFiles());
+                });
+
+                runner.test("shares equal paths", (Test test) ->
+                {
+                    final Map<String,Path> paths = Map.create();
+                    final SourceFileRecord a = SourceFileRecord.parse(SourceFileRecord.create(Path.parse("sources/A.java")).toJsonProperty(), paths).await();
+                    final SourceFileRecord b = SourceFileRecord.parse(
+                        SourceFileRecord.create(Path.parse("sources/B.java"))
+                            .withDependencies(Iterable.create(Path.parse("sources/A.java")))
+                            .toJsonProperty(),
+                        paths).await();
+                    test.assertSame(a.getRelativePath(), b.getDependencies().first());
+                    test.assertEqual(2, paths.getCount());
+                });
+            });
+
+            runner.testGroup("withAddedIssues(Iterable<JavaCompilerIssue>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final SourceFileRecord record = SourceFileRecord.create(Path.parse("sources/A.java"));
+                    test.assertThrows(() -> record.withAddedIssues(null),
+                        new PreConditionFailure("issues cannot be null."));
+                });
+
+                runner.test("with existing issues", (Test test) ->
+                {
+                    final JavaCompilerIssue issue1 = JavaCompilerIssue.warning("sources/A.java", 1, 2, "a");
+                    final JavaCompilerIssue issue2 = JavaCompilerIssue.error("sources/A.java", 3, 4, "b");
+                    final JavaCompilerIssue issue3 = JavaCompilerIssue.error("sources/A.java", 5, 6, "c");
+                    final SourceFileRecord record = SourceFileRecord.create(Path.parse("sources/A.java"))
+                        .withIssue(issue1);
+                    final SourceFileRecord added = record.withAddedIssues(Iterable.create(issue2, issue3));
+                    test.assertEqual(Iterable.create(issue1), record.getIssues());
+                    test.assertEqual(Iterable.create(issue1, issue2, issue3), added.getIssues());
+                });
+            });
+
+            runner.test("with...() doesn't change the original record", (Test test) ->
+            {
+                final SourceFileRecord record = SourceFileRecord.create(Path.parse("sources/A.java"));
+                final SourceFileRecord modified = record
+                    .withLastModified(DateTime.epoch)
+                    .withIssue(JavaCompilerIssue.error("sources/A.java", 1, 2, "Oops"));
+                test.assertNull(record.getLastModified());
+                test.assertEqual(Iterable.create(), record.getIssues());
+                test.assertEqual(DateTime.epoch, modified.getLastModified());
+                test.assertEqual(1, modified.getIssues().getCount());
+                test.assertNotEqual(record, modified);
+            });
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package qub;
+
+public interface SourceFileSetTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(SourceFileSet.class, () ->
+        {
+            runner.testGroup("create(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> SourceFileSet.create(null),
+                        new PreConditionFailure("rootFolder cannot be null."));
+                });
+
+                runner.test("with a folder", (Test test) ->
+                {
+                    final Folder folder = SourceFileSetTests.createFolder();
+                    final SourceFileSet set = SourceFileSet.create(folder);
+                    test.assertEqual(0, set.getCount());
+                    test.assertFalse(set.any());
+                    test.assertEqual(Iterable.create(), set.toList());
+                });
+            });
+
+            runner.testGroup("normalize(String)", () ->
+            {
+                final Action2<String,String> normalizeTest = (String relativePath, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(relativePath), (Test test) ->
+                    {
+                        test.assertEqual(expected, SourceFileSet.normalize(relativePath));
+                    });
+                };
+
+                normalizeTest.run("", "");
+                normalizeTest.run("sources/A.java", "sources/A.java");
+                normalizeTest.run("sources\\A.java", "sources/A.java");
+                normalizeTest.run("./sources/A.java", "sources/A.java");
+                normalizeTest.run(".\\sources\\A.java", "sources/A.java");
+            });
+
+            runner.testGroup("add(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final SourceFileSet set = SourceFileSet.create(SourceFileSetTests.createFolder());
+                    test.assertThrows(() -> set.add(null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with the same file twice", (Test test) ->
+                {
+                    final Folder folder = SourceFileSetTests.createFolder();
+                    final File file = folder.getFile("sources/A.java").await();
+                    final SourceFileSet set = SourceFileSet.create(folder);
+                    test.assertSame(set, set.add(file));
+                    test.assertSame(set, set.add(folder.getFile("sources/A.java").await()));
+                    test.assertEqual(1, set.getCount());
+                    test.assertEqual(Iterable.create(file), set.toList());
+                });
+
+                runner.test("keeps the order that the files were added in", (Test test) ->
+                {
+                    final Folder folder = SourceFileSetTests.createFolder();
+                    final File b = folder.getFile("sources/B.java").await();
+                    final File a = folder.getFile("sources/A.java").await();
+                    final SourceFileSet set = SourceFileSet.create(folder, Iterable.create(b, a, b));
+                    test.assertEqual(Iterable.create(b, a), set.toList());
+                });
+            });
+
+            runner.testGroup("contains()", () ->
+            {
+                runner.test("with a file that was added", (Test test) ->
+                {
+                    final Folder folder = SourceFileSetTests.createFolder();
+                    final SourceFileSet set = SourceFileSet.create(folder, Iterable.create(folder.getFile("sources/A.java").await()));
+                    test.assertTrue(set.contains(folder.getFile("sources/A.java").await()));
+                    test.assertTrue(set.contains(Path.parse("sources/A.java")));
+                    test.assertTrue(set.contains("sources/A.java"));
+                    test.assertTrue(set.contains("sources\\A.java"));
+                    test.assertTrue(set.contains("./sources/A.java"));
+                });
+
+                runner.test("with a file that wasn't added", (Test test) ->
+                {
+                    final Folder folder = SourceFileSetTests.createFolder();
+                    final SourceFileSet set = SourceFileSet.create(folder, Iterable.create(folder.getFile("sources/A.java").await()));
+                    test.assertFalse(set.contains(folder.getFile("sources/B.java").await()));
+                    test.assertFalse(set.contains(Path.parse("tests/A.java")));
+                    test.assertFalse(set.contains("A.java"));
+                });
+            });
+        });
+    }
+
+    static Folder createFolder()
+    {
+        final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+        fileSystem.createRoot("/").await();
+        return fileSystem.getFolder("/project/").await();
+    }
+}
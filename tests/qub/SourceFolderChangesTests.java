@@ -0,0 +1,55 @@
+package qub;
+
+public interface SourceFolderChangesTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(SourceFolderChanges.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final SourceFolderChanges changes = SourceFolderChanges.create();
+                test.assertFalse(changes.any());
+                test.assertFalse(changes.isOverflowed());
+                test.assertEqual(Iterable.create(), changes.getChangedPaths());
+                test.assertEqual(Iterable.create(), changes.getDeletedPaths());
+            });
+
+            runner.test("addChangedPath(Path)", (Test test) ->
+            {
+                final SourceFolderChanges changes = SourceFolderChanges.create();
+                test.assertSame(changes, changes.addChangedPath(Path.parse("/sources/A.java")));
+                test.assertSame(changes, changes.addChangedPath(Path.parse("/sources/A.java")));
+                test.assertTrue(changes.any());
+                test.assertEqual(Iterable.create(Path.parse("/sources/A.java")), changes.getChangedPaths());
+                test.assertEqual(Iterable.create(), changes.getDeletedPaths());
+            });
+
+            runner.test("addDeletedPath(Path) after addChangedPath(Path)", (Test test) ->
+            {
+                final SourceFolderChanges changes = SourceFolderChanges.create()
+                    .addChangedPath(Path.parse("/sources/A.java"))
+                    .addDeletedPath(Path.parse("/sources/A.java"));
+                test.assertEqual(Iterable.create(), changes.getChangedPaths());
+                test.assertEqual(Iterable.create(Path.parse("/sources/A.java")), changes.getDeletedPaths());
+            });
+
+            runner.test("addChangedPath(Path) after addDeletedPath(Path)", (Test test) ->
+            {
+                final SourceFolderChanges changes = SourceFolderChanges.create()
+                    .addDeletedPath(Path.parse("/sources/A.java"))
+                    .addChangedPath(Path.parse("/sources/A.java"));
+                test.assertEqual(Iterable.create(Path.parse("/sources/A.java")), changes.getChangedPaths());
+                test.assertEqual(Iterable.create(), changes.getDeletedPaths());
+            });
+
+            runner.test("setOverflowed()", (Test test) ->
+            {
+                final SourceFolderChanges changes = SourceFolderChanges.create();
+                test.assertSame(changes, changes.setOverflowed());
+                test.assertTrue(changes.isOverflowed());
+                test.assertTrue(changes.any());
+            });
+        });
+    }
+}
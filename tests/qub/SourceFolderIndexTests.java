@@ -0,0 +1,137 @@
+package qub;
+
+public interface SourceFolderIndexTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(SourceFolderIndex.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final SourceFolderIndex index = SourceFolderIndex.create();
+                test.assertEqual("{}", index.toString());
+                test.assertFalse(index.hasChanged());
+            });
+
+            runner.testGroup("isValidListing(JSONObject,long)", () ->
+            {
+                final Action4<String,JSONObject,Long,Boolean> isValidListingTest = (String testName, JSONObject folderListing, Long lastModified, Boolean expected) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        test.assertEqual(expected, SourceFolderIndex.isValidListing(folderListing, lastModified));
+                    });
+                };
+
+                isValidListingTest.run("with no listing", null, 1000L, false);
+                isValidListingTest.run("with a listing with no last modified time",
+                    JSONObject.create().setNumber("listed", 10000),
+                    1000L,
+                    false);
+                isValidListingTest.run("with a listing with a different last modified time",
+                    JSONObject.create().setNumber("lastModified", 1000).setNumber("listed", 10000),
+                    2000L,
+                    false);
+                isValidListingTest.run("with a listing that was recorded in the same timestamp tick as the last modification",
+                    JSONObject.create().setNumber("lastModified", 1000).setNumber("listed", 2500),
+                    1000L,
+                    false);
+                isValidListingTest.run("with a listing that was recorded after the last modification",
+                    JSONObject.create().setNumber("lastModified", 1000).setNumber("listed", 3000),
+                    1000L,
+                    true);
+            });
+
+            runner.testGroup("getFilesRecursively(Folder)", () ->
+            {
+                runner.test("with a folder that isn't on a JavaFileSystem", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/project/").await();
+                    final File aJavaFile = folder.getFile("sources/A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+
+                    final SourceFolderIndex index = SourceFolderIndex.create();
+                    test.assertEqual(Iterable.create(aJavaFile), index.getFilesRecursively(folder).await());
+                    test.assertFalse(index.hasChanged());
+                    test.assertEqual("{}", index.toString());
+                });
+
+                runner.test("with a nested folder that changed since the previous listing", (Test test) ->
+                {
+                    try (final RealDesktopProcess process = RealDesktopProcess.create())
+                    {
+                        final Folder folder = process.getCurrentFolder().createFolder("temp").await();
+                        try
+                        {
+                            final File aJavaFile = folder.createFile("sources/A.java").await();
+                            final File bJavaFile = folder.createFile("sources/b/B.java").await();
+                            final File cJavaFile = folder.createFile("sources/c/C.java").await();
+                            final Iterable<String> folderPaths = Iterable.create("", "sources", "sources/b", "sources/c");
+                            for (final String folderPath : folderPaths)
+                            {
+                                SourceFolderIndexTests.setLastModified(folder, folderPath, 1000000);
+                            }
+
+                            final SourceFolderIndex index = SourceFolderIndex.create();
+                            final Iterable<File> files = index.getFilesRecursively(folder).await();
+                            test.assertTrue(index.hasChanged());
+                            test.assertEqual(3, files.getCount());
+                            test.assertTrue(files.contains(aJavaFile));
+                            test.assertTrue(files.contains(bJavaFile));
+                            test.assertTrue(files.contains(cJavaFile));
+                            final JSONObject folders = SourceFolderIndexTests.getFolders(index);
+
+                            // A file that is added to a folder whose last modified time doesn't
+                            // change isn't found, which shows that the folder's listing was reused.
+                            final File dJavaFile = folder.createFile("sources/b/D.java").await();
+                            SourceFolderIndexTests.setLastModified(folder, "sources/b", 1000000);
+                            final File eJavaFile = folder.createFile("sources/c/E.java").await();
+
+                            final SourceFolderIndex nextIndex = SourceFolderIndex.parse(JSON.parseObject(index.toString()).await()).await();
+                            final Iterable<File> nextFiles = nextIndex.getFilesRecursively(folder).await();
+                            test.assertTrue(nextIndex.hasChanged());
+                            test.assertEqual(4, nextFiles.getCount());
+                            test.assertTrue(nextFiles.contains(cJavaFile));
+                            test.assertTrue(nextFiles.contains(eJavaFile));
+                            test.assertFalse(nextFiles.contains(dJavaFile));
+
+                            final JSONObject nextFolders = SourceFolderIndexTests.getFolders(nextIndex);
+                            for (final String folderPath : Iterable.create("", "sources", "sources/b"))
+                            {
+                                test.assertEqual(folders.getObject(folderPath).await(), nextFolders.getObject(folderPath).await());
+                            }
+                            test.assertNotEqual(folders.getObject("sources/c").await(), nextFolders.getObject("sources/c").await());
+                        }
+                        finally
+                        {
+                            test.assertNull(folder.delete().await());
+                        }
+                    }
+                });
+            });
+        });
+    }
+
+    static JSONObject getFolders(SourceFolderIndex index)
+    {
+        return JSON.parseObject(index.toString()).await()
+            .getObject("folders").await();
+    }
+
+    static void setLastModified(Folder rootFolder, String relativeFolderPath, long lastModifiedMilliseconds)
+    {
+        final java.nio.file.Path rootFolderPath = java.nio.file.Paths.get(rootFolder.toString());
+        try
+        {
+            java.nio.file.Files.setLastModifiedTime(
+                relativeFolderPath.isEmpty() ? rootFolderPath : rootFolderPath.resolve(relativeFolderPath),
+                java.nio.file.attribute.FileTime.fromMillis(lastModifiedMilliseconds));
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
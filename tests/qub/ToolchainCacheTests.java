@@ -0,0 +1,81 @@
+package qub;
+
+public interface ToolchainCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(ToolchainCache.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final ToolchainCache cache = ToolchainCache.create();
+                test.assertNotNull(cache);
+                test.assertEqual("{}", cache.toString());
+            });
+
+            runner.testGroup("getJavacVersion(Path,long,DateTime)", () ->
+            {
+                final Path javacPath = Path.parse("/jdk/bin/javac");
+                final DateTime lastModified = DateTime.epoch.plus(Duration.seconds(5));
+
+                runner.test("with null javacPath", (Test test) ->
+                {
+                    final ToolchainCache cache = ToolchainCache.create();
+                    test.assertThrows(() -> cache.getJavacVersion(null, 10, lastModified),
+                        new PreConditionFailure("javacPath cannot be null."));
+                });
+
+                runner.test("with empty cache", (Test test) ->
+                {
+                    final ToolchainCache cache = ToolchainCache.create();
+                    test.assertNull(cache.getJavacVersion(javacPath, 10, lastModified));
+                });
+
+                runner.test("with matching entry", (Test test) ->
+                {
+                    final ToolchainCache cache = ToolchainCache.create()
+                        .setJavacVersion(javacPath, 10, lastModified, VersionNumber.parse("14.0.1").await());
+                    test.assertEqual(VersionNumber.parse("14.0.1").await(), cache.getJavacVersion(javacPath, 10, lastModified));
+                });
+
+                runner.test("with different path", (Test test) ->
+                {
+                    final ToolchainCache cache = ToolchainCache.create()
+                        .setJavacVersion(javacPath, 10, lastModified, VersionNumber.parse("14.0.1").await());
+                    test.assertNull(cache.getJavacVersion(Path.parse("/other-jdk/bin/javac"), 10, lastModified));
+                });
+
+                runner.test("with different size", (Test test) ->
+                {
+                    final ToolchainCache cache = ToolchainCache.create()
+                        .setJavacVersion(javacPath, 10, lastModified, VersionNumber.parse("14.0.1").await());
+                    test.assertNull(cache.getJavacVersion(javacPath, 11, lastModified));
+                });
+
+                runner.test("with different last modified", (Test test) ->
+                {
+                    final ToolchainCache cache = ToolchainCache.create()
+                        .setJavacVersion(javacPath, 10, lastModified, VersionNumber.parse("14.0.1").await());
+                    test.assertNull(cache.getJavacVersion(javacPath, 10, lastModified.plus(Duration.seconds(1))));
+                });
+
+                runner.test("with replaced entry", (Test test) ->
+                {
+                    final ToolchainCache cache = ToolchainCache.create()
+                        .setJavacVersion(javacPath, 10, lastModified, VersionNumber.parse("14.0.1").await())
+                        .setJavacVersion(javacPath, 12, lastModified, VersionNumber.parse("15.0.2").await());
+                    test.assertNull(cache.getJavacVersion(javacPath, 10, lastModified));
+                    test.assertEqual(VersionNumber.parse("15.0.2").await(), cache.getJavacVersion(javacPath, 12, lastModified));
+                });
+
+                runner.test("after parsing", (Test test) ->
+                {
+                    final ToolchainCache cache = ToolchainCache.create()
+                        .setJavacVersion(javacPath, 10, lastModified, VersionNumber.parse("14.0.1").await());
+                    final ToolchainCache parsedCache = ToolchainCache.parse(JSON.parseObject(cache.toString()).await()).await();
+                    test.assertEqual(VersionNumber.parse("14.0.1").await(), parsedCache.getJavacVersion(javacPath, 10, lastModified));
+                });
+            });
+        });
+    }
+}